@@ -0,0 +1,27 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.async.api;
+
+/**
+ * An EventHandler that wants the contexts queued up in its stage delivered together. The stage worker drains up to
+ * a batch worth of contexts from its queue in one go and hands runs of them to {@link #handleEvents}, so the queue
+ * hand off is paid once per batch rather than once per context. {@link SpecializedEventContext}s are still executed
+ * on their own, in queue order relative to the contexts around them.
+ */
+public interface BatchEventHandler extends EventHandler {
+  // marker, batches are delivered through handleEvents(Collection)
+}
@@ -19,7 +19,11 @@ package com.tc.async.api;
 import com.tc.async.impl.StageManagerImpl;
 import com.tc.bytes.TCByteBufferFactory;
 import com.tc.lang.TCThreadGroup;
+import com.tc.properties.TCProperties;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.concurrent.QueueFactory;
+import com.tc.util.concurrent.RingBufferQueueFactory;
 
 /**
  * Manages the startup and shutdown of a SEDA environment
@@ -32,10 +36,18 @@ public class SEDA {
 
   public SEDA(final TCThreadGroup threadGroup) {
     this.threadGroup = threadGroup;
-    this.stageManager = new StageManagerImpl(threadGroup, new QueueFactory());
+    this.stageManager = new StageManagerImpl(threadGroup, createQueueFactory());
     TCByteBufferFactory.registerThreadGroup(threadGroup);
   }
 
+  private static QueueFactory createQueueFactory() {
+    TCProperties properties = TCPropertiesImpl.getProperties();
+    if (properties.getBoolean(TCPropertiesConsts.TC_STAGE_QUEUE_RINGBUFFER_ENABLED, false)) {
+      return new RingBufferQueueFactory(properties.getInt(TCPropertiesConsts.TC_STAGE_QUEUE_RINGBUFFER_CAPACITY));
+    }
+    return new QueueFactory();
+  }
+
   public StageManager getStageManager() {
     return stageManager;
   }
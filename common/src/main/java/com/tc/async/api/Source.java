@@ -16,6 +16,8 @@
  */
 package com.tc.async.api;
 
+import java.util.List;
+
 /**
  * This is used by the internals to manage the process of processing EventContexts in the manner that makes sense for
  * each one. Individual Stages SHOULD NOT HAVE TO EITHER USE OR IMPLEMENT THIS INTERFACE
@@ -26,6 +28,13 @@ public interface Source {
 
   public EventContext poll(long period) throws InterruptedException;
 
+  /**
+   * Moves at most maxElements immediately available contexts to the batch, without waiting.
+   * 
+   * @return the number of contexts added to the batch
+   */
+  public int drainTo(List<EventContext> batch, int maxElements);
+
   public String getSourceName();
 
 }
@@ -31,4 +31,9 @@ public interface Stage extends PrettyPrintable {
 
   public String getName();
 
+  /**
+   * @return the recent queueing and handling metrics of this stage
+   */
+  public StageSnapshot getSnapshot();
+
 }
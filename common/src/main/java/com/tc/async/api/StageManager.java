@@ -43,5 +43,10 @@ public interface StageManager extends PrettyPrintable, ClearableCallback {
 
   public Stats[] getStats();
 
+  /**
+   * @return the snapshots of all stages, ordered by stage name
+   */
+  public StageSnapshot[] getSnapshots();
+
   public Collection<Stage> getStages();
 }
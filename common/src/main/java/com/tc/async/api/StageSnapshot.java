@@ -0,0 +1,145 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.async.api;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Point in time view of the metrics a stage records all the time: how long contexts wait in the queue, how long the
+ * handler takes per call, how deep the queue gets and how large the batches handed to a {@link BatchEventHandler}
+ * are. Times are in microseconds and percentiles are accurate to within 12.5%. Wait times are sampled, the rest is
+ * recorded for every call.
+ */
+public class StageSnapshot implements Serializable {
+
+  private final String name;
+  private final long   intervalMillis;
+  private final int    queueDepth;
+  private final long   queueDepthHighWaterMark;
+  private final long   waitSamples;
+  private final long[] waitTimeMicros;
+  private final long   serviceCount;
+  private final long[] serviceTimeMicros;
+  private final long[] batchSize;
+
+  /**
+   * The timing and batch size arrays hold the p50, p99, p999 and max values, in that order.
+   */
+  public StageSnapshot(String name, long intervalMillis, int queueDepth, long queueDepthHighWaterMark,
+                       long waitSamples, long[] waitTimeMicros, long serviceCount, long[] serviceTimeMicros,
+                       long[] batchSize) {
+    this.name = name;
+    this.intervalMillis = intervalMillis;
+    this.queueDepth = queueDepth;
+    this.queueDepthHighWaterMark = queueDepthHighWaterMark;
+    this.waitSamples = waitSamples;
+    this.waitTimeMicros = waitTimeMicros;
+    this.serviceCount = serviceCount;
+    this.serviceTimeMicros = serviceTimeMicros;
+    this.batchSize = batchSize;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the period the metrics were recorded over
+   */
+  public long getIntervalMillis() {
+    return intervalMillis;
+  }
+
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  /**
+   * @return the deepest a single queue of the stage got during the interval
+   */
+  public long getQueueDepthHighWaterMark() {
+    return queueDepthHighWaterMark;
+  }
+
+  public long getWaitSamples() {
+    return waitSamples;
+  }
+
+  public long getWaitTimeMicros(Percentile percentile) {
+    return waitTimeMicros[percentile.ordinal()];
+  }
+
+  /**
+   * @return the number of handler calls, which each cover a whole batch for batch handlers
+   */
+  public long getServiceCount() {
+    return serviceCount;
+  }
+
+  public long getServiceTimeMicros(Percentile percentile) {
+    return serviceTimeMicros[percentile.ordinal()];
+  }
+
+  public long getBatchSize(Percentile percentile) {
+    return batchSize[percentile.ordinal()];
+  }
+
+  /**
+   * Flattened form, with plain types only so that it can be handed out over JMX and REST.
+   */
+  public Map<String, Long> toMap() {
+    Map<String, Long> map = new LinkedHashMap<String, Long>();
+    map.put("IntervalMillis", intervalMillis);
+    map.put("QueueDepth", (long) queueDepth);
+    map.put("QueueDepthHighWaterMark", queueDepthHighWaterMark);
+    map.put("WaitSamples", waitSamples);
+    map.put("ServiceCount", serviceCount);
+    for (Percentile percentile : Percentile.values()) {
+      map.put("WaitTimeMicros" + percentile.getLabel(), getWaitTimeMicros(percentile));
+      map.put("ServiceTimeMicros" + percentile.getLabel(), getServiceTimeMicros(percentile));
+      map.put("BatchSize" + percentile.getLabel(), getBatchSize(percentile));
+    }
+    return map;
+  }
+
+  @Override
+  public String toString() {
+    return "StageSnapshot(" + name + ")" + toMap();
+  }
+
+  public enum Percentile {
+    P50(50, "P50"), P99(99, "P99"), P999(99.9, "P999"), MAX(100, "Max");
+
+    private final double percentile;
+    private final String label;
+
+    private Percentile(double percentile, String label) {
+      this.percentile = percentile;
+      this.label = label;
+    }
+
+    public double getPercentile() {
+      return percentile;
+    }
+
+    public String getLabel() {
+      return label;
+    }
+  }
+}
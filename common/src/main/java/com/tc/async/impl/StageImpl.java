@@ -16,6 +16,7 @@
  */
 package com.tc.async.impl;
 
+import com.tc.async.api.BatchEventHandler;
 import com.tc.async.api.ConfigurationContext;
 import com.tc.async.api.EventContext;
 import com.tc.async.api.EventHandler;
@@ -24,16 +25,21 @@ import com.tc.async.api.Sink;
 import com.tc.async.api.Source;
 import com.tc.async.api.SpecializedEventContext;
 import com.tc.async.api.Stage;
+import com.tc.async.api.StageSnapshot;
 import com.tc.exception.PlatformRejoinException;
 import com.tc.exception.TCNotRunningException;
 import com.tc.exception.TCRuntimeException;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLoggerProvider;
+import com.tc.properties.TCPropertiesConsts;
 import com.tc.properties.TCPropertiesImpl;
 import com.tc.text.PrettyPrinter;
 import com.tc.util.concurrent.QueueFactory;
 import com.tc.util.concurrent.ThreadUtil;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The SEDA Stage
  */
@@ -48,6 +54,8 @@ public class StageImpl implements Stage {
   private final TCLogger       logger;
   private final int            sleepMs;
   private final boolean        pausable;
+  private final int            maxBatchSize;
+  private final StageMetrics   metrics;
 
   /**
    * The Constructor.
@@ -74,8 +82,9 @@ public class StageImpl implements Stage {
     if (threadsToQueueRatio > threadCount) {
       logger.warn("Thread to Queue Ratio " + threadsToQueueRatio + " > Worker Threads " + threadCount);
     }
+    this.metrics = StageMetrics.fromProperties();
     this.stageQueue = new StageQueueImpl(threadCount, threadsToQueueRatio, queueFactory, loggerProvider, name,
-                                         queueSize);
+                                         queueSize, metrics);
     this.group = group;
     this.sleepMs = TCPropertiesImpl.getProperties().getInt("seda." + name + ".sleepMs", 0);
     if (this.sleepMs > 0) {
@@ -85,6 +94,13 @@ public class StageImpl implements Stage {
     if (this.pausable) {
       logger.warn("Stage pausing is enabled for stage " + name);
     }
+    if (handler instanceof BatchEventHandler) {
+      this.maxBatchSize = TCPropertiesImpl.getProperties()
+          .getInt("seda." + name + ".maxBatchSize",
+                  TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.TC_STAGE_MAX_BATCH_SIZE, 64));
+    } else {
+      this.maxBatchSize = 1;
+    }
   }
 
   @Override
@@ -112,7 +128,7 @@ public class StageImpl implements Stage {
         threadName = threadName + ")";
       }
       threads[i] = new WorkerThread(threadName, this.stageQueue.getSource(i), handler, group, logger, sleepMs,
-                                    pausable, name);
+                                    pausable, name, maxBatchSize, metrics);
       threads[i].start();
     }
   }
@@ -130,22 +146,31 @@ public class StageImpl implements Stage {
     return name;
   }
 
+  @Override
+  public StageSnapshot getSnapshot() {
+    return metrics.snapshot(name, stageQueue.size());
+  }
+
   @Override
   public String toString() {
     return "StageImpl(" + name + ")";
   }
 
   private static class WorkerThread extends Thread {
-    private final Source       source;
-    private final EventHandler handler;
-    private volatile boolean   shutdownRequested = false;
-    private final TCLogger     tcLogger;
-    private final int          sleepMs;
-    private final boolean      pausable;
-    private final String       stageName;
+    private final Source             source;
+    private final EventHandler       handler;
+    private volatile boolean         shutdownRequested = false;
+    private final TCLogger           tcLogger;
+    private final int                sleepMs;
+    private final boolean            pausable;
+    private final String             stageName;
+    private final int                maxBatchSize;
+    private final List<EventContext> batch;
+    private int                      batchIndex;
+    private final StageMetrics       metrics;
 
     public WorkerThread(String name, Source source, EventHandler handler, ThreadGroup group, TCLogger logger,
-                        int sleepMs, boolean pausable, String stageName) {
+                        int sleepMs, boolean pausable, String stageName, int maxBatchSize, StageMetrics metrics) {
       super(group, name);
       tcLogger = logger;
       setDaemon(true);
@@ -154,6 +179,9 @@ public class StageImpl implements Stage {
       this.sleepMs = sleepMs;
       this.pausable = pausable;
       this.stageName = stageName;
+      this.maxBatchSize = maxBatchSize;
+      this.batch = maxBatchSize > 1 ? new ArrayList<EventContext>(maxBatchSize) : null;
+      this.metrics = metrics;
     }
 
     public void shutdown() {
@@ -179,13 +207,36 @@ public class StageImpl implements Stage {
       while (!shutdownRequested()) {
         EventContext ctxt = null;
         try {
-          ctxt = source.poll(pollTime);
-          if (ctxt != null) {
-            handleStageDebugPauses();
-            if (ctxt instanceof SpecializedEventContext) {
-              ((SpecializedEventContext) ctxt).execute();
-            } else {
-              handler.handleEvent(ctxt);
+          if (batch == null) {
+            ctxt = source.poll(pollTime);
+            if (ctxt != null) {
+              handleStageDebugPauses();
+              long start = System.nanoTime();
+              handle(ctxt);
+              metrics.recordService(System.nanoTime() - start);
+            }
+          } else {
+            if (batchIndex == batch.size()) {
+              ctxt = source.poll(pollTime);
+              if (ctxt != null) {
+                handleStageDebugPauses();
+                batch.add(ctxt);
+                source.drainTo(batch, maxBatchSize - 1);
+                metrics.recordBatch(batch.size());
+              }
+            }
+            // resumes after the failed run if a previous call ended with an ignored exception
+            while (batchIndex < batch.size()) {
+              ctxt = batch.get(batchIndex);
+              int start = batchIndex;
+              batchIndex = endOfRun(start);
+              long startTime = System.nanoTime();
+              if (batchIndex - start == 1) {
+                handle(ctxt);
+              } else {
+                handler.handleEvents(batch.subList(start, batchIndex));
+              }
+              metrics.recordService(System.nanoTime() - startTime);
             }
           }
         } catch (InterruptedException ie) {
@@ -215,9 +266,34 @@ public class StageImpl implements Stage {
           // to the context will exist until another context comes in. This can potentially keep many objects in memory
           // longer than necessary
           ctxt = null;
+          if (batch != null && batchIndex == batch.size()) {
+            batch.clear();
+            batchIndex = 0;
+          }
         }
       }
     }
+
+    private void handle(EventContext ctxt) throws EventHandlerException {
+      if (ctxt instanceof SpecializedEventContext) {
+        ((SpecializedEventContext) ctxt).execute();
+      } else {
+        handler.handleEvent(ctxt);
+      }
+    }
+
+    /**
+     * Runs handed to the handler stop at specialized contexts, which are executed on their own so that they still
+     * happen in queue order.
+     */
+    private int endOfRun(int start) {
+      if (batch.get(start) instanceof SpecializedEventContext) { return start + 1; }
+      int end = start + 1;
+      while (end < batch.size() && !(batch.get(end) instanceof SpecializedEventContext)) {
+        end++;
+      }
+      return end;
+    }
   }
 
   private static boolean isTCNotRunningException(Throwable e) {
@@ -22,6 +22,7 @@ import com.tc.async.api.PostInit;
 import com.tc.async.api.Stage;
 import com.tc.async.api.StageManager;
 import com.tc.async.api.StageMonitor;
+import com.tc.async.api.StageSnapshot;
 import com.tc.logging.DefaultLoggerProvider;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLoggerProvider;
@@ -34,6 +35,7 @@ import com.tc.util.Assert;
 import com.tc.util.concurrent.QueueFactory;
 import com.tc.util.concurrent.ThreadUtil;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -194,6 +196,20 @@ public class StageManagerImpl implements StageManager {
     return stats;
   }
 
+  @Override
+  public synchronized StageSnapshot[] getSnapshots() {
+    final List<StageSnapshot> snapshots = new ArrayList<StageSnapshot>(stageNames.length);
+
+    for (String name : stageNames) {
+      // stages are gone after stopAll()
+      Stage stage = getStage(name);
+      if (stage != null) {
+        snapshots.add(stage.getSnapshot());
+      }
+    }
+    return snapshots.toArray(new StageSnapshot[snapshots.size()]);
+  }
+
   @Override
   public Collection<Stage> getStages() {
     return stages.values();
@@ -0,0 +1,128 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.async.impl;
+
+import com.tc.async.api.StageSnapshot;
+import com.tc.async.api.StageSnapshot.Percentile;
+import com.tc.properties.TCProperties;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import com.tc.stats.Histogram;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Always on metrics of a stage. Recording goes to the current interval, which is rolled over by {@link #snapshot} once
+ * it is older than the interval length, so a snapshot covers between one and two intervals of recent activity.
+ */
+class StageMetrics {
+
+  private final int        waitSampleRate;
+  private final long       intervalNanos;
+  private volatile Interval current;
+  private Interval         previous;
+
+  StageMetrics(int waitSampleRate, long intervalMillis) {
+    this.waitSampleRate = Math.max(1, waitSampleRate);
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    this.current = new Interval(System.nanoTime());
+    this.previous = new Interval(this.current.start);
+  }
+
+  static StageMetrics fromProperties() {
+    TCProperties properties = TCPropertiesImpl.getProperties();
+    return new StageMetrics(properties.getInt(TCPropertiesConsts.TC_STAGE_METRICS_WAIT_SAMPLE_RATE, 16),
+                            properties.getLong(TCPropertiesConsts.TC_STAGE_METRICS_INTERVAL, 60000));
+  }
+
+  /**
+   * @return true if the queue wait time of the context being added should be measured
+   */
+  boolean sampleWait() {
+    return waitSampleRate == 1 || ThreadLocalRandom.current().nextInt(waitSampleRate) == 0;
+  }
+
+  void recordWait(long nanos) {
+    current.waitTime.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  void recordService(long nanos) {
+    current.serviceTime.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  void recordBatch(int size) {
+    current.batchSize.record(size);
+  }
+
+  void recordDepth(int depth) {
+    AtomicLong highWaterMark = current.depthHighWaterMark;
+    long mark = highWaterMark.get();
+    while (depth > mark && !highWaterMark.compareAndSet(mark, depth)) {
+      mark = highWaterMark.get();
+    }
+  }
+
+  synchronized StageSnapshot snapshot(String name, int queueDepth) {
+    long now = System.nanoTime();
+    if (now - current.start >= intervalNanos) {
+      previous = current;
+      current = new Interval(now);
+    }
+    Interval cur = current;
+    Interval prev = previous;
+    long[] waitCounts = new long[Histogram.BUCKETS];
+    long[] serviceCounts = new long[Histogram.BUCKETS];
+    long[] batchCounts = new long[Histogram.BUCKETS];
+    for (Interval interval : new Interval[] { prev, cur }) {
+      interval.waitTime.addTo(waitCounts);
+      interval.serviceTime.addTo(serviceCounts);
+      interval.batchSize.addTo(batchCounts);
+    }
+    return new StageSnapshot(name, TimeUnit.NANOSECONDS.toMillis(now - prev.start), queueDepth,
+                             Math.max(prev.depthHighWaterMark.get(), cur.depthHighWaterMark.get()),
+                             Histogram.count(waitCounts),
+                             percentiles(waitCounts, Math.max(prev.waitTime.getMax(), cur.waitTime.getMax())),
+                             Histogram.count(serviceCounts),
+                             percentiles(serviceCounts, Math.max(prev.serviceTime.getMax(), cur.serviceTime.getMax())),
+                             percentiles(batchCounts, Math.max(prev.batchSize.getMax(), cur.batchSize.getMax())));
+  }
+
+  private static long[] percentiles(long[] counts, long max) {
+    Percentile[] percentiles = Percentile.values();
+    long[] values = new long[percentiles.length];
+    for (int i = 0; i < percentiles.length; i++) {
+      // bucket bounds can overshoot the largest value actually recorded
+      values[i] = percentiles[i] == Percentile.MAX ? max : Math.min(max, Histogram
+          .valueAtPercentile(counts, percentiles[i].getPercentile()));
+    }
+    return values;
+  }
+
+  private static class Interval {
+    private final long       start;
+    private final Histogram  waitTime           = new Histogram();
+    private final Histogram  serviceTime        = new Histogram();
+    private final Histogram  batchSize          = new Histogram();
+    private final AtomicLong depthHighWaterMark = new AtomicLong();
+
+    private Interval(long start) {
+      this.start = start;
+    }
+  }
+}
@@ -32,6 +32,7 @@ import com.tc.util.concurrent.TCQueue;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -45,6 +46,7 @@ public class StageQueueImpl implements Sink {
   private final TCLogger          logger;
   private volatile AddPredicate   predicate = DefaultAddPredicate.getInstance();
   private final SourceQueueImpl[] sourceQueues;
+  private final StageMetrics      metrics;
 
   /**
    * The Constructor.
@@ -62,7 +64,14 @@ public class StageQueueImpl implements Sink {
    */
   public StageQueueImpl(int threadCount, int threadsToQueueRatio, QueueFactory queueFactory,
                         TCLoggerProvider loggerProvider, String stageName, int queueSize) {
+    this(threadCount, threadsToQueueRatio, queueFactory, loggerProvider, stageName, queueSize, StageMetrics
+        .fromProperties());
+  }
+
+  StageQueueImpl(int threadCount, int threadsToQueueRatio, QueueFactory queueFactory, TCLoggerProvider loggerProvider,
+                 String stageName, int queueSize, StageMetrics metrics) {
     Assert.eval(threadCount > 0);
+    this.metrics = metrics;
     this.logger = loggerProvider.getLogger(Sink.class.getName() + ": " + stageName);
     this.stageName = stageName;
     this.sourceQueues = new SourceQueueImpl[threadCount];
@@ -95,7 +104,7 @@ public class StageQueueImpl implements Sink {
         q = queueFactory.createInstance(queueSize);
         queueCount++;
       }
-      this.sourceQueues[i] = new SourceQueueImpl(q, String.valueOf(queueCount), statsCollector);
+      this.sourceQueues[i] = new SourceQueueImpl(q, String.valueOf(queueCount), statsCollector, this.metrics);
     }
   }
 
@@ -261,11 +270,14 @@ public class StageQueueImpl implements Sink {
     private final TCQueue                     queue;
     private final String                      sourceName;
     private volatile StageQueueStatsCollector statsCollector;
+    private final StageMetrics                metrics;
 
-    public SourceQueueImpl(TCQueue queue, String sourceName, StageQueueStatsCollector statsCollector) {
+    public SourceQueueImpl(TCQueue queue, String sourceName, StageQueueStatsCollector statsCollector,
+                           StageMetrics metrics) {
       this.queue = queue;
       this.sourceName = sourceName;
       this.statsCollector = statsCollector;
+      this.metrics = metrics;
     }
 
     public StageQueueStatsCollector getStatsCollector() {
@@ -295,16 +307,44 @@ public class StageQueueImpl implements Sink {
 
     @Override
     public EventContext poll(long timeout) throws InterruptedException {
-      EventContext rv = (EventContext) this.queue.poll(timeout);
+      Object rv = this.queue.poll(timeout);
       if (rv != null) {
         this.statsCollector.contextRemoved();
+        rv = unwrap(rv);
       }
-      return rv;
+      return (EventContext) rv;
+    }
+
+    @Override
+    public int drainTo(List<EventContext> batch, int maxElements) {
+      int start = batch.size();
+      int drained = this.queue.drainTo(batch, maxElements);
+      for (int i = start; i < start + drained; i++) {
+        this.statsCollector.contextRemoved();
+        Object obj = batch.get(i);
+        if (obj instanceof TimedContext) {
+          batch.set(i, (EventContext) unwrap(obj));
+        }
+      }
+      return drained;
     }
 
     public void put(Object obj) throws InterruptedException {
+      if (this.metrics.sampleWait()) {
+        obj = new TimedContext(obj, System.nanoTime());
+      }
       this.queue.put(obj);
       this.statsCollector.contextAdded();
+      this.metrics.recordDepth(this.queue.size());
+    }
+
+    private Object unwrap(Object obj) {
+      if (obj instanceof TimedContext) {
+        TimedContext timed = (TimedContext) obj;
+        this.metrics.recordWait(System.nanoTime() - timed.enqueued);
+        return timed.context;
+      }
+      return obj;
     }
 
     public int size() {
@@ -317,6 +357,19 @@ public class StageQueueImpl implements Sink {
     }
   }
 
+  /**
+   * Carries the enqueue time of the contexts sampled for wait time measurement.
+   */
+  private static final class TimedContext {
+    private final Object context;
+    private final long   enqueued;
+
+    private TimedContext(Object context, long enqueued) {
+      this.context = context;
+      this.enqueued = enqueued;
+    }
+  }
+
   private static abstract class StageQueueStatsCollector implements StageQueueStats {
 
     @Override
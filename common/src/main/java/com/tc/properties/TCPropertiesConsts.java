@@ -136,6 +136,8 @@ public interface TCPropertiesConsts {
    *                                  every 5 seconds.
    * persistor.logging.enabled      - Enables/Disables logging of commits to disk while running
    *                                  in persistent mode.
+   * persistor.map.concurrency      - Concurrency of the storage of each server map, sized from the number
+   *                                  of apply stage threads if not set
    * passive.sync.batch.size        - Number of objects in each message that is sent from
    *                                  active to passive while synching
    * passive.sync.throttle.timeInMillis - Time to wait before sending the next batch of
@@ -144,6 +146,8 @@ public interface TCPropertiesConsts {
    *                                 requests for references from object manager
    * dgc.throttle.requestsPerThrottle - Number of objects for which object references are requested
    *                                 from object manager after which dgc will throttle
+   * dgc.mark.parallelism          - Number of threads used to mark live objects during dgc, unset or 0 means
+   *                                 half the available processors (at most 4) and 1 marks serially
    * dgc.inline.enabled             - Enables/disable inline dgc of CDSMs.
    * dgc.inline.intervalInSeconds   - Interval in seconds at which to delete objects selected by inline dgc.
    * dgc.inline.maxObjects          - Maximum inline dgc batch size
@@ -158,12 +162,14 @@ public interface TCPropertiesConsts {
   public static final String L2_OBJECTMANAGER_REQUEST_LOGGING_ENABLED                       = "l2.objectmanager.request.logging.enabled";
   public static final String L2_OBJECTMANAGER_REQUEST_PREFETCH_ENABLED                      = "l2.objectmanager.request.prefetch.enabled";
   public static final String L2_OBJECTMANAGER_PERSISTOR_LOGGING_ENABLED                     = "l2.objectmanager.persistor.logging.enabled";
+  public static final String L2_OBJECTMANAGER_PERSISTOR_MAP_CONCURRENCY                     = "l2.objectmanager.persistor.map.concurrency";
   public static final String L2_OBJECTMANAGER_PASSIVE_SYNC_BATCH_SIZE                       = "l2.objectmanager.passive.sync.batch.size";
   public static final String L2_OBJECTMANAGER_PASSIVE_SYNC_MESSAGE_MAXSIZE_MB               = "l2.objectmanager.passive.sync.message.maxSizeInMegaBytes";
   public static final String L2_OBJECTMANAGER_PASSIVE_SYNC_THROTTLE_TIME                    = "l2.objectmanager.passive.sync.throttle.timeInMillis";
   public static final String L2_OBJECTMANAGER_PASSIVE_SYNC_THROTTLE_PENDING_MSGS            = "l2.objectmanager.passive.sync.throttle.maxPendingMessages";
   public static final String L2_OBJECTMANAGER_DGC_THROTTLE_TIME                             = "l2.objectmanager.dgc.throttle.timeInMillis";
   public static final String L2_OBJECTMANAGER_DGC_REQUEST_PER_THROTTLE                      = "l2.objectmanager.dgc.throttle.requestsPerThrottle";
+  public static final String L2_OBJECTMANAGER_DGC_MARK_PARALLELISM                          = "l2.objectmanager.dgc.mark.parallelism";
   public static final String L2_OBJECTMANAGER_DGC_INLINE_ENABLED                            = "l2.objectmanager.dgc.inline.enabled";
   public static final String L2_OBJECTMANAGER_DGC_INLINE_INTERVAL_SECONDS                   = "l2.objectmanager.dgc.inline.intervalInSeconds";
   public static final String L2_OBJECTMANAGER_DGC_INLINE_MAX_OBJECTS                        = "l2.objectmanager.dgc.inline.maxObjects";
@@ -202,6 +208,9 @@ public interface TCPropertiesConsts {
    * Section : L2 Seda stage properties
    * Description : This section contains configuration for SEDA stages for L2
    * apply.stage.threads                : Number of threads for the transaction apply stage
+   * broadcast.stage.threads            : Number of threads sending the changes to the clients, clients are
+   *                                      partitioned over the threads and changes are sent from the
+   *                                      broadcast stage itself when 1
    * faultstage.threads                 : Number of seda fault stage thread
    * managedobjectrequeststage.threads  : Number of threads for object request seda stage
    *                                      (experimental, do not change)
@@ -213,6 +222,7 @@ public interface TCPropertiesConsts {
    * </code>
    ********************************************************************************************************************/
   public static final String L2_SEDA_APPLY_STAGE_THREADS                                    = "l2.seda.apply.stage.threads";
+  public static final String L2_SEDA_BROADCAST_STAGE_THREADS                                = "l2.seda.broadcast.stage.threads";
   public static final String L2_SEDA_MANAGEDOBJECTRESPONSESTAGE_THREADS                     = "l2.seda.managedobjectresponsestage.threads";
   public static final String L2_SEDA_MANAGEDOBJECTREQUESTSTAGE_THREADS                      = "l2.seda.managedobjectrequeststage.threads";
   public static final String L2_SEDA_STAGE_SINK_CAPACITY                                    = "l2.seda.stage.sink.capacity";
@@ -472,10 +482,17 @@ public interface TCPropertiesConsts {
    *              : ServerMap Eviction Client Object References refresh interval in milliseconds
    * eviction.broadcast.maxkeys
    *              : ServerMap Eviction Broadcast Message contain max key count entries
+   * eviction.policy
+   *              : Capacity eviction policy of the caches not configuring one, random or tinylfu
+   * eviction.tinylfu.sampleFactor
+   *              : Number of candidates sampled per evicted entry by the tinylfu policy
    * </code>
    ********************************************************************************************************************/
   public static final String L2_SERVERMAP_EVICTION_CLIENTOBJECT_REFERENCES_REFRESH_INTERVAL = "l2.servermap.eviction.clientObjectReferences.refresh.interval";
   public static final String L2_SERVERMAP_EVICTION_BROADCAST_MAXKEYS                        = "l2.servermap.eviction.broadcast.maxkeys";
+  public static final String L2_SERVERMAP_EVICTION_POLICY                                   = "l2.servermap.eviction.policy";
+  public static final String L2_SERVERMAP_EVICTION_TINYLFU_SAMPLE_FACTOR                    = "l2.servermap.eviction.tinylfu.sampleFactor";
+  public static final String L2_SERVERMAP_EXPIRY_INDEX_MAX_ENTRIES                          = "l2.servermap.expiry.index.maxEntries";
 
   /*********************************************************************************************************************
    * <code>
@@ -499,6 +516,14 @@ public interface TCPropertiesConsts {
    * bytebuffer.pooling.enabled           : Enable/disable tc byte buffer pooling
    * bytebuffer.common.pool.maxcount      : Max size of pool for tc byte buffer
    * bytebuffer.threadlocal.pool.maxcount : Thread pool size
+   * stage.batch.maxSize                  : Max number of contexts handed at once to a BatchEventHandler, can be
+   *                                        overridden per stage with seda.&lt;stage name&gt;.maxBatchSize
+   * stage.queue.ringbuffer.enabled       : &lt;true/false&gt;    - Use lock-free ring buffers for the stage queues
+   * stage.queue.ringbuffer.capacity      : Max capacity of a stage ring buffer, also used for unbounded stages
+   *                                        which block producers once it fills up
+   * stage.metrics.wait.sampleRate        : One in that many contexts has its queue wait time measured
+   * stage.metrics.interval               : long            - length in milliseconds of the stage metrics interval,
+   *                                        snapshots cover the current and the previous interval
    * </code>
    ********************************************************************************************************************/
   public static final String TC_STAGE_MONITOR_ENABLED                                       = "tc.stage.monitor.enabled";
@@ -506,6 +531,11 @@ public interface TCPropertiesConsts {
   public static final String TC_BYTEBUFFER_POOLING_ENABLED                                  = "tc.bytebuffer.pooling.enabled";
   public static final String TC_BYTEBUFFER_COMMON_POOL_MAXCOUNT                             = "tc.bytebuffer.common.pool.maxcount";
   public static final String TC_BYTEBUFFER_THREADLOCAL_POOL_MAXCOUNT                        = "tc.bytebuffer.threadlocal.pool.maxcount";
+  public static final String TC_STAGE_MAX_BATCH_SIZE                                        = "tc.stage.batch.maxSize";
+  public static final String TC_STAGE_QUEUE_RINGBUFFER_ENABLED                              = "tc.stage.queue.ringbuffer.enabled";
+  public static final String TC_STAGE_QUEUE_RINGBUFFER_CAPACITY                             = "tc.stage.queue.ringbuffer.capacity";
+  public static final String TC_STAGE_METRICS_WAIT_SAMPLE_RATE                              = "tc.stage.metrics.wait.sampleRate";
+  public static final String TC_STAGE_METRICS_INTERVAL                                      = "tc.stage.metrics.interval";
   public static final String TC_MESSAGE_GROUPING_ENABLED                                    = "tc.messages.grouping.enabled";
   public static final String TC_MESSAGE_GROUPING_MAXSIZE_KB                                 = "tc.messages.grouping.maxSizeKiloBytes";
   public static final String TC_MESSAGE_PACKUP_ENABLED                                      = "tc.messages.packup.enabled";
@@ -643,11 +673,15 @@ public interface TCPropertiesConsts {
    * enabled            : Enable/disable greedy locks grant from L2
    * leaseTimeInMillis  : Time for which greedy locks are given to L1 if more than one of them
    *                      are contending for them
+   * timer.tickMillis   : Tick of the timing wheel expiring lock wait and try lock timeouts
+   * timer.wheelSize    : Number of buckets of the timing wheel, rounded up to a power of two
    * </code>
    ********************************************************************************************************************/
   public static final String L2_LOCKMANAGER_GREEDY_LOCKS_ENABLED                            = "l2.lockmanager.greedy.locks.enabled";
   public static final String L2_LOCKMANAGER_GREEDY_LEASE_ENABLED                            = "l2.lockmanager.greedy.lease.enabled";
   public static final String L2_LOCKMANAGER_GREEDY_LEASE_LEASETIME_INMILLS                  = "l2.lockmanager.greedy.lease.leaseTimeInMillis";
+  public static final String L2_LOCKMANAGER_TIMER_TICK_MILLIS                              = "l2.lockmanager.timer.tickMillis";
+  public static final String L2_LOCKMANAGER_TIMER_WHEEL_SIZE                               = "l2.lockmanager.timer.wheelSize";
 
   /*********************************************************************************************************************
    * <code>
@@ -906,6 +940,30 @@ public interface TCPropertiesConsts {
   public static final String TOOLKIT_NOTIFIER_THREADS                                       = "toolkit.notifier.threads";
   public static final String TOOLKIT_NOTIFIER_QUEUE_SIZE                                    = "toolkit.notifier.queueSize";
 
+  /*********************************************************************************************************************
+   * <code>
+   * Section :  Toolkit Serialization Settings
+   * toolkit.serialization.fastpath.values.enabled - Encode values of common types (boxed primitives, Strings, primitive
+   *                                                 arrays, UUID, Date) with a type tag instead of an object stream
+   * toolkit.serialization.fastpath.keys.enabled   - Same for non-String keys, changes the portable form of such keys
+   *                                                 so it must be set the same on all clients and on restartable data
+   * toolkit.serialization.fastpath.externalizable - Comma separated Externalizable class names to encode with a tag
+   *                                                 and writeExternal instead of an object stream
+   * </code>
+   ********************************************************************************************************************/
+  public static final String TOOLKIT_SERIALIZATION_FASTPATH_VALUES_ENABLED                  = "toolkit.serialization.fastpath.values.enabled";
+  public static final String TOOLKIT_SERIALIZATION_FASTPATH_KEYS_ENABLED                    = "toolkit.serialization.fastpath.keys.enabled";
+  public static final String TOOLKIT_SERIALIZATION_FASTPATH_EXTERNALIZABLE                  = "toolkit.serialization.fastpath.externalizable";
+
+  /*********************************************************************************************************************
+   * <code>
+   * Section :  Toolkit ServerMap Iteration Settings
+   * toolkit.servermap.iterator.prefetchSize - Number of value lookups an entry or values iterator of an eventual map
+   *                                           keeps in flight ahead of the entry it returns, 1 fetches one at a time
+   * </code>
+   ********************************************************************************************************************/
+  public static final String TOOLKIT_SERVERMAP_ITERATOR_PREFETCH_SIZE                        = "toolkit.servermap.iterator.prefetchSize";
+
   /*
    * For enabling CAS logging
    */
@@ -0,0 +1,105 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of non negative longs over log-linear buckets: exact below 16, then 8 buckets per power of two,
+ * so any reported percentile is within 12.5% of the recorded value. Recording is a single atomic increment, which
+ * makes it cheap enough to leave on all the time.
+ */
+public class Histogram {
+
+  private static final int    SUB_BUCKET_BITS = 3;
+  private static final int    SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+  private static final int    LINEAR_LIMIT    = SUB_BUCKETS << 1;
+  public static final int     BUCKETS         = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts          = new AtomicLongArray(BUCKETS);
+  private final AtomicLong      max             = new AtomicLong();
+
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucketFor(value));
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Adds the bucket counts of this histogram to the given array of {@link #BUCKETS} counts.
+   */
+  public void addTo(long[] bucketCounts) {
+    for (int i = 0; i < BUCKETS; i++) {
+      bucketCounts[i] += counts.get(i);
+    }
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    max.set(0);
+  }
+
+  public static int bucketFor(long value) {
+    if (value < LINEAR_LIMIT) { return (int) value; }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+  }
+
+  public static long highestValueIn(int bucket) {
+    if (bucket < LINEAR_LIMIT) { return bucket; }
+    int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+    int subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+    long lowest = ((long) (SUB_BUCKETS + subBucket)) << (exponent - SUB_BUCKET_BITS);
+    return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+
+  public static long count(long[] bucketCounts) {
+    long total = 0;
+    for (long c : bucketCounts) {
+      total += c;
+    }
+    return total;
+  }
+
+  /**
+   * Highest value of the bucket holding the given percentile (0 to 100) of the counts, 0 if nothing was recorded.
+   */
+  public static long valueAtPercentile(long[] bucketCounts, double percentile) {
+    long total = count(bucketCounts);
+    if (total == 0) { return 0; }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      seen += bucketCounts[i];
+      if (seen >= rank) { return highestValueIn(i); }
+    }
+    return highestValueIn(bucketCounts.length - 1);
+  }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.util.concurrent;
+
+import com.tc.text.PrettyPrintable;
+import com.tc.text.PrettyPrinter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent map keyed by primitive longs, for large id keyed caches where boxing the key and allocating a node per
+ * entry cost more than the entries themselves. Entries live in open addressed arrays split into independently locked
+ * segments.
+ * <p>
+ * Writers take the lock of their segment; readers never lock or retry. A slot's key is written once, before its value
+ * is published with a volatile write, and removal only replaces the value with a marker, so a reader that sees a value
+ * also sees the right key. Growing or purging a segment builds a new table and publishes it as a whole.
+ * <p>
+ * Null values are not allowed. {@link #values()} and {@link #keys()} return snapshots that are only weakly consistent
+ * with concurrent updates, like the iterators of {@link java.util.concurrent.ConcurrentHashMap}.
+ */
+public class ConcurrentLongHashMap<V> implements PrettyPrintable {
+
+  static final int            DEFAULT_INITIAL_CAPACITY = 256;
+  static final int            DEFAULT_CONCURRENCY      = 16;
+  static final int            MAX_SEGMENTS             = 1 << 16;
+  static final int            MAXIMUM_CAPACITY         = 1 << 30;
+  static final int            MIN_SEGMENT_CAPACITY     = 4;
+
+  private static final Object REMOVED                  = new Object();
+
+  private final int           segmentShift;
+  private final int           segmentMask;
+  private final Segment[]     segments;
+
+  public ConcurrentLongHashMap() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * @param initialCapacity number of entries the map should hold without growing
+   * @param concurrency estimated number of concurrently updating threads, rounded up to a power of two segments
+   */
+  public ConcurrentLongHashMap(final int initialCapacity, int concurrency) {
+    if (initialCapacity < 0 || concurrency <= 0) { throw new IllegalArgumentException(); }
+    if (concurrency > MAX_SEGMENTS) {
+      concurrency = MAX_SEGMENTS;
+    }
+
+    int sshift = 0;
+    int ssize = 1;
+    while (ssize < concurrency) {
+      ++sshift;
+      ssize <<= 1;
+    }
+    // segments are picked from the high bits of the hash and slots from the low bits
+    this.segmentShift = Long.SIZE - sshift;
+    this.segmentMask = ssize - 1;
+    this.segments = new Segment[ssize];
+
+    final int perSegment = Math.min(initialCapacity, MAXIMUM_CAPACITY) / ssize + 1;
+    final int segmentCapacity = tableSizeFor(perSegment);
+    for (int i = 0; i < this.segments.length; i++) {
+      this.segments[i] = new Segment(segmentCapacity);
+    }
+  }
+
+  public V get(final long key) {
+    final long hash = hash(key);
+    return (V) segmentFor(hash).get(key, hash);
+  }
+
+  public boolean containsKey(final long key) {
+    return get(key) != null;
+  }
+
+  /**
+   * @return the previous value for the key, or null if there was none
+   */
+  public V put(final long key, final V value) {
+    if (value == null) { throw new NullPointerException(); }
+    final long hash = hash(key);
+    return (V) segmentFor(hash).put(key, hash, value, false);
+  }
+
+  /**
+   * @return the current value for the key if there is one, otherwise null after associating the given value
+   */
+  public V putIfAbsent(final long key, final V value) {
+    if (value == null) { throw new NullPointerException(); }
+    final long hash = hash(key);
+    return (V) segmentFor(hash).put(key, hash, value, true);
+  }
+
+  /**
+   * @return the removed value, or null if the key was not mapped
+   */
+  public V remove(final long key) {
+    final long hash = hash(key);
+    return (V) segmentFor(hash).remove(key, hash, null);
+  }
+
+  /**
+   * Removes the entry only if the key is currently mapped to the given value.
+   */
+  public boolean remove(final long key, final Object value) {
+    if (value == null) { return false; }
+    final long hash = hash(key);
+    return segmentFor(hash).remove(key, hash, value) != null;
+  }
+
+  public int size() {
+    long sum = 0;
+    for (final Segment segment : this.segments) {
+      sum += segment.count;
+    }
+    return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+  }
+
+  public boolean isEmpty() {
+    for (final Segment segment : this.segments) {
+      if (segment.count != 0) { return false; }
+    }
+    return true;
+  }
+
+  public void clear() {
+    for (final Segment segment : this.segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * @return a snapshot of the values currently in the map
+   */
+  public Collection<V> values() {
+    final List<V> values = new ArrayList<V>(size());
+    for (final Segment segment : this.segments) {
+      final Table table = segment.table;
+      for (int i = 0; i < table.keys.length; i++) {
+        final Object v = table.values.get(i);
+        if (v != null && v != REMOVED) {
+          values.add((V) v);
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * @return a snapshot of the keys currently in the map
+   */
+  public long[] keys() {
+    long[] keys = new long[size()];
+    int n = 0;
+    for (final Segment segment : this.segments) {
+      final Table table = segment.table;
+      for (int i = 0; i < table.keys.length; i++) {
+        final Object v = table.values.get(i);
+        if (v != null && v != REMOVED) {
+          if (n == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(16, n * 2));
+          }
+          keys[n++] = table.keys[i];
+        }
+      }
+    }
+    return n == keys.length ? keys : Arrays.copyOf(keys, n);
+  }
+
+  @Override
+  public PrettyPrinter prettyPrint(final PrettyPrinter out) {
+    return out.print(getClass().getName()).print(".size()=").print(size() + "");
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() + "]";
+  }
+
+  private Segment segmentFor(final long hash) {
+    return this.segments[(int) (hash >>> this.segmentShift) & this.segmentMask];
+  }
+
+  /**
+   * Object ids are mostly sequential, so mix all the bits (the splitmix64 finalizer) before picking segments and slots.
+   */
+  static long hash(long key) {
+    key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+    key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+    return key ^ (key >>> 31);
+  }
+
+  private static int tableSizeFor(final int capacity) {
+    // open addressing, keep tables at most half full
+    int size = MIN_SEGMENT_CAPACITY;
+    while (size < capacity * 2 && size < MAXIMUM_CAPACITY) {
+      size <<= 1;
+    }
+    return size;
+  }
+
+  private static final class Table {
+    private final long[]                       keys;
+    private final AtomicReferenceArray<Object> values;
+    private final int                          mask;
+
+    Table(final int capacity) {
+      this.keys = new long[capacity];
+      this.values = new AtomicReferenceArray<Object>(capacity);
+      this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the slot holding the key, live or removed, or the empty slot ending its probe sequence
+     */
+    int slotFor(final long key, final long hash) {
+      int i = (int) hash & this.mask;
+      while (true) {
+        final Object v = this.values.get(i);
+        if (v == null || this.keys[i] == key) { return i; }
+        i = (i + 1) & this.mask;
+      }
+    }
+  }
+
+  private static final class Segment extends ReentrantLock {
+    private final int      initialCapacity;
+    private volatile Table table;
+    // live entries, read without the lock by size()
+    private volatile int   count;
+    // live and removed slots, guarded by the lock
+    private int            used;
+
+    Segment(final int initialCapacity) {
+      this.initialCapacity = initialCapacity;
+      this.table = new Table(initialCapacity);
+    }
+
+    Object get(final long key, final long hash) {
+      final Table t = this.table;
+      int i = (int) hash & t.mask;
+      // tables always keep empty slots, so the probe ends
+      while (true) {
+        final Object v = t.values.get(i);
+        if (v == null) { return null; }
+        if (t.keys[i] == key) { return v == REMOVED ? null : v; }
+        i = (i + 1) & t.mask;
+      }
+    }
+
+    Object put(final long key, final long hash, final Object value, final boolean onlyIfAbsent) {
+      lock();
+      try {
+        Table t = this.table;
+        int i = t.slotFor(key, hash);
+        final Object old = t.values.get(i);
+        if (old != null && old != REMOVED) {
+          if (!onlyIfAbsent) {
+            t.values.set(i, value);
+          }
+          return old;
+        }
+        if (old == null) {
+          // a new slot is needed, make room first so the table never fills up
+          if ((this.used + 1) * 2 > t.keys.length) {
+            t = rehash(t);
+            i = t.slotFor(key, hash);
+          }
+          t.keys[i] = key;
+          this.used++;
+        }
+        t.values.set(i, value);
+        this.count++;
+        return null;
+      } finally {
+        unlock();
+      }
+    }
+
+    Object remove(final long key, final long hash, final Object expected) {
+      lock();
+      try {
+        final Table t = this.table;
+        final int i = t.slotFor(key, hash);
+        final Object v = t.values.get(i);
+        if (v == null || v == REMOVED) { return null; }
+        if (expected != null && !expected.equals(v)) { return null; }
+        // the key stays in place so that readers probing past this slot are unaffected
+        t.values.set(i, REMOVED);
+        this.count--;
+        return v;
+      } finally {
+        unlock();
+      }
+    }
+
+    void clear() {
+      lock();
+      try {
+        this.table = new Table(this.initialCapacity);
+        this.count = 0;
+        this.used = 0;
+      } finally {
+        unlock();
+      }
+    }
+
+    /**
+     * Copies the live entries into a new table, doubling it unless dropping the removed slots frees enough room.
+     */
+    private Table rehash(final Table old) {
+      int capacity = old.keys.length;
+      while ((this.count + 1) * 4 > capacity && capacity < MAXIMUM_CAPACITY) {
+        capacity <<= 1;
+      }
+      if ((this.count + 1) * 2 > capacity) { throw new IllegalStateException("ConcurrentLongHashMap segment is full"); }
+      final Table t = new Table(capacity);
+      for (int i = 0; i < old.keys.length; i++) {
+        final Object v = old.values.get(i);
+        if (v != null && v != REMOVED) {
+          final int slot = t.slotFor(old.keys[i], hash(old.keys[i]));
+          t.keys[slot] = old.keys[i];
+          t.values.lazySet(slot, v);
+        }
+      }
+      this.used = this.count;
+      this.table = t;
+      return t;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.util.concurrent;
+
+/**
+ * QueueFactory handing out {@link TCRingBufferQueue}s. Rings are bounded, so unbounded or very large requested
+ * capacities are capped at {@code maxCapacity}.
+ */
+public class RingBufferQueueFactory extends QueueFactory {
+
+  private final int maxCapacity;
+
+  public RingBufferQueueFactory(int maxCapacity) {
+    if (maxCapacity <= 0) { throw new IllegalArgumentException("Invalid max capacity " + maxCapacity); }
+    this.maxCapacity = maxCapacity;
+  }
+
+  /**
+   * @return a TCQueue backed by a ring of maxCapacity slots
+   */
+  @Override
+  public TCQueue createInstance() {
+    return new TCRingBufferQueue(maxCapacity);
+  }
+
+  /**
+   * @return a TCQueue backed by a ring of at least capacity, but no more than maxCapacity, slots
+   * @throws IllegalArgumentException if the capacity is less than or equal to zero
+   */
+  @Override
+  public TCQueue createInstance(int capacity) {
+    if (capacity <= 0) { throw new IllegalArgumentException("Invalid capacity " + capacity); }
+    return new TCRingBufferQueue(Math.min(capacity, maxCapacity));
+  }
+
+}
@@ -16,6 +16,8 @@
  */
 package com.tc.util.concurrent;
 
+import java.util.Collection;
+
 public interface TCQueue {
   /**
    * Adds the object in the queue
@@ -40,6 +42,13 @@ public interface TCQueue {
    */
   public Object poll(long timeout) throws InterruptedException;
   
+  /**
+   * Remove at most maxElements available items and add them to the given collection, without waiting
+   * 
+   * @return the number of items transferred
+   */
+  public int drainTo(Collection c, int maxElements);
+
   /**
    * Return, but do not remove object at head of Channel, or null if it is empty
    */
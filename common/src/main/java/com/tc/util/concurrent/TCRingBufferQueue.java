@@ -0,0 +1,250 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.util.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded TCQueue over a power of two sized ring of slots, each with its own sequence number (D. Vyukov's bounded
+ * queue). Producers and consumers only contend on a CAS of the tail or head counter, there is no lock or node
+ * allocation on the hand off. The lock is only taken to park a consumer on an empty queue or a producer on a full one,
+ * and by the other side to wake it up if somebody is known to be parked.
+ */
+public class TCRingBufferQueue implements TCQueue {
+
+  private final int                          mask;
+  private final AtomicReferenceArray<Object> slots;
+  private final AtomicLongArray              sequences;
+  private final AtomicLong                   head             = new AtomicLong();
+  private final AtomicLong                   tail             = new AtomicLong();
+
+  private final ReentrantLock                lock             = new ReentrantLock();
+  private final Condition                    notEmpty         = lock.newCondition();
+  private final Condition                    notFull          = lock.newCondition();
+  private final AtomicInteger                waitingConsumers = new AtomicInteger();
+  private final AtomicInteger                waitingProducers = new AtomicInteger();
+
+  /**
+   * @param capacity rounded up to the next power of two
+   * @throws IllegalArgumentException if the capacity is less than or equal to zero or too large for a ring
+   */
+  public TCRingBufferQueue(int capacity) {
+    if (capacity <= 0 || capacity > (1 << 30)) { throw new IllegalArgumentException("Invalid capacity " + capacity); }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.mask = size - 1;
+    this.slots = new AtomicReferenceArray<Object>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  private boolean tryOffer(Object obj) {
+    long pos = tail.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          slots.lazySet(index, obj);
+          // publishes the element to the consumer reading this sequence
+          sequences.set(index, pos + 1);
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        // the slot still holds the element of the previous lap
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+  }
+
+  private Object tryPoll() {
+    long pos = head.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          Object obj = slots.get(index);
+          slots.lazySet(index, null);
+          // hands the slot over to the producer of the next lap
+          sequences.set(index, pos + mask + 1);
+          return obj;
+        }
+        pos = head.get();
+      } else if (diff < 0) {
+        return null;
+      } else {
+        pos = head.get();
+      }
+    }
+  }
+
+  @Override
+  public void put(Object obj) throws InterruptedException {
+    checkNotNull(obj);
+    if (!tryOffer(obj)) {
+      offerSlowPath(obj, -1);
+    }
+    signalIfWaiting(waitingConsumers, notEmpty);
+  }
+
+  @Override
+  public boolean offer(Object obj, long timeout) throws InterruptedException {
+    checkNotNull(obj);
+    if (!tryOffer(obj) && !offerSlowPath(obj, TimeUnit.MILLISECONDS.toNanos(timeout))) { return false; }
+    signalIfWaiting(waitingConsumers, notEmpty);
+    return true;
+  }
+
+  @Override
+  public Object take() throws InterruptedException {
+    Object obj = tryPoll();
+    if (obj == null) {
+      obj = pollSlowPath(-1);
+    }
+    signalIfWaiting(waitingProducers, notFull);
+    return obj;
+  }
+
+  @Override
+  public Object poll(long timeout) throws InterruptedException {
+    Object obj = tryPoll();
+    if (obj == null) {
+      obj = pollSlowPath(TimeUnit.MILLISECONDS.toNanos(timeout));
+      if (obj == null) { return null; }
+    }
+    signalIfWaiting(waitingProducers, notFull);
+    return obj;
+  }
+
+  @Override
+  public int drainTo(Collection c, int maxElements) {
+    int drained = 0;
+    Object obj;
+    while (drained < maxElements && (obj = tryPoll()) != null) {
+      c.add(obj);
+      drained++;
+    }
+    if (drained > 0 && waitingProducers.get() > 0) {
+      // more than one slot may have been freed
+      lock.lock();
+      try {
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+    return drained;
+  }
+
+  /**
+   * @param nanos time to wait, negative to wait forever
+   */
+  private boolean offerSlowPath(Object obj, long nanos) throws InterruptedException {
+    lock.lockInterruptibly();
+    waitingProducers.incrementAndGet();
+    try {
+      // the waiter count is published before retrying, so a consumer freeing a slot from now on will signal us
+      while (!tryOffer(obj)) {
+        if (nanos == 0) { return false; }
+        if (nanos < 0) {
+          notFull.await();
+        } else {
+          nanos = Math.max(0, notFull.awaitNanos(nanos));
+        }
+      }
+      return true;
+    } finally {
+      waitingProducers.decrementAndGet();
+      lock.unlock();
+    }
+  }
+
+  private Object pollSlowPath(long nanos) throws InterruptedException {
+    lock.lockInterruptibly();
+    waitingConsumers.incrementAndGet();
+    try {
+      Object obj;
+      while ((obj = tryPoll()) == null) {
+        if (nanos == 0) { return null; }
+        if (nanos < 0) {
+          notEmpty.await();
+        } else {
+          nanos = Math.max(0, notEmpty.awaitNanos(nanos));
+        }
+      }
+      return obj;
+    } finally {
+      waitingConsumers.decrementAndGet();
+      lock.unlock();
+    }
+  }
+
+  private void signalIfWaiting(AtomicInteger waiters, Condition condition) {
+    if (waiters.get() > 0) {
+      lock.lock();
+      try {
+        condition.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public Object peek() {
+    long pos = head.get();
+    int index = (int) (pos & mask);
+    if (sequences.get(index) != pos + 1) { return null; }
+    return slots.get(index);
+  }
+
+  @Override
+  public int size() {
+    // read head first so that a concurrent poll can not make the difference negative
+    long h = head.get();
+    long size = tail.get() - h;
+    return (int) Math.max(0, Math.min(size, mask + 1));
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  private static void checkNotNull(Object obj) {
+    if (obj == null) { throw new NullPointerException(); }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.async.impl;
+
+import com.tc.async.api.StageSnapshot;
+import com.tc.async.api.StageSnapshot.Percentile;
+import com.tc.stats.Histogram;
+import com.tc.test.TCTestCase;
+
+import java.util.concurrent.TimeUnit;
+
+public class StageMetricsTest extends TCTestCase {
+
+  public void testHistogramPercentiles() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    long[] counts = new long[Histogram.BUCKETS];
+    histogram.addTo(counts);
+    assertEquals(1000, Histogram.count(counts));
+    assertEquals(1000, histogram.getMax());
+    assertWithin(500, Histogram.valueAtPercentile(counts, 50));
+    assertWithin(990, Histogram.valueAtPercentile(counts, 99));
+    assertEquals(0, Histogram.valueAtPercentile(new long[Histogram.BUCKETS], 99));
+  }
+
+  public void testHistogramBucketsCoverAllValues() {
+    int previous = -1;
+    for (long value = 0; value < Long.MAX_VALUE / 3; value = value * 3 / 2 + 1) {
+      int bucket = Histogram.bucketFor(value);
+      assertTrue(bucket >= previous);
+      assertTrue(bucket < Histogram.BUCKETS);
+      assertWithin(value, Histogram.highestValueIn(bucket));
+      previous = bucket;
+    }
+    assertTrue(Histogram.bucketFor(Long.MAX_VALUE) < Histogram.BUCKETS);
+  }
+
+  public void testSnapshot() {
+    StageMetrics metrics = new StageMetrics(1, 60000);
+    assertTrue(metrics.sampleWait());
+    for (int i = 0; i < 100; i++) {
+      metrics.recordWait(TimeUnit.MICROSECONDS.toNanos(i < 99 ? 10 : 5000));
+      metrics.recordService(TimeUnit.MICROSECONDS.toNanos(200));
+      metrics.recordDepth(i % 7);
+    }
+    metrics.recordBatch(64);
+
+    StageSnapshot snapshot = metrics.snapshot("test_stage", 3);
+    assertEquals("test_stage", snapshot.getName());
+    assertEquals(3, snapshot.getQueueDepth());
+    assertEquals(6, snapshot.getQueueDepthHighWaterMark());
+    assertEquals(100, snapshot.getWaitSamples());
+    assertEquals(10, snapshot.getWaitTimeMicros(Percentile.P50));
+    assertEquals(10, snapshot.getWaitTimeMicros(Percentile.P99));
+    assertEquals(5000, snapshot.getWaitTimeMicros(Percentile.MAX));
+    assertWithin(5000, snapshot.getWaitTimeMicros(Percentile.P999));
+    assertEquals(100, snapshot.getServiceCount());
+    assertWithin(200, snapshot.getServiceTimeMicros(Percentile.P50));
+    assertEquals(64, snapshot.getBatchSize(Percentile.MAX));
+    assertEquals(Long.valueOf(6), snapshot.toMap().get("QueueDepthHighWaterMark"));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue("expected ~" + expected + " but was " + actual, actual >= expected && actual <= expected * 1.125 + 1);
+  }
+}
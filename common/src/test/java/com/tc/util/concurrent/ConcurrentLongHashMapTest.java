@@ -0,0 +1,144 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentLongHashMapTest {
+  @Test
+  public void testBasicOperations() {
+    ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<String>();
+    assertTrue(map.isEmpty());
+    assertNull(map.put(1, "one"));
+    assertEquals("one", map.put(1, "uno"));
+    assertEquals("uno", map.putIfAbsent(1, "one"));
+    assertNull(map.putIfAbsent(-1, "minus one"));
+    assertEquals(2, map.size());
+    assertEquals("uno", map.get(1));
+    assertEquals("minus one", map.get(-1));
+    assertNull(map.get(2));
+    assertFalse(map.remove(1, "one"));
+    assertTrue(map.remove(1, "uno"));
+    assertNull(map.remove(1));
+    assertFalse(map.containsKey(1));
+    assertNull(map.putIfAbsent(1, "one"));
+    assertEquals("one", map.get(1));
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(-1));
+  }
+
+  @Test
+  public void testAgainstHashMap() {
+    ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<Long>(16, 4);
+    Map<Long, Long> expected = new HashMap<Long, Long>();
+    Random r = new Random(7);
+    for (int i = 0; i < 500000; i++) {
+      long key = r.nextInt(50000) - 1000;
+      switch (r.nextInt(4)) {
+        case 0:
+          assertEquals(expected.put(key, key), map.put(key, key));
+          break;
+        case 1:
+          assertEquals(expected.remove(key), map.remove(key));
+          break;
+        case 2:
+          Long current = expected.get(key);
+          if (current == null) {
+            expected.put(key, key + 1);
+          }
+          assertEquals(current, map.putIfAbsent(key, key + 1));
+          break;
+        default:
+          assertEquals(expected.get(key), map.get(key));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    assertEquals(new HashSet<Long>(expected.values()), new HashSet<Long>(map.values()));
+
+    long[] keys = map.keys();
+    Arrays.sort(keys);
+    assertEquals(expected.size(), keys.length);
+    for (long key : keys) {
+      assertTrue(expected.containsKey(key));
+    }
+  }
+
+  @Test
+  public void testReadersSeeStableEntriesWhileWritersChurn() throws Exception {
+    final ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<Long>(16, 4);
+    // even keys are never removed, odd keys are constantly added and removed
+    for (long i = 0; i < 10000; i += 2) {
+      map.put(i, Long.valueOf(i));
+    }
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    final CountDownLatch done = new CountDownLatch(4);
+    for (int t = 0; t < 2; t++) {
+      final int seed = t;
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            Random r = new Random(seed);
+            for (int i = 0; i < 200000; i++) {
+              long key = r.nextInt(100000) * 2L + 1;
+              map.put(key, Long.valueOf(key));
+              map.remove(key);
+            }
+          } catch (Throwable th) {
+            failure.set(th);
+          } finally {
+            done.countDown();
+          }
+        }
+      }.start();
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < 50; i++) {
+              for (long key = 0; key < 10000; key += 2) {
+                Long value = map.get(key);
+                if (value == null || value.longValue() != key) { throw new AssertionError("lost " + key); }
+              }
+            }
+          } catch (Throwable th) {
+            failure.set(th);
+          } finally {
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    done.await();
+    if (failure.get() != null) { throw new AssertionError(failure.get()); }
+    assertEquals(5000, map.size());
+  }
+}
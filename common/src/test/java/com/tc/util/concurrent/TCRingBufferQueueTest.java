@@ -0,0 +1,151 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.util.concurrent;
+
+import com.tc.test.TCTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TCRingBufferQueueTest extends TCTestCase {
+
+  public void testCapacityRoundedToPowerOfTwo() throws Exception {
+    TCRingBufferQueue queue = new TCRingBufferQueue(100);
+    assertEquals(128, queue.capacity());
+    for (int i = 0; i < 128; i++) {
+      assertTrue(queue.offer(Integer.valueOf(i), 0));
+    }
+    assertFalse(queue.offer(Integer.valueOf(128), 10));
+    assertEquals(128, queue.size());
+    assertEquals(Integer.valueOf(0), queue.peek());
+  }
+
+  public void testInvalidCapacity() {
+    try {
+      new RingBufferQueueFactory(16).createInstance(0);
+      fail();
+    } catch (IllegalArgumentException iae) {
+      // expected
+    }
+    assertEquals(16, ((TCRingBufferQueue) new RingBufferQueueFactory(16).createInstance(Integer.MAX_VALUE)).capacity());
+  }
+
+  public void testDrainToKeepsOrder() throws Exception {
+    TCQueue queue = new TCRingBufferQueue(8);
+    for (int lap = 0; lap < 5; lap++) {
+      for (int i = 0; i < 6; i++) {
+        queue.put(Integer.valueOf(i));
+      }
+      List drained = new ArrayList();
+      assertEquals(4, queue.drainTo(drained, 4));
+      assertEquals(2, queue.drainTo(drained, 10));
+      assertEquals(0, queue.drainTo(drained, 10));
+      for (int i = 0; i < 6; i++) {
+        assertEquals(Integer.valueOf(i), drained.get(i));
+      }
+      assertTrue(queue.isEmpty());
+      assertNull(queue.poll(0));
+    }
+  }
+
+  public void testBlockedProducerWokenByDrain() throws Exception {
+    final TCQueue queue = new TCRingBufferQueue(2);
+    queue.put("a");
+    queue.put("b");
+    final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    Thread producer = new Thread() {
+      @Override
+      public void run() {
+        try {
+          queue.put("c");
+        } catch (Throwable t) {
+          error.set(t);
+        }
+      }
+    };
+    producer.start();
+    ThreadUtil.reallySleep(100);
+    assertTrue(producer.isAlive());
+    assertEquals(2, queue.drainTo(new ArrayList(), 2));
+    producer.join(10000);
+    assertFalse(producer.isAlive());
+    assertNull(error.get());
+    assertEquals("c", queue.take());
+  }
+
+  public void testMultipleProducersAndConsumers() throws Exception {
+    final int producers = 4;
+    final int perProducer = 200000;
+    final TCQueue queue = new TCRingBufferQueue(64);
+    final long[] sums = new long[producers];
+    final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int p = 0; p < producers; p++) {
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 1; i <= perProducer; i++) {
+              queue.put(Integer.valueOf(i));
+            }
+          } catch (Throwable t) {
+            error.set(t);
+          }
+        }
+      });
+    }
+    for (int c = 0; c < producers; c++) {
+      final int index = c;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          try {
+            List batch = new ArrayList();
+            int received = 0;
+            while (received < perProducer) {
+              Object first = queue.poll(10000);
+              assertNotNull(first);
+              batch.add(first);
+              queue.drainTo(batch, Math.min(16, perProducer - received) - 1);
+              for (Object o : batch) {
+                sums[index] += ((Integer) o).intValue();
+              }
+              received += batch.size();
+              batch.clear();
+            }
+          } catch (Throwable t) {
+            error.set(t);
+          }
+        }
+      });
+    }
+    for (Thread t : threads) {
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertNull(error.get());
+    long total = 0;
+    for (long sum : sums) {
+      total += sum;
+    }
+    assertEquals(producers * ((long) perProducer * (perProducer + 1) / 2), total);
+    assertTrue(queue.isEmpty());
+  }
+}
@@ -21,8 +21,8 @@ import com.tc.io.TCByteBufferOutput;
 import com.tc.io.TCSerializable;
 import com.tc.object.ObjectID;
 import com.tc.util.BasicObjectIDSet;
-import com.tc.util.BitSetObjectIDSet;
 import com.tc.util.ObjectIDSet;
+import com.tc.util.RoaringObjectIDSet;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -48,14 +48,14 @@ public class Invalidations implements TCSerializable {
   public Invalidations(Map<ObjectID, ObjectIDSet> invalidationsPerCdsm) {
     this();
     for (Entry<ObjectID, ObjectIDSet> e : invalidationsPerCdsm.entrySet()) {
-      this.invalidationsPerCdsm.put(e.getKey(), new BitSetObjectIDSet(e.getValue()));
+      this.invalidationsPerCdsm.put(e.getKey(), new RoaringObjectIDSet(e.getValue()));
     }
   }
 
   public void add(ObjectID mapID, ObjectID oid) {
     ObjectIDSet set = invalidationsPerCdsm.get(mapID);
     if (set == null) {
-      set = new BitSetObjectIDSet();
+      set = new RoaringObjectIDSet();
       invalidationsPerCdsm.put(mapID, set);
     }
 
@@ -84,7 +84,7 @@ public class Invalidations implements TCSerializable {
       ObjectIDSet newInvalidationsOidsForMapID = entry.getValue();
       ObjectIDSet thisInvalidationsOidsForMapID = this.getObjectIDSetForMapId(mapID);
       if (thisInvalidationsOidsForMapID == null) {
-        thisInvalidationsOidsForMapID = new BitSetObjectIDSet();
+        thisInvalidationsOidsForMapID = new RoaringObjectIDSet();
         invalidationsPerCdsm.put(mapID, thisInvalidationsOidsForMapID);
       }
       thisInvalidationsOidsForMapID.addAll(newInvalidationsOidsForMapID);
@@ -98,7 +98,7 @@ public class Invalidations implements TCSerializable {
       ObjectID mapID = new ObjectID(in.readLong());
       ObjectIDSet oidSet = new BasicObjectIDSet();
       oidSet.deserializeFrom(in);
-      this.invalidationsPerCdsm.put(mapID, new BitSetObjectIDSet(oidSet));
+      this.invalidationsPerCdsm.put(mapID, new RoaringObjectIDSet(oidSet));
     }
     return this;
   }
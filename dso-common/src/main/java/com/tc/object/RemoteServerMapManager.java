@@ -27,12 +27,20 @@ import com.tc.text.PrettyPrintable;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 public interface RemoteServerMapManager extends ClientHandshakeCallback,
     InvalidationsProcessor, PrettyPrintable {
 
   public Object getMappingForKey(ObjectID mapID, Object portableKey) throws AbortedOperationException;
 
+  /**
+   * Sends the same lookup as {@link #getMappingForKey(ObjectID, Object)}, batched in the same way, but returns without
+   * waiting for the response. The future is completed by the response handler and fails with the exception the blocking
+   * lookup would have thrown (object not found, rejoin, shutdown).
+   */
+  public Future<Object> getMappingForKeyAsync(ObjectID mapID, Object portableKey) throws AbortedOperationException;
+
   public Set getAllKeys(ObjectID mapID) throws AbortedOperationException;
 
   public long getAllSize(ObjectID[] mapIDs) throws AbortedOperationException;
@@ -0,0 +1,1109 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.util;
+
+import com.tc.object.ObjectID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * ObjectIDSet that splits ids into chunks of 2^16 and keeps every chunk in the cheapest of three containers: a sorted
+ * array of the low 16 bits for sparse chunks, a fixed 1024 word bitmap for dense chunks, and a list of runs for chunks
+ * made of long sequential stretches, which is what allocated object ids mostly look like. Chunk keys and containers
+ * live in two parallel sorted arrays, so lookups are a pair of binary searches and bulk operations against another
+ * RoaringObjectIDSet work a whole chunk at a time.
+ * <p>
+ * Like the other ObjectIDSets this class is not thread safe.
+ */
+public class RoaringObjectIDSet extends ObjectIDSet {
+
+  private static final int CHUNK_BITS          = 16;
+  private static final int CHUNK_SIZE          = 1 << CHUNK_BITS;
+  private static final int LOW_MASK            = CHUNK_SIZE - 1;
+  private static final int BITMAP_WORDS        = CHUNK_SIZE / Long.SIZE;
+  private static final int BITMAP_BYTES        = BITMAP_WORDS * 8;
+  // above this many values an array container is bigger than a bitmap
+  private static final int ARRAY_MAX_SIZE      = 4096;
+  private static final int INITIAL_CONTAINERS  = 4;
+
+  private long[]           keys                = new long[INITIAL_CONTAINERS];
+  private Container[]      containers          = new Container[INITIAL_CONTAINERS];
+  private int              containerCount;
+  private int              size;
+  private int              modCount;
+
+  public RoaringObjectIDSet() {
+    super();
+  }
+
+  public RoaringObjectIDSet(final Collection c) {
+    if (c instanceof RoaringObjectIDSet) {
+      final RoaringObjectIDSet other = (RoaringObjectIDSet) c;
+      this.keys = Arrays.copyOf(other.keys, Math.max(other.containerCount, INITIAL_CONTAINERS));
+      this.containers = new Container[this.keys.length];
+      for (int i = 0; i < other.containerCount; i++) {
+        this.containers[i] = other.containers[i].copy();
+      }
+      this.containerCount = other.containerCount;
+      this.size = other.size;
+    } else if (c instanceof ObjectIDSet) {
+      for (Range range : ((ObjectIDSet) c).ranges()) {
+        insertRange(range);
+      }
+    } else {
+      addAll(c);
+    }
+    optimize();
+  }
+
+  @Override
+  public boolean add(final ObjectID id) {
+    final long lid = id.toLong();
+    final long key = highBits(lid);
+    final int low = lowBits(lid);
+    int i = indexOf(key);
+    if (i >= 0) {
+      final Container c = this.containers[i];
+      if (c.contains(low)) { return false; }
+      this.containers[i] = c.add(low);
+    } else {
+      insertContainerAt(-i - 1, key, new ArrayContainer().add(low));
+    }
+    this.size++;
+    this.modCount++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(final Object o) {
+    if (!(o instanceof ObjectID)) { return false; }
+    final long lid = ((ObjectID) o).toLong();
+    final int i = indexOf(highBits(lid));
+    if (i < 0) { return false; }
+    final int low = lowBits(lid);
+    final Container c = this.containers[i];
+    if (!c.contains(low)) { return false; }
+    final Container removed = c.remove(low);
+    if (removed.cardinality() == 0) {
+      removeContainerAt(i);
+    } else {
+      this.containers[i] = removed;
+    }
+    this.size--;
+    this.modCount++;
+    return true;
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    if (!(o instanceof ObjectID)) { return false; }
+    final long lid = ((ObjectID) o).toLong();
+    final int i = indexOf(highBits(lid));
+    return i >= 0 && this.containers[i].contains(lowBits(lid));
+  }
+
+  /**
+   * Union, done chunk by chunk when the other collection is a RoaringObjectIDSet too.
+   */
+  @Override
+  public boolean addAll(final Collection<? extends ObjectID> c) {
+    if (!(c instanceof RoaringObjectIDSet)) { return super.addAll(c); }
+    final RoaringObjectIDSet other = (RoaringObjectIDSet) c;
+    if (other == this || other.isEmpty()) { return false; }
+
+    final int oldSize = this.size;
+    final int capacity = Math.max(this.containerCount + other.containerCount, INITIAL_CONTAINERS);
+    final long[] newKeys = new long[capacity];
+    final Container[] newContainers = new Container[capacity];
+    int i = 0, j = 0, k = 0;
+    int newSize = 0;
+    while (i < this.containerCount || j < other.containerCount) {
+      if (j >= other.containerCount || (i < this.containerCount && this.keys[i] < other.keys[j])) {
+        newKeys[k] = this.keys[i];
+        newContainers[k] = this.containers[i++];
+      } else if (i >= this.containerCount || other.keys[j] < this.keys[i]) {
+        newKeys[k] = other.keys[j];
+        newContainers[k] = other.containers[j++].copy();
+      } else {
+        newKeys[k] = this.keys[i];
+        newContainers[k] = this.containers[i++].or(other.containers[j++]);
+      }
+      newSize += newContainers[k++].cardinality();
+    }
+    this.keys = newKeys;
+    this.containers = newContainers;
+    this.containerCount = k;
+    this.size = newSize;
+    if (newSize == oldSize) { return false; }
+    this.modCount++;
+    return true;
+  }
+
+  /**
+   * Difference, done chunk by chunk when the other collection is a RoaringObjectIDSet too.
+   */
+  @Override
+  public boolean removeAll(final Collection<?> c) {
+    if (!(c instanceof RoaringObjectIDSet)) { return super.removeAll(c); }
+    final RoaringObjectIDSet other = (RoaringObjectIDSet) c;
+    if (other == this) {
+      final boolean changed = !isEmpty();
+      clear();
+      return changed;
+    }
+
+    final int oldSize = this.size;
+    int j = 0, k = 0;
+    int newSize = 0;
+    for (int i = 0; i < this.containerCount; i++) {
+      Container mine = this.containers[i];
+      while (j < other.containerCount && other.keys[j] < this.keys[i]) {
+        j++;
+      }
+      if (j < other.containerCount && other.keys[j] == this.keys[i]) {
+        mine = mine.andNot(other.containers[j++]);
+      }
+      k = keep(k, this.keys[i], mine);
+      newSize += mine.cardinality();
+    }
+    return compacted(k, newSize, oldSize);
+  }
+
+  /**
+   * Intersection, done chunk by chunk when the other collection is a RoaringObjectIDSet too.
+   */
+  @Override
+  public boolean retainAll(final Collection<?> c) {
+    if (!(c instanceof RoaringObjectIDSet)) { return super.retainAll(c); }
+    final RoaringObjectIDSet other = (RoaringObjectIDSet) c;
+    if (other == this) { return false; }
+
+    final int oldSize = this.size;
+    int j = 0, k = 0;
+    int newSize = 0;
+    for (int i = 0; i < this.containerCount; i++) {
+      while (j < other.containerCount && other.keys[j] < this.keys[i]) {
+        j++;
+      }
+      if (j < other.containerCount && other.keys[j] == this.keys[i]) {
+        final Container mine = this.containers[i].and(other.containers[j++]);
+        k = keep(k, this.keys[i], mine);
+        newSize += mine.cardinality();
+      }
+    }
+    return compacted(k, newSize, oldSize);
+  }
+
+  private int keep(final int k, final long key, final Container c) {
+    if (c.cardinality() == 0) { return k; }
+    this.keys[k] = key;
+    this.containers[k] = c;
+    return k + 1;
+  }
+
+  private boolean compacted(final int newCount, final int newSize, final int oldSize) {
+    Arrays.fill(this.containers, newCount, this.containerCount, null);
+    this.containerCount = newCount;
+    this.size = newSize;
+    if (newSize == oldSize) { return false; }
+    this.modCount++;
+    return true;
+  }
+
+  @Override
+  public Iterator<ObjectID> iterator() {
+    return new RoaringIterator();
+  }
+
+  @Override
+  public ObjectID first() {
+    if (this.size == 0) { throw new NoSuchElementException(); }
+    return new ObjectID(combine(this.keys[0], this.containers[0].first()));
+  }
+
+  @Override
+  public ObjectID last() {
+    if (this.size == 0) { throw new NoSuchElementException(); }
+    final int i = this.containerCount - 1;
+    return new ObjectID(combine(this.keys[i], this.containers[i].last()));
+  }
+
+  @Override
+  public void clear() {
+    this.keys = new long[INITIAL_CONTAINERS];
+    this.containers = new Container[INITIAL_CONTAINERS];
+    this.containerCount = 0;
+    this.size = 0;
+    this.modCount++;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  protected void insertRange(final Range range) {
+    final long start = range.getStart();
+    final long[] bitmap = range.getBitmap();
+    for (int i = 0; i < bitmap.length; i++) {
+      long bits = bitmap[i];
+      if (bits == 0) {
+        continue;
+      }
+      final long base = start + (long) i * Long.SIZE;
+      if ((base & (Long.SIZE - 1)) == 0) {
+        addWord(base, bits);
+      } else {
+        while (bits != 0) {
+          add(new ObjectID(base + Long.numberOfTrailingZeros(bits)));
+          bits &= bits - 1;
+        }
+      }
+    }
+  }
+
+  private void addWord(final long base, final long bits) {
+    final long key = highBits(base);
+    int i = indexOf(key);
+    if (i < 0) {
+      i = -i - 1;
+      insertContainerAt(i, key, new ArrayContainer());
+    }
+    final Container c = this.containers[i];
+    final int before = c.cardinality();
+    this.containers[i] = c.orWord(lowBits(base) >>> 6, bits);
+    this.size += this.containers[i].cardinality() - before;
+    this.modCount++;
+  }
+
+  /**
+   * Ranges are built on demand from the containers, one per stretch of non empty words, so sparse chunks do not
+   * serialize as full bitmaps.
+   */
+  @Override
+  protected Collection<? extends Range> ranges() {
+    final List<Range> ranges = new ArrayList<Range>();
+    final long[] words = new long[BITMAP_WORDS];
+    for (int i = 0; i < this.containerCount; i++) {
+      Arrays.fill(words, 0);
+      this.containers[i].orInto(words);
+      final long base = this.keys[i] << CHUNK_BITS;
+      int w = 0;
+      while (w < BITMAP_WORDS) {
+        if (words[w] == 0) {
+          w++;
+          continue;
+        }
+        int end = w;
+        // bridge single empty words, a range costs more than one word of overhead
+        while (end + 1 < BITMAP_WORDS && (words[end + 1] != 0 || (end + 2 < BITMAP_WORDS && words[end + 2] != 0))) {
+          end++;
+        }
+        ranges.add(new WordRange(base + (long) w * Long.SIZE, Arrays.copyOfRange(words, w, end + 1)));
+        w = end + 1;
+      }
+    }
+    return ranges;
+  }
+
+  private void optimize() {
+    for (int i = 0; i < this.containerCount; i++) {
+      this.containers[i] = this.containers[i].optimize();
+    }
+  }
+
+  private int indexOf(final long key) {
+    // ids are mostly added and looked up in increasing order, so check the last chunk before searching
+    final int last = this.containerCount - 1;
+    if (last >= 0 && this.keys[last] == key) { return last; }
+    int lo = 0;
+    int hi = last;
+    while (lo <= hi) {
+      final int mid = (lo + hi) >>> 1;
+      final long midKey = this.keys[mid];
+      if (midKey < key) {
+        lo = mid + 1;
+      } else if (midKey > key) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(lo + 1);
+  }
+
+  private void insertContainerAt(final int i, final long key, final Container c) {
+    if (this.containerCount == this.keys.length) {
+      final int capacity = this.keys.length * 2;
+      this.keys = Arrays.copyOf(this.keys, capacity);
+      this.containers = Arrays.copyOf(this.containers, capacity);
+    }
+    System.arraycopy(this.keys, i, this.keys, i + 1, this.containerCount - i);
+    System.arraycopy(this.containers, i, this.containers, i + 1, this.containerCount - i);
+    this.keys[i] = key;
+    this.containers[i] = c;
+    this.containerCount++;
+  }
+
+  private void removeContainerAt(final int i) {
+    System.arraycopy(this.keys, i + 1, this.keys, i, this.containerCount - i - 1);
+    System.arraycopy(this.containers, i + 1, this.containers, i, this.containerCount - i - 1);
+    this.containers[--this.containerCount] = null;
+  }
+
+  private static long highBits(final long lid) {
+    return lid >> CHUNK_BITS;
+  }
+
+  private static int lowBits(final long lid) {
+    return (int) lid & LOW_MASK;
+  }
+
+  private static long combine(final long key, final int low) {
+    return (key << CHUNK_BITS) | low;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("RoaringObjectIDSet{");
+    sb.append("size=").append(this.size);
+    sb.append(", containers=[");
+    for (int i = 0; i < this.containerCount; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(this.keys[i]).append(':').append(this.containers[i]);
+    }
+    sb.append("], modCount=").append(this.modCount);
+    sb.append('}');
+    return sb.toString();
+  }
+
+  private class RoaringIterator implements Iterator<ObjectID> {
+    private int     containerIndex;
+    private int     nextLow;
+    private long    lastReturned;
+    private boolean canRemove;
+    private int     expectedModCount = RoaringObjectIDSet.this.modCount;
+
+    RoaringIterator() {
+      this.nextLow = RoaringObjectIDSet.this.containerCount > 0 ? RoaringObjectIDSet.this.containers[0].first() : -1;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.nextLow >= 0 && this.containerIndex < RoaringObjectIDSet.this.containerCount;
+    }
+
+    @Override
+    public ObjectID next() {
+      checkModCount();
+      if (!hasNext()) { throw new NoSuchElementException(); }
+      this.lastReturned = combine(RoaringObjectIDSet.this.keys[this.containerIndex], this.nextLow);
+      this.canRemove = true;
+      advance(this.nextLow + 1);
+      return new ObjectID(this.lastReturned);
+    }
+
+    private void advance(int from) {
+      while (this.containerIndex < RoaringObjectIDSet.this.containerCount) {
+        final int next = from < CHUNK_SIZE ? RoaringObjectIDSet.this.containers[this.containerIndex].nextValue(from) : -1;
+        if (next >= 0) {
+          this.nextLow = next;
+          return;
+        }
+        this.containerIndex++;
+        from = 0;
+      }
+      this.nextLow = -1;
+    }
+
+    @Override
+    public void remove() {
+      if (!this.canRemove) { throw new IllegalStateException(); }
+      checkModCount();
+
+      final boolean hadNext = hasNext();
+      final long next = hadNext ? combine(RoaringObjectIDSet.this.keys[this.containerIndex], this.nextLow) : 0;
+      RoaringObjectIDSet.this.remove(new ObjectID(this.lastReturned));
+      // removing can replace or drop a container, so find the next value again
+      if (hadNext) {
+        this.containerIndex = indexOf(highBits(next));
+        this.nextLow = lowBits(next);
+      } else {
+        this.containerIndex = RoaringObjectIDSet.this.containerCount;
+        this.nextLow = -1;
+      }
+      this.canRemove = false;
+      this.expectedModCount = RoaringObjectIDSet.this.modCount;
+    }
+
+    private void checkModCount() {
+      if (this.expectedModCount != RoaringObjectIDSet.this.modCount) { throw new ConcurrentModificationException(); }
+    }
+  }
+
+  private static final class WordRange implements Range {
+    private final long   start;
+    private final long[] bitmap;
+
+    WordRange(final long start, final long[] bitmap) {
+      this.start = start;
+      this.bitmap = bitmap;
+    }
+
+    @Override
+    public long getStart() {
+      return this.start;
+    }
+
+    @Override
+    public long[] getBitmap() {
+      return this.bitmap;
+    }
+  }
+
+  /**
+   * Holds the low 16 bits of the ids of one chunk. Mutators are only called for values known to be absent (add) or
+   * present (remove) and return the container that should replace this one, which is how containers switch
+   * representation as they fill up or drain.
+   */
+  private static abstract class Container {
+
+    abstract int cardinality();
+
+    abstract boolean contains(int low);
+
+    abstract Container add(int low);
+
+    abstract Container remove(int low);
+
+    abstract int first();
+
+    abstract int last();
+
+    /**
+     * @return the smallest value greater than or equal to from, or -1 if there is none
+     */
+    abstract int nextValue(int from);
+
+    abstract void orInto(long[] words);
+
+    abstract void clearFrom(long[] words);
+
+    abstract int runCount();
+
+    abstract Container copy();
+
+    Container orWord(final int wordIndex, long bits) {
+      Container c = this;
+      while (bits != 0) {
+        final int low = (wordIndex << 6) + Long.numberOfTrailingZeros(bits);
+        if (!c.contains(low)) {
+          c = c.add(low);
+        }
+        bits &= bits - 1;
+      }
+      return c;
+    }
+
+    Container or(final Container other) {
+      if (this instanceof ArrayContainer && other instanceof ArrayContainer
+          && cardinality() + other.cardinality() <= ARRAY_MAX_SIZE) {
+        return ((ArrayContainer) this).merge((ArrayContainer) other).optimize();
+      }
+      final long[] words = toWords();
+      other.orInto(words);
+      return fromWords(words);
+    }
+
+    Container and(final Container other) {
+      if (this instanceof ArrayContainer) { return ((ArrayContainer) this).filter(other, true); }
+      if (other instanceof ArrayContainer) { return ((ArrayContainer) other).filter(this, true); }
+      final long[] words = toWords();
+      final long[] otherWords = other.toWords();
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        words[i] &= otherWords[i];
+      }
+      return fromWords(words);
+    }
+
+    Container andNot(final Container other) {
+      if (this instanceof ArrayContainer) { return ((ArrayContainer) this).filter(other, false); }
+      final long[] words = toWords();
+      other.clearFrom(words);
+      return fromWords(words);
+    }
+
+    long[] toWords() {
+      final long[] words = new long[BITMAP_WORDS];
+      orInto(words);
+      return words;
+    }
+
+    /**
+     * @return the cheapest representation of the same values, possibly this container
+     */
+    Container optimize() {
+      final int cardinality = cardinality();
+      if (cardinality == 0) { return this; }
+      final int runs = runCount();
+      final int runBytes = runs * 4;
+      final int mutableBytes = Math.min(cardinality * 2, BITMAP_BYTES);
+      if (runBytes < mutableBytes) {
+        return this instanceof RunContainer ? this : RunContainer.fromWords(toWords(), runs, cardinality);
+      }
+      if (this instanceof RunContainer) { return fromMutableWords(toWords(), cardinality); }
+      return this;
+    }
+
+    static Container fromWords(final long[] words) {
+      int cardinality = 0;
+      for (long w : words) {
+        cardinality += Long.bitCount(w);
+      }
+      if (cardinality == 0) { return new ArrayContainer(); }
+      final int runs = runCount(words);
+      if (runs * 4 < Math.min(cardinality * 2, BITMAP_BYTES)) { return RunContainer.fromWords(words, runs, cardinality); }
+      return fromMutableWords(words, cardinality);
+    }
+
+    static Container fromMutableWords(final long[] words, final int cardinality) {
+      if (cardinality > ARRAY_MAX_SIZE) { return new BitmapContainer(words, cardinality); }
+      final char[] content = new char[cardinality];
+      int n = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        long w = words[i];
+        while (w != 0) {
+          content[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(w));
+          w &= w - 1;
+        }
+      }
+      return new ArrayContainer(content, cardinality);
+    }
+
+    static int runCount(final long[] words) {
+      int runs = 0;
+      long carry = 0;
+      for (long w : words) {
+        // a run starts wherever a set bit follows a clear one
+        runs += Long.bitCount(w & ~((w << 1) | carry));
+        carry = w >>> 63;
+      }
+      return runs;
+    }
+
+    static int nextSetBit(final long[] words, final int from) {
+      if (from >= CHUNK_SIZE) { return -1; }
+      int i = from >>> 6;
+      long w = words[i] & (-1L << from);
+      while (true) {
+        if (w != 0) { return (i << 6) + Long.numberOfTrailingZeros(w); }
+        if (++i == BITMAP_WORDS) { return -1; }
+        w = words[i];
+      }
+    }
+
+    static int nextClearBit(final long[] words, final int from) {
+      if (from >= CHUNK_SIZE) { return CHUNK_SIZE; }
+      int i = from >>> 6;
+      long w = ~words[i] & (-1L << from);
+      while (true) {
+        if (w != 0) { return (i << 6) + Long.numberOfTrailingZeros(w); }
+        if (++i == BITMAP_WORDS) { return CHUNK_SIZE; }
+        w = ~words[i];
+      }
+    }
+
+    static void setRange(final long[] words, final int from, final int to) {
+      // to is inclusive
+      final int firstWord = from >>> 6;
+      final int lastWord = to >>> 6;
+      final long firstMask = -1L << from;
+      final long lastMask = -1L >>> (63 - (to & 63));
+      if (firstWord == lastWord) {
+        words[firstWord] |= firstMask & lastMask;
+        return;
+      }
+      words[firstWord] |= firstMask;
+      for (int i = firstWord + 1; i < lastWord; i++) {
+        words[i] = -1L;
+      }
+      words[lastWord] |= lastMask;
+    }
+
+    static void clearRange(final long[] words, final int from, final int to) {
+      // to is inclusive
+      final int firstWord = from >>> 6;
+      final int lastWord = to >>> 6;
+      final long firstMask = -1L << from;
+      final long lastMask = -1L >>> (63 - (to & 63));
+      if (firstWord == lastWord) {
+        words[firstWord] &= ~(firstMask & lastMask);
+        return;
+      }
+      words[firstWord] &= ~firstMask;
+      for (int i = firstWord + 1; i < lastWord; i++) {
+        words[i] = 0;
+      }
+      words[lastWord] &= ~lastMask;
+    }
+  }
+
+  /**
+   * Sorted low bits, for chunks holding at most {@link #ARRAY_MAX_SIZE} values.
+   */
+  private static final class ArrayContainer extends Container {
+    private char[] content;
+    private int    cardinality;
+
+    ArrayContainer() {
+      this.content = new char[4];
+    }
+
+    ArrayContainer(final char[] content, final int cardinality) {
+      this.content = content;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return this.cardinality;
+    }
+
+    @Override
+    boolean contains(final int low) {
+      return search(low) >= 0;
+    }
+
+    @Override
+    Container add(final int low) {
+      if (this.cardinality >= ARRAY_MAX_SIZE) { return new BitmapContainer(toWords(), this.cardinality).add(low); }
+      final int i = -search(low) - 1;
+      if (this.cardinality == this.content.length) {
+        this.content = Arrays.copyOf(this.content, Math.min(this.content.length * 2, ARRAY_MAX_SIZE));
+      }
+      System.arraycopy(this.content, i, this.content, i + 1, this.cardinality - i);
+      this.content[i] = (char) low;
+      this.cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(final int low) {
+      final int i = search(low);
+      System.arraycopy(this.content, i + 1, this.content, i, this.cardinality - i - 1);
+      this.cardinality--;
+      return this;
+    }
+
+    @Override
+    int first() {
+      return this.content[0];
+    }
+
+    @Override
+    int last() {
+      return this.content[this.cardinality - 1];
+    }
+
+    @Override
+    int nextValue(final int from) {
+      final int i = search(from);
+      if (i >= 0) { return from; }
+      final int insertion = -i - 1;
+      return insertion < this.cardinality ? this.content[insertion] : -1;
+    }
+
+    @Override
+    void orInto(final long[] words) {
+      for (int i = 0; i < this.cardinality; i++) {
+        final int v = this.content[i];
+        words[v >>> 6] |= 1L << v;
+      }
+    }
+
+    @Override
+    void clearFrom(final long[] words) {
+      for (int i = 0; i < this.cardinality; i++) {
+        final int v = this.content[i];
+        words[v >>> 6] &= ~(1L << v);
+      }
+    }
+
+    @Override
+    int runCount() {
+      int runs = 0;
+      int previous = -2;
+      for (int i = 0; i < this.cardinality; i++) {
+        final int v = this.content[i];
+        if (v != previous + 1) {
+          runs++;
+        }
+        previous = v;
+      }
+      return runs;
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(this.content, Math.max(this.cardinality, 4)), this.cardinality);
+    }
+
+    ArrayContainer merge(final ArrayContainer other) {
+      final char[] merged = new char[this.cardinality + other.cardinality];
+      int i = 0, j = 0, k = 0;
+      while (i < this.cardinality && j < other.cardinality) {
+        final char a = this.content[i];
+        final char b = other.content[j];
+        if (a < b) {
+          merged[k++] = a;
+          i++;
+        } else if (a > b) {
+          merged[k++] = b;
+          j++;
+        } else {
+          merged[k++] = a;
+          i++;
+          j++;
+        }
+      }
+      while (i < this.cardinality) {
+        merged[k++] = this.content[i++];
+      }
+      while (j < other.cardinality) {
+        merged[k++] = other.content[j++];
+      }
+      return new ArrayContainer(merged, k);
+    }
+
+    Container filter(final Container other, final boolean keepContained) {
+      final char[] filtered = new char[this.cardinality];
+      int k = 0;
+      for (int i = 0; i < this.cardinality; i++) {
+        if (other.contains(this.content[i]) == keepContained) {
+          filtered[k++] = this.content[i];
+        }
+      }
+      return new ArrayContainer(filtered, k).optimize();
+    }
+
+    private int search(final int low) {
+      int lo = 0;
+      int hi = this.cardinality - 1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        final int v = this.content[mid];
+        if (v < low) {
+          lo = mid + 1;
+        } else if (v > low) {
+          hi = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(lo + 1);
+    }
+
+    @Override
+    public String toString() {
+      return "Array(" + this.cardinality + ")";
+    }
+  }
+
+  /**
+   * One bit per possible value of the chunk, for chunks holding more than {@link #ARRAY_MAX_SIZE} values.
+   */
+  private static final class BitmapContainer extends Container {
+    private final long[] words;
+    private int          cardinality;
+
+    BitmapContainer(final long[] words, final int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return this.cardinality;
+    }
+
+    @Override
+    boolean contains(final int low) {
+      return (this.words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    Container add(final int low) {
+      this.words[low >>> 6] |= 1L << low;
+      // a completely filled chunk is a single run
+      if (++this.cardinality == CHUNK_SIZE) { return RunContainer.full(); }
+      return this;
+    }
+
+    @Override
+    Container remove(final int low) {
+      this.words[low >>> 6] &= ~(1L << low);
+      if (--this.cardinality <= ARRAY_MAX_SIZE) { return fromMutableWords(this.words, this.cardinality); }
+      return this;
+    }
+
+    @Override
+    Container orWord(final int wordIndex, final long bits) {
+      final long before = this.words[wordIndex];
+      this.words[wordIndex] = before | bits;
+      this.cardinality += Long.bitCount(bits & ~before);
+      if (this.cardinality == CHUNK_SIZE) { return RunContainer.full(); }
+      return this;
+    }
+
+    @Override
+    int first() {
+      return nextSetBit(this.words, 0);
+    }
+
+    @Override
+    int last() {
+      for (int i = BITMAP_WORDS - 1; i >= 0; i--) {
+        if (this.words[i] != 0) { return (i << 6) + 63 - Long.numberOfLeadingZeros(this.words[i]); }
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    int nextValue(final int from) {
+      return nextSetBit(this.words, from);
+    }
+
+    @Override
+    void orInto(final long[] other) {
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        other[i] |= this.words[i];
+      }
+    }
+
+    @Override
+    void clearFrom(final long[] other) {
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        other[i] &= ~this.words[i];
+      }
+    }
+
+    @Override
+    int runCount() {
+      return runCount(this.words);
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(this.words.clone(), this.cardinality);
+    }
+
+    @Override
+    public String toString() {
+      return "Bitmap(" + this.cardinality + ")";
+    }
+  }
+
+  /**
+   * Sorted, non adjacent runs stored as (start, length - 1) pairs, for chunks that are mostly contiguous.
+   */
+  private static final class RunContainer extends Container {
+    private char[] runs;
+    private int    runCount;
+    private int    cardinality;
+
+    RunContainer(final char[] runs, final int runCount, final int cardinality) {
+      this.runs = runs;
+      this.runCount = runCount;
+      this.cardinality = cardinality;
+    }
+
+    static RunContainer full() {
+      return new RunContainer(new char[] { 0, (char) (CHUNK_SIZE - 1) }, 1, CHUNK_SIZE);
+    }
+
+    static RunContainer fromWords(final long[] words, final int runCount, final int cardinality) {
+      final char[] runs = new char[runCount * 2];
+      int n = 0;
+      int start = nextSetBit(words, 0);
+      while (start >= 0) {
+        final int end = nextClearBit(words, start) - 1;
+        runs[n++] = (char) start;
+        runs[n++] = (char) (end - start);
+        start = nextSetBit(words, end + 1);
+      }
+      return new RunContainer(runs, runCount, cardinality);
+    }
+
+    private int start(final int run) {
+      return this.runs[run * 2];
+    }
+
+    private int end(final int run) {
+      return this.runs[run * 2] + this.runs[run * 2 + 1];
+    }
+
+    private void set(final int run, final int start, final int end) {
+      this.runs[run * 2] = (char) start;
+      this.runs[run * 2 + 1] = (char) (end - start);
+    }
+
+    /**
+     * @return the index of the last run starting at or before low, or -1
+     */
+    private int floorRun(final int low) {
+      int lo = 0;
+      int hi = this.runCount - 1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (start(mid) <= low) {
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return hi;
+    }
+
+    @Override
+    int cardinality() {
+      return this.cardinality;
+    }
+
+    @Override
+    boolean contains(final int low) {
+      final int run = floorRun(low);
+      return run >= 0 && low <= end(run);
+    }
+
+    @Override
+    Container add(final int low) {
+      final int run = floorRun(low);
+      final boolean extendsLeft = run >= 0 && end(run) + 1 == low;
+      final boolean extendsRight = run + 1 < this.runCount && start(run + 1) == low + 1;
+      if (extendsLeft && extendsRight) {
+        set(run, start(run), end(run + 1));
+        deleteRun(run + 1);
+      } else if (extendsLeft) {
+        set(run, start(run), low);
+      } else if (extendsRight) {
+        set(run + 1, low, end(run + 1));
+      } else {
+        if (tooManyRuns(this.runCount + 1, this.cardinality + 1)) { return toMutable().add(low); }
+        insertRun(run + 1, low, low);
+      }
+      this.cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(final int low) {
+      final int run = floorRun(low);
+      final int start = start(run);
+      final int end = end(run);
+      if (start == end) {
+        deleteRun(run);
+      } else if (low == start) {
+        set(run, start + 1, end);
+      } else if (low == end) {
+        set(run, start, end - 1);
+      } else {
+        if (tooManyRuns(this.runCount + 1, this.cardinality - 1)) { return toMutable().remove(low); }
+        set(run, start, low - 1);
+        insertRun(run + 1, low + 1, end);
+      }
+      this.cardinality--;
+      return this;
+    }
+
+    private static boolean tooManyRuns(final int runCount, final int cardinality) {
+      return runCount * 4 > Math.min(cardinality * 2, BITMAP_BYTES);
+    }
+
+    private Container toMutable() {
+      return fromMutableWords(toWords(), this.cardinality);
+    }
+
+    private void insertRun(final int run, final int start, final int end) {
+      if ((this.runCount + 1) * 2 > this.runs.length) {
+        this.runs = Arrays.copyOf(this.runs, Math.max(4, this.runs.length * 2));
+      }
+      System.arraycopy(this.runs, run * 2, this.runs, run * 2 + 2, (this.runCount - run) * 2);
+      this.runCount++;
+      set(run, start, end);
+    }
+
+    private void deleteRun(final int run) {
+      System.arraycopy(this.runs, run * 2 + 2, this.runs, run * 2, (this.runCount - run - 1) * 2);
+      this.runCount--;
+    }
+
+    @Override
+    int first() {
+      return start(0);
+    }
+
+    @Override
+    int last() {
+      return end(this.runCount - 1);
+    }
+
+    @Override
+    int nextValue(final int from) {
+      final int run = floorRun(from);
+      if (run >= 0 && from <= end(run)) { return from; }
+      return run + 1 < this.runCount ? start(run + 1) : -1;
+    }
+
+    @Override
+    void orInto(final long[] words) {
+      for (int i = 0; i < this.runCount; i++) {
+        setRange(words, start(i), end(i));
+      }
+    }
+
+    @Override
+    void clearFrom(final long[] words) {
+      for (int i = 0; i < this.runCount; i++) {
+        clearRange(words, start(i), end(i));
+      }
+    }
+
+    @Override
+    int runCount() {
+      return this.runCount;
+    }
+
+    @Override
+    Container copy() {
+      return new RunContainer(Arrays.copyOf(this.runs, this.runCount * 2), this.runCount, this.cardinality);
+    }
+
+    @Override
+    public String toString() {
+      return "Run(" + this.cardinality + " in " + this.runCount + ")";
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.util;
+
+import org.junit.Test;
+
+import com.tc.object.ObjectID;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RoaringObjectIDSetTest extends ObjectIDSetTestBase {
+  @Override
+  protected ObjectIDSet create() {
+    return new RoaringObjectIDSet();
+  }
+
+  @Override
+  protected ObjectIDSet create(final Collection<ObjectID> copy) {
+    return new RoaringObjectIDSet(copy);
+  }
+
+  @Test
+  public void testFullChunkDrain() {
+    RoaringObjectIDSet set = new RoaringObjectIDSet();
+    TreeSet<ObjectID> expected = new TreeSet<ObjectID>();
+    for (long i = 65536; i < 2 * 65536; i++) {
+      set.add(new ObjectID(i));
+      expected.add(new ObjectID(i));
+    }
+    assertEquals(expected, set);
+
+    Random r = new Random(1);
+    for (int i = 0; i < 100000; i++) {
+      ObjectID id = new ObjectID(65536 + r.nextInt(65536));
+      assertEquals(expected.remove(id), set.remove(id));
+    }
+    assertEquals(expected.size(), set.size());
+    assertEquals(expected, set);
+    assertEquals(expected.first(), set.first());
+    assertEquals(expected.last(), set.last());
+  }
+
+  @Test
+  public void testBulkOperations() {
+    Random r = new Random(2);
+    for (int round = 0; round < 20; round++) {
+      TreeSet<ObjectID> a = randomIDs(r);
+      TreeSet<ObjectID> b = randomIDs(r);
+
+      RoaringObjectIDSet union = new RoaringObjectIDSet(a);
+      TreeSet<ObjectID> expectedUnion = new TreeSet<ObjectID>(a);
+      assertEquals(expectedUnion.addAll(b), union.addAll(new RoaringObjectIDSet(b)));
+      assertEquals(expectedUnion, union);
+
+      RoaringObjectIDSet difference = new RoaringObjectIDSet(a);
+      TreeSet<ObjectID> expectedDifference = new TreeSet<ObjectID>(a);
+      assertEquals(expectedDifference.removeAll(b), difference.removeAll(new RoaringObjectIDSet(b)));
+      assertEquals(expectedDifference, difference);
+
+      RoaringObjectIDSet intersection = new RoaringObjectIDSet(a);
+      TreeSet<ObjectID> expectedIntersection = new TreeSet<ObjectID>(a);
+      assertEquals(expectedIntersection.retainAll(b), intersection.retainAll(new RoaringObjectIDSet(b)));
+      assertEquals(expectedIntersection, intersection);
+      assertEquals(expectedIntersection.size(), intersection.size());
+    }
+  }
+
+  @Test
+  public void testBulkOperationsLeaveArgumentUntouched() {
+    RoaringObjectIDSet a = new RoaringObjectIDSet();
+    RoaringObjectIDSet b = new RoaringObjectIDSet();
+    for (long i = 0; i < 10000; i++) {
+      a.add(new ObjectID(i * 2));
+      b.add(new ObjectID(i));
+    }
+    RoaringObjectIDSet copyOfB = new RoaringObjectIDSet(b);
+    a.addAll(b);
+    a.remove(new ObjectID(1));
+    assertTrue(b.contains(new ObjectID(1)));
+    assertEquals(copyOfB, b);
+
+    a.retainAll(b);
+    b.removeAll(a);
+    assertEquals(1, b.size());
+    assertTrue(b.contains(new ObjectID(1)));
+    assertFalse(a.contains(new ObjectID(1)));
+  }
+
+  private static TreeSet<ObjectID> randomIDs(Random r) {
+    TreeSet<ObjectID> ids = new TreeSet<ObjectID>();
+    long base = r.nextInt(4) * 65536L - 65536L;
+    // a mix of a sequential stretch, a dense block and scattered ids
+    long start = base + r.nextInt(65536);
+    for (long i = start; i < start + r.nextInt(100000); i++) {
+      ids.add(new ObjectID(i));
+    }
+    for (int i = 0; i < 20000; i++) {
+      ids.add(new ObjectID(base + r.nextInt(3 * 65536)));
+    }
+    for (int i = 0; i < 1000; i++) {
+      ids.add(new ObjectID(r.nextLong()));
+    }
+    return ids;
+  }
+}
@@ -26,6 +26,7 @@ import com.tc.server.ServerEventType;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 public interface TCObjectServerMap<L> extends TCObject {
 
@@ -180,6 +181,18 @@ public interface TCObjectServerMap<L> extends TCObject {
    */
   Object getValueUnlocked(final TCServerMap map, final Object key) throws AbortedOperationException;
 
+  /**
+   * Non-blocking variant of {@link #getValueUnlocked(TCServerMap, Object)}. A local cache hit returns a completed
+   * future, a miss sends the server lookup and returns at once. The value is resolved and cached on the thread calling
+   * {@link Future#get()}, never on the thread that receives the response.
+   * 
+   * @param map ServerTCMap
+   * @param key Key Object : Note currently only literal keys or shared keys are supported.
+   * @return future of the value Object in the mapping, completed with null if no mapping present.
+   * @throws AbortedOperationException
+   */
+  Future<Object> getValueUnlockedAsync(final TCServerMap map, final Object key) throws AbortedOperationException;
+
   /**
    * Returns the VersionedObject for a particular key in a TCServerMap. It always fetches it from the server. LocalCache
    * is not read.
@@ -195,6 +208,18 @@ public interface TCObjectServerMap<L> extends TCObject {
   Map<Object, Object> getAllValuesUnlocked(final SetMultimap<ObjectID, Object> mapIdToKeysMap)
       throws AbortedOperationException;
 
+  /**
+   * Returns the values for the given keys, which must all be read locked by the current thread. Values missing from
+   * the local caches are fetched with one request per map and cached as strong values under their lock.
+   * 
+   * @param mapIdToKeysMap keys per map, mutated to drop the keys found in the local caches
+   * @param lockIDs lock under which each key is held
+   * @return values per key, null if no mapping present
+   * @throws AbortedOperationException
+   */
+  Map<Object, Object> getAllValuesLocked(final SetMultimap<ObjectID, Object> mapIdToKeysMap,
+                                         final Map<Object, L> lockIDs) throws AbortedOperationException;
+
   Map<Object, VersionedObject> getAllVersioned(final SetMultimap<ObjectID, Object> mapIdToKeysMap) throws AbortedOperationException;
 
   /**
@@ -61,6 +61,12 @@ public interface PlatformService {
 
   void beginLock(final Object lockID, final LockLevel level) throws AbortedOperationException;
 
+  /**
+   * Begins locks on a set of distinct lock ids, given in a canonical order, with their server requests in flight
+   * together. Either all are begun or none is; each one is ended with {@link #commitLock}.
+   */
+  void beginLocks(List<?> lockIDs, LockLevel level) throws AbortedOperationException;
+
   void beginLockInterruptibly(Object obj, LockLevel level) throws InterruptedException, AbortedOperationException;
 
   void commitLock(final Object lockID, final LockLevel level) throws AbortedOperationException;
@@ -48,6 +48,7 @@ import com.tc.util.ObjectIDSet;
 import com.tc.util.State;
 import com.tc.util.Util;
 import com.tc.util.VicariousThreadLocal;
+import com.tc.util.concurrent.ConcurrentLongHashMap;
 import com.tc.util.concurrent.StoppableThread;
 
 import java.io.IOException;
@@ -55,7 +56,6 @@ import java.io.PrintWriter;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -64,12 +64,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ClientObjectManagerImpl implements ClientObjectManager, ClientHandshakeCallback, PortableObjectProvider,
     PrettyPrintable {
   private static final long                      CONCURRENT_LOOKUP_TIMED_WAIT = TimeUnit.SECONDS.toMillis(1L);
   // REFERENCE_MAP_SEG must be power of 2
   private static final int                       REFERENCE_MAP_SEGS           = 32;
+  // LOOKUP_STRIPES must be power of 2
+  private static final int                       LOOKUP_STRIPES               = 64;
   private static final State                     PAUSED                       = new State("PAUSED");
   private static final State                     RUNNING                      = new State("RUNNING");
   private static final State                     STARTING                     = new State("STARTING");
@@ -106,7 +109,13 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
   private final Portability                      portability;
   private final ReferenceQueue                   referenceQueue               = new ReferenceQueue();
 
-  private final Map<ObjectID, ObjectLookupState> objectLatchStateMap          = new HashMap<ObjectID, ObjectLookupState>();
+  private final Map<ObjectID, ObjectLookupState> objectLatchStateMap          = new ConcurrentHashMap<ObjectID, ObjectLookupState>(
+                                                                                  256, 0.75f, LOOKUP_STRIPES);
+  /**
+   * Guards lookup latches and local adds/removes per ObjectID. Lookups of unrelated objects take different stripes;
+   * rejoin and handshake take every stripe (always after the object manager monitor) to get a consistent view.
+   */
+  private final ReentrantLock[]                  lookupStripes                = newLookupStripes();
   private final ThreadLocal<LocalLookupContext>  localLookupContext           = new VicariousThreadLocal() {
 
                                                                                 @Override
@@ -155,20 +164,52 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
     checkAndSetstate();
     // tcObjectSelfStore (or L1ServerMapLocalCacheManager) will be cleanup from RemoteServerMapManagerImpl
     // remoteObjectManager will be cleanup from clientHandshakeCallbacks
-    currentSession++;
-    pojoToManaged.clear();
-    objectStore.cleanup();
+    lockAllLookupStripes();
+    try {
+      currentSession++;
+      pojoToManaged.clear();
+      objectStore.cleanup();
+      for (ObjectLookupState latchState : objectLatchStateMap.values()) {
+        latchState.setObject(null);
+      }
+      objectLatchStateMap.clear();
+    } finally {
+      unlockAllLookupStripes();
+    }
     clientTxManager.cleanup();
     while (referenceQueue.poll() != null) {
       // cleanup the referenceQueue
     }
-    for (ObjectLookupState latchState : objectLatchStateMap.values()) {
-      latchState.setObject(null);
-    }
-    objectLatchStateMap.clear();
     rootsHolder.cleanup();
   }
 
+  private static ReentrantLock[] newLookupStripes() {
+    final ReentrantLock[] stripes = new ReentrantLock[LOOKUP_STRIPES];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+    return stripes;
+  }
+
+  private ReentrantLock lookupStripeFor(final ObjectID id) {
+    long h = id.toLong();
+    h ^= (h >>> 32);
+    h ^= (h >>> 16);
+    return this.lookupStripes[(int) h & (LOOKUP_STRIPES - 1)];
+  }
+
+  private void lockAllLookupStripes() {
+    for (final ReentrantLock stripe : this.lookupStripes) {
+      stripe.lock();
+    }
+  }
+
+  private void unlockAllLookupStripes() {
+    for (int i = this.lookupStripes.length - 1; i >= 0; i--) {
+      this.lookupStripes[i].unlock();
+    }
+  }
+
   private void checkAndSetstate() {
     throwExceptionIfNecessary(true);
     state = REJOIN_IN_PROGRESS;
@@ -256,11 +297,11 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
     if (this.state == RUNNING) { throw new AssertionError(message + ": " + this.state); }
   }
 
-  protected synchronized boolean isPaused() {
+  protected boolean isPaused() {
     return this.state == PAUSED;
   }
 
-  private synchronized boolean isShutdown() {
+  private boolean isShutdown() {
     return this.state == SHUTDOWN;
   }
 
@@ -289,20 +330,24 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
     lookupContext.getObjectCreationCount().incrementAndGet();
   }
 
-  private synchronized ObjectLookupState lookupDone(final ObjectLookupState lookupState) {
+  private ObjectLookupState lookupDone(final ObjectLookupState lookupState) {
+    final ReentrantLock stripe = lookupStripeFor(lookupState.getObjectID());
+    stripe.lock();
     try {
-      ObjectLookupState removed = this.objectLatchStateMap.remove(lookupState.getObjectID());
-      if (removed != lookupState) {
-        // removed can be null if rejoin cleans up state during lookup.
+      ObjectLookupState current = this.objectLatchStateMap.get(lookupState.getObjectID());
+      if (current != lookupState) {
+        // current can be null (or a later session's lookup, which must stay) if rejoin cleans up state during lookup.
         if (lookupState.getSession() != currentSession) {
           throw new PlatformRejoinException("lookup failed for ObjectID" + lookupState.getObjectID() + " due to rejoin");
         } else {
-          throw new AssertionError("wrong removal of lookup state " + removed + " " + lookupState);
+          throw new AssertionError("wrong removal of lookup state " + current + " " + lookupState);
         }
 
       }
+      this.objectLatchStateMap.remove(lookupState.getObjectID());
       return lookupState;
     } finally {
+      stripe.unlock();
       getLocalLookupContext().getObjectCreationCount().decrementAndGet();
     }
   }
@@ -398,10 +443,14 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
   public void preFetchObject(final ObjectID id) throws AbortedOperationException {
     if (id.isNull()) return;
 
-    synchronized (this) {
+    final ReentrantLock stripe = lookupStripeFor(id);
+    stripe.lock();
+    try {
       if (basicHasLocal(id) || this.objectLatchStateMap.get(id) != null) { return; }
       // We are temporarily marking lookup in progress so that no other thread sneaks in under us and does a lookup
       // while we are calling prefetch
+    } finally {
+      stripe.unlock();
     }
     this.remoteObjectManager.preFetchObject(id);
   }
@@ -434,7 +483,9 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
   }
 
   private void reap(final ObjectID objectID) {
-    synchronized (this) {
+    final ReentrantLock stripe = lookupStripeFor(objectID);
+    stripe.lock();
+    try {
       final TCObjectImpl tcobj = (TCObjectImpl) basicLookupByID(objectID);
       if (tcobj == null) {
         if (this.logger.isDebugEnabled()) {
@@ -443,11 +494,13 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
       } else {
         if (tcobj.isNull()) {
           this.objectStore.remove(tcobj);
-          // Calling remove from within the synchronized block to make sure there are no races between the lookups and
+          // Calling remove while holding the lookup stripe to make sure there are no races between the lookups and
           // remove.
           this.remoteObjectManager.removed(objectID);
         }
       }
+    } finally {
+      stripe.unlock();
     }
   }
 
@@ -468,24 +521,30 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
     return lookup(id, false, true);
   }
 
-  private synchronized ObjectLookupState startLookup(ObjectID oid) {
-    if (this.state == REJOIN_IN_PROGRESS) { throw new PlatformRejoinException("Unable to start lookup for objectID"
-                                                                              + oid
-                                                                              + " due to rejoin in progress state"); }
-    ObjectLookupState ols;
-    TCObject local = basicLookupByID(oid);
+  private ObjectLookupState startLookup(ObjectID oid) {
+    final ReentrantLock stripe = lookupStripeFor(oid);
+    stripe.lock();
+    try {
+      if (this.state == REJOIN_IN_PROGRESS) { throw new PlatformRejoinException("Unable to start lookup for objectID"
+                                                                                + oid
+                                                                                + " due to rejoin in progress state"); }
+      ObjectLookupState ols;
+      TCObject local = basicLookupByID(oid);
 
-    if (local != null) { return new ObjectLookupState(local); }
+      if (local != null) { return new ObjectLookupState(local); }
 
-    ols = this.objectLatchStateMap.get(oid);
-    if (ols != null) {
-      // if the object is being created, add to the wait set and return the object
-    } else {
-      ols = new ObjectLookupState(oid);
-      final Object old = this.objectLatchStateMap.put(oid, ols);
-      Assert.assertNull(old);
+      ols = this.objectLatchStateMap.get(oid);
+      if (ols != null) {
+        // if the object is being created, add to the wait set and return the object
+      } else {
+        ols = new ObjectLookupState(oid);
+        final Object old = this.objectLatchStateMap.put(oid, ols);
+        Assert.assertNull(old);
+      }
+      return ols;
+    } finally {
+      stripe.unlock();
     }
-    return ols;
   }
 
   private TCObject lookup(final ObjectID id, final boolean noDepth, final boolean quiet)
@@ -570,19 +629,28 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
 
   @Override
   public void removedTCObjectSelfFromStore(TCObjectSelf tcoSelf) {
-    synchronized (this) {
-      // Calling remove from within the synchronized block to make sure there are no races between the lookups and
+    final ReentrantLock stripe = lookupStripeFor(tcoSelf.getObjectID());
+    stripe.lock();
+    try {
+      // Calling remove while holding the lookup stripe to make sure there are no races between the lookups and
       // remove.
       if (logger.isDebugEnabled()) {
         logger.debug("XXX Removing TCObjectSelf from L1 with ObjectID=" + tcoSelf.getObjectID());
       }
 
       this.remoteObjectManager.removed(tcoSelf.getObjectID());
+    } finally {
+      stripe.unlock();
     }
   }
 
   protected synchronized Set addAllObjectIDs(final Set oids, final NodeID remoteNode) {
-    return this.objectStore.addAllObjectIDs(oids);
+    lockAllLookupStripes();
+    try {
+      return this.objectStore.addAllObjectIDs(oids);
+    } finally {
+      unlockAllLookupStripes();
+    }
   }
 
   @Override
@@ -760,7 +828,7 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
   }
 
   private TCObject basicLookupByID(final ObjectID id) {
-    if (!Thread.holdsLock(this)) { throw new AssertionError("not holding lock"); }
+    if (!lookupStripeFor(id).isHeldByCurrentThread()) { throw new AssertionError("not holding lock"); }
     return this.objectStore.get(id);
   }
 
@@ -785,28 +853,34 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
     return this.pojoToManaged.get(obj);
   }
 
-  private synchronized void basicAddLocal(final TCObject obj) {
+  private void basicAddLocal(final TCObject obj) {
     final ObjectID id = obj.getObjectID();
-    if (basicHasLocal(id)) { throw Assert.failure("Attempt to add an object that already exists: Object of class "
-                                                  + obj.getClass() + " [Identity Hashcode : 0x"
-                                                  + Integer.toHexString(System.identityHashCode(obj)) + "] "); }
-    this.objectStore.add(obj);
-
-    final Object pojo = obj.getPeerObject();
-
-    if (pojo != null) {
-      if (pojo instanceof Manageable) {
-        final Manageable m = (Manageable) pojo;
-        if (m.__tc_managed() == null) {
-          m.__tc_managed(obj);
+    final ReentrantLock stripe = lookupStripeFor(id);
+    stripe.lock();
+    try {
+      if (basicHasLocal(id)) { throw Assert.failure("Attempt to add an object that already exists: Object of class "
+                                                    + obj.getClass() + " [Identity Hashcode : 0x"
+                                                    + Integer.toHexString(System.identityHashCode(obj)) + "] "); }
+      this.objectStore.add(obj);
+
+      final Object pojo = obj.getPeerObject();
+
+      if (pojo != null) {
+        if (pojo instanceof Manageable) {
+          final Manageable m = (Manageable) pojo;
+          if (m.__tc_managed() == null) {
+            m.__tc_managed(obj);
+          } else {
+            Assert.assertTrue(m.__tc_managed() == obj);
+          }
         } else {
-          Assert.assertTrue(m.__tc_managed() == obj);
-        }
-      } else {
-        if (!isLiteralPojo(pojo)) {
-          this.pojoToManaged.put(pojo, obj);
+          if (!isLiteralPojo(pojo)) {
+            this.pojoToManaged.put(pojo, obj);
+          }
         }
       }
+    } finally {
+      stripe.unlock();
     }
   }
 
@@ -964,8 +1038,8 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
 
   private static final class ObjectStore {
 
-    private final ConcurrentHashMap objectStoreMap = new ConcurrentHashMap<ObjectID, TCObject>(10240, 0.75f, 128);
-    private final TCObjectSelfStore tcObjectSelfStore;
+    private final ConcurrentLongHashMap<TCObject> objectStoreMap = new ConcurrentLongHashMap<TCObject>(10240, 128);
+    private final TCObjectSelfStore               tcObjectSelfStore;
 
     ObjectStore(TCObjectSelfStore tcObjectSelfStore) {
       this.tcObjectSelfStore = tcObjectSelfStore;
@@ -990,11 +1064,11 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
         return;
       }
 
-      this.objectStoreMap.put(obj.getObjectID(), obj);
+      this.objectStoreMap.put(obj.getObjectID().toLong(), obj);
     }
 
     public TCObject get(final ObjectID id) {
-      TCObject tc = (TCObject) this.objectStoreMap.get(id);
+      TCObject tc = this.objectStoreMap.get(id.toLong());
       if (tc == null) {
         tc = (TCObject) tcObjectSelfStore.getById(id);
       }
@@ -1002,7 +1076,9 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
     }
 
     public Set addAllObjectIDs(final Set oids) {
-      oids.addAll(this.objectStoreMap.keySet());
+      for (final long id : this.objectStoreMap.keys()) {
+        oids.add(new ObjectID(id));
+      }
       this.tcObjectSelfStore.addAllObjectIDs(oids);
       return oids;
     }
@@ -1011,7 +1087,7 @@ public class ClientObjectManagerImpl implements ClientObjectManager, ClientHands
       if (tcobj instanceof TCObjectSelf) { throw new AssertionError(
                                                                     "TCObjectSelf should not have called removed from here: "
                                                                         + tcobj); }
-      this.objectStoreMap.remove(tcobj.getObjectID());
+      this.objectStoreMap.remove(tcobj.getObjectID().toLong());
     }
 
   }
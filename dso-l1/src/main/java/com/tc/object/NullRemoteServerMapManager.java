@@ -16,6 +16,7 @@
  */
 package com.tc.object;
 
+import com.google.common.util.concurrent.Futures;
 import com.tc.invalidation.Invalidations;
 import com.tc.net.GroupID;
 import com.tc.net.NodeID;
@@ -26,6 +27,7 @@ import com.tc.text.PrettyPrinter;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 public final class NullRemoteServerMapManager implements RemoteServerMapManager {
 
@@ -69,6 +71,11 @@ public final class NullRemoteServerMapManager implements RemoteServerMapManager
     return null;
   }
 
+  @Override
+  public Future<Object> getMappingForKeyAsync(final ObjectID oid, final Object portableKey) {
+    return Futures.<Object> immediateFuture(null);
+  }
+
   @Override
   public Set getAllKeys(ObjectID oid) {
     //
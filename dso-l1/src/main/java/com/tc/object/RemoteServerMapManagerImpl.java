@@ -16,6 +16,7 @@
  */
 package com.tc.object;
 
+import com.google.common.util.concurrent.SettableFuture;
 import com.tc.abortable.AbortableOperationManager;
 import com.tc.abortable.AbortedOperationException;
 import com.tc.exception.PlatformRejoinException;
@@ -53,8 +54,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
 
@@ -75,13 +82,14 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   private final TCLogger                                                 logger;
   private final SessionManager                                           sessionManager;
   private final RemoteObjectManager                                      remoteObjectManager;
-  private final Map<ServerMapRequestID, AbstractServerMapRequestContext> outstandingRequests                       = new HashMap<ServerMapRequestID, AbstractServerMapRequestContext>();
+  private final Map<ServerMapRequestID, AbstractServerMapRequestContext> outstandingRequests                       = new ConcurrentHashMap<ServerMapRequestID, AbstractServerMapRequestContext>();
+  private final Queue<AbstractServerMapRequestContext>                   pendingRequests                           = new ConcurrentLinkedQueue<AbstractServerMapRequestContext>();
   private final TaskRunner                                               taskRunner;
   private final AbortableOperationManager                                abortableOperationManager;
 
   private volatile State                                                 state                                     = State.RUNNING;
-  private long                                                           requestIDCounter                          = 0;
-  private boolean                                                        pendingSendTaskScheduled                  = false;
+  private final AtomicLong                                               requestIDCounter                          = new AtomicLong();
+  private final AtomicBoolean                                            pendingSendTaskScheduled                  = new AtomicBoolean();
 
   // private final Sink ttiTTLEvitionSink;
   private final L1ServerMapLocalCacheManager                             globalLocalCacheManager;
@@ -113,8 +121,10 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   @Override
   public synchronized void cleanup() {
     checkAndSetstate();
+    abandonAllRequests(new PlatformRejoinException());
     outstandingRequests.clear();
-    pendingSendTaskScheduled = false;
+    pendingRequests.clear();
+    pendingSendTaskScheduled.set(false);
     globalLocalCacheManager.cleanup();
     reInvalidateHandler.shutdown();
     reInvalidateHandler = new ReInvalidateHandler(globalLocalCacheManager, taskRunner);
@@ -144,36 +154,50 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
    * @throws AbortedOperationException
    */
   @Override
-  public synchronized Object getMappingForKey(final ObjectID oid, final Object portableKey)
+  public Object getMappingForKey(final ObjectID oid, final Object portableKey)
       throws AbortedOperationException {
     assertSameGroupID(oid);
-    waitUntilRunningAbortable();
 
     final AbstractServerMapRequestContext context = createLookupValueRequestContext(oid,
                                                                                     Collections.singleton(portableKey));
     context.makeLookupRequest();
+    registerWhenRunning(context);
     sendRequest(context);
     Map<Object, Object> result = waitForResult(context);
     return result.get(portableKey);
   }
 
   @Override
-  public synchronized void getMappingForAllKeys(final Map<ObjectID, Set<Object>> mapIdToKeysMap, Map<Object, Object> rv)
+  public Future<Object> getMappingForKeyAsync(final ObjectID oid, final Object portableKey)
+      throws AbortedOperationException {
+    assertSameGroupID(oid);
+
+    final AsyncGetValueServerMapRequestContext context = new AsyncGetValueServerMapRequestContext(getNextRequestID(),
+                                                                                                  oid, portableKey,
+                                                                                                  this.groupID);
+    context.makeLookupRequest();
+    registerWhenRunning(context);
+    sendRequest(context);
+    return context.getFuture();
+  }
+
+  @Override
+  public void getMappingForAllKeys(final Map<ObjectID, Set<Object>> mapIdToKeysMap, Map<Object, Object> rv)
       throws AbortedOperationException {
     Set<AbstractServerMapRequestContext> contextsToWaitFor = sendRequestForAllKeys(mapIdToKeysMap);
     waitForResults(contextsToWaitFor, rv);
   }
 
-  protected synchronized Set<AbstractServerMapRequestContext> sendRequestForAllKeys(final Map<ObjectID, Set<Object>> mapIdToKeysMap)
+  protected Set<AbstractServerMapRequestContext> sendRequestForAllKeys(final Map<ObjectID, Set<Object>> mapIdToKeysMap)
       throws AbortedOperationException {
     Set<AbstractServerMapRequestContext> contextsToWaitFor = new HashSet<AbstractServerMapRequestContext>();
-    waitUntilRunningAbortable();
     for (Entry<ObjectID, Set<Object>> entry : mapIdToKeysMap.entrySet()) {
       ObjectID mapId = entry.getKey();
       Set<Object> keys = entry.getValue();
       assertSameGroupID(mapId);
       final AbstractServerMapRequestContext context = createLookupValueRequestContext(mapId, keys);
       context.makeLookupRequest();
+      registerWhenRunning(context);
       contextsToWaitFor.add(context);
       sendRequest(context);
     }
@@ -181,12 +205,12 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   }
 
   @Override
-  public synchronized Set getAllKeys(ObjectID mapID) throws AbortedOperationException {
+  public Set getAllKeys(ObjectID mapID) throws AbortedOperationException {
     assertSameGroupID(mapID);
-    waitUntilRunningAbortable();
 
     final AbstractServerMapRequestContext context = createGetAllKeysRequestContext(mapID);
     context.makeLookupRequest();
+    registerWhenRunning(context);
     sendRequestNow(context);
     Map<Object, Object> result = waitForResult(context);
     Assert.assertTrue(result.containsKey(ALL_KEYS));
@@ -200,14 +224,14 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   }
 
   @Override
-  public synchronized long getAllSize(final ObjectID[] mapIDs) throws AbortedOperationException {
+  public long getAllSize(final ObjectID[] mapIDs) throws AbortedOperationException {
     for (ObjectID mapId : mapIDs) {
       assertSameGroupID(mapId);
     }
-    waitUntilRunningAbortable();
 
     final AbstractServerMapRequestContext context = createGetAllSizeRequestContext(mapIDs);
     context.makeLookupRequest();
+    registerWhenRunning(context);
     sendRequestNow(context);
     Map<Object, Object> result = waitForResult(context);
     Assert.assertTrue(result.containsKey(SIZE_KEY));
@@ -216,7 +240,7 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
 
   /**
    * Waits in quantums of {@link #RESULT_WAIT_MAXTIME_MILLIS} until result corresponding to context is available from
-   * the server.
+   * the server. The wait is on the context itself, so only the thread that issued the request is woken by its response.
    */
   private Map<Object, Object> waitForResult(final AbstractServerMapRequestContext context)
       throws AbortedOperationException {
@@ -224,9 +248,11 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
     try {
       while (true) {
         if (isStopped()) { throw new TCNotRunningException(); }
-        if (isRejoinInProgress()) { throw new PlatformRejoinException(); }
+        if (isRejoinInProgress() || !isOutstanding(context) || context.isAbandoned()) {
+          throw new PlatformRejoinException();
+        }
         try {
-          wait(RESULT_WAIT_MAXTIME_MILLIS);
+          context.waitForResponse(RESULT_WAIT_MAXTIME_MILLIS);
         } catch (final InterruptedException e) {
           checkIfAbortedAndRemoveContexts(context);
           isInterrupted = true;
@@ -248,17 +274,20 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
 
   /**
    * Waits in quantums of {@link #RESULT_WAIT_MAXTIME_MILLIS} until results corresponding to contextsToWaitFor are
-   * available from the server.
+   * available from the server. Each quantum is spent waiting on one context that is still outstanding.
    */
-  protected synchronized void waitForResults(Set<AbstractServerMapRequestContext> contextsToWaitFor,
-                                             Map<Object, Object> rv) throws AbortedOperationException {
+  protected void waitForResults(Set<AbstractServerMapRequestContext> contextsToWaitFor, Map<Object, Object> rv)
+      throws AbortedOperationException {
     boolean isInterrupted = false;
     try {
       while (!allRequestsDone(contextsToWaitFor, rv)) {
         if (isStopped()) { throw new TCNotRunningException(); }
-        if (isRejoinInProgress()) { throw new PlatformRejoinException(); }
+        AbstractServerMapRequestContext context = contextsToWaitFor.iterator().next();
+        if (isRejoinInProgress() || !isOutstanding(context) || context.isAbandoned()) {
+          throw new PlatformRejoinException();
+        }
         try {
-          wait(RESULT_WAIT_MAXTIME_MILLIS);
+          context.waitForResponse(RESULT_WAIT_MAXTIME_MILLIS);
         } catch (final InterruptedException e) {
           checkIfAbortedAndRemoveContexts(contextsToWaitFor);
           isInterrupted = true;
@@ -303,9 +332,9 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
 
   private void scheduleRequestForLater(final AbstractServerMapRequestContext context) {
     context.makePending();
-    if (!pendingSendTaskScheduled) {
+    pendingRequests.add(context);
+    if (pendingSendTaskScheduled.compareAndSet(false, true)) {
       requestsTimer.schedule(new SendPendingRequestsTask(), BATCH_LOOKUP_TIME_PERIOD, TimeUnit.MILLISECONDS);
-      pendingSendTaskScheduled = true;
     }
   }
 
@@ -325,10 +354,12 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
 
   /**
    * Only GET_VALUE_FOR_KEY requests are batched, its a little ugly to assume that here. Needs some refactoring.
+   * <p>
+   * The scheduled flag is cleared before draining, so a request queued after the drain started schedules its own task.
    */
-  public synchronized void sendPendingRequests() {
+  public void sendPendingRequests() {
     waitUntilRunning();
-    this.pendingSendTaskScheduled = false;
+    this.pendingSendTaskScheduled.set(false);
     final ServerMapRequestMessage msg = this.smmFactory
         .newServerMapRequestMessage(this.groupID, ServerMapRequestType.GET_VALUE_FOR_KEY);
     initializeMessageWithPendingRequests(msg);
@@ -338,14 +369,15 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   }
 
   private void initializeMessageWithPendingRequests(final ServerMapRequestMessage msg) {
-    for (final AbstractServerMapRequestContext context : this.outstandingRequests.values()) {
-      if (context.isPending()) {
-        if (context.getRequestType() != ServerMapRequestType.GET_VALUE_FOR_KEY) {
-          // Only GET_VALUE_FOR_KEY Requests are batched here
-          throw new AssertionError(context.getRequestType()
-                                   + " requests are not batched so it should never be pending : " + context);
-        }
-        context.makeUnPending();
+    AbstractServerMapRequestContext context;
+    while ((context = this.pendingRequests.poll()) != null) {
+      if (context.getRequestType() != ServerMapRequestType.GET_VALUE_FOR_KEY) {
+        // Only GET_VALUE_FOR_KEY Requests are batched here
+        throw new AssertionError(context.getRequestType() + " requests are not batched so it should never be pending : "
+                                 + context);
+      }
+      // aborted or already answered (e.g. resent on unpause) requests are dropped from the batch
+      if (isOutstanding(context) && context.unPendIfPending()) {
         context.initializeMessage(msg);
       }
     }
@@ -360,10 +392,20 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
 
   private AbstractServerMapRequestContext createGetAllSizeRequestContext(final ObjectID[] maps) {
     final ServerMapRequestID requestID = getNextRequestID();
-    final GetAllSizeServerMapRequestContext context = new GetAllSizeServerMapRequestContext(requestID, maps,
-                                                                                            this.groupID);
-    this.outstandingRequests.put(requestID, context);
-    return context;
+    return new GetAllSizeServerMapRequestContext(requestID, maps, this.groupID);
+  }
+
+  /**
+   * Makes the context outstanding once the manager is running. The state is checked under the lock every state change
+   * holds, so no pause or rejoin cleanup can come between the check and the registration: a context registered before
+   * a pause is resent by {@link #requestOutstanding()} on unpause, and one registered before a rejoin cleanup is
+   * abandoned by it.
+   */
+  private void registerWhenRunning(final AbstractServerMapRequestContext context) throws AbortedOperationException {
+    synchronized (this) {
+      waitUntilRunningAbortableLocked();
+      this.outstandingRequests.put(context.getRequestID(), context);
+    }
   }
 
   synchronized void requestOutstanding() {
@@ -373,26 +415,31 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
     }
   }
 
+  private boolean isOutstanding(final AbstractServerMapRequestContext context) {
+    return this.outstandingRequests.get(context.getRequestID()) == context;
+  }
+
+  private void abandonAllRequests(final RuntimeException reason) {
+    for (final AbstractServerMapRequestContext context : this.outstandingRequests.values()) {
+      context.abandon(reason);
+    }
+  }
+
   private void removeRequestContext(final AbstractServerMapRequestContext context) {
     final Object old = this.outstandingRequests.remove(context.getRequestID());
-    if (old != context) { throw new AssertionError("Removed wrong context. context = " + context + " old = " + old); }
+    // old is null when a rejoin cleanup cleared the table while the requester was finishing
+    if (old != null && old != context) { throw new AssertionError("Removed wrong context. context = " + context + " old = " + old); }
   }
 
   private AbstractServerMapRequestContext createLookupValueRequestContext(final ObjectID oid,
                                                                           final Set<Object> portableKeys) {
     final ServerMapRequestID requestID = getNextRequestID();
-    final GetValueServerMapRequestContext context = new GetValueServerMapRequestContext(requestID, oid, portableKeys,
-                                                                                        this.groupID);
-    this.outstandingRequests.put(requestID, context);
-    return context;
+    return new GetValueServerMapRequestContext(requestID, oid, portableKeys, this.groupID);
   }
 
   private AbstractServerMapRequestContext createGetAllKeysRequestContext(final ObjectID mapID) {
     final ServerMapRequestID requestID = getNextRequestID();
-    final GetAllKeysServerMapRequestContext context = new GetAllKeysServerMapRequestContext(requestID, mapID,
-                                                                                            this.groupID);
-    this.outstandingRequests.put(requestID, context);
-    return context;
+    return new GetAllKeysServerMapRequestContext(requestID, mapID, this.groupID);
   }
 
   private AbstractServerMapRequestContext getRequestContext(final ServerMapRequestID requestID) {
@@ -400,9 +447,9 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   }
 
   @Override
-  public synchronized void addResponseForKeyValueMapping(final SessionID sessionID, final ObjectID mapID,
-                                                         final Collection<ServerMapGetValueResponse> responses,
-                                                         final NodeID nodeID) {
+  public void addResponseForKeyValueMapping(final SessionID sessionID, final ObjectID mapID,
+                                            final Collection<ServerMapGetValueResponse> responses,
+                                            final NodeID nodeID) {
     waitUntilRunning();
     if (!this.sessionManager.isCurrentSession(nodeID, sessionID)) {
       this.logger.warn("Ignoring response for ServerMap :  " + mapID + " ,  responses :" + responses.size()
@@ -410,20 +457,27 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
       return;
     }
     for (final ServerMapGetValueResponse r : responses) {
-      setResultForRequest(sessionID, mapID, r.getRequestID(), r.getValues(), nodeID);
+      // objects go in first so that a requester woken by the result finds them locally
       addResponseToObjectManager(r.getValues());
-      if (getRequestContext(r.getRequestID()) == null) {
+      setResultForRequest(sessionID, mapID, r.getRequestID(), r.getValues(), nodeID);
+      final AbstractServerMapRequestContext context = getRequestContext(r.getRequestID());
+      if (context == null) {
         // Request was aborted, so we need to clean up.
         cleanupObjectManagerOnAbort(r.getValues());
+      } else if (context instanceof AsyncGetValueServerMapRequestContext) {
+        // nobody waits to remove an async request, it is done once completed
+        removeRequestContext(context);
+        if (((AsyncGetValueServerMapRequestContext) context).isCancelled()) {
+          cleanupObjectManagerOnAbort(r.getValues());
+        }
       }
     }
-    notifyAll();
   }
 
   @Override
-  public synchronized void addResponseForGetAllSize(final SessionID sessionID, final GroupID gID,
-                                                    final ServerMapRequestID requestID, final Long size,
-                                                    final NodeID nodeID) {
+  public void addResponseForGetAllSize(final SessionID sessionID, final GroupID gID,
+                                       final ServerMapRequestID requestID, final Long size,
+                                       final NodeID nodeID) {
     waitUntilRunning();
     if (!this.sessionManager.isCurrentSession(nodeID, sessionID)) {
       this.logger.warn("Ignoring response for ServerMap :  " + requestID + " , size : " + size
@@ -433,13 +487,12 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
     Map<Object, Object> sizeMap = new HashMap<Object, Object>();
     sizeMap.put(SIZE_KEY, size);
     setResultForRequest(sessionID, ObjectID.NULL_ID, requestID, sizeMap, nodeID);
-    notifyAll();
   }
 
   @Override
-  public synchronized void addResponseForGetAllKeys(final SessionID sessionID, final ObjectID mapID,
-                                                    final ServerMapRequestID requestID, final Set keys,
-                                                    final NodeID nodeID) {
+  public void addResponseForGetAllKeys(final SessionID sessionID, final ObjectID mapID,
+                                       final ServerMapRequestID requestID, final Set keys,
+                                       final NodeID nodeID) {
     waitUntilRunning();
     if (!this.sessionManager.isCurrentSession(nodeID, sessionID)) {
       this.logger.warn("Ignoring response for ServerMap :  " + mapID + " , " + requestID + " , keys.size : "
@@ -449,12 +502,11 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
     Map<Object, Object> allKeysMap = new HashMap<Object, Object>();
     allKeysMap.put(ALL_KEYS, keys);
     setResultForRequest(sessionID, mapID, requestID, allKeysMap, nodeID);
-    notifyAll();
   }
 
   @Override
-  public synchronized void objectNotFoundFor(final SessionID sessionID, final ObjectID mapID,
-                                             final ServerMapRequestID requestID, final NodeID nodeID) {
+  public void objectNotFoundFor(final SessionID sessionID, final ObjectID mapID,
+                                final ServerMapRequestID requestID, final NodeID nodeID) {
     waitUntilRunning();
     if (!this.sessionManager.isCurrentSession(nodeID, sessionID)) {
       this.logger.warn("Ignoring Missing Object IDs " + mapID + " from a different session: " + sessionID + ", "
@@ -462,8 +514,12 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
       return;
     }
     final AbstractServerMapRequestContext context = this.outstandingRequests.get(requestID);
-    context.makeMissingObject();
-    notifyAll();
+    if (context != null) {
+      context.makeMissingObject();
+      if (context instanceof AsyncGetValueServerMapRequestContext) {
+        removeRequestContext(context);
+      }
+    }
   }
 
   private void setResultForRequest(final SessionID sessionID, final ObjectID mapID, final ServerMapRequestID requestID,
@@ -507,9 +563,9 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   }
 
   /**
-   * To be used by methods which are called by the App thread.
+   * To be used by methods which are called by the App thread, holding the manager lock.
    */
-  private void waitUntilRunningAbortable() throws AbortedOperationException {
+  private void waitUntilRunningAbortableLocked() throws AbortedOperationException {
     boolean isInterrupted = false;
     try {
       while (this.state != State.RUNNING) {
@@ -531,6 +587,13 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
    * To be used by methods which are directly called by the Stage thread.
    */
   private void waitUntilRunning() {
+    if (this.state == State.RUNNING) { return; }
+    synchronized (this) {
+      waitUntilRunningLocked();
+    }
+  }
+
+  private void waitUntilRunningLocked() {
     boolean isInterrupted = false;
     try {
       while (this.state != State.RUNNING) {
@@ -613,10 +676,11 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   public void shutdown(boolean fromShutdownHook) {
     state = State.STOPPED;
     reInvalidateHandler.shutdown();
-      synchronized (this) {
-        requestsTimer.cancel();
-        notifyAll();
-      }
+    synchronized (this) {
+      requestsTimer.cancel();
+      notifyAll();
+    }
+    abandonAllRequests(new TCNotRunningException());
   }
 
   private boolean isStopped() {
@@ -642,7 +706,7 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
   }
 
   private ServerMapRequestID getNextRequestID() {
-    return new ServerMapRequestID(this.requestIDCounter++);
+    return new ServerMapRequestID(this.requestIDCounter.getAndIncrement());
   }
 
   protected static abstract class AbstractServerMapRequestContext extends LookupStateTransitionAdaptor {
@@ -654,6 +718,7 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
     protected final ServerMapRequestID   requestID;
     protected final ServerMapRequestType requestType;
     protected Map<Object, Object>        result;
+    private boolean                      abandoned;
 
     public AbstractServerMapRequestContext(final ServerMapRequestType requestType, final ServerMapRequestID requestID,
                                            final ObjectID mapID, final GroupID groupID) {
@@ -672,17 +737,66 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
       return this.requestType;
     }
 
-    public void setResult(final ObjectID mapID, final Map<Object, Object> rv) {
+    public synchronized void setResult(final ObjectID mapID, final Map<Object, Object> rv) {
       if (!this.oid.equals(mapID)) { throw new AssertionError("Wrong request to response : this map id : " + this.oid
                                                               + " response is for : " + mapID + " type : "
                                                               + getRequestType()); }
       this.result = rv;
+      notifyAll();
     }
 
-    public Map<Object, Object> getResult() {
+    public synchronized Map<Object, Object> getResult() {
       return this.result;
     }
 
+    @Override
+    public synchronized boolean isMissing() {
+      return super.isMissing();
+    }
+
+    @Override
+    public synchronized LookupState makeMissingObject() {
+      LookupState newState = super.makeMissingObject();
+      notifyAll();
+      return newState;
+    }
+
+    @Override
+    public synchronized LookupState makePending() {
+      return super.makePending();
+    }
+
+    /**
+     * Moves a batched request back to the plain lookup state, returning false if it is no longer pending.
+     */
+    synchronized boolean unPendIfPending() {
+      if (!isPending()) { return false; }
+      makeUnPending();
+      return true;
+    }
+
+    /**
+     * Waits up to the given time for a result or a missing object notification for this request.
+     */
+    synchronized void waitForResponse(final long timeoutMillis) throws InterruptedException {
+      if (this.result == null && !isMissing() && !this.abandoned) {
+        wait(timeoutMillis);
+      }
+    }
+
+    /**
+     * Wakes the waiting requester so it can re-check the manager state, which is failing for the given reason. The
+     * request stays abandoned, so a requester that was not waiting yet does not wait for a wakeup that already happened.
+     */
+    synchronized void abandon(final RuntimeException reason) {
+      this.abandoned = true;
+      notifyAll();
+    }
+
+    synchronized boolean isAbandoned() {
+      return this.abandoned;
+    }
+
     @Override
     public int hashCode() {
       return this.requestID.hashCode();
@@ -728,6 +842,54 @@ public class RemoteServerMapManagerImpl implements RemoteServerMapManager {
 
   }
 
+  /**
+   * A single key lookup whose result completes a future instead of being collected by a waiting requester.
+   */
+  private class AsyncGetValueServerMapRequestContext extends GetValueServerMapRequestContext {
+
+    private final Object                 portableKey;
+    private final SettableFuture<Object> future = SettableFuture.create();
+
+    public AsyncGetValueServerMapRequestContext(final ServerMapRequestID requestID, final ObjectID mapID,
+                                                final Object portableKey, final GroupID groupID) {
+      super(requestID, mapID, Collections.singleton(portableKey), groupID);
+      this.portableKey = portableKey;
+    }
+
+    @Override
+    public void setResult(final ObjectID mapID, final Map<Object, Object> rv) {
+      super.setResult(mapID, rv);
+      this.future.set(rv.get(this.portableKey));
+    }
+
+    @Override
+    public LookupState makeMissingObject() {
+      final LookupState newState = super.makeMissingObject();
+      this.future.setException(new TCObjectNotFoundException(this.oid.toString()));
+      return newState;
+    }
+
+    @Override
+    void abandon(final RuntimeException reason) {
+      super.abandon(reason);
+      this.future.setException(reason);
+    }
+
+    Future<Object> getFuture() {
+      return this.future;
+    }
+
+    boolean isCancelled() {
+      return this.future.isCancelled();
+    }
+
+    @Override
+    public String toString() {
+      return "AsyncGetValueServerMapRequestContext@" + System.identityHashCode(this);
+    }
+
+  }
+
   private static class GetAllKeysServerMapRequestContext extends AbstractServerMapRequestContext {
 
     public GetAllKeysServerMapRequestContext(final ServerMapRequestID requestID, final ObjectID mapID,
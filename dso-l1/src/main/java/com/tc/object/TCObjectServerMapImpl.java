@@ -20,6 +20,7 @@ import static com.tc.server.VersionedServerEvent.DEFAULT_VERSION;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.Futures;
 import com.tc.abortable.AbortedOperationException;
 import com.tc.exception.TCObjectNotFoundException;
 import com.tc.logging.TCLogger;
@@ -58,7 +59,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -566,6 +570,50 @@ public class TCObjectServerMapImpl<L> extends TCObjectLogical implements TCObjec
     }
   }
 
+  @Override
+  public Future<Object> getValueUnlockedAsync(final TCServerMap map, final Object key)
+      throws AbortedOperationException {
+    final AbstractLocalCacheStoreValue item = getValueUnlockedFromCache(key);
+    if (item != null) { return Futures.immediateFuture(item.getValueObject()); }
+
+    final TCObject tcObject = map.__tc_managed();
+    if (tcObject == null) { throw new UnsupportedOperationException(
+                                                                    "getValueForKeyInMap is not supported in a non-shared ServerMap"); }
+    if (!createdOnServer) { return Futures.<Object> immediateFuture(null); }
+
+    final Future<Object> response = this.serverMapManager.getMappingForKeyAsync(tcObject.getObjectID(),
+                                                                                getPortableKey(key));
+    return new UnlockedValueFuture(map, key, response);
+  }
+
+  /**
+   * Turns the server response of an async lookup into the value, as {@link #getValueUnlocked(TCServerMap, Object)}
+   * does after its remote lookup. A value collected since the lookup was sent is looked up again with the blocking call,
+   * which retries.
+   */
+  private Object resolveUnlockedValue(final TCServerMap map, final Object key, final CompoundResponse response)
+      throws AbortedOperationException {
+    final Lock lock = getLockForKey(key);
+    lock.lock();
+    try {
+      final AbstractLocalCacheStoreValue item = getValueUnlockedFromCache(key);
+      if (item != null) { return item.getValueObject(); }
+
+      Object value;
+      try {
+        value = lookupValue(response);
+      } catch (TCObjectNotFoundException e) {
+        value = getValueForKeyFromServer(map, key, true, false);
+      }
+      if (value != null) {
+        updateLocalCacheIfNecessary(key, value);
+      }
+      return value;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public VersionedObject getVersionedValue(final TCServerMap map, final Object key) throws AbortedOperationException {
     if (!isCacheInitialized()) { return null; }
@@ -604,7 +652,32 @@ public class TCObjectServerMapImpl<L> extends TCObjectLogical implements TCObjec
         rv.put(entry.getValue(), null);
       }
     } else {
-      getAllValuesForKeyFromServer(mapIdToKeysMap, rv, false);
+      getAllValuesForKeyFromServer(mapIdToKeysMap, rv, false, null);
+    }
+    return rv;
+  }
+
+  @Override
+  public Map<Object, Object> getAllValuesLocked(final SetMultimap<ObjectID, Object> mapIdToKeysMap,
+                                                final Map<Object, L> lockIDs) throws AbortedOperationException {
+    Map<Object, Object> rv = new HashMap<Object, Object>();
+    for (Iterator<Entry<ObjectID, Object>> i = mapIdToKeysMap.entries().iterator(); i.hasNext();) {
+      Entry<ObjectID, Object> entry = i.next();
+      TCObjectServerMapImpl map = lookupTCObjectServerMapImpl(entry.getKey());
+      if (!map.isCacheInitialized()) {
+        rv.put(entry.getValue(), null);
+        i.remove();
+        continue;
+      }
+      AbstractLocalCacheStoreValue item = map.cache.getLocalValueStrong(entry.getValue());
+      if (item != null) {
+        rv.put(entry.getValue(), item.getValueObject());
+        i.remove();
+      }
+    }
+
+    if (!mapIdToKeysMap.isEmpty()) {
+      getAllValuesForKeyFromServer(mapIdToKeysMap, rv, false, lockIDs);
     }
     return rv;
   }
@@ -612,7 +685,7 @@ public class TCObjectServerMapImpl<L> extends TCObjectLogical implements TCObjec
   @Override
   public Map<Object, VersionedObject> getAllVersioned(final SetMultimap<ObjectID, Object> mapIdToKeysMap) throws AbortedOperationException {
     Map<Object, Object> rv = new HashMap<Object, Object>();
-    getAllValuesForKeyFromServer(mapIdToKeysMap, rv, true);
+    getAllValuesForKeyFromServer(mapIdToKeysMap, rv, true, null);
     return (Map) rv;
   }
 
@@ -758,7 +831,12 @@ public class TCObjectServerMapImpl<L> extends TCObjectLogical implements TCObjec
     return portableKeys;
   }
 
-  private void getAllValuesForKeyFromServer(final SetMultimap<ObjectID, Object> mapIdToKeysMap, Map<Object, Object> rv, boolean versioned)
+  /**
+   * @param lockIDs locks of the keys for a locked lookup, whose values are cached as strong values and not retried when
+   *        missing, null for an unlocked lookup
+   */
+  private void getAllValuesForKeyFromServer(final SetMultimap<ObjectID, Object> mapIdToKeysMap, Map<Object, Object> rv,
+                                            boolean versioned, Map<Object, L> lockIDs)
       throws AbortedOperationException {
     if (!createdOnServer) {
       // add null for the values as no data is present on server.
@@ -789,13 +867,24 @@ public class TCObjectServerMapImpl<L> extends TCObjectLogical implements TCObjec
           try {
             data = lookupValue(value);
           } catch (TCObjectNotFoundException e) {
+            if (lockIDs != null) {
+              logger.warn("TCObjectNotFoundException for object " + value + " on a locked get. Returning null.");
+              portableKeyIterator.remove();
+              rv.put(key, null);
+              continue;
+            }
             // We weren't able to find this particular mapping, continue for now, and try again on another pass
             continue;
           }
           portableKeyIterator.remove();
 
           // update the local cache of corresponding TCServerMap
-          map.updateLocalCacheIfNecessary(key, data);
+          if (lockIDs == null) {
+            map.updateLocalCacheIfNecessary(key, data);
+          } else if (data != null) {
+            map.addStrongValueToCache(this.platformService.generateLockIdentifier(lockIDs.get(key)), key, data,
+                                      objectManager.lookupExistingObjectID(data), MapOperationType.GET);
+          }
           if (versioned) {
             rv.put(key, data == null ? null : new VersionedObject(data, value.getVersion()));
           } else {
@@ -1148,6 +1237,61 @@ public class TCObjectServerMapImpl<L> extends TCObjectLogical implements TCObjec
     }
   }
 
+  /**
+   * Resolves the value once, on the first thread to get it after the server response arrived.
+   */
+  private class UnlockedValueFuture implements Future<Object> {
+    private final TCServerMap    map;
+    private final Object         key;
+    private final Future<Object> response;
+    private boolean              resolved;
+    private Object               value;
+
+    UnlockedValueFuture(final TCServerMap map, final Object key, final Future<Object> response) {
+      this.map = map;
+      this.key = key;
+      this.response = response;
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+      return response.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return response.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+      return response.isDone();
+    }
+
+    @Override
+    public Object get() throws InterruptedException, ExecutionException {
+      return resolve(response.get());
+    }
+
+    @Override
+    public Object get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException,
+        TimeoutException {
+      return resolve(response.get(timeout, unit));
+    }
+
+    private synchronized Object resolve(final Object serverValue) throws ExecutionException {
+      if (!resolved) {
+        try {
+          value = resolveUnlockedValue(map, key, (CompoundResponse) serverValue);
+        } catch (AbortedOperationException e) {
+          throw new ExecutionException(e);
+        }
+        resolved = true;
+      }
+      return value;
+    }
+  }
+
   private Lock getLockForKey(Object key) {
     Preconditions.checkNotNull(key, "Key cannot be null");
     return localLocks[Math.abs(spreadHash(key.hashCode()) % localLocks.length)];
@@ -21,6 +21,7 @@ import com.tc.abortable.AbortedOperationException;
 import com.tc.exception.TCLockUpgradeNotSupportedError;
 import com.tc.net.ClientID;
 import com.tc.object.ClearableCallback;
+import com.tc.object.locks.LockStateNode.PendingTryLockHold;
 import com.tc.object.msg.ClientHandshakeMessage;
 
 import java.util.Collection;
@@ -88,6 +89,45 @@ public interface ClientLock extends ClearableCallback {
                                 ThreadID thread, LockLevel level)
       throws InterruptedException, GarbageLockException, AbortedOperationException;
 
+  /**
+   * First half of a pipelined non-blocking acquire: like {@link #tryLock(AbortableOperationManager, RemoteLockManager,
+   * ThreadID, LockLevel)} but a request delegated to the server is not waited for, so that the requests for a whole
+   * lock set can be in flight together.
+   *
+   * @param remote remote lock manager for delegation
+   * @param thread id of the locking (current) thread
+   * @param level level at which to lock
+   * @return <code>null</code> if locked without waiting, otherwise the pending acquire to complete with
+   *         {@link #finishTryLock}
+   * @throws TCLockUpgradeNotSupportedError on attempting to read&rarr;write upgrade
+   * @throws GarbageLockException if this state has been marked as garbage
+   * @throws AbortedOperationException
+   */
+  public PendingTryLockHold startTryLock(AbortableOperationManager abortableOperationManager,
+                                         RemoteLockManager remote, ThreadID thread, LockLevel level)
+      throws GarbageLockException, AbortedOperationException;
+
+  /**
+   * Second half of a pipelined non-blocking acquire: waits for the server answer to the given pending acquire.
+   *
+   * @param remote remote lock manager for delegation
+   * @param pending acquire returned by {@link #startTryLock}
+   * @return <code>true</code> if locked
+   * @throws GarbageLockException if this state has been marked as garbage
+   * @throws AbortedOperationException
+   */
+  public boolean finishTryLock(AbortableOperationManager abortableOperationManager, RemoteLockManager remote,
+                               PendingTryLockHold pending) throws GarbageLockException, AbortedOperationException;
+
+  /**
+   * Abandons a pending acquire returned by {@link #startTryLock}, releasing it at the server if it has already been
+   * awarded.
+   *
+   * @param remote remote lock manager for delegation
+   * @param pending acquire returned by {@link #startTryLock}
+   */
+  public void abortTryLock(RemoteLockManager remote, PendingTryLockHold pending);
+
   /**
    * Blocking unlock
    * 
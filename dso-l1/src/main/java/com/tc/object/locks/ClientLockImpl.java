@@ -163,6 +163,70 @@ class ClientLockImpl extends SynchronizedSinglyLinkedList<LockStateNode> impleme
            || acquireQueuedTimeout(abortableOperationManager, remote, thread, level, timeout);
   }
 
+  /*
+   * Queue a zero timeout try lock and delegate it to the server, but return as soon as the request is out. A returned
+   * node that still can delegate never made it to the server (it was refused locally) and is not queued.
+   */
+  @Override
+  public PendingTryLockHold startTryLock(final AbortableOperationManager abortableOperationManager,
+                                         final RemoteLockManager remote, final ThreadID thread, final LockLevel level)
+      throws GarbageLockException, AbortedOperationException {
+    markUsed();
+    final LockAcquireResult local = tryAcquireLocally(remote, abortableOperationManager, thread, level);
+    if (local.isSuccess()) { return null; }
+
+    final PendingTryLockHold node = new PendingTryLockHold(thread, level, 0);
+    if (local.isKnownResult()) { return node; }
+
+    addLast(node);
+    try {
+      final LockAcquireResult result = tryAcquire(abortableOperationManager, remote, thread, level, 0, node);
+      if (result.isShared()) {
+        unparkNextQueuedAcquire(node);
+      } else {
+        unparkSubsequentTryLocks(node);
+      }
+      if (result.isSuccess()) {
+        remove(node);
+        return null;
+      } else if (result.isFailure() || node.canDelegate()) {
+        abortAndRemove(remote, node);
+      }
+      return node;
+    } catch (final AbortedOperationException e) {
+      remove(node);
+      throw e;
+    } catch (final RuntimeException ex) {
+      abortAndRemove(remote, node);
+      unparkFirstQueuedAcquire();
+      throw ex;
+    } catch (final TCLockUpgradeNotSupportedError e) {
+      abortAndRemove(remote, node);
+      unparkFirstQueuedAcquire();
+      throw e;
+    }
+  }
+
+  @Override
+  public boolean finishTryLock(final AbortableOperationManager abortableOperationManager,
+                               final RemoteLockManager remote, final PendingTryLockHold node)
+      throws GarbageLockException, AbortedOperationException {
+    if (node.canDelegate()) { return false; }
+    try {
+      return acquireQueuedTimeout(abortableOperationManager, remote, node.getOwner(), node.getLockLevel(), 0, node);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @Override
+  public void abortTryLock(final RemoteLockManager remote, final PendingTryLockHold node) {
+    if (node.canDelegate()) { return; }
+    abortAndRemove(remote, node);
+    unparkFirstQueuedAcquire();
+  }
+
   /*
    * Release the lock and unpark an acquire if release tells us that queued acquires may now succeed.
    */
@@ -1054,9 +1118,19 @@ class ClientLockImpl extends SynchronizedSinglyLinkedList<LockStateNode> impleme
                                        final RemoteLockManager remote, final ThreadID thread, final LockLevel level,
                                        long timeout) throws InterruptedException, GarbageLockException,
       AbortedOperationException {
-    long lastTime = System.currentTimeMillis();
     final PendingTryLockHold node = new PendingTryLockHold(thread, level, timeout);
     addLast(node);
+    return acquireQueuedTimeout(abortableOperationManager, remote, thread, level, timeout, node);
+  }
+
+  /*
+   * Generic timed acquire - uses an already queued node - used by pipelined try locks
+   */
+  private boolean acquireQueuedTimeout(final AbortableOperationManager abortableOperationManager,
+                                       final RemoteLockManager remote, final ThreadID thread, final LockLevel level,
+                                       long timeout, final PendingTryLockHold node) throws InterruptedException,
+      GarbageLockException, AbortedOperationException {
+    long lastTime = System.currentTimeMillis();
     try {
       while (!node.isRefused()) {
         LockAcquireResult result;
@@ -16,14 +16,24 @@
  */
 package com.tc.object.locks;
 
+import com.tc.abortable.AbortedOperationException;
 import com.tc.net.NodeID;
 import com.tc.object.handshakemanager.ClientHandshakeCallback;
 import com.tc.object.session.SessionID;
 import com.tc.text.PrettyPrintable;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface ClientLockManager extends TerracottaLocking, ClientHandshakeCallback, PrettyPrintable {
+  /**
+   * Blocking acquire of a set of distinct locks at the same level. Callers must pass the locks in a canonical order so
+   * that threads locking overlapping sets cannot deadlock. The requests for the whole set are sent together rather than
+   * one round trip at a time. Either all locks are acquired or none is; each one is released with
+   * {@link #unlock(LockID, LockLevel)}.
+   */
+  public void lockAll(List<LockID> locks, LockLevel level) throws AbortedOperationException;
+
   /**
    * Called by a Terracotta thread to notify the given thread waiting on the lock.
    */
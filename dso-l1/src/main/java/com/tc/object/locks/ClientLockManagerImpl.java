@@ -23,6 +23,7 @@ import com.tc.exception.TCNotRunningException;
 import com.tc.logging.TCLogger;
 import com.tc.net.ClientID;
 import com.tc.net.NodeID;
+import com.tc.object.locks.LockStateNode.PendingTryLockHold;
 import com.tc.object.msg.ClientHandshakeMessage;
 import com.tc.object.session.SessionID;
 import com.tc.object.session.SessionManager;
@@ -219,6 +220,90 @@ public class ClientLockManagerImpl implements ClientLockManager, ClientLockManag
     }
   }
 
+  /*
+   * Every lock of the set is first tried without waiting for the server, so the requests are all in flight together.
+   * If that gets the whole set we are done in a single round trip. Otherwise only the acquired prefix is kept and the
+   * remaining locks are taken one by one in order, so a thread never blocks while holding a lock that sorts after the
+   * one it waits for.
+   */
+  @Override
+  public void lockAll(final List<LockID> lockIDs, final LockLevel level) throws AbortedOperationException {
+    waitUntilRunning();
+
+    final ThreadID thread = this.threadManager.getThreadID();
+    final int size = lockIDs.size();
+    final ClientLock[] states = new ClientLock[size];
+    final PendingTryLockHold[] pending = new PendingTryLockHold[size];
+    final boolean[] held = new boolean[size];
+    boolean acquired = false;
+    try {
+      for (int i = 0; i < size; i++) {
+        final LockID lock = lockIDs.get(i);
+        while (true) {
+          final ClientLock lockState = getOrCreateClientLockState(lock);
+          try {
+            pending[i] = lockState.startTryLock(this.abortableOperationManager, this.remoteLockManager, thread, level);
+            states[i] = lockState;
+            held[i] = pending[i] == null;
+            break;
+          } catch (final GarbageLockException e) {
+            // ignorable - thrown when operating on a garbage collected lock
+            // gc thread should clear this object soon - spin and re-get...
+            this.logger.info("Hitting garbage lock state during lockAll on " + lock);
+          }
+        }
+      }
+
+      for (int i = 0; i < size; i++) {
+        if (pending[i] != null) {
+          try {
+            held[i] = states[i].finishTryLock(this.abortableOperationManager, this.remoteLockManager, pending[i]);
+          } catch (final GarbageLockException e) {
+            // withdraw the pending request, the lock is taken again by the blocking fallback below
+            this.logger.info("Hitting garbage lock state during lockAll on " + lockIDs.get(i));
+            states[i].abortTryLock(this.remoteLockManager, pending[i]);
+          }
+          pending[i] = null;
+        }
+      }
+
+      int firstMissing = 0;
+      while (firstMissing < size && held[firstMissing]) {
+        firstMissing++;
+      }
+      for (int i = size - 1; i > firstMissing; i--) {
+        if (held[i]) {
+          held[i] = false;
+          unlock(lockIDs.get(i), level);
+        }
+      }
+      for (int i = firstMissing; i < size; i++) {
+        lock(lockIDs.get(i), level);
+        held[i] = true;
+      }
+      acquired = true;
+    } finally {
+      if (!acquired) {
+        releaseAll(lockIDs, level, states, pending, held);
+      }
+    }
+  }
+
+  private void releaseAll(final List<LockID> lockIDs, final LockLevel level, final ClientLock[] states,
+                          final PendingTryLockHold[] pending, final boolean[] held) {
+    for (int i = lockIDs.size() - 1; i >= 0; i--) {
+      try {
+        if (pending[i] != null) {
+          states[i].abortTryLock(this.remoteLockManager, pending[i]);
+        } else if (held[i]) {
+          unlock(lockIDs.get(i), level);
+        }
+      } catch (final Exception e) {
+        this.logger.warn("Failed to release " + lockIDs.get(i) + " after an incomplete lockAll", e);
+      }
+    }
+  }
+
   @Override
   public void unlock(final LockID lock, final LockLevel level) throws AbortedOperationException {
     final ClientLock lockState = getOrCreateClientLockState(lock);
@@ -73,6 +73,7 @@ import com.tcclient.cluster.DsoNode;
 import com.terracottatech.search.NVPair;
 import com.terracottatech.search.SearchBuilder.Search;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -244,6 +245,44 @@ public class PlatformServiceImpl implements PlatformService {
     addContext(new LockInfo(lockID, level));
   }
 
+  @Override
+  public void beginLocks(final List<?> lockIDs, final LockLevel level) throws AbortedOperationException {
+    final int size = lockIDs.size();
+    final LockID[] locks = new LockID[size];
+    final List<LockID> clustered = new ArrayList<LockID>(size);
+    for (int i = 0; i < size; i++) {
+      locks[i] = generateLockIdentifier(lockIDs.get(i));
+      if (clusteredLockingEnabled(locks[i])) {
+        clustered.add(locks[i]);
+      } else {
+        locks[i] = null;
+      }
+    }
+    this.lockManager.lockAll(clustered, level);
+
+    int begun = 0;
+    try {
+      for (; begun < size; begun++) {
+        if (locks[begun] != null) {
+          txManagerBeginUnlockOnException(locks[begun], level, false);
+        }
+        addContext(new LockInfo(lockIDs.get(begun), level));
+      }
+    } finally {
+      if (begun < size) {
+        // the lock that failed to begin was already released
+        for (int i = size - 1; i > begun; i--) {
+          if (locks[i] != null) {
+            this.lockManager.unlock(locks[i], level);
+          }
+        }
+        for (int i = begun - 1; i >= 0; i--) {
+          commitLock(lockIDs.get(i), level);
+        }
+      }
+    }
+  }
+
   @Override
   public void beginLockInterruptibly(Object lockID, LockLevel level) throws InterruptedException,
       AbortedOperationException {
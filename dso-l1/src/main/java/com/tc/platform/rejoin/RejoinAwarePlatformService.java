@@ -237,6 +237,18 @@ public class RejoinAwarePlatformService implements PlatformService {
     }
   }
 
+  @Override
+  public void beginLocks(List<?> lockIDs, LockLevel level) throws AbortedOperationException {
+    assertRejoinNotInProgress();
+    try {
+      assertNotLockedBeforeRejoin();
+      resetRejoinCountIfNecessary();
+      delegate.beginLocks(lockIDs, level);
+    } catch (PlatformRejoinException e) {
+      throw new RejoinException(e);
+    }
+  }
+
   @Override
   public void beginLockInterruptibly(Object lockID, LockLevel level) throws InterruptedException,
       AbortedOperationException {
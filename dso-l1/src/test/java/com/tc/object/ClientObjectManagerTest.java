@@ -45,6 +45,7 @@ import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ClientObjectManagerTest extends BaseDSOTestCase {
   private ClientObjectManager     mgr;
@@ -418,6 +419,84 @@ public class ClientObjectManagerTest extends BaseDSOTestCase {
     }
   }
 
+  public void testStripedLookupsWithConcurrentCleanup() throws Exception {
+    final AtomicBoolean rejoined = new AtomicBoolean(false);
+    final TestRemoteObjectManager remote = new TestRemoteObjectManager() {
+      @Override
+      public DNA retrieve(final ObjectID id) {
+        if (!rejoined.get()) {
+          ThreadUtil.reallySleep(1);
+        }
+        if (rejoined.get()) { throw new PlatformRejoinException("missing ID"); }
+        final TestDNA dna = new TestDNA();
+        dna.objectID = id;
+        return dna;
+      }
+    };
+    final TestObjectFactory factory = new TestObjectFactory() {
+      @Override
+      public TCObject getNewInstance(final ObjectID id, final Object peer, final Class clazz, final boolean isNew) {
+        return new MockTCObject(id, peer);
+      }
+
+      @Override
+      public Object getNewPeerObject(final TCClass type) {
+        return new Object();
+      }
+    };
+    final ClientObjectManagerImpl stripedMgr = new ClientObjectManagerImpl(
+        remote, this.idProvider, new ClientIDProviderImpl(new TestChannelIDProvider()), this.classProvider,
+        this.classFactory, factory, new PortabilityImpl(this.clientConfiguration), this.tcObjectSelfStore,
+        new NullAbortableOperationManager());
+    stripedMgr.setTransactionManager(new MockTransactionManager());
+
+    final int threadCount = 16;
+    final int idCount = 32;
+    final List errors = Collections.synchronizedList(new ArrayList());
+    final AtomicInteger rejoinFailures = new AtomicInteger();
+    final CyclicBarrier start = new CyclicBarrier(threadCount + 1);
+    final Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      final Random random = new Random(i);
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            while (true) {
+              // a small id range makes threads fault the same objects as well as different ones
+              final ObjectID id = new ObjectID(1 + random.nextInt(idCount));
+              final TCObject obj = stripedMgr.lookup(id);
+              if (obj == null || !id.equals(obj.getObjectID())) {
+                errors.add(new AssertionError("wrong object for " + id + ": " + obj));
+                return;
+              }
+            }
+          } catch (final PlatformRejoinException e) {
+            rejoinFailures.incrementAndGet();
+          } catch (final Throwable t) {
+            errors.add(t);
+          }
+        }
+      };
+      threads[i].start();
+    }
+
+    start.await();
+    ThreadUtil.reallySleep(500);
+    stripedMgr.pause(null, 0);
+    rejoined.set(true);
+    stripedMgr.cleanup();
+
+    for (final Thread thread : threads) {
+      thread.join(30 * 1000);
+      assertFalse(thread.isAlive());
+    }
+    assertEquals(Collections.emptyList(), errors);
+    assertEquals(threadCount, rejoinFailures.get());
+    assertTrue(stripedMgr.getObjectLatchStateMap().isEmpty());
+  }
+
   public void testCleanupDuringLookup() throws Exception {
     final ObjectID id = new ObjectID(1);
     final List errors = Collections.synchronizedList(new ArrayList());
@@ -0,0 +1,332 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.object;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.tc.abortable.AbortableOperationManager;
+import com.tc.exception.PlatformRejoinException;
+import com.tc.exception.TCNotRunningException;
+import com.tc.logging.TCLogger;
+import com.tc.net.GroupID;
+import com.tc.net.NodeID;
+import com.tc.object.dna.api.DNA;
+import com.tc.object.msg.ClientHandshakeMessage;
+import com.tc.object.msg.GetValueServerMapRequestMessage;
+import com.tc.object.msg.ServerMapMessageFactory;
+import com.tc.object.msg.ServerMapRequestMessage;
+import com.tc.object.servermap.localcache.L1ServerMapLocalCacheManager;
+import com.tc.object.session.SessionID;
+import com.tc.object.session.SessionManager;
+import com.tc.util.concurrent.TaskRunner;
+import com.tc.util.concurrent.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class RemoteServerMapManagerImplTest {
+
+  private static final GroupID                  GROUP_ID   = new GroupID(0);
+  private static final NodeID                   SERVER     = GROUP_ID;
+  private static final SessionID                SESSION_ID = new SessionID(0);
+  private static final ObjectID                 MAP_ID     = new ObjectID(1);
+
+  private final BlockingQueue<ServerMapRequestID> sentRequests = new LinkedBlockingQueue<ServerMapRequestID>();
+  private final Map<ServerMapRequestID, Set<Object>> sentKeys  = new ConcurrentHashMap<ServerMapRequestID, Set<Object>>();
+
+  private RemoteObjectManager                   remoteObjectManager;
+  private RemoteServerMapManagerImpl            manager;
+
+  @Before
+  public void setUp() throws Exception {
+    remoteObjectManager = mock(RemoteObjectManager.class);
+
+    GetValueServerMapRequestMessage message = mock(GetValueServerMapRequestMessage.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        ServerMapRequestID requestID = (ServerMapRequestID) invocation.getArguments()[0];
+        sentKeys.put(requestID, (Set<Object>) invocation.getArguments()[2]);
+        sentRequests.add(requestID);
+        return null;
+      }
+    }).when(message).addGetValueRequestTo(any(ServerMapRequestID.class), any(ObjectID.class), any(Set.class));
+
+    ServerMapMessageFactory messageFactory = mock(ServerMapMessageFactory.class);
+    when(messageFactory.newServerMapRequestMessage(any(NodeID.class), any(ServerMapRequestType.class)))
+        .thenReturn(message);
+
+    SessionManager sessionManager = mock(SessionManager.class);
+    when(sessionManager.isCurrentSession(any(NodeID.class), any(SessionID.class))).thenReturn(true);
+
+    // batched lookups are sent right away on their own thread
+    Timer timer = mock(Timer.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        new Thread((Runnable) invocation.getArguments()[0]).start();
+        return null;
+      }
+    }).when(timer).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    TaskRunner taskRunner = mock(TaskRunner.class);
+    when(taskRunner.newTimer(anyString())).thenReturn(timer);
+
+    manager = new RemoteServerMapManagerImpl(GROUP_ID, mock(TCLogger.class), remoteObjectManager, messageFactory,
+                                             sessionManager, mock(L1ServerMapLocalCacheManager.class),
+                                             mock(AbortableOperationManager.class), taskRunner);
+  }
+
+  @Test
+  public void testAsyncLookupCompletesOnResponse() throws Exception {
+    Future<Object> future = manager.getMappingForKeyAsync(MAP_ID, "key");
+    ServerMapRequestID requestID = nextSentRequest();
+    assertFalse(future.isDone());
+
+    respond(requestID, "key", "value");
+
+    assertEquals("value", future.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAsyncLookupAbandonedOnRejoin() throws Exception {
+    Future<Object> future = manager.getMappingForKeyAsync(MAP_ID, "key");
+    nextSentRequest();
+
+    manager.pause(SERVER, 1);
+    manager.cleanup();
+
+    assertFailsWith(future, PlatformRejoinException.class);
+  }
+
+  @Test
+  public void testAsyncLookupAbandonedOnShutdown() throws Exception {
+    Future<Object> future = manager.getMappingForKeyAsync(MAP_ID, "key");
+    nextSentRequest();
+
+    manager.shutdown(false);
+
+    assertFailsWith(future, TCNotRunningException.class);
+  }
+
+  @Test
+  public void testLateResponseToCancelledAsyncLookupIsCleanedOut() throws Exception {
+    Future<Object> future = manager.getMappingForKeyAsync(MAP_ID, "key");
+    ServerMapRequestID requestID = nextSentRequest();
+    assertTrue(future.cancel(false));
+
+    DNA dna = mock(DNA.class);
+    CompoundResponse value = mock(CompoundResponse.class);
+    when(value.getData()).thenReturn(dna);
+    respond(requestID, "key", value);
+
+    verify(remoteObjectManager).addObject(dna);
+    verify(remoteObjectManager).cleanOutObject(dna);
+    try {
+      future.get();
+      fail();
+    } catch (CancellationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testAnsweredAsyncLookupIsNotCleanedOut() throws Exception {
+    Future<Object> future = manager.getMappingForKeyAsync(MAP_ID, "key");
+    ServerMapRequestID requestID = nextSentRequest();
+
+    DNA dna = mock(DNA.class);
+    CompoundResponse value = mock(CompoundResponse.class);
+    when(value.getData()).thenReturn(dna);
+    respond(requestID, "key", value);
+
+    assertEquals(value, future.get(10, TimeUnit.SECONDS));
+    verify(remoteObjectManager).addObject(dna);
+    verify(remoteObjectManager, never()).cleanOutObject(any(DNA.class));
+  }
+
+  @Test
+  public void testConcurrentLookups() throws Exception {
+    Lookup[] lookups = new Lookup[20];
+    for (int i = 0; i < lookups.length; i++) {
+      lookups[i] = new Lookup("key-" + i);
+      lookups[i].start();
+    }
+
+    for (int i = 0; i < lookups.length; i++) {
+      ServerMapRequestID requestID = nextSentRequest();
+      Object key = sentKeys.get(requestID).iterator().next();
+      respond(requestID, key, "value-" + key);
+    }
+
+    for (Lookup lookup : lookups) {
+      assertEquals("value-" + lookup.key, lookup.awaitResult());
+    }
+  }
+
+  @Test
+  public void testOutstandingLookupIsResentOnUnpause() throws Exception {
+    Lookup lookup = new Lookup("key");
+    lookup.start();
+    ServerMapRequestID requestID = nextSentRequest();
+
+    manager.pause(SERVER, 1);
+    manager.initializeHandshake(new GroupID(1), SERVER, mock(ClientHandshakeMessage.class));
+    manager.unpause(SERVER, 0);
+
+    assertEquals(requestID, nextSentRequest());
+    respond(requestID, "key", "value");
+    assertEquals("value", lookup.awaitResult());
+  }
+
+  @Test
+  public void testRejoinCleanupWakesWaiters() throws Exception {
+    Lookup[] lookups = new Lookup[4];
+    for (int i = 0; i < lookups.length; i++) {
+      lookups[i] = new Lookup("key-" + i);
+      lookups[i].start();
+    }
+    for (int i = 0; i < lookups.length; i++) {
+      nextSentRequest();
+    }
+
+    manager.pause(SERVER, 1);
+    manager.cleanup();
+
+    for (Lookup lookup : lookups) {
+      try {
+        lookup.awaitResult();
+        fail();
+      } catch (PlatformRejoinException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testLookupWhilePausedIsSentOnceAfterUnpause() throws Exception {
+    manager.pause(SERVER, 1);
+    Lookup lookup = new Lookup("key");
+    lookup.start();
+    assertNull(sentRequests.poll(200, TimeUnit.MILLISECONDS));
+
+    manager.initializeHandshake(new GroupID(1), SERVER, mock(ClientHandshakeMessage.class));
+    manager.unpause(SERVER, 0);
+
+    ServerMapRequestID requestID = nextSentRequest();
+    respond(requestID, "key", "value");
+    assertEquals("value", lookup.awaitResult());
+    assertTrue(sentRequests.isEmpty());
+  }
+
+  @Test
+  public void testAbandonedRequestDoesNotWaitForWakeup() throws Exception {
+    RemoteServerMapManagerImpl.AbstractServerMapRequestContext context =
+        new RemoteServerMapManagerImpl.AbstractServerMapRequestContext(ServerMapRequestType.GET_VALUE_FOR_KEY,
+                                                                       new ServerMapRequestID(0), MAP_ID, GROUP_ID) {
+          @Override
+          public void initializeMessage(ServerMapRequestMessage requestMessage) {
+            //
+          }
+        };
+    // the wakeup happens before the requester waits, as when a rejoin races with the requester's state check
+    context.abandon(new PlatformRejoinException());
+
+    long start = System.nanoTime();
+    context.waitForResponse(TimeUnit.SECONDS.toMillis(30));
+    assertTrue(context.isAbandoned());
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+  }
+
+  private ServerMapRequestID nextSentRequest() throws InterruptedException {
+    ServerMapRequestID requestID = sentRequests.poll(10, TimeUnit.SECONDS);
+    if (requestID == null) {
+      fail("no request was sent");
+    }
+    return requestID;
+  }
+
+  private void respond(ServerMapRequestID requestID, Object key, Object value) {
+    ServerMapGetValueResponse response = mock(ServerMapGetValueResponse.class);
+    when(response.getRequestID()).thenReturn(requestID);
+    when(response.getValues()).thenReturn(Collections.singletonMap(key, value));
+    manager.addResponseForKeyValueMapping(SESSION_ID, MAP_ID, Collections.singleton(response), SERVER);
+  }
+
+  private class Lookup extends Thread {
+    private final Object      key;
+    private volatile Object   result;
+    private volatile Throwable failure;
+
+    Lookup(Object key) {
+      this.key = key;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        result = manager.getMappingForKey(MAP_ID, key);
+      } catch (Throwable t) {
+        failure = t;
+      }
+    }
+
+    Object awaitResult() throws Exception {
+      join(TimeUnit.SECONDS.toMillis(10));
+      if (isAlive()) {
+        fail("lookup for " + key + " did not complete");
+      }
+      if (failure instanceof Exception) { throw (Exception) failure; }
+      if (failure != null) { throw new AssertionError(failure); }
+      return result;
+    }
+  }
+
+  private static void assertFailsWith(Future<Object> future, Class<? extends Throwable> expected) throws Exception {
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(String.valueOf(e.getCause()), expected.isInstance(e.getCause()));
+    }
+  }
+}
@@ -19,6 +19,11 @@ package com.tc.object;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsMapContaining.hasEntry;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
@@ -26,6 +31,8 @@ import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,16 +43,23 @@ import org.mockito.stubbing.Answer;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
 import com.tc.abortable.AbortedOperationException;
 import com.tc.net.GroupID;
+import com.tc.object.bytecode.TCServerMap;
 import com.tc.object.servermap.ExpirableMapEntry;
 import com.tc.object.servermap.localcache.L1ServerMapLocalCacheManager;
 import com.tc.object.servermap.localcache.L1ServerMapLocalCacheStore;
+import com.tc.object.servermap.localcache.LocalCacheStoreEventualValue;
 import com.tc.object.servermap.localcache.PinnedEntryFaultCallback;
 import com.tc.object.servermap.localcache.ServerMapLocalCache;
 import com.tc.platform.PlatformService;
 
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author tim
@@ -57,6 +71,7 @@ public class TCObjectServerMapImplTest {
   private L1ServerMapLocalCacheManager globalLocalCacheManager;
   private PlatformService              platformService;
   private ServerMapLocalCache serverMapLocalCache;
+  private TCServerMap map;
 
   @Before
   public void setUp() throws Exception {
@@ -66,6 +81,7 @@ public class TCObjectServerMapImplTest {
     objectID = new ObjectID(1);
     globalLocalCacheManager = mock(L1ServerMapLocalCacheManager.class);
     serverMapLocalCache = mock(ServerMapLocalCache.class);
+    map = mock(TCServerMap.class);
     when(globalLocalCacheManager.getOrCreateLocalCache(any(ObjectID.class), any(ClientObjectManager.class),
                                                        any(PlatformService.class), anyBoolean(),
                                                        any(L1ServerMapLocalCacheStore.class),
@@ -106,6 +122,88 @@ public class TCObjectServerMapImplTest {
     assertThat(result, hasEntry((Object) "baz", null));
   }
 
+  @Test
+  public void testGetValueUnlockedAsyncHitIsResolvedOnce() throws Exception {
+    TCObjectServerMap tcObjectServerMap = newAsyncServerMap();
+    CompoundResponse response = new CompoundResponse(new ObjectID(3), 1, 2, 3, 4, 5);
+    when(serverMapManager.getMappingForKeyAsync(objectID, "foo")).thenReturn(Futures.<Object> immediateFuture(response));
+    ExpirableMapEntry expirableMapEntry = mock(ExpirableMapEntry.class);
+    when(clientObjectManager.lookupObjectQuiet(new ObjectID(3))).thenReturn(expirableMapEntry);
+
+    Future<Object> future = tcObjectServerMap.getValueUnlockedAsync(map, "foo");
+    assertTrue(future.isDone());
+    assertSame(expirableMapEntry, future.get());
+    assertSame(expirableMapEntry, future.get(1, TimeUnit.SECONDS));
+    verify(clientObjectManager, times(1)).lookupObjectQuiet(new ObjectID(3));
+  }
+
+  @Test
+  public void testGetValueUnlockedAsyncMiss() throws Exception {
+    TCObjectServerMap tcObjectServerMap = newAsyncServerMap();
+    CompoundResponse response = new CompoundResponse(ObjectID.NULL_ID, 0, 0, 0, 0, 0);
+    when(serverMapManager.getMappingForKeyAsync(objectID, "foo")).thenReturn(Futures.<Object> immediateFuture(response));
+
+    assertNull(tcObjectServerMap.getValueUnlockedAsync(map, "foo").get());
+    verify(clientObjectManager, never()).lookupObjectQuiet(any(ObjectID.class));
+  }
+
+  @Test
+  public void testGetValueUnlockedAsyncCarriesLifespanForExpiry() throws Exception {
+    TCObjectServerMap tcObjectServerMap = newAsyncServerMap();
+    CompoundResponse response = new CompoundResponse(new ObjectID(3), 1, 2, 3, 4, 5);
+    when(serverMapManager.getMappingForKeyAsync(objectID, "foo")).thenReturn(Futures.<Object> immediateFuture(response));
+    ExpirableMapEntry expirableMapEntry = mock(ExpirableMapEntry.class);
+    when(clientObjectManager.lookupObjectQuiet(new ObjectID(3))).thenReturn(expirableMapEntry);
+
+    tcObjectServerMap.getValueUnlockedAsync(map, "foo").get();
+    // the caller decides about expiry from the lifespan the server sent along with the value
+    verify(expirableMapEntry).setCreationTime(response.getCreationTime());
+    verify(expirableMapEntry).setLastAccessedTime(response.getLastAccessedTime());
+    verify(expirableMapEntry).setTimeToIdle(response.getTimeToIdle());
+    verify(expirableMapEntry).setTimeToLive(response.getTimeToLive());
+  }
+
+  @Test
+  public void testGetValueUnlockedAsyncFromLocalCache() throws Exception {
+    TCObjectServerMap tcObjectServerMap = newAsyncServerMap();
+    when(serverMapLocalCache.getLocalValue("foo")).thenReturn(new LocalCacheStoreEventualValue(new ObjectID(3), "bar"));
+
+    Future<Object> future = tcObjectServerMap.getValueUnlockedAsync(map, "foo");
+    assertTrue(future.isDone());
+    assertEquals("bar", future.get());
+    verify(serverMapManager, never()).getMappingForKeyAsync(any(ObjectID.class), any());
+  }
+
+  @Test
+  public void testGetValueUnlockedAsyncCancellation() throws Exception {
+    TCObjectServerMap tcObjectServerMap = newAsyncServerMap();
+    SettableFuture<Object> response = SettableFuture.create();
+    when(serverMapManager.getMappingForKeyAsync(objectID, "foo")).thenReturn(response);
+
+    Future<Object> future = tcObjectServerMap.getValueUnlockedAsync(map, "foo");
+    assertFalse(future.isDone());
+    assertTrue(future.cancel(true));
+    assertTrue(future.isCancelled());
+    assertTrue(response.isCancelled());
+    try {
+      future.get();
+      fail("Cancelled lookup returned a value");
+    } catch (CancellationException e) {
+      // expected
+    }
+    verify(clientObjectManager, never()).lookupObjectQuiet(any(ObjectID.class));
+  }
+
+  private TCObjectServerMap newAsyncServerMap() {
+    TCObjectServerMap tcObjectServerMap = new TCObjectServerMapImpl(platformService, clientObjectManager,
+        serverMapManager, objectID, null, mock(TCClass.class), false, globalLocalCacheManager);
+    tcObjectServerMap.setupLocalStore(mock(L1ServerMapLocalCacheStore.class), mock(PinnedEntryFaultCallback.class));
+    TCObject tcObject = mock(TCObject.class);
+    when(tcObject.getObjectID()).thenReturn(objectID);
+    when(map.__tc_managed()).thenReturn(tcObject);
+    return tcObjectServerMap;
+  }
+
   @Test
   public void testCleanupReplaceOnTimeout() throws Exception {
     TCObjectServerMap tcObjectServerMap = new TCObjectServerMapImpl(platformService, clientObjectManager,
@@ -61,11 +61,13 @@ import com.tc.util.runtime.ThreadIDMapImpl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.Callable;
@@ -1294,6 +1296,215 @@ public class ClientLockManagerTest extends TCTestCase {
     lockManager.unlock(lid0, LockLevel.WRITE);
   }
 
+  public void testLockAllUncontended() throws Exception {
+    LockAllRemoteLockManager remote = useLockAllRemoteLockManager();
+    List<LockID> locks = lockIDs("A", "B", "C");
+
+    threadManager.setThreadID(new ThreadID(1));
+    lockManager.lockAll(locks, LockLevel.WRITE);
+
+    for (LockID lock : locks) {
+      assertTrue(lockManager.isLockedByCurrentThread(lock, LockLevel.WRITE));
+      assertTrue(remote.isLocked(lock));
+    }
+    assertEquals(3, remote.getLockRequestCount());
+    assertEquals(0, remote.getUnlockRequestCount());
+
+    unlockAll(locks);
+    assertNothingHeld(remote, locks);
+  }
+
+  public void testLockAllContendedMiddleLock() throws Exception {
+    LockAllRemoteLockManager remote = useLockAllRemoteLockManager();
+    List<LockID> locks = lockIDs("A", "B", "C");
+    remote.refuseTryLock(locks.get(1));
+
+    threadManager.setThreadID(new ThreadID(1));
+    lockManager.lockAll(locks, LockLevel.WRITE);
+
+    for (LockID lock : locks) {
+      assertTrue(lockManager.isLockedByCurrentThread(lock, LockLevel.WRITE));
+    }
+    // the acquired prefix is kept, the lock after the refused one is released before blocking in order
+    assertEquals(Collections.singletonList(locks.get(2)), remote.getUnlocked());
+
+    unlockAll(locks);
+    assertNothingHeld(remote, locks);
+  }
+
+  public void testLockAllOverlappingSetsDoNotDeadlock() throws Exception {
+    final LockAllRemoteLockManager remote = useLockAllRemoteLockManager();
+    final int rounds = 50;
+    final CyclicBarrier start = new CyclicBarrier(2);
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+
+    Thread[] threads = new Thread[2];
+    final List<List<LockID>> sets = new ArrayList<List<LockID>>();
+    sets.add(lockIDs("A", "B", "C"));
+    sets.add(lockIDs("B", "C", "D"));
+    for (int t = 0; t < threads.length; t++) {
+      final ThreadID threadID = new ThreadID(t + 1);
+      final List<LockID> locks = sets.get(t);
+      threads[t] = new Thread("lockAll-" + t) {
+        @Override
+        public void run() {
+          threadManager.setThreadID(threadID);
+          try {
+            start.await();
+            for (int i = 0; i < rounds; i++) {
+              lockManager.lockAll(locks, LockLevel.WRITE);
+              for (LockID lock : locks) {
+                Assert.assertTrue(lockManager.isLockedByCurrentThread(lock, LockLevel.WRITE));
+              }
+              unlockAll(locks);
+            }
+          } catch (Throwable e) {
+            errors.add(e);
+          }
+        }
+      };
+      threads[t].start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join(60000);
+      assertFalse("lockAll deadlocked in " + thread.getName(), thread.isAlive());
+    }
+    assertEquals(Collections.emptyList(), errors);
+    assertNothingHeld(remote, lockIDs("A", "B", "C", "D"));
+  }
+
+  public void testLockAllFailedTryLockLeavesNothingHeld() throws Exception {
+    LockAllRemoteLockManager remote = useLockAllRemoteLockManager();
+    List<LockID> locks = lockIDs("A", "B", "C");
+    remote.failTryLock(locks.get(2));
+
+    threadManager.setThreadID(new ThreadID(1));
+    try {
+      lockManager.lockAll(locks, LockLevel.WRITE);
+      fail();
+    } catch (TCRuntimeException e) {
+      // expected
+    }
+
+    assertNothingHeld(remote, locks);
+  }
+
+  public void testLockAllFailedFallbackLeavesNothingHeld() throws Exception {
+    LockAllRemoteLockManager remote = useLockAllRemoteLockManager();
+    List<LockID> locks = lockIDs("A", "B", "C");
+    remote.refuseTryLock(locks.get(1));
+    remote.failLock(locks.get(1));
+
+    threadManager.setThreadID(new ThreadID(1));
+    try {
+      lockManager.lockAll(locks, LockLevel.WRITE);
+      fail();
+    } catch (TCRuntimeException e) {
+      // expected
+    }
+
+    assertNothingHeld(remote, locks);
+  }
+
+  private LockAllRemoteLockManager useLockAllRemoteLockManager() {
+    LockAllRemoteLockManager remote = new LockAllRemoteLockManager(sessionManager);
+    rmtLockManager = remote;
+    lockManager = new ClientLockManagerImpl(new NullTCLogger(), sessionManager, remote, threadManager,
+                                            new NullClientLockManagerConfig(), ABORTABLE_OPERATION_MANAGER, taskRunner);
+    remote.setClientLockManager(lockManager);
+    return remote;
+  }
+
+  private static List<LockID> lockIDs(String... names) {
+    List<LockID> locks = new ArrayList<LockID>();
+    for (String name : names) {
+      locks.add(new StringLockID(name));
+    }
+    return locks;
+  }
+
+  private void unlockAll(List<LockID> locks) throws AbortedOperationException {
+    for (int i = locks.size() - 1; i >= 0; i--) {
+      lockManager.unlock(locks.get(i), LockLevel.WRITE);
+    }
+  }
+
+  private void assertNothingHeld(final TestRemoteLockManager remote, final List<LockID> locks) throws Exception {
+    for (LockID lock : locks) {
+      assertFalse(lock.toString(), lockManager.isLockedByCurrentThread(lock, LockLevel.WRITE));
+    }
+    // awards for withdrawn try locks arrive asynchronously and are handed straight back
+    CallableWaiter.waitOnCallable(new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        for (LockID lock : locks) {
+          if (remote.isLocked(lock)) { return false; }
+        }
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Answers zero timeout try locks like a server would: awarded when free, refused when held or queued.
+   */
+  private class LockAllRemoteLockManager extends TestRemoteLockManager {
+    private final Set<LockID>  refusedTryLocks = new HashSet<LockID>();
+    private final Set<LockID>  failedTryLocks  = new HashSet<LockID>();
+    private final Set<LockID>  failedLocks     = new HashSet<LockID>();
+    private final List<LockID> unlocked        = new ArrayList<LockID>();
+
+    LockAllRemoteLockManager(SessionProvider sessionProvider) {
+      super(sessionProvider);
+    }
+
+    synchronized void refuseTryLock(LockID lock) {
+      refusedTryLocks.add(lock);
+    }
+
+    synchronized void failTryLock(LockID lock) {
+      failedTryLocks.add(lock);
+    }
+
+    synchronized void failLock(LockID lock) {
+      failedLocks.add(lock);
+    }
+
+    synchronized List<LockID> getUnlocked() {
+      return new ArrayList<LockID>(unlocked);
+    }
+
+    @Override
+    public synchronized void lock(LockID lockID, ThreadID threadID, ServerLockLevel level) {
+      if (failedLocks.contains(lockID)) { throw new TCRuntimeException("lock failed for " + lockID); }
+      super.lock(lockID, threadID, level);
+    }
+
+    @Override
+    public synchronized void unlock(LockID lockID, ThreadID threadID, ServerLockLevel level) {
+      unlocked.add(lockID);
+      super.unlock(lockID, threadID, level);
+    }
+
+    @Override
+    public synchronized void tryLock(final LockID lockID, final ThreadID threadID, final ServerLockLevel level,
+                                     final long timeout) {
+      Assert.assertEquals(0, timeout);
+      if (failedTryLocks.contains(lockID)) { throw new TCRuntimeException("try lock failed for " + lockID); }
+      if (refusedTryLocks.remove(lockID) || isLocked(lockID)) {
+        new Thread() {
+          @Override
+          public void run() {
+            getClientLockManager().refuse(gid, sessionManager.getSessionID(gid), lockID, threadID, level);
+          }
+        }.start();
+      } else {
+        super.lock(lockID, threadID, level);
+      }
+    }
+  }
+
   public void testLockRecallHandlerNotUseBatching() throws Exception {
     NullClientLockManagerConfig testClientLockManagerConfig = new NullClientLockManagerConfig(Integer.MAX_VALUE);
 
@@ -142,6 +142,13 @@ public class MockClientLockManager implements ClientLockManager {
     this.begins.add(new Begin(lock, level));
   }
 
+  @Override
+  public void lockAll(List<LockID> locks, LockLevel level) {
+    for (LockID lock : locks) {
+      lock(lock, level);
+    }
+  }
+
   @Override
   public void lockInterruptibly(LockID lock, LockLevel level) {
     throw new ImplementMe();
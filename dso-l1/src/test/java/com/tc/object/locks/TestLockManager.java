@@ -64,6 +64,13 @@ public class TestLockManager implements ClientLockManager {
     this.locks.add(new Object[] { id, level });
   }
 
+  @Override
+  public void lockAll(final List<LockID> ids, final LockLevel level) {
+    for (final LockID id : ids) {
+      lock(id, level);
+    }
+  }
+
   @Override
   public void wait(final LockID lockID, Object waitObject) {
     this.waitCalls.add(new Object[] { lockID, null });
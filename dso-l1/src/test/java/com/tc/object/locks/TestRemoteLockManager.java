@@ -121,6 +121,10 @@ public class TestRemoteLockManager implements RemoteLockManager {
     myLocks.addLast(new Lock(threadID, level));
   }
 
+  public synchronized boolean isLocked(LockID lockID) {
+    return locks.containsKey(lockID);
+  }
+
   public synchronized void makeLocksGreedy() {
     isGreedy = true;
   }
@@ -40,4 +40,6 @@ public interface EvictableMap {
   String getCacheName();
 
   boolean isEvictionEnabled();
+
+  ServerMapEvictionPolicy getEvictionPolicy();
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.api;
+
+import java.util.Map;
+
+/**
+ * Decides which entries of a server map segment are evicted when it goes over capacity. The candidates are sampled
+ * from the segment, the policy picks the victims among them.
+ */
+public interface ServerMapEvictionPolicy {
+
+  String getName();
+
+  /**
+   * Called for every key looked up in the segment on behalf of a client, {@code hit} being false if it was absent.
+   */
+  void recordRead(Object key, boolean hit);
+
+  void recordWrite(Object key);
+
+  /**
+   * Called with the number of keys the map is now expected to hold, whenever its size or its max count may have
+   * changed. Per map state sized on creation grows to it.
+   */
+  void ensureCapacity(int expectedKeys);
+
+  /**
+   * Number of candidates to sample to evict {@code victims} entries.
+   */
+  int getCandidateCount(int victims);
+
+  Map<Object, EvictableEntry> selectVictims(Map<Object, EvictableEntry> candidates, int victims);
+
+  /**
+   * Reads that found their key since the last call.
+   */
+  long drainHits();
+
+  /**
+   * Reads that did not find their key since the last call.
+   */
+  long drainMisses();
+}
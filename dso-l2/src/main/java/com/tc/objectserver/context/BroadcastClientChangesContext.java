@@ -0,0 +1,79 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.context;
+
+import com.google.common.collect.Multimap;
+import com.tc.async.api.MultiThreadedEventContext;
+import com.tc.net.ClientID;
+import com.tc.net.protocol.tcm.MessageChannel;
+import com.tc.server.ServerEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The part of a {@link BroadcastChangeContext} to be sent to the clients of one partition. All the partitions of a
+ * transaction share a counter so that the last one to finish can mark the transaction as broadcasted.
+ */
+public class BroadcastClientChangesContext implements MultiThreadedEventContext {
+
+  private final BroadcastChangeContext          bcc;
+  private final Multimap<ClientID, ServerEvent> serverEventsPerClient;
+  private final List<MessageChannel>            channels;
+  private final Integer                         partition;
+  private final AtomicInteger                   pendingPartitions;
+
+  public BroadcastClientChangesContext(BroadcastChangeContext bcc,
+                                       Multimap<ClientID, ServerEvent> serverEventsPerClient,
+                                       List<MessageChannel> channels, int partition, AtomicInteger pendingPartitions) {
+    this.bcc = bcc;
+    this.serverEventsPerClient = serverEventsPerClient;
+    this.channels = channels;
+    this.partition = partition;
+    this.pendingPartitions = pendingPartitions;
+  }
+
+  public BroadcastChangeContext getBroadcastChangeContext() {
+    return bcc;
+  }
+
+  public Multimap<ClientID, ServerEvent> getServerEventsPerClient() {
+    return serverEventsPerClient;
+  }
+
+  public List<MessageChannel> getChannels() {
+    return channels;
+  }
+
+  /**
+   * @return true if this was the last partition of the transaction to be broadcasted
+   */
+  public boolean partitionBroadcasted() {
+    return pendingPartitions.decrementAndGet() == 0;
+  }
+
+  @Override
+  public Object getKey() {
+    return partition;
+  }
+
+  @Override
+  public String toString() {
+    return "BroadcastClientChangesContext [" + bcc.getServerTransactionID() + ", partition=" + partition
+           + ", clients=" + channels.size() + "]";
+  }
+}
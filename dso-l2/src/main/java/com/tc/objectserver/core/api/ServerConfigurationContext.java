@@ -43,6 +43,7 @@ public interface ServerConfigurationContext extends ConfigurationContext {
   public final static String APPLY_CHANGES_STAGE                                = "apply_changes_stage";
   public static final String APPLY_COMPLETE_STAGE                               = "apply_complete_stage";
   public final static String BROADCAST_CHANGES_STAGE                            = "broadcast_changes_stage";
+  public final static String BROADCAST_CLIENT_CHANGES_STAGE                     = "broadcast_client_changes_stage";
   public final static String MANAGED_ROOT_REQUEST_STAGE                         = "send_managed_object_stage";
   public final static String RESPOND_TO_OBJECT_REQUEST_STAGE                    = "respond_to_request_stage";
   public final static String MANAGED_OBJECT_REQUEST_STAGE                       = "managed_object_request_stage";
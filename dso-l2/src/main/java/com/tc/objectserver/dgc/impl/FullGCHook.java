@@ -26,6 +26,7 @@ import com.tc.objectserver.dgc.api.GarbageCollectionInfo;
 import com.tc.objectserver.l1.api.ClientStateManager;
 import com.tc.util.BitSetObjectIDSet;
 import com.tc.util.ObjectIDSet;
+import com.tc.util.RoaringObjectIDSet;
 
 import java.util.Set;
 
@@ -78,7 +79,7 @@ public class FullGCHook extends AbstractGCHook {
 
   @Override
   public ObjectIDSet getRescueIDs() {
-    ObjectIDSet rescueIds = new BitSetObjectIDSet();
+    ObjectIDSet rescueIds = new RoaringObjectIDSet();
     this.stateManager.addAllReferencedIdsTo(rescueIds);
     int stateManagerIds = rescueIds.size();
 
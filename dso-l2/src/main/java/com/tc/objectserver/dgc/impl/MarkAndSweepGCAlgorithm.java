@@ -25,6 +25,7 @@ import com.tc.objectserver.dgc.api.GarbageCollectionInfoPublisher;
 import com.tc.objectserver.dgc.api.GarbageCollector;
 import com.tc.util.BitSetObjectIDSet;
 import com.tc.util.ObjectIDSet;
+import com.tc.util.RoaringObjectIDSet;
 import com.tc.util.TCCollections;
 import com.tc.util.UUID;
 import com.tc.util.concurrent.LifeCycleState;
@@ -40,15 +41,17 @@ final class MarkAndSweepGCAlgorithm {
   private final GarbageCollector               collector;
   private final GarbageCollectionInfoPublisher gcPublisher;
   private final LifeCycleState                 gcState;
+  private final int                            markParallelism;
   private final String                         uuid = UUID.getUUID().toString();
 
   public MarkAndSweepGCAlgorithm(GarbageCollector collector, GCHook gcHook, GarbageCollectionInfoPublisher gcPublisher,
-                                 LifeCycleState gcState, long gcIteration) {
+                                 LifeCycleState gcState, long gcIteration, int markParallelism) {
     this.collector = collector;
     this.gcHook = gcHook;
     this.gcPublisher = gcPublisher;
     this.gcState = gcState;
     this.gcIteration = gcIteration;
+    this.markParallelism = markParallelism;
   }
 
   void doGC() {
@@ -71,14 +74,15 @@ final class MarkAndSweepGCAlgorithm {
 
     if (gcState.isStopRequested()) { return; }
 
-    ObjectIDSet gcResults = collect(gcHook.getCollectCycleFilter(candidateIDs), rootIDs, candidateIDs, gcState);
+    ObjectIDSet gcResults = collect("mark", gcHook.getCollectCycleFilter(candidateIDs), rootIDs, candidateIDs,
+                                    gcState);
     gcInfo.setPreRescueCount(gcResults.size());
     gcPublisher.fireGCMarkResultsEvent(gcInfo);
 
     if (gcState.isStopRequested()) { return; }
 
     long startRescue1 = System.currentTimeMillis();
-    gcResults = rescue(gcResults);
+    gcResults = rescue("rescue1", gcResults);
     long rescue1Time = System.currentTimeMillis() - startRescue1;
     gcInfo.setRescue1Time(rescue1Time);
     gcInfo.setRescue1Count(gcResults.size());
@@ -108,7 +112,7 @@ final class MarkAndSweepGCAlgorithm {
     gcInfo.setCandidateGarbageCount(gcResults.size());
     gcPublisher.fireGCRescue2StartEvent(gcInfo);
     long startRescue2 = System.currentTimeMillis();
-    ObjectIDSet toDelete = ObjectIDSet.unmodifiableObjectIDSet(rescue(new BitSetObjectIDSet(gcResults)));
+    ObjectIDSet toDelete = ObjectIDSet.unmodifiableObjectIDSet(rescue("rescue2", new RoaringObjectIDSet(gcResults)));
     long rescue2Time = System.currentTimeMillis() - startRescue2;
     gcInfo.setRescue2Time(rescue2Time);
 
@@ -146,17 +150,30 @@ final class MarkAndSweepGCAlgorithm {
 
   public ObjectIDSet collect(Filter filter, Collection rootIds, ObjectIDSet managedObjectIds,
                              LifeCycleState lifeCycleState) {
+    return collect("collect", filter, rootIds, managedObjectIds, lifeCycleState);
+  }
+
+  private ObjectIDSet collect(String phase, Filter filter, Collection rootIds, ObjectIDSet managedObjectIds,
+                              LifeCycleState lifeCycleState) {
     long start = System.currentTimeMillis();
     logstart_collect(rootIds, managedObjectIds);
 
-    for (Iterator i = rootIds.iterator(); i.hasNext() && !managedObjectIds.isEmpty();) {
-      ObjectID rootId = (ObjectID) i.next();
-      managedObjectIds.remove(rootId);
-      if (lifeCycleState.isStopRequested()) return TCCollections.EMPTY_OBJECT_ID_SET;
-      collectRoot(filter, rootId, managedObjectIds, lifeCycleState);
+    int parallelism = markParallelism;
+    int candidates = managedObjectIds.size();
+    if (parallelism > 1 && !rootIds.isEmpty() && !managedObjectIds.isEmpty()) {
+      ParallelMarker marker = new ParallelMarker(gcHook, filter, managedObjectIds, lifeCycleState, parallelism);
+      if (!marker.mark(rootIds)) return TCCollections.EMPTY_OBJECT_ID_SET;
+    } else {
+      parallelism = 1;
+      for (Iterator i = rootIds.iterator(); i.hasNext() && !managedObjectIds.isEmpty();) {
+        ObjectID rootId = (ObjectID) i.next();
+        managedObjectIds.remove(rootId);
+        if (lifeCycleState.isStopRequested()) return TCCollections.EMPTY_OBJECT_ID_SET;
+        collectRoot(filter, rootId, managedObjectIds, lifeCycleState);
+      }
     }
 
-    profile_collect(start);
+    profile_collect(phase, parallelism, rootIds.size(), candidates, managedObjectIds.size(), start);
 
     return managedObjectIds;
   }
@@ -187,12 +204,12 @@ final class MarkAndSweepGCAlgorithm {
     }
   }
 
-  private ObjectIDSet rescue(final ObjectIDSet gcResults) {
+  private ObjectIDSet rescue(String phase, final ObjectIDSet gcResults) {
     Set<ObjectID> rescueIds = gcHook.getRescueIDs();
     rescueIds.retainAll(gcResults);
 
     Filter rescueFilter = new SelectiveFilter(gcResults);
-    return collect(rescueFilter, rescueIds, gcResults, gcState);
+    return collect(phase, rescueFilter, rescueIds, gcResults, gcState);
   }
 
   private void logstart_collect(Collection rootIds, Set managedObjectIds) {
@@ -200,9 +217,13 @@ final class MarkAndSweepGCAlgorithm {
         .debug("collect(): rootIds=" + rootIds.size() + ", managedObjectIds=" + managedObjectIds.size());
   }
 
-  private void profile_collect(long start) {
+  private void profile_collect(String phase, int parallelism, int roots, int candidates, int remaining, long start) {
     if (MarkAndSweepGarbageCollector.logger.isDebugEnabled()) MarkAndSweepGarbageCollector.logger
         .debug("collect: " + (System.currentTimeMillis() - start) + " ms.");
+    if (MarkAndSweepGarbageCollector.logger.isInfoEnabled()) MarkAndSweepGarbageCollector.logger
+        .info("DGC[ " + gcIteration + " ] " + phase + ": parallelism=" + parallelism + ", roots=" + roots
+              + ", marked=" + (candidates - remaining) + " of " + candidates + ", time="
+              + (System.currentTimeMillis() - start) + " ms");
   }
 
-}
\ No newline at end of file
+}
@@ -27,6 +27,8 @@ import com.tc.objectserver.dgc.api.GarbageCollectionInfoPublisher;
 import com.tc.objectserver.dgc.api.GarbageCollectorEventListener;
 import com.tc.objectserver.impl.ObjectManagerConfig;
 import com.tc.objectserver.l1.api.ClientStateManager;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.ObjectIDSet;
 import com.tc.util.concurrent.LifeCycleState;
 import com.tc.util.sequence.DGCSequenceProvider;
@@ -40,11 +42,13 @@ public class MarkAndSweepGarbageCollector extends AbstractGarbageCollector {
 
   static final TCLogger                        logger                     = TCLogging
                                                                               .getLogger(MarkAndSweepGarbageCollector.class);
+  private static final int                     MAX_DEFAULT_MARK_PARALLELISM = 4;
 
   private final GarbageCollectionInfoPublisher gcPublisher;
   private final ClientStateManager             stateManager;
   private final ObjectManager                  objectManager;
   private final DGCSequenceProvider            dgcSequenceProvider;
+  private final int                            markParallelism;
 
   private volatile ChangeCollector             referenceCollector         = ChangeCollector.NULL_CHANGE_COLLECTOR;
   protected volatile boolean                   started                    = false;
@@ -54,13 +58,29 @@ public class MarkAndSweepGarbageCollector extends AbstractGarbageCollector {
                                       final ClientStateManager stateManager,
                                       final GarbageCollectionInfoPublisher gcPublisher,
                                       final DGCSequenceProvider dgcSequenceProvider) {
+    this(objectManagerConfig, objectMgr, stateManager, gcPublisher, dgcSequenceProvider, defaultMarkParallelism());
+  }
+
+  MarkAndSweepGarbageCollector(final ObjectManagerConfig objectManagerConfig, final ObjectManager objectMgr,
+                               final ClientStateManager stateManager, final GarbageCollectionInfoPublisher gcPublisher,
+                               final DGCSequenceProvider dgcSequenceProvider, final int markParallelism) {
     this.objectManager = objectMgr;
     this.stateManager = stateManager;
     this.gcPublisher = gcPublisher;
     this.dgcSequenceProvider = dgcSequenceProvider;
+    this.markParallelism = markParallelism;
     addListener(new GCLoggerEventPublisher(new GCLogger(logger, objectManagerConfig.verboseGC())));
   }
 
+  private static int defaultMarkParallelism() {
+    int parallelism = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_OBJECTMANAGER_DGC_MARK_PARALLELISM,
+                                                              0);
+    if (parallelism > 0) { return parallelism; }
+    // leave half the cores to the stages still serving clients while dgc marks
+    int halfOfCores = Runtime.getRuntime().availableProcessors() / 2;
+    return Math.max(1, Math.min(halfOfCores, MAX_DEFAULT_MARK_PARALLELISM));
+  }
+
   @Override
   public void doGC(final GCType type) {
     GCHook hook = null;
@@ -73,7 +93,8 @@ public class MarkAndSweepGarbageCollector extends AbstractGarbageCollector {
         break;
     }
     final MarkAndSweepGCAlgorithm gcAlgo = new MarkAndSweepGCAlgorithm(this, hook, this.gcPublisher, this.gcState,
-                                                                       this.dgcSequenceProvider.getNextId());
+                                                                       this.dgcSequenceProvider.getNextId(),
+                                                                       this.markParallelism);
     gcAlgo.doGC();
   }
 
@@ -121,7 +142,8 @@ public class MarkAndSweepGarbageCollector extends AbstractGarbageCollector {
   ObjectIDSet collect(final GCHook hook, final Filter traverser, final Collection roots,
                       final ObjectIDSet managedObjectIds, final LifeCycleState lstate) {
     final MarkAndSweepGCAlgorithm gcAlgo = new MarkAndSweepGCAlgorithm(this, hook, this.gcPublisher, this.gcState,
-                                                                       this.dgcSequenceProvider.getNextId());
+                                                                       this.dgcSequenceProvider.getNextId(),
+                                                                       this.markParallelism);
     return gcAlgo.collect(traverser, roots, managedObjectIds, lstate);
   }
 
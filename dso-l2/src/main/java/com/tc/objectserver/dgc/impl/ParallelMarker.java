@@ -0,0 +1,188 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.dgc.impl;
+
+import com.tc.object.ObjectID;
+import com.tc.objectserver.core.api.Filter;
+import com.tc.util.ObjectIDSet;
+import com.tc.util.concurrent.LifeCycleState;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Marks everything reachable from a set of roots using a fork/join pool. The candidate set is only read while the pool
+ * is running; reachable candidates are recorded in a concurrent bitmap and removed from the candidate set once all
+ * workers are done, so the result is the same as the serial walk in {@link MarkAndSweepGCAlgorithm}.
+ */
+final class ParallelMarker {
+
+  private static final int     SPLIT_THRESHOLD = 256;
+
+  private final GCHook         gcHook;
+  private final Filter         filter;
+  private final ObjectIDSet    managedObjectIds;
+  private final LifeCycleState lifeCycleState;
+  private final int            parallelism;
+  private final MarkBitmap     marked          = new MarkBitmap();
+  private final AtomicLong     remaining;
+
+  ParallelMarker(GCHook gcHook, Filter filter, ObjectIDSet managedObjectIds, LifeCycleState lifeCycleState,
+                 int parallelism) {
+    this.gcHook = gcHook;
+    this.filter = filter;
+    this.managedObjectIds = managedObjectIds;
+    this.lifeCycleState = lifeCycleState;
+    this.parallelism = parallelism;
+    this.remaining = new AtomicLong(managedObjectIds.size());
+  }
+
+  /**
+   * @return false if the mark was abandoned because a stop was requested, in which case managedObjectIds is untouched.
+   */
+  boolean mark(Collection rootIds) {
+    Deque<ObjectID> roots = new ArrayDeque<ObjectID>(rootIds.size());
+    for (Object o : rootIds) {
+      ObjectID rootId = (ObjectID) o;
+      // roots are always walked, even if they are not candidates themselves
+      if (managedObjectIds.contains(rootId)) markIfUnmarked(rootId);
+      roots.add(rootId);
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new MarkTask(roots));
+    } finally {
+      pool.shutdown();
+    }
+
+    if (lifeCycleState.isStopRequested()) return false;
+    marked.removeFrom(managedObjectIds);
+    return true;
+  }
+
+  private boolean markIfUnmarked(ObjectID id) {
+    if (marked.mark(id.toLong())) {
+      remaining.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean isDone() {
+    return remaining.get() <= 0 || lifeCycleState.isStopRequested();
+  }
+
+  private void visit(ObjectID id, Deque<ObjectID> toBeVisited) {
+    Set<ObjectID> references = gcHook.getObjectReferencesFrom(id);
+    for (final ObjectID mid : references) {
+      if (mid == null) {
+        // see CDV-765
+        MarkAndSweepGarbageCollector.logger.error("null value returned from getObjectReferences() on " + id);
+        continue;
+      }
+      if (mid.isNull() || !managedObjectIds.contains(mid)) continue;
+      if (markIfUnmarked(mid) && filter.shouldVisit(mid)) toBeVisited.add(mid);
+    }
+  }
+
+  private final class MarkTask extends RecursiveAction {
+    private final Deque<ObjectID> toBeVisited;
+
+    MarkTask(Deque<ObjectID> toBeVisited) {
+      this.toBeVisited = toBeVisited;
+    }
+
+    @Override
+    protected void compute() {
+      List<MarkTask> forked = new ArrayList<MarkTask>();
+      ObjectID id;
+      while (!isDone() && (id = toBeVisited.poll()) != null) {
+        if (toBeVisited.size() > SPLIT_THRESHOLD) {
+          forked.add((MarkTask) new MarkTask(split()).fork());
+        }
+        visit(id, toBeVisited);
+      }
+      for (MarkTask task : forked) {
+        task.join();
+      }
+    }
+
+    private Deque<ObjectID> split() {
+      int half = toBeVisited.size() / 2;
+      Deque<ObjectID> other = new ArrayDeque<ObjectID>(half);
+      for (int i = 0; i < half; i++) {
+        other.add(toBeVisited.pollLast());
+      }
+      return other;
+    }
+  }
+
+  /**
+   * Concurrent bitmap of object ids, paged so that sparse id ranges stay cheap. Setting a bit is a CAS on a single
+   * word, so concurrent markers agree on which one marked an id first.
+   */
+  private static final class MarkBitmap {
+    private static final int                               PAGE_BITS  = 16;
+    private static final int                               PAGE_WORDS = (1 << PAGE_BITS) / Long.SIZE;
+
+    private final ConcurrentHashMap<Long, AtomicLongArray> pages      = new ConcurrentHashMap<Long, AtomicLongArray>();
+
+    boolean mark(long id) {
+      Long pageIndex = Long.valueOf(id >>> PAGE_BITS);
+      AtomicLongArray page = pages.get(pageIndex);
+      if (page == null) {
+        AtomicLongArray newPage = new AtomicLongArray(PAGE_WORDS);
+        page = pages.putIfAbsent(pageIndex, newPage);
+        if (page == null) page = newPage;
+      }
+      int offset = (int) (id & ((1 << PAGE_BITS) - 1));
+      int word = offset >>> 6;
+      long bit = 1L << (offset & 63);
+      while (true) {
+        long current = page.get(word);
+        if ((current & bit) != 0) return false;
+        if (page.compareAndSet(word, current, current | bit)) return true;
+      }
+    }
+
+    void removeFrom(ObjectIDSet ids) {
+      for (Map.Entry<Long, AtomicLongArray> e : pages.entrySet()) {
+        long base = e.getKey().longValue() << PAGE_BITS;
+        AtomicLongArray page = e.getValue();
+        for (int i = 0; i < PAGE_WORDS; i++) {
+          long bits = page.get(i);
+          while (bits != 0) {
+            int bit = Long.numberOfTrailingZeros(bits);
+            ids.remove(new ObjectID(base + (i << 6) + bit));
+            bits &= bits - 1;
+          }
+        }
+      }
+    }
+  }
+}
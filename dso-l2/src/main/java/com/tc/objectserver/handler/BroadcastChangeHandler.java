@@ -18,29 +18,16 @@ package com.tc.objectserver.handler;
 
 import com.google.common.collect.Multimap;
 import com.tc.async.api.AbstractEventHandler;
+import com.tc.async.api.BatchEventHandler;
 import com.tc.async.api.ConfigurationContext;
 import com.tc.async.api.EventContext;
 import com.tc.async.api.Sink;
-import com.tc.invalidation.Invalidations;
-import com.tc.logging.TCLogger;
-import com.tc.logging.TCLogging;
 import com.tc.net.ClientID;
-import com.tc.net.NodeID;
 import com.tc.net.protocol.tcm.MessageChannel;
-import com.tc.net.protocol.tcm.TCMessageType;
-import com.tc.object.ObjectID;
-import com.tc.object.ObjectRequestID;
-import com.tc.object.ObjectRequestServerContext.LOOKUP_STATE;
-import com.tc.object.dna.api.DNA;
-import com.tc.object.dna.api.LogicalChangeID;
-import com.tc.object.dna.api.LogicalChangeResult;
-import com.tc.object.msg.BroadcastTransactionMessage;
 import com.tc.object.net.DSOChannelManager;
-import com.tc.object.tx.TransactionID;
 import com.tc.objectserver.context.BroadcastChangeContext;
-import com.tc.objectserver.context.ObjectRequestServerContextImpl;
+import com.tc.objectserver.context.BroadcastClientChangesContext;
 import com.tc.objectserver.core.api.ServerConfigurationContext;
-import com.tc.objectserver.l1.api.ClientStateManager;
 import com.tc.objectserver.l1.api.InvalidateObjectManager;
 import com.tc.objectserver.mgmt.ObjectStatsRecorder;
 import com.tc.objectserver.tx.BroadcastDurabilityLevel;
@@ -49,46 +36,65 @@ import com.tc.properties.TCPropertiesImpl;
 import com.tc.server.ServerEvent;
 import com.tc.stats.counter.sampled.SampledCounter;
 import com.tc.stats.counter.sampled.derived.SampledRateCounter;
-import com.tc.util.BitSetObjectIDSet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Broadcast the change to all connected clients
+ * Broadcast the change to all connected clients.
+ * <p>
+ * With more than one partition the connected clients are split by {@link ClientID} over the threads of the
+ * {@link ServerConfigurationContext#BROADCAST_CLIENT_CHANGES_STAGE}, otherwise the changes of each transaction are sent
+ * from this stage before the next transaction is waited for.
  */
-public class BroadcastChangeHandler extends AbstractEventHandler {
-  private static final TCLogger         logger = TCLogging.getLogger(BroadcastChangeHandler.class);
+public class BroadcastChangeHandler extends AbstractEventHandler implements BatchEventHandler {
 
-  private DSOChannelManager             channelManager;
-  private ClientStateManager            clientStateManager;
-  private ServerTransactionManager      transactionManager;
-  private Sink                          managedObjectRequestSink;
-  private final ObjectStatsRecorder     objectStatsRecorder;
+  private DSOChannelManager                   channelManager;
+  private ServerTransactionManager            transactionManager;
+  private Sink                                clientChangesSink;
 
-  private final SampledCounter          broadcastCounter;
-  private final SampledRateCounter      changesPerBroadcast;
-  private final InvalidateObjectManager invalidateObjMgr;
-  private final BroadcastDurabilityLevel broadcastDurabilityLevel;
+  private final BroadcastClientChangesHandler clientChangesHandler;
+  private final int                           partitions;
+  private final BroadcastDurabilityLevel      broadcastDurabilityLevel;
 
   public BroadcastChangeHandler(final SampledCounter broadcastCounter, final ObjectStatsRecorder objectStatsRecorder,
                                 final SampledRateCounter changesPerBroadcast, InvalidateObjectManager invalidateObjMgr) {
-    this.broadcastCounter = broadcastCounter;
-    this.objectStatsRecorder = objectStatsRecorder;
-    this.changesPerBroadcast = changesPerBroadcast;
-    this.invalidateObjMgr = invalidateObjMgr;
+    this(new BroadcastClientChangesHandler(broadcastCounter, objectStatsRecorder, changesPerBroadcast,
+                                           invalidateObjMgr), 1);
+  }
+
+  /**
+   * @param partitions number of threads of the broadcast client changes stage, which is not used when 1
+   */
+  public BroadcastChangeHandler(final BroadcastClientChangesHandler clientChangesHandler, final int partitions) {
+    this.clientChangesHandler = clientChangesHandler;
+    this.partitions = partitions;
     this.broadcastDurabilityLevel = BroadcastDurabilityLevel.getFromProperties(TCPropertiesImpl.getProperties());
   }
 
   @Override
   public void handleEvent(final EventContext context) {
-    final BroadcastChangeContext bcc = (BroadcastChangeContext) context;
-    final NodeID committerID = bcc.getNodeID();
-    final TransactionID txnID = bcc.getTransactionID();
+    handleEvents(Collections.singletonList(context));
+  }
+
+  @Override
+  public void handleEvents(final Collection contexts) {
+    for (final Object context : contexts) {
+      final BroadcastClientChangesContext inline = dispatch((BroadcastChangeContext) context);
+      if (inline != null) {
+        clientChangesHandler.handleEvents(Collections.singletonList(inline));
+      }
+    }
+  }
+
+  /**
+   * @return the changes to send from this stage, null if they were handed to the partitions
+   */
+  private BroadcastClientChangesContext dispatch(final BroadcastChangeContext bcc) {
     final MessageChannel[] channels = this.channelManager.getActiveChannels();
 
     final Multimap<ClientID, ServerEvent> serverEventsPerClient = bcc.getApplyInfo()
@@ -103,106 +109,50 @@ public class BroadcastChangeHandler extends AbstractEventHandler {
       }
     }
 
-    for (final MessageChannel client : channels) {
-      // TODO:: make message channel return clientID and short channelManager call.
-      final ClientID clientID = this.channelManager.getClientIDFor(client.getChannelID());
-
-      final Map newRoots = bcc.getNewRoots();
-      final Set notifiedWaiters = bcc.getNewlyPendingWaiters().getNotifiedFor(clientID);
-      List<DNA> prunedChanges;
-      final SortedSet<ObjectID> lookupObjectIDs = new BitSetObjectIDSet();
-      final Invalidations invalidateObjectIDs = new Invalidations();
-
-      if (!clientID.equals(committerID) || !bcc.getApplyInfo().getObjectsToEchoChangesFor().isEmpty()) {
-        prunedChanges = this.clientStateManager.createPrunedChangesAndAddObjectIDTo(bcc.getChanges(),
-            bcc.getApplyInfo(), clientID, lookupObjectIDs, invalidateObjectIDs);
-      }  else {
-        prunedChanges = Collections.emptyList();
-      }
-
-      Map<LogicalChangeID, LogicalChangeResult> logicalChangeResults = (clientID.equals(committerID) ?
-          bcc.getApplyInfo().getApplyResultRecorder().getResults() :
-          Collections.<LogicalChangeID, LogicalChangeResult>emptyMap());
-
-      Collection<ServerEvent> serverEvents = serverEventsPerClient.get(clientID);
-      if (serverEvents == null) {
-        serverEvents = Collections.emptyList();
-      }
-
-      if (!invalidateObjectIDs.isEmpty()) {
-        invalidateObjMgr.invalidateObjectFor(clientID, invalidateObjectIDs);
-      }
-
-      if (this.objectStatsRecorder.getBroadcastDebug()) {
-        updateStats(prunedChanges);
-      }
+    if (partitions <= 1) {
+      return new BroadcastClientChangesContext(bcc, serverEventsPerClient, Arrays.asList(channels), 0,
+                                               new AtomicInteger(1));
+    }
 
-      if (!prunedChanges.isEmpty() || !lookupObjectIDs.isEmpty() || !notifiedWaiters.isEmpty() || !newRoots.isEmpty()
-          || !logicalChangeResults.isEmpty() || !serverEvents.isEmpty()) {
-        this.transactionManager.addWaitingForAcknowledgement(committerID, txnID, clientID);
-
-        // check here if the client is already not disconnected
-        // if it is then we remove the clientID from the list of clients to acknowledge back
-        // otherwise the committerID will never receive the acknowledgment from the server
-        if (client.isClosed()) {
-          this.transactionManager.acknowledgement(committerID, txnID, clientID);
-          continue;
-        }
-
-        if (lookupObjectIDs.size() > 0) {
-          this.managedObjectRequestSink.add(new ObjectRequestServerContextImpl(clientID, ObjectRequestID.NULL_ID,
-                                                                               lookupObjectIDs, Thread.currentThread()
-                                                                                   .getName(), -1,
-                                                                               LOOKUP_STATE.SERVER_INITIATED));
-        }
-
-        final BroadcastTransactionMessage responseMessage = (BroadcastTransactionMessage) client
-            .createMessage(TCMessageType.BROADCAST_TRANSACTION_MESSAGE);
-        responseMessage.initialize(prunedChanges, bcc.getSerializer(), bcc.getLockIDs(), getNextChangeIDFor(clientID),
-                                   txnID, committerID, bcc.getGlobalTransactionID(), bcc.getTransactionType(),
-                                   bcc.getLowGlobalTransactionIDWatermark(), notifiedWaiters, newRoots,
-                                   logicalChangeResults, serverEvents);
-
-        responseMessage.send();
-
-        if (logger.isDebugEnabled() && !notifiedWaiters.isEmpty()) {
-          logger.debug("Notified waiters " + clientID + " " + notifiedWaiters);
-        }
-
-        this.broadcastCounter.increment();
-        // changesPerBroadcast = number of changes/number of broadcasts
-        this.changesPerBroadcast.increment(prunedChanges.size(), 1);
+    final List<MessageChannel>[] channelsPerPartition = new List[partitions];
+    int used = 0;
+    for (final MessageChannel client : channels) {
+      final int partition = partitionFor(this.channelManager.getClientIDFor(client.getChannelID()));
+      if (channelsPerPartition[partition] == null) {
+        channelsPerPartition[partition] = new ArrayList<MessageChannel>();
+        used++;
       }
+      channelsPerPartition[partition].add(client);
     }
-    this.transactionManager.broadcasted(committerID, txnID);
-    if (bcc.getServerTransactionID().isServerGeneratedTransaction()) {
-      bcc.getApplyInfo().getServerEventBuffer().removeEventsForTransaction(bcc.getGlobalTransactionID());
+
+    if (used == 0) {
+      BroadcastClientChangesHandler.broadcasted(bcc, this.transactionManager);
+      return null;
     }
-  }
 
-  private void updateStats(final List prunedChanges) {
-    for (final Object prunedChange : prunedChanges) {
-      final DNA dna = (DNA) prunedChange;
-      String className = dna.getTypeName();
-      if (className == null) {
-        className = "UNKNOWN"; // Could happen on restart scenario
+    final AtomicInteger pendingPartitions = new AtomicInteger(used);
+    for (int i = 0; i < partitions; i++) {
+      if (channelsPerPartition[i] != null) {
+        this.clientChangesSink.add(new BroadcastClientChangesContext(bcc, serverEventsPerClient,
+                                                                     channelsPerPartition[i], i, pendingPartitions));
       }
-      this.objectStatsRecorder.updateBroadcastStats(className);
     }
+    return null;
   }
 
-  private long getNextChangeIDFor(final ClientID clientID) {
-    // FIXME Fix this facility. Should keep a counter for every client and
-    // increment on every
-    return 0;
+  private int partitionFor(final ClientID clientID) {
+    return Math.abs(clientID.hashCode() % partitions);
   }
 
   @Override
   protected void initialize(final ConfigurationContext context) {
     final ServerConfigurationContext scc = (ServerConfigurationContext) context;
     this.channelManager = scc.getChannelManager();
-    this.clientStateManager = scc.getClientStateManager();
     this.transactionManager = scc.getTransactionManager();
-    this.managedObjectRequestSink = scc.getStage(ServerConfigurationContext.MANAGED_OBJECT_REQUEST_STAGE).getSink();
+    if (partitions > 1) {
+      this.clientChangesSink = scc.getStage(ServerConfigurationContext.BROADCAST_CLIENT_CHANGES_STAGE).getSink();
+    } else {
+      this.clientChangesHandler.initializeContext(context);
+    }
   }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.handler;
+
+import com.google.common.collect.Multimap;
+import com.tc.async.api.AbstractEventHandler;
+import com.tc.async.api.BatchEventHandler;
+import com.tc.async.api.ConfigurationContext;
+import com.tc.async.api.EventContext;
+import com.tc.async.api.Sink;
+import com.tc.invalidation.Invalidations;
+import com.tc.logging.TCLogger;
+import com.tc.logging.TCLogging;
+import com.tc.net.ClientID;
+import com.tc.net.NodeID;
+import com.tc.net.protocol.tcm.MessageChannel;
+import com.tc.net.protocol.tcm.TCMessageType;
+import com.tc.object.ObjectID;
+import com.tc.object.ObjectRequestID;
+import com.tc.object.ObjectRequestServerContext.LOOKUP_STATE;
+import com.tc.object.dna.api.DNA;
+import com.tc.object.dna.api.LogicalChangeID;
+import com.tc.object.dna.api.LogicalChangeResult;
+import com.tc.object.msg.BroadcastTransactionMessage;
+import com.tc.object.net.DSOChannelManager;
+import com.tc.object.tx.TransactionID;
+import com.tc.objectserver.context.BroadcastChangeContext;
+import com.tc.objectserver.context.BroadcastClientChangesContext;
+import com.tc.objectserver.context.ObjectRequestServerContextImpl;
+import com.tc.objectserver.core.api.ServerConfigurationContext;
+import com.tc.objectserver.l1.api.ClientStateManager;
+import com.tc.objectserver.l1.api.InvalidateObjectManager;
+import com.tc.objectserver.mgmt.ObjectStatsRecorder;
+import com.tc.objectserver.tx.ServerTransactionManager;
+import com.tc.server.ServerEvent;
+import com.tc.stats.counter.sampled.SampledCounter;
+import com.tc.stats.counter.sampled.derived.SampledRateCounter;
+import com.tc.util.RoaringObjectIDSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Sends the changes of a transaction to the clients of one partition. Contexts are keyed by partition, so every client
+ * always sees its transactions in order while the partitions are served in parallel.
+ * <p>
+ * The objects newly referenced by the changes are looked up once per client and per batch of transactions rather
+ * than once per client and per transaction. As for a single transaction, the lookups are requested before any of the
+ * changes referencing the objects are sent.
+ */
+public class BroadcastClientChangesHandler extends AbstractEventHandler implements BatchEventHandler {
+  private static final TCLogger         logger = TCLogging.getLogger(BroadcastClientChangesHandler.class);
+
+  private DSOChannelManager             channelManager;
+  private ClientStateManager            clientStateManager;
+  private ServerTransactionManager      transactionManager;
+  private Sink                          managedObjectRequestSink;
+  private final ObjectStatsRecorder     objectStatsRecorder;
+
+  private final SampledCounter          broadcastCounter;
+  private final SampledRateCounter      changesPerBroadcast;
+  private final InvalidateObjectManager invalidateObjMgr;
+
+  public BroadcastClientChangesHandler(final SampledCounter broadcastCounter,
+                                       final ObjectStatsRecorder objectStatsRecorder,
+                                       final SampledRateCounter changesPerBroadcast,
+                                       InvalidateObjectManager invalidateObjMgr) {
+    this.broadcastCounter = broadcastCounter;
+    this.objectStatsRecorder = objectStatsRecorder;
+    this.changesPerBroadcast = changesPerBroadcast;
+    this.invalidateObjMgr = invalidateObjMgr;
+  }
+
+  @Override
+  public void handleEvent(final EventContext context) {
+    handleEvents(Collections.singletonList(context));
+  }
+
+  @Override
+  public void handleEvents(final Collection contexts) {
+    final Map<ClientID, SortedSet<ObjectID>> lookups = new HashMap<ClientID, SortedSet<ObjectID>>();
+    final List<List<BroadcastTransactionMessage>> messages = new ArrayList<List<BroadcastTransactionMessage>>(
+        contexts.size());
+    try {
+      for (final Object context : contexts) {
+        messages.add(prepare((BroadcastClientChangesContext) context, lookups));
+      }
+    } finally {
+      for (final Map.Entry<ClientID, SortedSet<ObjectID>> e : lookups.entrySet()) {
+        this.managedObjectRequestSink.add(new ObjectRequestServerContextImpl(e.getKey(), ObjectRequestID.NULL_ID,
+                                                                             e.getValue(), Thread.currentThread()
+                                                                                 .getName(), -1,
+                                                                             LOOKUP_STATE.SERVER_INITIATED));
+      }
+    }
+    final Iterator<List<BroadcastTransactionMessage>> i = messages.iterator();
+    for (final Object context : contexts) {
+      send((BroadcastClientChangesContext) context, i.next());
+    }
+  }
+
+  private List<BroadcastTransactionMessage> prepare(final BroadcastClientChangesContext context,
+                                                    final Map<ClientID, SortedSet<ObjectID>> lookups) {
+    final BroadcastChangeContext bcc = context.getBroadcastChangeContext();
+    final NodeID committerID = bcc.getNodeID();
+    final TransactionID txnID = bcc.getTransactionID();
+    final Multimap<ClientID, ServerEvent> serverEventsPerClient = context.getServerEventsPerClient();
+    final List<BroadcastTransactionMessage> messages = new ArrayList<BroadcastTransactionMessage>();
+
+    for (final MessageChannel client : context.getChannels()) {
+      // TODO:: make message channel return clientID and short channelManager call.
+      final ClientID clientID = this.channelManager.getClientIDFor(client.getChannelID());
+
+      final Map newRoots = bcc.getNewRoots();
+      final Set notifiedWaiters = bcc.getNewlyPendingWaiters().getNotifiedFor(clientID);
+      List<DNA> prunedChanges;
+      final SortedSet<ObjectID> lookupObjectIDs = new RoaringObjectIDSet();
+      final Invalidations invalidateObjectIDs = new Invalidations();
+
+      if (!clientID.equals(committerID) || !bcc.getApplyInfo().getObjectsToEchoChangesFor().isEmpty()) {
+        prunedChanges = this.clientStateManager.createPrunedChangesAndAddObjectIDTo(bcc.getChanges(),
+            bcc.getApplyInfo(), clientID, lookupObjectIDs, invalidateObjectIDs);
+      }  else {
+        prunedChanges = Collections.emptyList();
+      }
+
+      Map<LogicalChangeID, LogicalChangeResult> logicalChangeResults = (clientID.equals(committerID) ?
+          bcc.getApplyInfo().getApplyResultRecorder().getResults() :
+          Collections.<LogicalChangeID, LogicalChangeResult>emptyMap());
+
+      Collection<ServerEvent> serverEvents = serverEventsPerClient.get(clientID);
+      if (serverEvents == null) {
+        serverEvents = Collections.emptyList();
+      }
+
+      if (!invalidateObjectIDs.isEmpty()) {
+        invalidateObjMgr.invalidateObjectFor(clientID, invalidateObjectIDs);
+      }
+
+      if (this.objectStatsRecorder.getBroadcastDebug()) {
+        updateStats(prunedChanges);
+      }
+
+      if (!prunedChanges.isEmpty() || !lookupObjectIDs.isEmpty() || !notifiedWaiters.isEmpty() || !newRoots.isEmpty()
+          || !logicalChangeResults.isEmpty() || !serverEvents.isEmpty()) {
+        this.transactionManager.addWaitingForAcknowledgement(committerID, txnID, clientID);
+
+        // check here if the client is already not disconnected
+        // if it is then we remove the clientID from the list of clients to acknowledge back
+        // otherwise the committerID will never receive the acknowledgment from the server
+        if (client.isClosed()) {
+          this.transactionManager.acknowledgement(committerID, txnID, clientID);
+          continue;
+        }
+
+        if (lookupObjectIDs.size() > 0) {
+          final SortedSet<ObjectID> pending = lookups.get(clientID);
+          if (pending == null) {
+            lookups.put(clientID, lookupObjectIDs);
+          } else {
+            pending.addAll(lookupObjectIDs);
+          }
+        }
+
+        final BroadcastTransactionMessage responseMessage = (BroadcastTransactionMessage) client
+            .createMessage(TCMessageType.BROADCAST_TRANSACTION_MESSAGE);
+        responseMessage.initialize(prunedChanges, bcc.getSerializer(), bcc.getLockIDs(), getNextChangeIDFor(clientID),
+                                   txnID, committerID, bcc.getGlobalTransactionID(), bcc.getTransactionType(),
+                                   bcc.getLowGlobalTransactionIDWatermark(), notifiedWaiters, newRoots,
+                                   logicalChangeResults, serverEvents);
+        messages.add(responseMessage);
+
+        if (logger.isDebugEnabled() && !notifiedWaiters.isEmpty()) {
+          logger.debug("Notified waiters " + clientID + " " + notifiedWaiters);
+        }
+
+        this.broadcastCounter.increment();
+        // changesPerBroadcast = number of changes/number of broadcasts
+        this.changesPerBroadcast.increment(prunedChanges.size(), 1);
+      }
+    }
+    return messages;
+  }
+
+  private void send(final BroadcastClientChangesContext context, final List<BroadcastTransactionMessage> messages) {
+    for (final BroadcastTransactionMessage message : messages) {
+      message.send();
+    }
+    if (context.partitionBroadcasted()) {
+      broadcasted(context.getBroadcastChangeContext(), this.transactionManager);
+    }
+  }
+
+  static void broadcasted(final BroadcastChangeContext bcc, final ServerTransactionManager transactionManager) {
+    transactionManager.broadcasted(bcc.getNodeID(), bcc.getTransactionID());
+    if (bcc.getServerTransactionID().isServerGeneratedTransaction()) {
+      bcc.getApplyInfo().getServerEventBuffer().removeEventsForTransaction(bcc.getGlobalTransactionID());
+    }
+  }
+
+  private void updateStats(final List prunedChanges) {
+    for (final Object prunedChange : prunedChanges) {
+      final DNA dna = (DNA) prunedChange;
+      String className = dna.getTypeName();
+      if (className == null) {
+        className = "UNKNOWN"; // Could happen on restart scenario
+      }
+      this.objectStatsRecorder.updateBroadcastStats(className);
+    }
+  }
+
+  private long getNextChangeIDFor(final ClientID clientID) {
+    // FIXME Fix this facility. Should keep a counter for every client and
+    // increment on every
+    return 0;
+  }
+
+  @Override
+  protected void initialize(final ConfigurationContext context) {
+    final ServerConfigurationContext scc = (ServerConfigurationContext) context;
+    this.channelManager = scc.getChannelManager();
+    this.clientStateManager = scc.getClientStateManager();
+    this.transactionManager = scc.getTransactionManager();
+    this.managedObjectRequestSink = scc.getStage(ServerConfigurationContext.MANAGED_OBJECT_REQUEST_STAGE).getSink();
+  }
+}
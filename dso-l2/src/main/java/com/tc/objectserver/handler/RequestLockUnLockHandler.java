@@ -28,12 +28,13 @@ import com.tc.object.locks.ThreadID;
 import com.tc.object.msg.LockRequestMessage;
 import com.tc.objectserver.core.api.ServerConfigurationContext;
 import com.tc.objectserver.locks.LockManager;
+import com.tc.objectserver.locks.timer.LockTimeoutContext;
 
 import java.util.Collection;
 import java.util.LinkedList;
 
 /**
- * Makes the request for a lock on behalf of a client
+ * Makes the request for a lock on behalf of a client, and expires the wait and try lock timeouts of the client
  * 
  * @author steve
  */
@@ -42,6 +43,10 @@ public class RequestLockUnLockHandler extends AbstractEventHandler {
 
   @Override
   public void handleEvent(EventContext context) {
+    if (context instanceof LockTimeoutContext) {
+      ((LockTimeoutContext) context).expire();
+      return;
+    }
     LockRequestMessage lrm = (LockRequestMessage) context;
 
     LockID lid = lrm.getLockID();
@@ -178,7 +178,8 @@ public interface DSOServerBuilder extends TCDumper, PostInit {
                                  TerracottaOperatorEventHistoryProvider operatorEventHistoryProvider,
                                  MBeanServer l2MbeanServer);
 
-  Persistor createPersistor(final boolean persistent, final File l2DataPath, final L2State l2State) throws IOException;
+  Persistor createPersistor(final boolean persistent, final boolean hybrid, final File l2DataPath, final L2State l2State)
+      throws IOException;
 
   BackupManager createBackupManager(final Persistor persistor,
                                            final IndexManager indexManager,
@@ -188,6 +188,7 @@ import com.tc.objectserver.gtx.ServerGlobalTransactionManager;
 import com.tc.objectserver.gtx.ServerGlobalTransactionManagerImpl;
 import com.tc.objectserver.handler.ApplyTransactionChangeHandler;
 import com.tc.objectserver.handler.BroadcastChangeHandler;
+import com.tc.objectserver.handler.BroadcastClientChangesHandler;
 import com.tc.objectserver.handler.ChannelLifeCycleHandler;
 import com.tc.objectserver.handler.ClientChannelOperatorEventlistener;
 import com.tc.objectserver.handler.ClientHandshakeHandler;
@@ -562,7 +563,7 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
       }
     }
 
-    persistor = serverBuilder.createPersistor(restartable, configSetupManager.commonl2Config().dataPath(), l2State);
+    persistor = serverBuilder.createPersistor(restartable, hybrid, configSetupManager.commonl2Config().dataPath(), l2State);
     dumpHandler.registerForDump(new CallbackDumpAdapter(persistor));
     new ServerPersistenceVersionChecker(persistor.getClusterStatePersistor()).checkAndSetVersion();
     persistor.start();
@@ -819,15 +820,21 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
     stageManager.createStage(ServerConfigurationContext.VALIDATE_OBJECTS_STAGE,
                              new ValidateObjectsHandler(invalidateObjMgr, objectManager, objectStore), 1, maxStageSize);
 
-    final BroadcastChangeHandler broadcastChangeHandler = new BroadcastChangeHandler(broadcastCounter,
-                                                                                     this.objectStatsRecorder,
-                                                                                     changesPerBroadcast,
-                                                                                     invalidateObjMgr);
+    final BroadcastClientChangesHandler broadcastClientChangesHandler = new BroadcastClientChangesHandler(
+        broadcastCounter, this.objectStatsRecorder, changesPerBroadcast, invalidateObjMgr);
+    final int broadcastThreads = tcProperties.getInt(TCPropertiesConsts.L2_SEDA_BROADCAST_STAGE_THREADS, 1);
+    if (broadcastThreads > 1) {
+      stageManager.createStage(ServerConfigurationContext.BROADCAST_CLIENT_CHANGES_STAGE, broadcastClientChangesHandler,
+                               broadcastThreads, 1, maxStageSize);
+    }
+    final BroadcastChangeHandler broadcastChangeHandler = new BroadcastChangeHandler(broadcastClientChangesHandler,
+                                                                                     broadcastThreads);
     stageManager.createStage(ServerConfigurationContext.BROADCAST_CHANGES_STAGE, broadcastChangeHandler, 1,
         maxStageSize);
     final Stage requestLock = stageManager.createStage(ServerConfigurationContext.REQUEST_LOCK_STAGE,
                                                        new RequestLockUnLockHandler(), stageWorkerThreadCount, 1,
                                                        maxStageSize);
+    this.lockManager.setLockTimeoutSink(requestLock.getSink());
     final ChannelLifeCycleHandler channelLifeCycleHandler = new ChannelLifeCycleHandler(this.communicationsManager,
                                                                                         transactionBatchManager,
                                                                                         channelManager, this.haConfig);
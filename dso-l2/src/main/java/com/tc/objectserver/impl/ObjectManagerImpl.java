@@ -43,6 +43,7 @@ import com.tc.util.Assert;
 import com.tc.util.BitSetObjectIDSet;
 import com.tc.util.ObjectIDSet;
 import com.tc.util.TCCollections;
+import com.tc.util.concurrent.ConcurrentLongHashMap;
 import com.tc.util.concurrent.TCConcurrentMultiMap;
 
 import java.util.ArrayList;
@@ -56,8 +57,6 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -90,7 +89,7 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
                                                                                     .getLogger(ObjectManager.class);
 
   private final PersistentManagedObjectStore                    objectStore;
-  private final ConcurrentMap<ObjectID, ManagedObjectReference> references;
+  private final ConcurrentLongHashMap<ManagedObjectReference>   references;
   private final AtomicInteger                                   checkedOutCount = new AtomicInteger();
   private final PendingList                                     pending         = new PendingList();
   private final AtomicBoolean                                   inShutdown      = new AtomicBoolean();
@@ -115,7 +114,7 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
     this.stateManager = stateManager;
     this.objectStore = objectStore;
     this.persistenceTransactionProvider = persistenceTransactionProvider;
-    this.references = new ConcurrentHashMap<ObjectID, ManagedObjectReference>(16384, 0.75f, 256);
+    this.references = new ConcurrentLongHashMap<ManagedObjectReference>(16384, 256);
   }
 
   @Override
@@ -238,7 +237,7 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
   private boolean markReferenced(final ManagedObjectReference reference) {
     final boolean marked = reference.markReference();
     if (marked) {
-      if (reference != this.references.get(reference.getObjectID())) {
+      if (reference != this.references.get(reference.getObjectID().toLong())) {
         // This reference was removed by someone else and then unmarked before this thread got a chance to call
         // markReferenced.
         reference.unmarkReference();
@@ -260,7 +259,7 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
    * Retrieves materialized references.
    */
   private ManagedObjectReference getReference(final ObjectID id) {
-    return this.references.get(id);
+    return this.references.get(id.toLong());
   }
 
   /**
@@ -286,7 +285,7 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
   
   private ManagedObjectReference markReferenceForDelete(ObjectID oid) {
     DeleteReference delete = new DeleteReference(oid);
-    final ManagedObjectReference ref = this.references.putIfAbsent(oid, delete);
+    final ManagedObjectReference ref = this.references.putIfAbsent(oid.toLong(), delete);
     if ( ref == null ) {
 //  deletes are self marked    
       this.checkedOutCount.incrementAndGet();
@@ -306,7 +305,7 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
   private ManagedObjectReference addNewReference(final ManagedObject object,
                                                  final boolean removeOnRelease) {
     final ManagedObjectReference newReference = object.getReference();
-    final ManagedObjectReference ref = this.references.putIfAbsent(newReference.getObjectID(), newReference);
+    final ManagedObjectReference ref = this.references.putIfAbsent(newReference.getObjectID().toLong(), newReference);
     if (removeOnRelease) {
       newReference.setRemoveOnRelease(removeOnRelease);
     }
@@ -570,7 +569,9 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
   @Override
   public ObjectIDSet getObjectIDsInCache() {
     final ObjectIDSet ids = new BitSetObjectIDSet();
-    ids.addAll(this.references.keySet()); // CDM doesn't throw ConcurrentModificationException
+    for (final long id : this.references.keys()) {
+      ids.add(new ObjectID(id));
+    }
     return ids;
   }
 
@@ -644,7 +645,7 @@ public class ObjectManagerImpl implements ObjectManager, ManagedObjectChangeList
 
   private ManagedObjectReference removeReferenceAndDestroyIfNecessary(ObjectID oid) {
     // logger.info("XXX removing reference " + oid);
-    final ManagedObjectReference removed = this.references.remove(oid);
+    final ManagedObjectReference removed = this.references.remove(oid.toLong());
     if (removed != null && removed.getObject() != null) {
       ManagedObjectState removedManagedObjectState = removed.getObject().getManagedObjectState();
       if (removedManagedObjectState instanceof Destroyable) {
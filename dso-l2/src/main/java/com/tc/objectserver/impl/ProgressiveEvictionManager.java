@@ -33,6 +33,7 @@ import com.tc.objectserver.api.EvictionTrigger;
 import com.tc.objectserver.api.ObjectManager;
 import com.tc.objectserver.api.ResourceManager;
 import com.tc.objectserver.api.ServerMapEvictionManager;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
 import com.tc.objectserver.api.ShutdownError;
 import com.tc.objectserver.context.ServerMapEvictionContext;
 import com.tc.objectserver.core.api.ManagedObject;
@@ -104,6 +105,7 @@ public class ProgressiveEvictionManager implements ServerMapEvictionManager {
   private final Responder                         responder                           = new Responder();
   private final SampledCounter                    expirationStats;
   private final SampledCounter                    evictionStats;
+  private final ServerMapEvictionStatsManager     evictionStatsManager                = new ServerMapEvictionStatsManager();
   private final ResourceManager                   resourceManager;
   private final EvictionThreshold                 threshold;
   private final AggregateSampleRateCounter        pulse                               = new AggregateSampleRateCounter();
@@ -285,6 +287,7 @@ public class ProgressiveEvictionManager implements ServerMapEvictionManager {
   Future<SampledRateCounter> schedulePeriodicEvictionRun(Set<ObjectID> evictableObjects) {
     try {
       clientObjectReferenceSet.size();
+      evictionStatsManager.logEvictionPolicyHitRatios();
       if ( evictableObjects == null ) {
         evictableObjects = store.getAllEvictableObjectIDs();
       }
@@ -368,6 +371,10 @@ public class ProgressiveEvictionManager implements ServerMapEvictionManager {
         final String className = state.getClassName();
 
         EvictableMap ev = getEvictableMapFrom(mo.getID(), state);
+        ServerMapEvictionPolicy policy = ev.getEvictionPolicy();
+        if (policy != null) {
+          evictionStatsManager.evictionPolicyReads(policy);
+        }
         // ignore start eviction status
         if ( !triggerParam.startEviction(ev) ) {
           this.objectManager.releaseReadOnly(mo);
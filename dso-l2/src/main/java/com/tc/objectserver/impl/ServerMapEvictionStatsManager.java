@@ -20,10 +20,14 @@ import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
 import com.tc.object.ObjectID;
 import com.tc.objectserver.api.EvictableMap;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
 import com.tc.operatorevent.TerracottaOperatorEvent;
 import com.tc.operatorevent.TerracottaOperatorEventFactory;
 import com.tc.operatorevent.TerracottaOperatorEventLogging;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class ServerMapEvictionStatsManager {
@@ -40,6 +44,9 @@ public class ServerMapEvictionStatsManager {
   private final AtomicLong      segmentsWithEvictionCount   = new AtomicLong();
   private final AtomicLong      evictedEntriesCount         = new AtomicLong();
 
+  // server side reads per eviction policy, hits and misses, to compare the hit ratio the policies achieve
+  private final ConcurrentMap<String, AtomicLong[]> policyReads = new ConcurrentHashMap<String, AtomicLong[]>();
+
   private void resetCounters() {
     periodicEvictionStartTime = now();
     periodicEvictionEndTime = now();
@@ -76,6 +83,39 @@ public class ServerMapEvictionStatsManager {
     evictedEntriesCount.addAndGet(numEvictedEntries);
   }
 
+  /**
+   * Collects the reads the policy of a map served since it was last collected.
+   */
+  public void evictionPolicyReads(ServerMapEvictionPolicy policy) {
+    long hits = policy.drainHits();
+    long misses = policy.drainMisses();
+    if (hits == 0 && misses == 0) { return; }
+    AtomicLong[] reads = policyReads.get(policy.getName());
+    if (reads == null) {
+      AtomicLong[] created = new AtomicLong[] { new AtomicLong(), new AtomicLong() };
+      reads = policyReads.putIfAbsent(policy.getName(), created);
+      if (reads == null) {
+        reads = created;
+      }
+    }
+    reads[0].addAndGet(hits);
+    reads[1].addAndGet(misses);
+  }
+
+  /**
+   * Logs and resets the hit ratio of every eviction policy in use.
+   */
+  public void logEvictionPolicyHitRatios() {
+    for (Map.Entry<String, AtomicLong[]> e : policyReads.entrySet()) {
+      long hits = e.getValue()[0].getAndSet(0);
+      long misses = e.getValue()[1].getAndSet(0);
+      if (hits + misses > 0) {
+        log("Eviction policy " + e.getKey() + " hit ratio: " + ((double) hits / (hits + misses)) + " (hits: " + hits
+            + ", misses: " + misses + ")");
+      }
+    }
+  }
+
   public void periodicEvictionFinished() {
     periodicEvictionEndTime = now();
 
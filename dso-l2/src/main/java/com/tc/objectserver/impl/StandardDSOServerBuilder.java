@@ -333,7 +333,8 @@ public class StandardDSOServerBuilder implements DSOServerBuilder {
   }
 
   @Override
-  public Persistor createPersistor(final boolean persistent, final File l2DataPath, final L2State l2State)
+  public Persistor createPersistor(final boolean persistent, final boolean hybrid, final File l2DataPath,
+                                   final L2State l2State)
           throws IOException {
     // make warning go away
     if (false) {
@@ -342,9 +343,9 @@ public class StandardDSOServerBuilder implements DSOServerBuilder {
 
     if (persistent) throw new UnsupportedOperationException("Restartability is not supported in open source servers.");
     if (offHeapConfig.enabled()) {
-      return new Persistor(new OffheapStorageManagerFactory(offHeapConfig));
+      return new Persistor(new OffheapStorageManagerFactory(offHeapConfig), hybrid);
     } else {
-      return new Persistor(HeapStorageManagerFactory.INSTANCE);
+      return new Persistor(HeapStorageManagerFactory.INSTANCE, hybrid);
     }
   }
 
@@ -0,0 +1,166 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.l1.impl;
+
+import com.tc.invalidation.Invalidations;
+import com.tc.object.ObjectID;
+import com.tc.util.ObjectIDSet;
+import com.tc.util.concurrent.ConcurrentLongHashMap;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inverted index of the client references: for every object referenced by at least one client, the bitmap of the
+ * slots of the clients referencing it. This lets the clients to invalidate be found in one pass over the invalidated
+ * objects instead of one pass per connected client.
+ * <p>
+ * Bitmaps are keyed by the primitive object id and never modified once published, so the split reads them without
+ * locking. An object referenced by a single client, the common case, shares a canonical one word bitmap. The bits of a
+ * client are only changed under the lock of its state, the stripe locks only order updates of a shared bitmap.
+ */
+final class ClientReferenceIndex {
+
+  private static final int                   LOCK_STRIPES = 64;
+  private static final long[][]              SINGLE_SLOT  = new long[Long.SIZE][];
+
+  static {
+    for (int slot = 0; slot < SINGLE_SLOT.length; slot++) {
+      SINGLE_SLOT[slot] = new long[] { 1L << slot };
+    }
+  }
+
+  private final ConcurrentLongHashMap<long[]> slotsByObject = new ConcurrentLongHashMap<long[]>(1024, LOCK_STRIPES);
+  private final Object[]                      stripes       = new Object[LOCK_STRIPES];
+  private final BitSet                        usedSlots     = new BitSet();
+  private final AtomicLong                    version       = new AtomicLong();
+
+  ClientReferenceIndex() {
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      this.stripes[i] = new Object();
+    }
+  }
+
+  /**
+   * Slots are reused once released, so that the bitmaps stay as short as the number of connected clients.
+   */
+  synchronized int allocateSlot() {
+    final int slot = this.usedSlots.nextClearBit(0);
+    this.usedSlots.set(slot);
+    return slot;
+  }
+
+  synchronized void releaseSlot(final int slot) {
+    this.usedSlots.clear(slot);
+  }
+
+  void add(final ObjectID id, final int slot) {
+    final long key = id.toLong();
+    final int word = slot >>> 6;
+    final long bit = 1L << slot;
+    synchronized (stripeFor(key)) {
+      final long[] bits = this.slotsByObject.get(key);
+      if (bits == null) {
+        this.slotsByObject.put(key, word == 0 ? SINGLE_SLOT[slot] : withBit(new long[0], word, bit));
+      } else if (bits.length <= word || (bits[word] & bit) == 0) {
+        this.slotsByObject.put(key, withBit(bits, word, bit));
+      }
+    }
+  }
+
+  void remove(final ObjectID id, final int slot) {
+    final long key = id.toLong();
+    final int word = slot >>> 6;
+    final long bit = 1L << slot;
+    synchronized (stripeFor(key)) {
+      final long[] bits = this.slotsByObject.get(key);
+      if (bits == null || bits.length <= word || (bits[word] & bit) == 0) { return; }
+      final long[] cleared = Arrays.copyOf(bits, bits.length);
+      cleared[word] &= ~bit;
+      int lastWord = cleared.length - 1;
+      while (lastWord >= 0 && cleared[lastWord] == 0) {
+        lastWord--;
+      }
+      if (lastWord < 0) {
+        this.slotsByObject.remove(key);
+      } else if (lastWord == 0 && Long.bitCount(cleared[0]) == 1) {
+        this.slotsByObject.put(key, SINGLE_SLOT[Long.numberOfTrailingZeros(cleared[0])]);
+      } else {
+        this.slotsByObject.put(key, cleared);
+      }
+    }
+  }
+
+  /**
+   * Records that references were added to the index and returns the new version. Called by a client after its adds,
+   * under its lock.
+   */
+  long markAdded() {
+    return this.version.incrementAndGet();
+  }
+
+  /**
+   * Adds published before this version are visible to a split started after reading it.
+   */
+  long currentVersion() {
+    return this.version.get();
+  }
+
+  /**
+   * Splits the invalidations of a transaction by the slots of the clients referencing the invalidated objects.
+   */
+  Map<Integer, Invalidations> invalidationsPerSlot(final Invalidations allInvalidations) {
+    if (allInvalidations == null || allInvalidations.isEmpty()) { return Collections.emptyMap(); }
+    final Map<Integer, Invalidations> perSlot = new HashMap<Integer, Invalidations>();
+    for (final ObjectID mapID : allInvalidations.getMapIds()) {
+      final ObjectIDSet invalidatedOids = allInvalidations.getObjectIDSetForMapId(mapID);
+      for (final ObjectID objectID : invalidatedOids) {
+        final long[] bits = this.slotsByObject.get(objectID.toLong());
+        if (bits == null) {
+          continue;
+        }
+        for (int word = 0; word < bits.length; word++) {
+          for (long w = bits[word]; w != 0; w &= w - 1) {
+            final Integer slot = Integer.valueOf((word << 6) + Long.numberOfTrailingZeros(w));
+            Invalidations invalidations = perSlot.get(slot);
+            if (invalidations == null) {
+              invalidations = new Invalidations();
+              perSlot.put(slot, invalidations);
+            }
+            invalidations.add(mapID, objectID);
+          }
+        }
+      }
+    }
+    return perSlot;
+  }
+
+  private static long[] withBit(final long[] bits, final int word, final long bit) {
+    final long[] copy = Arrays.copyOf(bits, Math.max(bits.length, word + 1));
+    copy[word] |= bit;
+    return copy;
+  }
+
+  private Object stripeFor(final long key) {
+    final long h = key ^ (key >>> 32);
+    return this.stripes[(int) (h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+  }
+}
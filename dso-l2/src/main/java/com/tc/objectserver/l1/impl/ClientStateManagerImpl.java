@@ -28,14 +28,15 @@ import com.tc.objectserver.l1.api.ObjectReferenceAddListener;
 import com.tc.objectserver.managedobject.ApplyTransactionInfo;
 import com.tc.text.PrettyPrintable;
 import com.tc.text.PrettyPrinter;
-import com.tc.util.BitSetObjectIDSet;
 import com.tc.util.ObjectIDSet;
+import com.tc.util.RoaringObjectIDSet;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -49,9 +50,11 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
 
   private final ConcurrentHashMap<NodeID, ClientStateImpl>      clientStates;
   private final CopyOnWriteArraySet<ObjectReferenceAddListener> objectRefsAddListener;
+  private final ClientReferenceIndex                            referenceIndex;
 
   public ClientStateManagerImpl() {
     this.clientStates = new ConcurrentHashMap<NodeID, ClientStateImpl>();
+    this.referenceIndex = new ClientReferenceIndex();
     this.objectRefsAddListener = new CopyOnWriteArraySet<ObjectReferenceAddListener>();
   }
 
@@ -95,7 +98,7 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
 
       if (!isEcho) {
         // Don't need to echo invalidations
-        addInvalidateObjectIDsTo(clientState, invalidationsForClient, applyInfo.getObjectIDsToInvalidate());
+        addInvalidateObjectIDsTo(clientState, invalidationsForClient, applyInfo);
       }
 
       return prunedChanges;
@@ -104,12 +107,32 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
     }
   }
 
+  /**
+   * The split of the transaction's invalidations by client slot is computed once, on the first broadcast, and only
+   * trusted for a client that added no references since. Called under the lock of the client state, so its references
+   * cannot change meanwhile.
+   */
   private void addInvalidateObjectIDsTo(ClientStateImpl clientState, Invalidations invalidationsForClient,
-                                        Invalidations allInvalidations) {
+                                        ApplyTransactionInfo applyInfo) {
+    final Invalidations allInvalidations = applyInfo.getObjectIDsToInvalidate();
     if (allInvalidations == null || allInvalidations.isEmpty()) return;
-    Set<ObjectID> mapIDs = allInvalidations.getMapIds();
-    for (ObjectID mapID : mapIDs) {
-      ObjectIDSet invalidatedOids = allInvalidations.getObjectIDSetForMapId(mapID);
+    final Map<Integer, Invalidations> perClient;
+    final long splitVersion;
+    synchronized (applyInfo) {
+      if (applyInfo.getInvalidationsPerClient() == null) {
+        final long version = this.referenceIndex.currentVersion();
+        applyInfo.setInvalidationsPerClient(this.referenceIndex.invalidationsPerSlot(allInvalidations), version);
+      }
+      perClient = applyInfo.getInvalidationsPerClient();
+      splitVersion = applyInfo.getInvalidationsPerClientVersion();
+    }
+    // references added after the split may be missing from it, so check everything against this client
+    final Invalidations candidates = clientState.getLastAddVersion() > splitVersion ? allInvalidations : perClient
+        .get(clientState.getSlot());
+    if (candidates == null) return;
+    // references removed after the split are filtered out here
+    for (ObjectID mapID : candidates.getMapIds()) {
+      ObjectIDSet invalidatedOids = candidates.getObjectIDSetForMapId(mapID);
       for (ObjectID objectID : invalidatedOids) {
         if (clientState.containsReference(objectID)) {
           invalidationsForClient.add(mapID, objectID);
@@ -240,14 +263,13 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
     final Set<ObjectID> newReferences = new HashSet<ObjectID>();
     c.lock();
     try {
-      final Set<ObjectID> refs = c.getReferences();
-      if (refs.isEmpty()) {
-        refs.addAll(oids);
+      if (c.getReferences().isEmpty()) {
+        c.addReferences(oids);
         return oids;
       }
 
       for (final ObjectID oid : oids) {
-        if (refs.add(oid)) {
+        if (c.addReference(oid)) {
           newReferences.add(oid);
         }
       }
@@ -264,12 +286,25 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
 
   @Override
   public void shutdownNode(final NodeID waitee) {
-    this.clientStates.remove(waitee);
+    final ClientStateImpl c = this.clientStates.remove(waitee);
+    if (c != null) {
+      c.lock();
+      try {
+        c.close();
+      } finally {
+        c.unlock();
+      }
+      this.referenceIndex.releaseSlot(c.getSlot());
+    }
   }
 
   @Override
   public boolean startupNode(final NodeID nodeID) {
-    return (this.clientStates.putIfAbsent(nodeID, new ClientStateImpl(nodeID)) == null);
+    if (this.clientStates.containsKey(nodeID)) { return false; }
+    final ClientStateImpl c = new ClientStateImpl(nodeID, this.referenceIndex);
+    if (this.clientStates.putIfAbsent(nodeID, c) == null) { return true; }
+    this.referenceIndex.releaseSlot(c.getSlot());
+    return false;
   }
 
   private ClientStateImpl getClientState(final NodeID id) {
@@ -312,12 +347,39 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
   }
 
   private static class ClientStateImpl implements PrettyPrintable, ClientState {
-    private final NodeID        nodeID;
-    private final Set<ObjectID> managed = new BitSetObjectIDSet();
-    private final ReentrantLock lock    = new ReentrantLock();
-
-    public ClientStateImpl(final NodeID nodeID) {
+    private final NodeID               nodeID;
+    private final Set<ObjectID>        managed = new RoaringObjectIDSet();
+    private final ReentrantLock        lock    = new ReentrantLock();
+    private final ClientReferenceIndex index;
+    private final int                  slot;
+    private boolean                    closed;
+    private long                       lastAddVersion;
+
+    public ClientStateImpl(final NodeID nodeID, final ClientReferenceIndex index) {
       this.nodeID = nodeID;
+      this.index = index;
+      this.slot = index.allocateSlot();
+    }
+
+    int getSlot() {
+      return this.slot;
+    }
+
+    /**
+     * Index version of the latest references added by this client, read under the lock.
+     */
+    long getLastAddVersion() {
+      return this.lastAddVersion;
+    }
+
+    /**
+     * Drops the references of this client from the index, must be called under the lock before releasing the slot.
+     */
+    void close() {
+      for (final ObjectID id : this.managed) {
+        this.index.remove(id, this.slot);
+      }
+      this.closed = true;
     }
 
     public void lock() {
@@ -357,7 +419,22 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
 
     @Override
     public boolean addReference(final ObjectID id) {
-      return this.managed.add(id);
+      if (!this.managed.add(id)) { return false; }
+      if (!this.closed) {
+        this.index.add(id, this.slot);
+        this.lastAddVersion = this.index.markAdded();
+      }
+      return true;
+    }
+
+    void addReferences(final Set<ObjectID> ids) {
+      this.managed.addAll(ids);
+      if (!this.closed) {
+        for (final ObjectID id : ids) {
+          this.index.add(id, this.slot);
+        }
+        this.lastAddVersion = this.index.markAdded();
+      }
     }
 
     @Override
@@ -367,7 +444,11 @@ public class ClientStateManagerImpl implements ClientStateManager, PrettyPrintab
 
     @Override
     public void removeReferences(final Set<ObjectID> references) {
-      this.managed.removeAll(references);
+      for (final ObjectID id : references) {
+        if (this.managed.remove(id) && !this.closed) {
+          this.index.remove(id, this.slot);
+        }
+      }
     }
 
     @Override
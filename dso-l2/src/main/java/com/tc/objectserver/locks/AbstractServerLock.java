@@ -31,6 +31,7 @@ import com.tc.object.net.DSOChannelManager;
 import com.tc.objectserver.locks.context.LinkedServerLockContext;
 import com.tc.objectserver.locks.context.SingleServerLockContext;
 import com.tc.objectserver.locks.context.WaitServerLockContext;
+import com.tc.objectserver.locks.timer.LockTimeout;
 import com.tc.objectserver.locks.timer.LockTimer.LockTimerContext;
 import com.tc.text.PrettyPrintable;
 import com.tc.text.PrettyPrinter;
@@ -41,7 +42,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.TimerTask;
 
 /**
  * This class extends SinglyLinkedList which stores ServerLockContext. The ServerLockContexts are placed in the order of
@@ -285,7 +285,7 @@ public abstract class AbstractServerLock extends SinglyLinkedList<ServerLockCont
         .getThreadID(), cselc.getState(), cselc.timeout(), helper);
     if (cselc.timeout() > 0) {
       LockTimerContext ltc = new LockTimerContext(lockID, cselc.getThreadID(), (ClientID) cselc.getNodeID(), helper);
-      TimerTask task = helper.getLockTimer().scheduleTimer(helper.getTimerCallback(), cselc.timeout(), ltc);
+      LockTimeout task = helper.getLockTimer().scheduleTimer(helper.getTimerCallback(), cselc.timeout(), ltc);
       context.setTimerTask(task);
     }
     return context;
@@ -312,7 +312,7 @@ public abstract class AbstractServerLock extends SinglyLinkedList<ServerLockCont
     WaitServerLockContext waiter = createWaitOrTryPendingServerLockContext(cid, tid, State.WAITER, timeout, helper);
     if (timeout > 0) {
       LockTimerContext ltc = new LockTimerContext(lockID, tid, cid, helper);
-      TimerTask task = helper.getLockTimer().scheduleTimer(helper.getTimerCallback(), timeout, ltc);
+      LockTimeout task = helper.getLockTimer().scheduleTimer(helper.getTimerCallback(), timeout, ltc);
       waiter.setTimerTask(task);
     }
     addWaiter(waiter, helper);
@@ -334,7 +334,7 @@ public abstract class AbstractServerLock extends SinglyLinkedList<ServerLockCont
         WaitServerLockContext waitContext = createTryPendingServerLockContext(cid, tid, level, timeout, helper);
         if (timeout > 0) {
           LockTimerContext ltc = new LockTimerContext(lockID, tid, cid, helper);
-          TimerTask task;
+          LockTimeout task;
           try {
             task = helper.getLockTimer().scheduleTimer(helper.getTimerCallback(), timeout, ltc);
           } catch (IllegalArgumentException e) {
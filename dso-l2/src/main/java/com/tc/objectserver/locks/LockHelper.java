@@ -20,6 +20,9 @@ import com.tc.async.api.Sink;
 import com.tc.object.locks.ServerLockContextStateMachine;
 import com.tc.objectserver.locks.timer.LockTimer;
 import com.tc.objectserver.locks.timer.TimerCallback;
+import com.tc.properties.TCProperties;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 
 public class LockHelper {
   private final LockTimer                     lockTimer;
@@ -29,7 +32,11 @@ public class LockHelper {
   private final TimerCallback                 timerCallback;
 
   public LockHelper(Sink lockSink, LockStore lockStore, TimerCallback timerCallback) {
-    this.lockTimer = new LockTimer();
+    TCProperties props = TCPropertiesImpl.getProperties();
+    this.lockTimer = new LockTimer(props.getLong(TCPropertiesConsts.L2_LOCKMANAGER_TIMER_TICK_MILLIS,
+                                                 LockTimer.DEFAULT_TICK_MILLIS),
+                                   props.getInt(TCPropertiesConsts.L2_LOCKMANAGER_TIMER_WHEEL_SIZE,
+                                                LockTimer.DEFAULT_WHEEL_SIZE));
     this.lockSink = lockSink;
     this.lockStore = lockStore;
     this.timerCallback = timerCallback;
@@ -246,6 +246,13 @@ public class LockManagerImpl implements LockManager, PrettyPrintable, LockManage
     return beansList.toArray(new LockMBean[beansList.size()]);
   }
 
+  /**
+   * Processes the expired wait and try lock timeouts on the given stage instead of the lock timer thread.
+   */
+  public void setLockTimeoutSink(Sink lockTimeoutSink) {
+    lockHelper.getLockTimer().setExpirySink(lockTimeoutSink);
+  }
+
   @Override
   public void start() {
     statusLock.writeLock().lock();
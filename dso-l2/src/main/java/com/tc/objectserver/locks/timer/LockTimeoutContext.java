@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.locks.timer;
+
+import com.tc.async.api.MultiThreadedEventContext;
+import com.tc.logging.TCLogger;
+import com.tc.logging.TCLogging;
+import com.tc.objectserver.locks.timer.LockTimer.LockTimerContext;
+
+/**
+ * An expired lock timeout handed to the lock stage, so that the timeout is processed by the same threads and in the
+ * same order as the requests of the client that is waiting.
+ */
+public class LockTimeoutContext implements MultiThreadedEventContext {
+  private static final TCLogger  logger = TCLogging.getLogger(LockTimeoutContext.class);
+
+  private final TimerCallback    callback;
+  private final LockTimerContext callbackObject;
+
+  public LockTimeoutContext(TimerCallback callback, LockTimerContext callbackObject) {
+    this.callback = callback;
+    this.callbackObject = callbackObject;
+  }
+
+  public LockTimerContext getLockTimerContext() {
+    return callbackObject;
+  }
+
+  public void expire() {
+    try {
+      callback.timerTimeout(callbackObject);
+    } catch (Exception e) {
+      logger.error("Error processing wait timeout for " + callbackObject, e);
+    }
+  }
+
+  @Override
+  public Object getKey() {
+    return callbackObject.getClientID();
+  }
+}
@@ -16,101 +16,309 @@
  */
 package com.tc.objectserver.locks.timer;
 
-import com.tc.logging.TCLogger;
-import com.tc.logging.TCLogging;
+import com.tc.async.api.Sink;
 import com.tc.net.ClientID;
 import com.tc.object.locks.LockID;
 import com.tc.object.locks.ThreadID;
 import com.tc.objectserver.locks.LockHelper;
 
-import java.util.LinkedList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Hashed timing wheel for the lock wait and try lock timeouts.
+ * <p>
+ * Scheduling and canceling only enqueue the timeout, the wheel thread moves new timeouts into their bucket and unlinks
+ * canceled ones once per tick, so both are O(1) and canceled timeouts do not linger until their deadline. All the
+ * timeouts of a bucket that are due are collected first and handed to the expiry sink as one batch, or run on the wheel
+ * thread when there is no sink. Timeouts are expired with a precision of one tick.
+ * <p>
+ * The wheel thread parks while no timeout is scheduled and skips the ticks that passed once woken.
+ */
 public class LockTimer {
-  private static final TCLogger logger    = TCLogging.getLogger(LockTimer.class);
+  public static final long      DEFAULT_TICK_MILLIS = 10;
+  public static final int       DEFAULT_WHEEL_SIZE  = 512;
+
+  // keeps deadlines far enough from overflowing when added to System.nanoTime()
+  private static final long     MAX_DELAY_NANOS     = Long.MAX_VALUE / 4;
 
-  private final Timer           timer     = new Timer("DSO Lock Object.wait() timer", true);
-  private boolean               started   = false;
-  private boolean               shutdown  = false;
-  private LinkedList<TaskImpl>  taskQueue = new LinkedList<TaskImpl>();
+  private final long            tickNanos;
+  private final Bucket[]        wheel;
+  private final int             mask;
+  private final Queue<TaskImpl> newTimeouts         = new ConcurrentLinkedQueue<TaskImpl>();
+  private final Queue<TaskImpl> canceledTimeouts    = new ConcurrentLinkedQueue<TaskImpl>();
+  private final List<TaskImpl>  expired             = new ArrayList<TaskImpl>();
+  private final Thread          worker;
+
+  private long                  startTime;
+  private long                  tick;
+  // timeouts in the buckets, owned by the wheel thread
+  private int                   timeouts;
+  private boolean               started             = false;
+  private volatile boolean      shutdown            = false;
+  private volatile boolean      idle                = false;
+  private volatile Sink         expirySink;
 
   public LockTimer() {
-    super();
+    this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
   }
 
-  public Timer getTimer() {
-    return timer;
+  public LockTimer(long tickMillis, int wheelSize) {
+    if (tickMillis <= 0) { throw new IllegalArgumentException("tick must be positive: " + tickMillis); }
+    if (wheelSize <= 0 || wheelSize > (1 << 30)) { throw new IllegalArgumentException("invalid wheel size: "
+                                                                                      + wheelSize); }
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    int size = Integer.highestOneBit(wheelSize);
+    if (size < wheelSize) {
+      size <<= 1;
+    }
+    this.wheel = new Bucket[size];
+    for (int i = 0; i < size; i++) {
+      this.wheel[i] = new Bucket();
+    }
+    this.mask = size - 1;
+    this.worker = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        runWheel();
+      }
+    }, "DSO Lock Object.wait() timer");
+    this.worker.setDaemon(true);
   }
 
+  /**
+   * Starts expiring timeouts. Timeouts scheduled before are kept and expire on their original deadline.
+   */
   public synchronized void start() {
+    if (started || shutdown) return;
     started = true;
-    scheduleQueuedTasks();
-    taskQueue = null;
+    startTime = System.nanoTime();
+    worker.start();
   }
 
-  private void scheduleQueuedTasks() {
-    for (TaskImpl task : taskQueue) {
-      long timeDelay = task.getScheduleDelay() - (System.currentTimeMillis() - task.scheduledAt());
-      timeDelay = timeDelay < 0 ? 0 : timeDelay;
-      timer.schedule(task, timeDelay);
-    }
+  /**
+   * Hands the expired timeouts to the given sink as {@link LockTimeoutContext}s instead of running their callbacks on
+   * the wheel thread.
+   */
+  public void setExpirySink(Sink expirySink) {
+    this.expirySink = expirySink;
   }
 
-  public TimerTask scheduleTimer(TimerCallback callback, long timeInMillis, LockTimerContext callbackObject) {
-    final TaskImpl rv = new TaskImpl(callback, timeInMillis, callbackObject);
+  /**
+   * @throws IllegalArgumentException if the delay is negative or its deadline overflows, like
+   *         {@link java.util.Timer#schedule(java.util.TimerTask, long)}
+   */
+  public LockTimeout scheduleTimer(TimerCallback callback, long timeInMillis, LockTimerContext callbackObject) {
+    if (timeInMillis < 0) { throw new IllegalArgumentException("Negative delay."); }
+    if (System.currentTimeMillis() + timeInMillis < 0) { throw new IllegalArgumentException("Illegal execution time."); }
 
-    synchronized (this) {
-      if (!started) {
-        taskQueue.addLast(rv);
-        return rv;
-      }
+    long delay = Math.min(TimeUnit.MILLISECONDS.toNanos(timeInMillis), MAX_DELAY_NANOS);
+    TaskImpl rv = new TaskImpl(this, callback, callbackObject, System.nanoTime() + delay);
+    newTimeouts.add(rv);
+    if (idle) {
+      LockSupport.unpark(worker);
     }
-
-    timer.schedule(rv, timeInMillis);
     return rv;
   }
 
   public synchronized void shutdown() {
     if (shutdown) return;
     shutdown = true;
-    this.timer.cancel();
+    worker.interrupt();
   }
 
-  private static class TaskImpl extends TimerTask {
+  private void runWheel() {
+    while (!shutdown) {
+      if (timeouts == 0 && !waitForTimeouts()) {
+        break;
+      }
+      if (!waitForNextTick()) {
+        break;
+      }
+      int idx = (int) (tick & mask);
+      removeCanceledTimeouts();
+      transferNewTimeouts();
+      wheel[idx].expireTimeouts(expired);
+      timeouts -= expired.size();
+      fireExpiredTimeouts();
+      tick++;
+    }
+  }
 
-    private final TimerCallback    callback;
-    private final LockTimerContext callbackObject;
-    private final long             scheduleDelayInMillis;
-    private final long             scheduledAt;
+  /**
+   * Parks until a timeout is scheduled, then moves the wheel to the current tick: no bucket holds a timeout, so the
+   * ticks that passed meanwhile have nothing to expire.
+   */
+  private boolean waitForTimeouts() {
+    if (!newTimeouts.isEmpty()) { return true; }
+    idle = true;
+    try {
+      while (newTimeouts.isEmpty()) {
+        if (shutdown) { return false; }
+        LockSupport.park(this);
+        Thread.interrupted();
+      }
+    } finally {
+      idle = false;
+    }
+    tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+    return !shutdown;
+  }
 
-    TaskImpl(TimerCallback callback, long timeInMillis, LockTimerContext callbackObject) {
-      this.callback = callback;
-      this.callbackObject = callbackObject;
-      this.scheduleDelayInMillis = timeInMillis;
-      this.scheduledAt = System.currentTimeMillis();
+  private boolean waitForNextTick() {
+    long deadline = tickNanos * (tick + 1);
+    while (true) {
+      long sleepNanos = deadline - (System.nanoTime() - startTime);
+      if (sleepNanos <= 0) { return true; }
+      try {
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(sleepNanos + 999999));
+      } catch (InterruptedException e) {
+        if (shutdown) { return false; }
+      }
     }
+  }
 
-    public long getScheduleDelay() {
-      return scheduleDelayInMillis;
+  private void transferNewTimeouts() {
+    TaskImpl task;
+    while ((task = newTimeouts.poll()) != null) {
+      if (task.state != TaskImpl.ST_SCHEDULED) {
+        continue;
+      }
+      long dueTick = (task.deadline - startTime + tickNanos - 1) / tickNanos;
+      task.remainingRounds = (dueTick - tick) / wheel.length;
+      long ticks = Math.max(dueTick, tick);
+      wheel[(int) (ticks & mask)].add(task);
+      timeouts++;
     }
+  }
 
-    public long scheduledAt() {
-      return scheduledAt;
+  private void removeCanceledTimeouts() {
+    TaskImpl task;
+    while ((task = canceledTimeouts.poll()) != null) {
+      if (task.bucket != null) {
+        task.bucket.remove(task);
+        timeouts--;
+      }
     }
+  }
 
-    @Override
-    public void run() {
-      try {
-        callback.timerTimeout(callbackObject);
-      } catch (Exception e) {
-        logger.error("Error processing wait timeout for " + callbackObject, e);
+  private void fireExpiredTimeouts() {
+    try {
+      List<LockTimeoutContext> due = new ArrayList<LockTimeoutContext>(expired.size());
+      for (TaskImpl task : expired) {
+        if (task.expire()) {
+          due.add(new LockTimeoutContext(task.callback, task.callbackObject));
+        }
       }
+      Sink sink = expirySink;
+      if (sink != null) {
+        sink.addMany(due);
+      } else {
+        for (LockTimeoutContext context : due) {
+          context.expire();
+        }
+      }
+    } finally {
+      expired.clear();
+    }
+  }
+
+  /**
+   * Doubly linked list of timeouts, only accessed by the wheel thread.
+   */
+  private static final class Bucket {
+    private TaskImpl head;
+    private TaskImpl tail;
+
+    void add(TaskImpl task) {
+      task.bucket = this;
+      if (head == null) {
+        head = tail = task;
+      } else {
+        tail.next = task;
+        task.prev = tail;
+        tail = task;
+      }
+    }
+
+    /**
+     * Moves the due timeouts to {@code due}, along with the canceled ones met on the way, which the caller drops.
+     */
+    void expireTimeouts(List<TaskImpl> due) {
+      TaskImpl task = head;
+      while (task != null) {
+        TaskImpl next = task.next;
+        if (task.remainingRounds <= 0 || task.state != TaskImpl.ST_SCHEDULED) {
+          remove(task);
+          due.add(task);
+        } else {
+          task.remainingRounds--;
+        }
+        task = next;
+      }
+    }
+
+    void remove(TaskImpl task) {
+      TaskImpl next = task.next;
+      if (task.prev != null) {
+        task.prev.next = next;
+      }
+      if (next != null) {
+        next.prev = task.prev;
+      }
+      if (task == head) {
+        head = next;
+      }
+      if (task == tail) {
+        tail = task.prev;
+      }
+      task.prev = null;
+      task.next = null;
+      task.bucket = null;
+    }
+  }
+
+  private static final class TaskImpl implements LockTimeout {
+    private static final int                                 ST_SCHEDULED = 0;
+    private static final int                                 ST_CANCELED  = 1;
+    private static final int                                 ST_EXPIRED   = 2;
+
+    private static final AtomicIntegerFieldUpdater<TaskImpl> STATE        = AtomicIntegerFieldUpdater
+                                                                              .newUpdater(TaskImpl.class, "state");
+
+    private final LockTimer                                  timer;
+    private final TimerCallback                              callback;
+    private final LockTimerContext                           callbackObject;
+    private final long                                       deadline;
+    private volatile int                                     state        = ST_SCHEDULED;
+
+    // owned by the wheel thread
+    private long                                             remainingRounds;
+    private Bucket                                           bucket;
+    private TaskImpl                                         prev;
+    private TaskImpl                                         next;
+
+    TaskImpl(LockTimer timer, TimerCallback callback, LockTimerContext callbackObject, long deadline) {
+      this.timer = timer;
+      this.callback = callback;
+      this.callbackObject = callbackObject;
+      this.deadline = deadline;
     }
 
     @Override
     public boolean cancel() {
-      return super.cancel();
+      if (!STATE.compareAndSet(this, ST_SCHEDULED, ST_CANCELED)) { return false; }
+      timer.canceledTimeouts.add(this);
+      return true;
+    }
+
+    boolean expire() {
+      return STATE.compareAndSet(this, ST_SCHEDULED, ST_EXPIRED);
     }
   }
 
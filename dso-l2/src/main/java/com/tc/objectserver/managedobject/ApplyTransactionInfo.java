@@ -52,6 +52,8 @@ public class ApplyTransactionInfo {
   // TODO: This is probably not the place to pass releaseable objects...
   private Collection<ManagedObject>    objectsToRelease   = Collections.emptySet();
   private Invalidations                invalidate;
+  private Map<Integer, Invalidations> invalidationsPerClient;
+  private long                       invalidationsPerClientVersion;
   private final boolean                isSearchEnabled;
   private final Map<ObjectID, Boolean> keyPresentForValue = new HashMap<ObjectID, Boolean>();
   private boolean                      commitNow;
@@ -196,6 +198,26 @@ public class ApplyTransactionInfo {
     return invalidate;
   }
 
+  /**
+   * Invalidations split by the slot of the clients referencing the invalidated objects, computed on the first
+   * broadcast of the transaction and shared by the others. Guarded by the monitor of this object.
+   */
+  public Map<Integer, Invalidations> getInvalidationsPerClient() {
+    return invalidationsPerClient;
+  }
+
+  /**
+   * The client reference index version the split was computed at.
+   */
+  public long getInvalidationsPerClientVersion() {
+    return invalidationsPerClientVersion;
+  }
+
+  public void setInvalidationsPerClient(Map<Integer, Invalidations> invalidationsPerClient, long version) {
+    this.invalidationsPerClient = invalidationsPerClient;
+    this.invalidationsPerClientVersion = version;
+  }
+
   public void deleteObject(ObjectID old) {
     if (this.deleteObjects == TCCollections.EMPTY_SORTED_SET) {
       this.deleteObjects = new BitSetObjectIDSet();
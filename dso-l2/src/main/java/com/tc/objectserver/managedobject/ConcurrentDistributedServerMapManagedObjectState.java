@@ -32,6 +32,7 @@ import com.tc.object.dna.api.PhysicalAction;
 import com.tc.object.dna.impl.UTF8ByteDataHolder;
 import com.tc.objectserver.api.EvictableEntry;
 import com.tc.objectserver.api.EvictableMap;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
 import com.tc.objectserver.impl.SamplingType;
 import com.tc.objectserver.l1.impl.ClientObjectReferenceSet;
 import com.tc.objectserver.persistence.PersistentObjectFactory;
@@ -43,6 +44,7 @@ import com.tc.util.Events;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -73,11 +75,20 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
   public static final String    COMPRESSION_ENABLED_FIELDNAME  = "compressionEnabled";
   public static final String    COPY_ON_READ_ENABLED_FIELDNAME = "copyOnReadEnabled";
   public static final String    EVICTION_ENABLED_FIELDNAME     = "evictionEnabled";
+  public static final String    EVICTION_POLICY_FIELDNAME      = "evictionPolicy";
+
+  // marks the persisted fields that follow the eviction enabled flag, states written before had none
+  private static final int      EVICTION_POLICY_FORMAT         = 1;
 
   protected int                 dsoLockType;
 
   private static final double   OVERSHOOT                      = getOvershoot();
 
+  private static final int      EXPIRY_INDEX_BUILD_BATCH       = 10000;
+  private static final int      EXPIRY_INDEX_MAX_ENTRIES       = TCPropertiesImpl.getProperties()
+                                                                   .getInt(TCPropertiesConsts.L2_SERVERMAP_EXPIRY_INDEX_MAX_ENTRIES,
+                                                                           100000);
+
   static {
     LOGGER.info("Eviction overshoot threshold is " + OVERSHOOT);
   }
@@ -91,14 +102,19 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
   private int                   targetMaxTotalCount;
   private String                cacheName;
   private boolean               evictionEnabled;
+  private String                evictionPolicy                 = "";
+  // evictionPolicy resolved to the name of the policy actually used, null until first needed
+  private volatile String       resolvedEvictionPolicy;
   private boolean               localCacheEnabled;
   private boolean               compressionEnabled;
   private boolean               copyOnReadEnabled;
   private final SetMultimap<ServerEventType, ClientID> eventRegistry                  = HashMultimap.create();
+  private final PersistentObjectFactory                factory;
 
   protected ConcurrentDistributedServerMapManagedObjectState(final ObjectInput in, PersistentObjectFactory factory)
       throws IOException {
     super(in, factory);
+    this.factory = factory;
     this.dsoLockType = in.readInt();
     this.maxTTISeconds = in.readInt();
     this.maxTTLSeconds = in.readInt();
@@ -109,11 +125,23 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     this.compressionEnabled = in.readBoolean();
     this.copyOnReadEnabled = in.readBoolean();
     this.evictionEnabled = in.readBoolean();
+    this.evictionPolicy = readEvictionPolicy(in);
+  }
+
+  private static String readEvictionPolicy(final ObjectInput in) throws IOException {
+    final int format = in.read();
+    if (format == -1) {
+      // written before the eviction policy was persisted, use the server default
+      return "";
+    }
+    if (format != EVICTION_POLICY_FORMAT) { throw new StreamCorruptedException("Unknown server map state format: " + format); }
+    return in.readUTF();
   }
 
   protected ConcurrentDistributedServerMapManagedObjectState(final long classId, ObjectID id,
                                                              PersistentObjectFactory factory) {
     super(classId, id, factory);
+    this.factory = factory;
   }
 
   @Override
@@ -167,6 +195,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     writer.addPhysicalAction(COMPRESSION_ENABLED_FIELDNAME, this.compressionEnabled);
     writer.addPhysicalAction(COPY_ON_READ_ENABLED_FIELDNAME, this.copyOnReadEnabled);
     writer.addPhysicalAction(EVICTION_ENABLED_FIELDNAME, this.evictionEnabled);
+    writer.addPhysicalAction(EVICTION_POLICY_FIELDNAME, this.evictionPolicy);
   }
 
   @Override
@@ -236,6 +265,9 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
       this.copyOnReadEnabled = (Boolean) action.getObject();
     } else if (EVICTION_ENABLED_FIELDNAME.equals(fieldName)) {
       this.evictionEnabled = (Boolean) action.getObject();
+    } else if (EVICTION_POLICY_FIELDNAME.equals(fieldName)) {
+      this.evictionPolicy = asString(action.getObject());
+      this.resolvedEvictionPolicy = null;
     } else {
       throw new AssertionError("unexpected field name: " + fieldName);
     }
@@ -418,6 +450,8 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     final ObjectID oid = (ObjectID) params[1];
 
     references.put(key, value);
+    indexExpiry(key, old, value);
+    getEvictionPolicy().recordWrite(key);
     addedReferences(applyInfo, key, value);
     removedReferences(applyInfo, old);
 
@@ -477,6 +511,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     final CDSMValue valueInMap = getValueForKey(key);
     if (valueInMap != null && value.equals(valueInMap.getObjectID())) {
       references.remove(key);
+      indexExpiry(key, valueInMap, null);
       removedReferences(applyInfo, value);
       final ObjectID objectId = (ObjectID) value;
 
@@ -506,6 +541,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     final CDSMValue valueInMap = getValueForKey(key);
     if (valueInMap != null && value.equals(valueInMap.getObjectID())) {
       references.remove(key);
+      indexExpiry(key, valueInMap, null);
       removedReferences(applyInfo, value);
       applyInfo.getMutationEventPublisher().publishEvent(getRegisteredClients(ServerEventType.EXPIRE),
                                                          ServerEventType.EXPIRE, key, NULL_CDSM_VALUE, cacheName);
@@ -521,6 +557,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     final Object old = super.applyRemove(applyInfo, params);
     if (old instanceof CDSMValue) {
       final CDSMValue oldValue = (CDSMValue) old;
+      indexExpiry(key, oldValue, null);
       final ObjectID objectId = oldValue.getObjectID();
 
       applyInfo.getMutationEventPublisher().publishEvent(getRegisteredClients(ServerEventType.REMOVE),
@@ -540,6 +577,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     final Object old = super.applyRemove(applyInfo, params);
     if (old instanceof CDSMValue) {
       final ObjectID objectId = ((CDSMValue) old).getObjectID();
+      indexExpiry(key, (CDSMValue) old, null);
       applyInfo.getMutationEventPublisher().publishEvent(getRegisteredClients(ServerEventType.REMOVE),
                                                          ServerEventType.REMOVE, key, NULL_CDSM_VALUE, cacheName);
     }
@@ -552,11 +590,56 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     long lastAccessedTime = (Long) params[2];
     CDSMValue wrappedValue = getValueForKey(key);
     if (wrappedValue != null && value.equals(wrappedValue.getObjectID())) {
+      final ServerMapExpiryIndex index = factory.getExpiryIndex(getId());
+      if (index != null) {
+        index.remove(key, wrappedValue);
+      }
       wrappedValue.setLastAccessedTime(lastAccessedTime);
       references.put(key, wrappedValue);
+      if (index != null) {
+        index.add(key, wrappedValue);
+      }
+    }
+  }
+
+  private void indexExpiry(final Object key, final CDSMValue oldValue, final CDSMValue newValue) {
+    final ServerMapExpiryIndex index = factory.getExpiryIndex(getId());
+    if (index != null) {
+      if (oldValue != null) {
+        index.remove(key, oldValue);
+      }
+      if (newValue != null) {
+        index.add(key, newValue);
+      }
     }
   }
 
+  /**
+   * The expiry index of the map, created on the first expiration pass and built by indexing up to
+   * {@link #EXPIRY_INDEX_BUILD_BATCH} more keys on each pass until all are. Null for a map too large to be indexed
+   * within {@link #EXPIRY_INDEX_MAX_ENTRIES}, it is indexed again once it shrank to half of that.
+   */
+  private ServerMapExpiryIndex getExpiryIndex() {
+    ServerMapExpiryIndex index = factory.getExpiryIndex(getId());
+    if (index != null && index.isOverflowed()) {
+      if (getSize() > EXPIRY_INDEX_MAX_ENTRIES / 2) { return null; }
+      index = null;
+    }
+    if (index == null) {
+      if (getSize() > EXPIRY_INDEX_MAX_ENTRIES) { return null; }
+      index = new ServerMapExpiryIndex(references.keySet().iterator(), EXPIRY_INDEX_MAX_ENTRIES);
+      factory.setExpiryIndex(getId(), index);
+    }
+    for (int i = 0; i < EXPIRY_INDEX_BUILD_BATCH && !index.isBuilt(); i++) {
+      final Object key = index.nextUnindexedKey();
+      final CDSMValue value = key == null ? null : getValueForKey(key);
+      if (value != null) {
+        index.add(key, value);
+      }
+    }
+    return index.isOverflowed() ? null : index;
+  }
+
   @Override
   protected void applyClear(final ApplyTransactionInfo applyInfo) {
     for (Object key : references.keySet()) {
@@ -572,6 +655,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
           0, 0, 0, 0, value.getVersion() + 1), cacheName);
     }
     references.clear();
+    clearExpiryIndex();
   }
 
   /**
@@ -585,6 +669,14 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
                                                          ServerEventType.REMOVE, key, NULL_CDSM_VALUE, cacheName);
     }
     this.references.clear();
+    clearExpiryIndex();
+  }
+
+  private void clearExpiryIndex() {
+    final ServerMapExpiryIndex index = factory.getExpiryIndex(getId());
+    if (index != null) {
+      index.clear();
+    }
   }
 
   private void applyRegisterServerEventListener(ApplyTransactionInfo applyInfo, Object[] params) {
@@ -640,6 +732,8 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     out.writeBoolean(compressionEnabled);
     out.writeBoolean(copyOnReadEnabled);
     out.writeBoolean(evictionEnabled);
+    out.writeByte(EVICTION_POLICY_FORMAT);
+    out.writeUTF(evictionPolicy);
   }
 
   public CDSMValue getValueForKey(final Object portableKey) {
@@ -654,7 +748,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
            && this.maxTTLSeconds == mmo.maxTTLSeconds && this.invalidateOnChange == mmo.invalidateOnChange
            && this.targetMaxTotalCount == mmo.targetMaxTotalCount && this.localCacheEnabled == mmo.localCacheEnabled
            && this.compressionEnabled == mmo.compressionEnabled && this.copyOnReadEnabled == mmo.copyOnReadEnabled
-           && this.evictionEnabled == mmo.evictionEnabled;
+           && this.evictionEnabled == mmo.evictionEnabled && this.evictionPolicy.equals(mmo.evictionPolicy);
   }
 
   static MapManagedObjectState readFrom(final ObjectInput in, PersistentObjectFactory factory) throws IOException {
@@ -675,6 +769,31 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     return evictionEnabled;
   }
 
+  @Override
+  public ServerMapEvictionPolicy getEvictionPolicy() {
+    String name = resolvedEvictionPolicy;
+    if (name == null) {
+      name = ServerMapEvictionPolicies.resolveName(evictionPolicy);
+      resolvedEvictionPolicy = name;
+    }
+    final int expectedKeys = Math.max(targetMaxTotalCount, getSize());
+    ServerMapEvictionPolicy policy = factory.getEvictionPolicy(getId());
+    if (policy == null || !policy.getName().equals(name)) {
+      policy = ServerMapEvictionPolicies.create(name, expectedKeys);
+      factory.setEvictionPolicy(getId(), policy);
+    } else {
+      policy.ensureCapacity(expectedKeys);
+    }
+    return policy;
+  }
+
+  /**
+   * Feeds a lookup done on behalf of a client to the eviction policy.
+   */
+  public void recordRead(final Object portableKey, final boolean hit) {
+    getEvictionPolicy().recordRead(portableKey, hit);
+  }
+
   @Override
   public int getSize() {
     return (int) this.references.size();
@@ -721,11 +840,17 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
                                                       final ClientObjectReferenceSet clientObjectRefSet,
                                                       final SamplingType smpType) {
     this.samplingType = smpType;
-    final Map<Object, EvictableEntry> samples = new HashMap<Object, EvictableEntry>(count);
-    final Set<Object> ignored = new HashSet<Object>(count);
-    final Random r = new Random();
+    if (smpType == SamplingType.FOR_EXPIRATION) { return getExpiredSamples(count, clientObjectRefSet); }
+    final ServerMapEvictionPolicy policy = getEvictionPolicy();
+    return policy.selectVictims(sample(policy.getCandidateCount(count), clientObjectRefSet), count);
+  }
+
+  private Map<Object, EvictableEntry> sample(final int count, final ClientObjectReferenceSet clientObjectRefSet) {
     final int size = getSize();
-    final int chance = count > size ? 100 : Math.max(10, (count / size) * 100);
+    final Map<Object, EvictableEntry> samples = new HashMap<Object, EvictableEntry>(Math.min(count, size));
+    final Set<Object> ignored = new HashSet<Object>(Math.min(count, size));
+    final Random r = new Random();
+    final int chance = count >= size ? 100 : Math.max(10, (int) ((100L * count) / size));
     for (int i = 0; samples.size() < count && i < size; i++) {
       if (evictionIterator == null || !evictionIterator.hasNext()) {
         evictionIterator = references.keySet().iterator();
@@ -759,6 +884,30 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     return samples;
   }
 
+  /**
+   * Entries that are already expired, earliest first, looked up in the expiry index instead of sampled. A map too
+   * large for the index is sampled at random.
+   */
+  private Map<Object, EvictableEntry> getExpiredSamples(final int count,
+                                                        final ClientObjectReferenceSet clientObjectRefSet) {
+    final ServerMapExpiryIndex index = getExpiryIndex();
+    if (index == null) { return sample(count, clientObjectRefSet); }
+    final long now = System.currentTimeMillis() / 1000;
+    final Map<Object, EvictableEntry> samples = new HashMap<Object, EvictableEntry>();
+    for (final Iterator<Object> i = index.expiredKeys(now, maxTTISeconds, maxTTLSeconds); samples.size() < count
+                                                                                         && i.hasNext();) {
+      final Object k = i.next();
+      final CDSMValue value = getValueForKey(k);
+      // the index hands out whole slots, entries in the latest one may not have expired yet
+      if (value == null || value.expiresIn(now, maxTTISeconds, maxTTLSeconds) > 0
+          || clientObjectRefSet.contains(value.getObjectID())) {
+        continue;
+      }
+      samples.put(k, value);
+    }
+    return samples;
+  }
+
   @Override
   public String getCacheName() {
     return cacheName;
@@ -777,6 +926,7 @@ public class ConcurrentDistributedServerMapManagedObjectState extends PartialMap
     result = prime * result + (compressionEnabled ? 1231 : 1237);
     result = prime * result + (copyOnReadEnabled ? 1231 : 1237);
     result = prime * result + (evictionEnabled ? 1231 : 1237);
+    result = prime * result + evictionPolicy.hashCode();
     return result;
   }
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.managedobject;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often keys were accessed, in the style of TinyLFU. Each key maps
+ * to one counter in each of four rows, the estimate being the smallest of them. All counters are halved once the
+ * number of increments reaches ten times the expected number of keys, so the estimates follow changes in popularity.
+ * <p>
+ * Four rows of sixteen counters are packed in each long, costing 8 bytes per expected key.
+ */
+class FrequencySketch {
+
+  private static final int    MAX_TABLE_SIZE = 1 << 24;
+  private static final long   RESET_MASK     = 0x7777777777777777L;
+  private static final long   ONE_MASK       = 0x1111111111111111L;
+  private static final long[] SEEDS          = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+      0xcbf29ce484222325L                   };
+
+  private long[]              table;
+  private int                 tableMask;
+  private int                 sampleSize;
+  private int                 size;
+
+  FrequencySketch(final int expectedKeys) {
+    final int keys = keysFor(expectedKeys);
+    allocate(keys, tableSizeFor(keys));
+  }
+
+  /**
+   * Grows the sketch if it was sized for fewer keys. The counts gathered so far are dropped, as in a reset of a cache
+   * that grew.
+   */
+  void ensureCapacity(final int expectedKeys) {
+    final int keys = keysFor(expectedKeys);
+    final int tableSize = tableSizeFor(keys);
+    if (tableSize > table.length) {
+      allocate(keys, tableSize);
+    }
+  }
+
+  int capacity() {
+    return table.length;
+  }
+
+  private void allocate(final int keys, final int tableSize) {
+    this.table = new long[tableSize];
+    this.tableMask = tableSize - 1;
+    this.sampleSize = 10 * keys;
+    this.size = 0;
+  }
+
+  private static int keysFor(final int expectedKeys) {
+    return Math.max(16, Math.min(expectedKeys, MAX_TABLE_SIZE));
+  }
+
+  private static int tableSizeFor(final int keys) {
+    return Integer.highestOneBit(keys - 1) << 1;
+  }
+
+  int frequency(final Object key) {
+    final int hash = spread(key.hashCode());
+    final int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      final int index = indexOf(hash, i);
+      final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(final Object key) {
+    final int hash = spread(key.hashCode());
+    final int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(final int index, final int counter) {
+    final int offset = counter << 2;
+    final long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(final int hash, final int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
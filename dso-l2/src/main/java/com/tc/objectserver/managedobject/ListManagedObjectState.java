@@ -16,34 +16,72 @@
  */
 package com.tc.objectserver.managedobject;
 
+import org.terracotta.corestorage.KeyValueStorage;
+
 import com.tc.object.LogicalOperation;
 import com.tc.object.ObjectID;
 import com.tc.object.dna.api.DNA.DNAType;
 import com.tc.object.dna.api.DNAWriter;
 import com.tc.object.dna.api.LogicalChangeResult;
+import com.tc.objectserver.api.Destroyable;
+import com.tc.objectserver.persistence.ObjectNotFoundException;
+import com.tc.objectserver.persistence.PersistentObjectFactory;
 
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.io.StreamCorruptedException;
 import java.util.Set;
 
 /**
- * Server representation of a list
+ * Server representation of a list. The elements are kept in the key value storage of the object keyed by their
+ * position, the state itself only holds the [head, tail) range. Adding or removing at either end touches a single
+ * entry, so a list used as a queue does not pay for its backlog on each poll, and only the changed positions are
+ * persisted rather than the whole list on every checkin. Changes in the middle shift the shorter side.
  */
-public class ListManagedObjectState extends LogicalManagedObjectState {
-  protected List references;
+public class ListManagedObjectState extends LogicalManagedObjectState implements Destroyable {
+  private final ObjectID                        id;
+  private final PersistentObjectFactory         factory;
+  private final KeyValueStorage<Object, Object> references;
+  private long                                  head;
+  private long                                  tail;
+
+  // written ahead of the [head, tail) range, states written before started with their non negative element count
+  private static final int                      POSITIONAL_FORMAT = -1;
 
-  ListManagedObjectState(ObjectInput in) throws IOException {
+  private ListManagedObjectState(ObjectInput in, ObjectID legacyId, PersistentObjectFactory factory)
+      throws IOException, ClassNotFoundException {
     super(in);
-    references = new ArrayList(1);
+    this.factory = factory;
+    final int format = in.readInt();
+    if (format == POSITIONAL_FORMAT) {
+      this.id = new ObjectID(in.readLong());
+      this.head = in.readLong();
+      this.tail = in.readLong();
+      this.references = factory.getKeyValueStorage(id, false);
+    } else {
+      // written before the elements moved to the storage, the marker is the element count and the elements follow.
+      // Until the state is written again it is read from the old layout, refilling the storage the same way.
+      if (format < 0) { throw new StreamCorruptedException("Unknown list state format: " + format); }
+      if (legacyId == null) { throw new StreamCorruptedException("List state in the old layout read without its id"); }
+      this.id = legacyId;
+      this.references = factory.getKeyValueStorage(id, true);
+      references.clear();
+      for (int i = 0; i < format; i++) {
+        references.put(tail++, in.readObject());
+      }
+    }
   }
 
-  protected ListManagedObjectState(long classID) {
+  protected ListManagedObjectState(long classID, ObjectID id, PersistentObjectFactory factory) {
     super(classID);
-    references = new ArrayList(1);
+    this.factory = factory;
+    this.id = id;
+    try {
+      this.references = factory.getKeyValueStorage(id, true);
+    } catch (ObjectNotFoundException e) {
+      throw new AssertionError(e);
+    }
   }
 
   @Override
@@ -53,49 +91,45 @@ public class ListManagedObjectState extends LogicalManagedObjectState {
     switch (method) {
       case ADD:
         addChangeToCollector(objectID, params[0], applyInfo);
-        references.add(params[0]);
+        references.put(tail++, params[0]);
         return LogicalChangeResult.SUCCESS;
       case ADD_AT:
         addChangeToCollector(objectID, params[1], applyInfo);
-        int ai = Math.min(((Integer) params[0]).intValue(), references.size());
-        if (references.size() < ai) {
-          references.add(params[1]);
-        } else {
-          references.add(ai, params[1]);
-        }
+        addAt(Math.min(((Integer) params[0]).intValue(), size()), params[1]);
         return LogicalChangeResult.SUCCESS;
       case REMOVE:
-        references.remove(params[0]);
+        int found = indexOf(params[0]);
+        if (found >= 0) {
+          removeRange(found, found + 1);
+        }
         return LogicalChangeResult.SUCCESS;
       case REMOVE_AT:
         int index = (Integer) params[0];
-        if (references.size() > index) {
-          references.remove(index);
+        if (size() > index) {
+          removeRange(index, index + 1);
         }
         return LogicalChangeResult.SUCCESS;
       case REMOVE_RANGE: {
-        int size = references.size();
+        int size = size();
         int fromIndex = (Integer) params[0];
         int toIndex = (Integer) params[1];
-        int removeIndex = fromIndex;
-        if (size > fromIndex && size >= toIndex) {
-          while (fromIndex++ < toIndex) {
-            references.remove(removeIndex);
-          }
+        if (size > fromIndex && size >= toIndex && fromIndex < toIndex) {
+          removeRange(fromIndex, toIndex);
         }
       }
         return LogicalChangeResult.SUCCESS;
       case CLEAR:
       case DESTROY:
         references.clear();
+        head = tail = 0;
         return LogicalChangeResult.SUCCESS;
       case SET:
         addChangeToCollector(objectID, params[1], applyInfo);
-        int si = Math.min(((Integer) params[0]).intValue(), references.size());
-        if (references.size() <= si) {
-          references.add(params[1]);
+        int si = Math.min(((Integer) params[0]).intValue(), size());
+        if (size() <= si) {
+          references.put(tail++, params[1]);
         } else {
-          references.set(si, params[1]);
+          references.put(head + si, params[1]);
         }
         return LogicalChangeResult.SUCCESS;
       default:
@@ -103,6 +137,56 @@ public class ListManagedObjectState extends LogicalManagedObjectState {
     }
   }
 
+  private int size() {
+    return (int) (tail - head);
+  }
+
+  private Object get(long position) {
+    return references.get(position);
+  }
+
+  private int indexOf(Object o) {
+    for (long p = head; p < tail; p++) {
+      Object value = get(p);
+      if (o == null ? value == null : o.equals(value)) { return (int) (p - head); }
+    }
+    return -1;
+  }
+
+  private void addAt(int index, Object value) {
+    if (index < size() / 2) {
+      for (long p = head; p < head + index; p++) {
+        references.put(p - 1, get(p));
+      }
+      head--;
+    } else {
+      for (long p = tail - 1; p >= head + index; p--) {
+        references.put(p + 1, get(p));
+      }
+      tail++;
+    }
+    references.put(head + index, value);
+  }
+
+  private void removeRange(int fromIndex, int toIndex) {
+    int count = toIndex - fromIndex;
+    if (fromIndex < size() - toIndex) {
+      for (long p = head + fromIndex - 1; p >= head; p--) {
+        references.put(p + count, get(p));
+      }
+      for (int i = 0; i < count; i++) {
+        references.remove(head++);
+      }
+    } else {
+      for (long p = head + toIndex; p < tail; p++) {
+        references.put(p - count, get(p));
+      }
+      for (int i = 0; i < count; i++) {
+        references.remove(--tail);
+      }
+    }
+  }
+
   protected void addChangeToCollector(ObjectID objectID, Object newValue, ApplyTransactionInfo includeIDs) {
     if (newValue instanceof ObjectID) {
       getListener().changed(objectID, null, (ObjectID) newValue);
@@ -112,20 +196,24 @@ public class ListManagedObjectState extends LogicalManagedObjectState {
 
   @Override
   protected void addAllObjectReferencesTo(Set refs) {
-    addAllObjectReferencesFromIteratorTo(references.iterator(), refs);
+    for (long p = head; p < tail; p++) {
+      Object value = get(p);
+      if (value instanceof ObjectID) {
+        refs.add(value);
+      }
+    }
   }
 
   @Override
   public void dehydrate(ObjectID objectID, DNAWriter writer, DNAType type) {
-    for (Iterator i = references.iterator(); i.hasNext();) {
-      Object value = i.next();
-      writer.addLogicalAction(LogicalOperation.ADD, new Object[] { value });
+    for (long p = head; p < tail; p++) {
+      writer.addLogicalAction(LogicalOperation.ADD, new Object[] { get(p) });
     }
   }
 
   @Override
   public String toString() {
-    return "ListManagedStateObject(" + references + ")";
+    return "ListManagedStateObject(id=" + id + ", size=" + size() + ")";
   }
 
   @Override
@@ -135,27 +223,25 @@ public class ListManagedObjectState extends LogicalManagedObjectState {
 
   @Override
   protected void basicWriteTo(ObjectOutput out) throws IOException {
-    out.writeInt(references.size());
-    for (Iterator i = references.iterator(); i.hasNext();) {
-      out.writeObject(i.next());
-    }
+    out.writeInt(POSITIONAL_FORMAT);
+    out.writeLong(id.toLong());
+    out.writeLong(head);
+    out.writeLong(tail);
   }
 
   @Override
   protected boolean basicEquals(LogicalManagedObjectState o) {
     ListManagedObjectState mo = (ListManagedObjectState) o;
-    return references.equals(mo.references);
+    return head == mo.head && tail == mo.tail && references.equals(mo.references);
   }
 
-  static ListManagedObjectState readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
-    ListManagedObjectState listmo = new ListManagedObjectState(in);
-    int size = in.readInt();
-    ArrayList list = new ArrayList(size);
-    for (int i = 0; i < size; i++) {
-      list.add(in.readObject());
-    }
-    listmo.references = list;
-    return listmo;
+  /**
+   * The elements are saved and retrieved through the references storage. {@code legacyId} is the id of the object the
+   * state is read for, needed to move the elements of a state written in the old layout into the storage.
+   */
+  static ListManagedObjectState readFrom(ObjectInput in, ObjectID legacyId, PersistentObjectFactory factory)
+      throws IOException, ClassNotFoundException {
+    return new ListManagedObjectState(in, legacyId, factory);
   }
 
   @Override
@@ -163,7 +249,13 @@ public class ListManagedObjectState extends LogicalManagedObjectState {
     final int prime = 31;
     int result = 1;
     result = prime * result + ((references == null) ? 0 : references.hashCode());
+    result = prime * result + size();
     return result;
   }
 
-}
\ No newline at end of file
+  @Override
+  public void destroy() {
+    factory.destroyKeyValueStorage(id);
+  }
+
+}
@@ -49,7 +49,7 @@ public class ManagedObjectSerializer implements Serializer {
     // read data
     final long version = in.readLong();
     final ObjectID id = new ObjectID(in.readLong());
-    final ManagedObjectState state = (ManagedObjectState) this.serializer.deserializeFrom(in);
+    final ManagedObjectState state = this.serializer.deserializeFrom(in, id);
 
     // populate managed object...
     final ManagedObjectImpl rv = new ManagedObjectImpl(id, persistor);
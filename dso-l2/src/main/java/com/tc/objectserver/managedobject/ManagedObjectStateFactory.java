@@ -125,9 +125,14 @@ public class ManagedObjectStateFactory {
   }
 
   public ManagedObjectState readManagedObjectStateFrom(final ObjectInput in, final byte type) throws IOException {
+    return readManagedObjectStateFrom(in, type, null);
+  }
+
+  public ManagedObjectState readManagedObjectStateFrom(final ObjectInput in, final byte type, final ObjectID oid)
+      throws IOException {
     try {
       Factory factory = ManagedObjectStateStaticConfig.Factory.getFactoryForType(type);
-      if (factory != null) { return factory.readFrom(in, objectFactory); }
+      if (factory != null) { return factory.readFrom(in, oid, objectFactory); }
 
       // Unreachable!
       throw new AssertionError("Unknown type : " + type + " : Dont know how to deserialize this type !");
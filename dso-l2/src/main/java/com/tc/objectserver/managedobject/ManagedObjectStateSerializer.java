@@ -18,6 +18,7 @@ package com.tc.objectserver.managedobject;
 
 import com.tc.exception.TCRuntimeException;
 import com.tc.io.serializer.api.Serializer;
+import com.tc.object.ObjectID;
 import com.tc.objectserver.core.api.ManagedObjectState;
 
 import java.io.IOException;
@@ -40,6 +41,14 @@ public class ManagedObjectStateSerializer implements Serializer {
     return getStateFactory().readManagedObjectStateFrom(in, type);
   }
 
+  /**
+   * Reads the state persisted for the object {@code id}.
+   */
+  public ManagedObjectState deserializeFrom(ObjectInput in, ObjectID id) throws IOException {
+    byte type = in.readByte();
+    return getStateFactory().readManagedObjectStateFrom(in, type, id);
+  }
+
   @Override
   public byte getSerializerID() {
     return MANAGED_OBJECT_STATE;
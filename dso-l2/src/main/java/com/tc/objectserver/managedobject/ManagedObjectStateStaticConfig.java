@@ -160,13 +160,19 @@ public enum ManagedObjectStateStaticConfig {
 
       @Override
       public ManagedObjectState readFrom(ObjectInput objectInput, PersistentObjectFactory objectFactory) throws IOException, ClassNotFoundException {
-        return ListManagedObjectState.readFrom(objectInput);
+        return ListManagedObjectState.readFrom(objectInput, null, objectFactory);
+      }
+
+      @Override
+      public ManagedObjectState readFrom(ObjectInput objectInput, ObjectID oid, PersistentObjectFactory objectFactory)
+          throws IOException, ClassNotFoundException {
+        return ListManagedObjectState.readFrom(objectInput, oid, objectFactory);
       }
 
       @Override
       public ManagedObjectState newInstance(ObjectID oid, long classId,
                                             PersistentObjectFactory objectFactory) {
-        return new ListManagedObjectState(classId);
+        return new ListManagedObjectState(classId, oid, objectFactory);
       }
 
     },
@@ -252,6 +258,14 @@ public enum ManagedObjectStateStaticConfig {
 
     public abstract ManagedObjectState readFrom(ObjectInput objectInput, PersistentObjectFactory objectFactory) throws IOException, ClassNotFoundException;
 
+    /**
+     * Reads the state persisted for {@code oid}. Override for states whose older layouts need the id to be read.
+     */
+    public ManagedObjectState readFrom(ObjectInput objectInput, ObjectID oid, PersistentObjectFactory objectFactory)
+        throws IOException, ClassNotFoundException {
+      return readFrom(objectInput, objectFactory);
+    }
+
     public abstract ManagedObjectState newInstance(ObjectID oid, long classId,
                                                    PersistentObjectFactory objectFactory);
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.managedobject;
+
+import com.tc.objectserver.api.EvictableEntry;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evicts the sampled entries as they are. Keeps no per map state, a single instance serves every map.
+ */
+public class RandomServerMapEvictionPolicy implements ServerMapEvictionPolicy {
+
+  public static final String                        NAME     = "random";
+  public static final RandomServerMapEvictionPolicy INSTANCE = new RandomServerMapEvictionPolicy();
+
+  private final AtomicLong                          hits     = new AtomicLong();
+  private final AtomicLong                          misses   = new AtomicLong();
+
+  private RandomServerMapEvictionPolicy() {
+    //
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void recordRead(final Object key, final boolean hit) {
+    (hit ? hits : misses).incrementAndGet();
+  }
+
+  @Override
+  public void recordWrite(final Object key) {
+    //
+  }
+
+  @Override
+  public void ensureCapacity(final int expectedKeys) {
+    //
+  }
+
+  @Override
+  public int getCandidateCount(final int victims) {
+    return victims;
+  }
+
+  @Override
+  public Map<Object, EvictableEntry> selectVictims(final Map<Object, EvictableEntry> candidates, final int victims) {
+    return candidates;
+  }
+
+  @Override
+  public long drainHits() {
+    return hits.getAndSet(0);
+  }
+
+  @Override
+  public long drainMisses() {
+    return misses.getAndSet(0);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.managedobject;
+
+import com.tc.logging.TCLogger;
+import com.tc.logging.TCLogging;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
+import com.tc.properties.TCProperties;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+
+/**
+ * Creates the {@link ServerMapEvictionPolicy} named in the configuration of a cache, or the server default
+ * (l2.servermap.eviction.policy) when the cache does not name one.
+ */
+public final class ServerMapEvictionPolicies {
+
+  private static final TCLogger LOGGER         = TCLogging.getLogger(ServerMapEvictionPolicies.class);
+  private static final String   DEFAULT_POLICY;
+  private static final int      SAMPLE_FACTOR;
+
+  static {
+    TCProperties properties = TCPropertiesImpl.getProperties();
+    String policy = properties.getProperty(TCPropertiesConsts.L2_SERVERMAP_EVICTION_POLICY, true);
+    DEFAULT_POLICY = policy == null ? RandomServerMapEvictionPolicy.NAME : policy;
+    SAMPLE_FACTOR = properties.getInt(TCPropertiesConsts.L2_SERVERMAP_EVICTION_TINYLFU_SAMPLE_FACTOR, 4);
+  }
+
+  private ServerMapEvictionPolicies() {
+    //
+  }
+
+  /**
+   * Name of the policy used for a cache configured with {@code configured}, empty meaning the server default. An
+   * unknown name resolves to {@link RandomServerMapEvictionPolicy#NAME}, so the result always names the policy
+   * {@link #create} returns for it.
+   */
+  public static String resolveName(final String configured) {
+    final String name = configured == null || configured.isEmpty() ? DEFAULT_POLICY : configured;
+    if (TinyLfuServerMapEvictionPolicy.NAME.equalsIgnoreCase(name)) { return TinyLfuServerMapEvictionPolicy.NAME; }
+    if (!RandomServerMapEvictionPolicy.NAME.equalsIgnoreCase(name)) {
+      LOGGER.warn("Unknown server map eviction policy '" + name + "', using " + RandomServerMapEvictionPolicy.NAME);
+    }
+    return RandomServerMapEvictionPolicy.NAME;
+  }
+
+  /**
+   * @param name a name returned by {@link #resolveName}
+   * @param expectedKeys number of keys the map is expected to hold, used to size per map policy state
+   */
+  public static ServerMapEvictionPolicy create(final String name, final int expectedKeys) {
+    if (TinyLfuServerMapEvictionPolicy.NAME.equals(name)) {
+      return new TinyLfuServerMapEvictionPolicy(expectedKeys, SAMPLE_FACTOR);
+    }
+    return RandomServerMapEvictionPolicy.INSTANCE;
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.managedobject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the keys of a server map by the times their expiration is computed from, letting the periodic eviction
+ * collect the expired entries in time proportional to their number instead of sampling the whole map.
+ * <p>
+ * A key expiring by the TTI or TTL of the map is indexed by its last accessed or creation time, so a change to the map
+ * TTI or TTL only changes the slots looked up. A key with its own TTI and TTL is indexed by the time it expires at.
+ * Keys are grouped in slots of {@link #SLOT_SECONDS} seconds and a slot is returned whole, so the keys returned can
+ * expire up to a slot later than asked for and have to be checked.
+ * <p>
+ * The index is built a batch of keys at a time from an iterator over the keys of the map, the keys changed meanwhile
+ * being indexed as they change. It lives in memory only and is not thread safe, it is accessed under the checkout of
+ * its map.
+ * <p>
+ * The index holds the keys on heap, so it is capped: once it would hold more than its maximum number of entries it
+ * drops them all and stays {@link #isOverflowed() overflowed}, and the map goes back to sampling for expired entries.
+ */
+public class ServerMapExpiryIndex {
+
+  static final long        SLOT_SECONDS = 16;
+
+  private final Slots      byExpiry     = new Slots();
+  private final Slots      byLastAccess = new Slots();
+  private final Slots      byCreation   = new Slots();
+  private final int        maxEntries;
+  private Iterator<Object> unindexedKeys;
+  private int              entries;
+  private boolean          overflowed;
+
+  /**
+   * @param keys the keys of the map, the iterator has to tolerate changes to the map between batches
+   * @param maxEntries the most keys held, a key counting once for each of its expiration times indexed
+   */
+  public ServerMapExpiryIndex(final Iterator<Object> keys, final int maxEntries) {
+    this.unindexedKeys = keys;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Next key of the map to index while building, null once every key was handed out. Indexing a key that changed
+   * since it was handed out does no harm, it ends up in the slots of its current value either way.
+   */
+  public Object nextUnindexedKey() {
+    if (unindexedKeys != null && unindexedKeys.hasNext()) { return unindexedKeys.next(); }
+    unindexedKeys = null;
+    return null;
+  }
+
+  public boolean isBuilt() {
+    return unindexedKeys == null;
+  }
+
+  /**
+   * True once the index went over its maximum number of entries. An overflowed index holds no keys and ignores
+   * changes, it is only useful to know the map is too large to be indexed.
+   */
+  public boolean isOverflowed() {
+    return overflowed;
+  }
+
+  public void add(final Object key, final CDSMValue value) {
+    if (overflowed) { return; }
+    final long expiresAt = fixedExpiresAt(value);
+    if (expiresAt != Long.MAX_VALUE && byExpiry.add(expiresAt, key)) {
+      entries++;
+    }
+    if (value.getTimeToIdle() == 0 && byLastAccess.add(value.getLastAccessedTime(), key)) {
+      entries++;
+    }
+    if (value.getTimeToLive() == 0 && byCreation.add(value.getCreationTime(), key)) {
+      entries++;
+    }
+    if (entries > maxEntries) {
+      clear();
+      overflowed = true;
+    }
+  }
+
+  /**
+   * Removes the key as indexed for {@code value}, which has to be the value it was added with.
+   */
+  public void remove(final Object key, final CDSMValue value) {
+    if (overflowed) { return; }
+    final long expiresAt = fixedExpiresAt(value);
+    if (expiresAt != Long.MAX_VALUE && byExpiry.remove(expiresAt, key)) {
+      entries--;
+    }
+    if (value.getTimeToIdle() == 0 && byLastAccess.remove(value.getLastAccessedTime(), key)) {
+      entries--;
+    }
+    if (value.getTimeToLive() == 0 && byCreation.remove(value.getCreationTime(), key)) {
+      entries--;
+    }
+  }
+
+  // the earliest of the expiration times set on the value itself, disregarding the ones left to the map
+  private static long fixedExpiresAt(final CDSMValue value) {
+    final long idle = value.getTimeToIdle() > 0 ? value.getLastAccessedTime() + value.getTimeToIdle() : Long.MAX_VALUE;
+    final long live = value.getTimeToLive() > 0 ? value.getCreationTime() + value.getTimeToLive() : Long.MAX_VALUE;
+    return Math.min(idle, live);
+  }
+
+  /**
+   * Empties the index, for a map that was cleared: the index is then complete and not overflowed anymore.
+   */
+  public void clear() {
+    byExpiry.clear();
+    byLastAccess.clear();
+    byCreation.clear();
+    entries = 0;
+    unindexedKeys = null;
+    overflowed = false;
+  }
+
+  /**
+   * Keys that may have expired at or before {@code now}, roughly earliest first, given the TTI and TTL of the map. A
+   * key can be returned more than once. The index must not be modified while iterating.
+   */
+  public Iterator<Object> expiredKeys(final long now, final long ttiSeconds, final long ttlSeconds) {
+    final Iterator<Iterator<Set<Object>>> sources = Arrays.asList(byExpiry.upTo(now),
+        ttiSeconds > 0 ? byLastAccess.upTo(now - ttiSeconds) : Collections.<Set<Object>> emptyIterator(),
+        ttlSeconds > 0 ? byCreation.upTo(now - ttlSeconds) : Collections.<Set<Object>> emptyIterator()).iterator();
+    return new Iterator<Object>() {
+      private Iterator<Set<Object>> slots   = Collections.emptyIterator();
+      private Iterator<Object>      current = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext()) {
+          if (slots.hasNext()) {
+            current = slots.next().iterator();
+          } else if (sources.hasNext()) {
+            slots = sources.next();
+          } else {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public Object next() {
+        hasNext();
+        return current.next();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  private static final class Slots {
+    private final NavigableMap<Long, Set<Object>> slots = new TreeMap<Long, Set<Object>>();
+
+    private static long slotOf(final long time) {
+      return Math.floorDiv(time, SLOT_SECONDS);
+    }
+
+    boolean add(final long time, final Object key) {
+      final Long slotKey = slotOf(time);
+      Set<Object> slot = slots.get(slotKey);
+      if (slot == null) {
+        slot = new HashSet<Object>();
+        slots.put(slotKey, slot);
+      }
+      return slot.add(key);
+    }
+
+    boolean remove(final long time, final Object key) {
+      final Long slotKey = slotOf(time);
+      final Set<Object> slot = slots.get(slotKey);
+      if (slot == null || !slot.remove(key)) { return false; }
+      if (slot.isEmpty()) {
+        slots.remove(slotKey);
+      }
+      return true;
+    }
+
+    // the slots holding times up to and including the given one, and possibly later ones within the last slot
+    Iterator<Set<Object>> upTo(final long time) {
+      return slots.headMap(slotOf(time), true).values().iterator();
+    }
+
+    void clear() {
+      slots.clear();
+    }
+  }
+}
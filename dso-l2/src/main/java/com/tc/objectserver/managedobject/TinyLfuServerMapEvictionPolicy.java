@@ -0,0 +1,122 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.managedobject;
+
+import com.tc.objectserver.api.EvictableEntry;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Frequency aware policy: samples several candidates per victim and evicts the ones the {@link FrequencySketch} of the
+ * map reads and writes estimates as the least used, so hot keys survive capacity eviction.
+ * <p>
+ * Unlike a local TinyLFU cache the policy cannot refuse to admit a write, a clustered map has to accept every put. A
+ * new key that is rarely accessed is simply among the first candidates evicted.
+ */
+public class TinyLfuServerMapEvictionPolicy implements ServerMapEvictionPolicy {
+
+  public static final String    NAME = "tinylfu";
+
+  private final FrequencySketch sketch;
+  private final int             sampleFactor;
+  private long                  hits;
+  private long                  misses;
+
+  public TinyLfuServerMapEvictionPolicy(final int expectedKeys, final int sampleFactor) {
+    this.sketch = new FrequencySketch(expectedKeys);
+    this.sampleFactor = Math.max(1, sampleFactor);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public synchronized void recordRead(final Object key, final boolean hit) {
+    if (hit) {
+      hits++;
+    } else {
+      misses++;
+    }
+    // misses count too, a key read again after being evicted is a key that should have stayed
+    sketch.increment(key);
+  }
+
+  @Override
+  public synchronized void recordWrite(final Object key) {
+    sketch.increment(key);
+  }
+
+  @Override
+  public synchronized void ensureCapacity(final int expectedKeys) {
+    sketch.ensureCapacity(expectedKeys);
+  }
+
+  @Override
+  public int getCandidateCount(final int victims) {
+    return (int) Math.min(Integer.MAX_VALUE, (long) victims * sampleFactor);
+  }
+
+  @Override
+  public Map<Object, EvictableEntry> selectVictims(final Map<Object, EvictableEntry> candidates, final int victims) {
+    if (candidates.size() <= victims) { return candidates; }
+    final List<Entry<Object, EvictableEntry>> entries = new ArrayList<Entry<Object, EvictableEntry>>(candidates.entrySet());
+    final Map<Object, Integer> frequencies = new HashMap<Object, Integer>(candidates.size());
+    synchronized (this) {
+      for (Entry<Object, EvictableEntry> e : entries) {
+        frequencies.put(e.getKey(), sketch.frequency(e.getKey()));
+      }
+    }
+    Collections.sort(entries, new Comparator<Entry<Object, EvictableEntry>>() {
+      @Override
+      public int compare(Entry<Object, EvictableEntry> o1, Entry<Object, EvictableEntry> o2) {
+        return frequencies.get(o1.getKey()).compareTo(frequencies.get(o2.getKey()));
+      }
+    });
+    final Map<Object, EvictableEntry> selected = new HashMap<Object, EvictableEntry>(victims);
+    for (Entry<Object, EvictableEntry> e : entries.subList(0, victims)) {
+      selected.put(e.getKey(), e.getValue());
+    }
+    return selected;
+  }
+
+  synchronized int frequency(final Object key) {
+    return sketch.frequency(key);
+  }
+
+  @Override
+  public synchronized long drainHits() {
+    final long drained = hits;
+    hits = 0;
+    return drained;
+  }
+
+  @Override
+  public synchronized long drainMisses() {
+    final long drained = misses;
+    misses = 0;
+    return drained;
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.persistence;
+
+import com.tc.object.ObjectID;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads data written by {@link CompactObjectOutput} directly from a {@link ByteBuffer}, without copying it or setting
+ * up any java serialization stream.
+ */
+final class CompactObjectInput implements ObjectInput {
+
+  private final ByteBuffer buffer;
+
+  CompactObjectInput(byte[] data, int offset) {
+    this(ByteBuffer.wrap(data, offset, data.length - offset));
+  }
+
+  CompactObjectInput(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  private void require(int n) throws EOFException {
+    if (buffer.remaining() < n) { throw new EOFException("Needed " + n + " bytes, only " + buffer.remaining()
+                                                         + " remaining"); }
+  }
+
+  @Override
+  public Object readObject() throws ClassNotFoundException, IOException {
+    byte tag = readByte();
+    switch (tag) {
+      case CompactObjectOutput.NULL_TAG:
+        return null;
+      case CompactObjectOutput.OBJECT_ID_TAG:
+        return new ObjectID(readLong());
+      case CompactObjectOutput.LITERAL_TAG:
+        return LiteralSerializer.INSTANCE.recover(buffer);
+      case CompactObjectOutput.SERIALIZED_TAG:
+        int length = readInt();
+        require(length);
+        ObjectInputStream ois;
+        if (buffer.hasArray()) {
+          ois = new ObjectInputStream(new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                                                               length));
+          buffer.position(buffer.position() + length);
+        } else {
+          byte[] bytes = new byte[length];
+          buffer.get(bytes);
+          ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        }
+        try {
+          return ois.readObject();
+        } finally {
+          ois.close();
+        }
+      default:
+        throw new StreamCorruptedException("Unknown object tag " + tag);
+    }
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b) {
+    return read(b, 0, b.length);
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (len == 0) { return 0; }
+    if (!buffer.hasRemaining()) { return -1; }
+    int n = Math.min(len, buffer.remaining());
+    buffer.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) {
+    int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public void close() {
+    //
+  }
+
+  @Override
+  public void readFully(byte[] b) throws IOException {
+    readFully(b, 0, b.length);
+  }
+
+  @Override
+  public void readFully(byte[] b, int off, int len) throws IOException {
+    require(len);
+    buffer.get(b, off, len);
+  }
+
+  @Override
+  public int skipBytes(int n) {
+    return (int) skip(n);
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    require(1);
+    return buffer.get();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    return readByte() & 0xFF;
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    require(2);
+    return buffer.getShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    return readShort() & 0xFFFF;
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    require(2);
+    return buffer.getChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    require(4);
+    return buffer.getInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    require(8);
+    return buffer.getLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    require(4);
+    return buffer.getFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    require(8);
+    return buffer.getDouble();
+  }
+
+  @Override
+  public String readLine() {
+    if (!buffer.hasRemaining()) { return null; }
+    StringBuilder sb = new StringBuilder();
+    while (buffer.hasRemaining()) {
+      char c = (char) (buffer.get() & 0xFF);
+      if (c == '\n') {
+        break;
+      } else if (c == '\r') {
+        if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+          buffer.get();
+        }
+        break;
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String readUTF() throws IOException {
+    return DataInputStream.readUTF(this);
+  }
+}
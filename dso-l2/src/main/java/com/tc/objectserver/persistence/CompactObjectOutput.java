@@ -0,0 +1,233 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.persistence;
+
+import com.tc.object.ObjectID;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An {@link ObjectOutput} that writes straight into a growable, reusable byte array without any java serialization
+ * stream framing. Primitive writes use the same big-endian encoding as {@link java.io.DataOutputStream}. Objects are
+ * written with a one byte tag: {@link ObjectID}s inline, other literal types through {@link LiteralSerializer} and
+ * anything else as a length-prefixed java serialized blob.
+ * <p>
+ * Instances are not thread safe, they are meant to be kept in a thread local and {@link #reset()} between uses.
+ *
+ * @see CompactObjectInput
+ */
+final class CompactObjectOutput implements ObjectOutput {
+
+  static final byte         NULL_TAG       = 0;
+  static final byte         OBJECT_ID_TAG  = 1;
+  static final byte         LITERAL_TAG    = 2;
+  static final byte         SERIALIZED_TAG = 3;
+
+  private static final int  INITIAL_SIZE   = 1024;
+  /** Buffers grown beyond this are not retained between uses so that one huge object does not pin the memory. */
+  private static final int  MAX_RETAINED   = 1024 * 1024;
+
+  private byte[]            buffer         = new byte[INITIAL_SIZE];
+  private int               count;
+
+  void reset() {
+    if (buffer.length > MAX_RETAINED) {
+      buffer = new byte[INITIAL_SIZE];
+    }
+    count = 0;
+  }
+
+  int size() {
+    return count;
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(buffer, count);
+  }
+
+  private void ensureCapacity(int extra) {
+    int required = count + extra;
+    if (required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, required));
+    }
+  }
+
+  @Override
+  public void writeObject(Object obj) throws IOException {
+    if (obj == null) {
+      writeByte(NULL_TAG);
+    } else if (obj instanceof ObjectID) {
+      writeByte(OBJECT_ID_TAG);
+      writeLong(((ObjectID) obj).toLong());
+    } else if (LiteralSerializer.isLiteral(obj)) {
+      writeByte(LITERAL_TAG);
+      ByteBuffer literal = LiteralSerializer.INSTANCE.transform(obj);
+      int length = literal.remaining();
+      ensureCapacity(length);
+      literal.get(buffer, count, length);
+      count += length;
+    } else {
+      writeByte(SERIALIZED_TAG);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream oos = new ObjectOutputStream(bytes);
+      try {
+        oos.writeObject(obj);
+      } finally {
+        oos.close();
+      }
+      writeInt(bytes.size());
+      write(bytes.toByteArray());
+    }
+  }
+
+  @Override
+  public void write(int b) {
+    ensureCapacity(1);
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b) {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    ensureCapacity(len);
+    System.arraycopy(b, off, buffer, count, len);
+    count += len;
+  }
+
+  @Override
+  public void writeBoolean(boolean v) {
+    write(v ? 1 : 0);
+  }
+
+  @Override
+  public void writeByte(int v) {
+    write(v);
+  }
+
+  @Override
+  public void writeShort(int v) {
+    ensureCapacity(2);
+    buffer[count++] = (byte) (v >>> 8);
+    buffer[count++] = (byte) v;
+  }
+
+  @Override
+  public void writeChar(int v) {
+    writeShort(v);
+  }
+
+  @Override
+  public void writeInt(int v) {
+    ensureCapacity(4);
+    buffer[count++] = (byte) (v >>> 24);
+    buffer[count++] = (byte) (v >>> 16);
+    buffer[count++] = (byte) (v >>> 8);
+    buffer[count++] = (byte) v;
+  }
+
+  @Override
+  public void writeLong(long v) {
+    writeInt((int) (v >>> 32));
+    writeInt((int) v);
+  }
+
+  @Override
+  public void writeFloat(float v) {
+    writeInt(Float.floatToIntBits(v));
+  }
+
+  @Override
+  public void writeDouble(double v) {
+    writeLong(Double.doubleToLongBits(v));
+  }
+
+  @Override
+  public void writeBytes(String s) {
+    int len = s.length();
+    ensureCapacity(len);
+    for (int i = 0; i < len; i++) {
+      buffer[count++] = (byte) s.charAt(i);
+    }
+  }
+
+  @Override
+  public void writeChars(String s) {
+    int len = s.length();
+    ensureCapacity(len * 2);
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      buffer[count++] = (byte) (c >>> 8);
+      buffer[count++] = (byte) c;
+    }
+  }
+
+  /**
+   * Modified UTF-8 exactly as written by {@link java.io.DataOutputStream#writeUTF(String)}.
+   */
+  @Override
+  public void writeUTF(String s) throws IOException {
+    int strlen = s.length();
+    int utflen = 0;
+    for (int i = 0; i < strlen; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x0001 && c <= 0x007F) {
+        utflen++;
+      } else if (c > 0x07FF) {
+        utflen += 3;
+      } else {
+        utflen += 2;
+      }
+    }
+    if (utflen > 65535) { throw new UTFDataFormatException("encoded string too long: " + utflen + " bytes"); }
+
+    ensureCapacity(utflen + 2);
+    writeShort(utflen);
+    for (int i = 0; i < strlen; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x0001 && c <= 0x007F) {
+        buffer[count++] = (byte) c;
+      } else if (c > 0x07FF) {
+        buffer[count++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+        buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+      } else {
+        buffer[count++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  @Override
+  public void flush() {
+    //
+  }
+
+  @Override
+  public void close() {
+    //
+  }
+}
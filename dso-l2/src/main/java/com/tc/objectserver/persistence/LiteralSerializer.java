@@ -366,6 +366,10 @@ public class LiteralSerializer extends Serializer<Object> {
     }
   }
 
+  static boolean isLiteral(final Object o) {
+    return classToType.containsKey(o.getClass());
+  }
+
 
   @Override
   public Object recover(final ByteBuffer buffer) {
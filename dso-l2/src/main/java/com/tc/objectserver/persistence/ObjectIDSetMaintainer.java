@@ -27,6 +27,7 @@ import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.BitSetObjectIDSet;
 import com.tc.util.ExpandingBitSetObjectIDSet;
 import com.tc.util.ObjectIDSet;
+import com.tc.util.RoaringObjectIDSet;
 import com.tc.util.TCCollections;
 
 import java.util.Set;
@@ -36,17 +37,19 @@ import java.util.Set;
  */
 public class ObjectIDSetMaintainer implements KeyValueStorageMutationListener<Long, byte[]> {
   private static enum ObjectIDSetType {
-    BITSET_BASED_SET, EXPANDING_BITSET_BASED_SET
+    BITSET_BASED_SET, EXPANDING_BITSET_BASED_SET, ROARING_BASED_SET
   }
 
   private static final TCLogger logger = TCLogging.getLogger(ObjectIDSetMaintainer.class);
 
-  private final ObjectIDSet evictableObjectIDSet = new BitSetObjectIDSet();
+  private final ObjectIDSet evictableObjectIDSet;
   private final ObjectIDSet noReferencesObjectIDSet;
-  private final ObjectIDSet referencesObjectIDSet = new BitSetObjectIDSet();
+  private final ObjectIDSet referencesObjectIDSet;
 
   public ObjectIDSetMaintainer() {
+    evictableObjectIDSet = create(TCCollections.EMPTY_OBJECT_ID_SET);
     noReferencesObjectIDSet = create(TCCollections.EMPTY_OBJECT_ID_SET);
+    referencesObjectIDSet = create(TCCollections.EMPTY_OBJECT_ID_SET);
     logger.info("Using ObjectIDSetType " + getObjectIDSetType());
   }
 
@@ -59,7 +62,7 @@ public class ObjectIDSetMaintainer implements KeyValueStorageMutationListener<Lo
   private static ObjectIDSetType getObjectIDSetType() {
     String type = TCPropertiesImpl.getProperties().getProperty(TCPropertiesConsts.L2_OBJECTMANAGER_OIDSET_TYPE, true);
     if (type == null) {
-      return ObjectIDSetType.EXPANDING_BITSET_BASED_SET;
+      return ObjectIDSetType.ROARING_BASED_SET;
     } else {
       return ObjectIDSetType.valueOf(type);
     }
@@ -71,12 +74,14 @@ public class ObjectIDSetMaintainer implements KeyValueStorageMutationListener<Lo
         return new BitSetObjectIDSet(clone);
       case EXPANDING_BITSET_BASED_SET:
         return new ExpandingBitSetObjectIDSet(clone);
+      case ROARING_BASED_SET:
+        return new RoaringObjectIDSet(clone);
     }
     throw new UnsupportedOperationException("Unsupported ObjectIDSet type " + getObjectIDSetType());
   }
 
   public synchronized ObjectIDSet evictableObjectIDSetSnapshot() {
-    return new BitSetObjectIDSet(evictableObjectIDSet);
+    return create(evictableObjectIDSet);
   }
 
   public synchronized boolean hasNoReferences(ObjectID id) {
@@ -29,12 +29,11 @@ import com.tc.objectserver.managedobject.ManagedObjectStateSerializer;
 import com.tc.objectserver.managedobject.SerializedClusterObjectState;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.io.StreamCorruptedException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -45,6 +44,15 @@ import java.util.Set;
 class ObjectMap implements KeyValueStorage<ObjectID, ManagedObject> {
   private static final String NODE_OBJECT_DB = "node_object_db";
   private static final String LEAF_OBJECT_DB = "leaf_object_db";
+  // first byte of every object written in the compact format, bump when the layout changes
+  private static final byte FORMAT_VERSION = 1;
+
+  private static final ThreadLocal<CompactObjectOutput> OUTPUT = new ThreadLocal<CompactObjectOutput>() {
+    @Override
+    protected CompactObjectOutput initialValue() {
+      return new CompactObjectOutput();
+    }
+  };
 
   private final KeyValueStorage<Long, byte[]> nodeObjects;
   private final KeyValueStorage<Long, byte[]> leafObjects;
@@ -86,22 +94,19 @@ class ObjectMap implements KeyValueStorage<ObjectID, ManagedObject> {
 
   @Override
   public void put(final ObjectID key, final ManagedObject value, byte metadata) {
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    CompactObjectOutput out = OUTPUT.get();
+    out.reset();
+    out.writeByte(FORMAT_VERSION);
     try {
-      ObjectOutput oo = new ObjectOutputStream(byteArrayOutputStream);
-      try {
-        serializer.serializeTo(value, oo);
-      } finally {
-        oo.close();
-      }
+      serializer.serializeTo(value, out);
     } catch (IOException e) {
       throw new AssertionError(e);
     }
     if ( value.getManagedObjectState() instanceof SerializedClusterObjectState  ) {
-        leafObjects.put(key.toLong(), byteArrayOutputStream.toByteArray(), metadata);
+        leafObjects.put(key.toLong(), out.toByteArray(), metadata);
     } else {
-        nodeObjects.put(key.toLong(), byteArrayOutputStream.toByteArray(), metadata);
-  }
+        nodeObjects.put(key.toLong(), out.toByteArray(), metadata);
+    }
   }
 
   @Override
@@ -117,8 +122,7 @@ class ObjectMap implements KeyValueStorage<ObjectID, ManagedObject> {
       return null;
     }
     try {
-      ObjectInput oi = new ObjectInputStream(new ByteArrayInputStream(data));
-      return (ManagedObject)serializer.deserializeFrom(oi);
+      return (ManagedObject)serializer.deserializeFrom(inputFor(data));
     } catch (ObjectNotFoundException e) {
       // Clean up the backing map if the object winds up missing (see MNK-5031)
       if ( leaf ) {
@@ -132,6 +136,22 @@ class ObjectMap implements KeyValueStorage<ObjectID, ManagedObject> {
     }
   }
 
+  /**
+   * Objects written before the compact format was introduced start with the java serialization stream header, anything
+   * else starts with a format version byte.
+   */
+  private static ObjectInput inputFor(byte[] data) throws IOException {
+    if (data.length == 0) { throw new StreamCorruptedException("Empty managed object data"); }
+    if (data.length >= 2 && data[0] == (byte) (ObjectStreamConstants.STREAM_MAGIC >>> 8)
+        && data[1] == (byte) ObjectStreamConstants.STREAM_MAGIC) {
+      return new ObjectInputStream(new ByteArrayInputStream(data));
+    }
+    if (data[0] != FORMAT_VERSION) {
+      throw new StreamCorruptedException("Unknown managed object format version " + data[0]);
+    }
+    return new CompactObjectInput(data, 1);
+  }
+
     @Override
     public boolean remove(final ObjectID key) {
         if ( !leafObjects.remove(key.toLong()) ) {
@@ -21,38 +21,110 @@ import org.terracotta.corestorage.KeyValueStorage;
 import org.terracotta.corestorage.KeyValueStorageConfig;
 import org.terracotta.corestorage.StorageManager;
 
+import com.tc.net.utils.L2Utils;
 import com.tc.object.ObjectID;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
+import com.tc.objectserver.managedobject.ServerMapExpiryIndex;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author tim
  */
 public class PersistentObjectFactory {
-  private static final KeyValueStorageConfig<Object, Object> MAP_CONFIG = ImmutableKeyValueStorageConfig.builder(Object.class, Object.class)
-      .keyTransformer(LiteralSerializer.INSTANCE)
-      .valueTransformer(LiteralSerializer.INSTANCE)
-      .concurrency(1).build();
+  private static final int MAX_AUTO_MAP_CONCURRENCY = 16;
+  private static final int LOCK_STRIPES = 64;
 
   private final StorageManager storageManager;
   private final KeyValueStorageConfig<Object, Object> defaultConfig;
+  private final ConcurrentMap<ObjectID, KeyValueStorage<Object, Object>> storages = new ConcurrentHashMap<ObjectID, KeyValueStorage<Object, Object>>();
+  // creating and destroying the storage of an object is serialized with the other objects of its stripe only
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  // not persisted, rebuilt by the server map states when first needed
+  private final ConcurrentMap<ObjectID, ServerMapExpiryIndex> expiryIndexes = new ConcurrentHashMap<ObjectID, ServerMapExpiryIndex>();
+  private final ConcurrentMap<ObjectID, ServerMapEvictionPolicy> evictionPolicies = new ConcurrentHashMap<ObjectID, ServerMapEvictionPolicy>();
 
   public PersistentObjectFactory(final StorageManager storageManager, final StorageManagerFactory storageManagerFactory) {
+    this(storageManager, storageManagerFactory, false);
+  }
+
+  public PersistentObjectFactory(final StorageManager storageManager, final StorageManagerFactory storageManagerFactory,
+                                 final boolean usesDisk) {
     this.storageManager = storageManager;
-    defaultConfig = storageManagerFactory.wrapMapConfig(MAP_CONFIG);
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+    int concurrency = getMapConcurrency(L2Utils.getOptimalApplyStageWorkerThreads(usesDisk));
+    defaultConfig = storageManagerFactory.wrapMapConfig(ImmutableKeyValueStorageConfig
+        .builder(Object.class, Object.class)
+        .keyTransformer(LiteralSerializer.INSTANCE)
+        .valueTransformer(LiteralSerializer.INSTANCE)
+        .concurrency(concurrency).build());
   }
 
-  public synchronized KeyValueStorage<Object, Object> getKeyValueStorage(ObjectID objectID, final boolean create) throws ObjectNotFoundException {
-    KeyValueStorage<Object, Object> map = storageManager.getKeyValueStorage(objectID.toString(), Object.class, Object.class);
-    if (map == null) {
-      if (create) {
-        map = storageManager.createKeyValueStorage(objectID.toString(), defaultConfig);
-      } else {
-        throw new ObjectNotFoundException("Map for object id " + objectID + " not found.");
+  /**
+   * Returns the concurrency of the storage backing a map. The l2.objectmanager.persistor.map.concurrency property wins
+   * if set. Otherwise the storage gets one stripe per apply stage thread, rounded up to a power of two and capped at
+   * 16: applies to a single map are already serialized by its checkout, the stripes are there for the lookups and
+   * evictions that run alongside them.
+   */
+  static int getMapConcurrency(int applyStageThreads) {
+    int configured = TCPropertiesImpl.getProperties()
+        .getInt(TCPropertiesConsts.L2_OBJECTMANAGER_PERSISTOR_MAP_CONCURRENCY, 0);
+    if (configured > 0) { return configured; }
+    int threads = Math.max(1, Math.min(applyStageThreads, MAX_AUTO_MAP_CONCURRENCY));
+    return Integer.highestOneBit(threads) == threads ? threads : Integer.highestOneBit(threads) << 1;
+  }
+
+  public KeyValueStorage<Object, Object> getKeyValueStorage(ObjectID objectID, final boolean create) throws ObjectNotFoundException {
+    KeyValueStorage<Object, Object> map = storages.get(objectID);
+    if (map != null) { return map; }
+    synchronized (lockFor(objectID)) {
+      map = storages.get(objectID);
+      if (map == null) {
+        map = storageManager.getKeyValueStorage(objectID.toString(), Object.class, Object.class);
+        if (map == null) {
+          if (create) {
+            map = storageManager.createKeyValueStorage(objectID.toString(), defaultConfig);
+          } else {
+            throw new ObjectNotFoundException("Map for object id " + objectID + " not found.");
+          }
+        }
+        storages.put(objectID, map);
       }
+      return map;
+    }
+  }
+
+  public void destroyKeyValueStorage(ObjectID oid) {
+    synchronized (lockFor(oid)) {
+      expiryIndexes.remove(oid);
+      evictionPolicies.remove(oid);
+      storages.remove(oid);
+      storageManager.destroyKeyValueStorage(oid.toString());
     }
-    return map;
   }
 
-  public synchronized void destroyKeyValueStorage(ObjectID oid) {
-    storageManager.destroyKeyValueStorage(oid.toString());
+  private Object lockFor(ObjectID oid) {
+    return locks[(oid.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+  }
+
+  public ServerMapExpiryIndex getExpiryIndex(ObjectID oid) {
+    return expiryIndexes.get(oid);
+  }
+
+  public void setExpiryIndex(ObjectID oid, ServerMapExpiryIndex index) {
+    expiryIndexes.put(oid, index);
+  }
+
+  public ServerMapEvictionPolicy getEvictionPolicy(ObjectID oid) {
+    return evictionPolicies.get(oid);
+  }
+
+  public void setEvictionPolicy(ObjectID oid, ServerMapEvictionPolicy policy) {
+    evictionPolicies.put(oid, policy);
   }
 }
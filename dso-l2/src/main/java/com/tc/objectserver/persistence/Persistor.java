@@ -56,6 +56,13 @@ public class Persistor implements PrettyPrintable {
   private EvictionTransactionPersistor evictionTransactionPersistor;
 
   public Persistor(StorageManagerFactory storageManagerFactory) {
+    this(storageManagerFactory, false);
+  }
+
+  /**
+   * @param usesDisk whether the server data is on disk (restartable or hybrid), as used to size the apply stage
+   */
+  public Persistor(StorageManagerFactory storageManagerFactory, boolean usesDisk) {
     objectIDSetMaintainer = new ObjectIDSetMaintainer();
     try {
       storageManager = storageManagerFactory
@@ -66,7 +73,7 @@ public class Persistor implements PrettyPrintable {
     }
 
     persistenceTransactionProvider = new PersistenceTransactionProvider(storageManager);
-    persistentObjectFactory = new PersistentObjectFactory(storageManager, storageManagerFactory);
+    persistentObjectFactory = new PersistentObjectFactory(storageManager, storageManagerFactory, usesDisk);
     clusterStatePersistor = new ClusterStatePersistor(storageManager);
   }
 
@@ -18,6 +18,8 @@ package com.tc.stats;
 
 import org.apache.commons.collections.set.ListOrderedSet;
 
+import com.tc.async.api.StageManager;
+import com.tc.async.api.StageSnapshot;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
 import com.tc.management.RemoteManagement;
@@ -53,6 +55,7 @@ import com.tc.stats.api.DSOStats;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -103,11 +106,12 @@ public class DSO extends AbstractNotifyingMBean implements DSOMBean {
   private final IndexManager                           indexManager;
   private final ConnectionPolicy                       connectionPolicy;
   private final RemoteManagement                       remoteManagement;
+  private final StageManager                           stageManager;
 
   public DSO(final ServerManagementContext managementContext, final ServerConfigurationContext configContext,
              final MBeanServer mbeanServer, final GCStatsEventPublisher gcStatsPublisher,
              TerracottaOperatorEventHistoryProvider operatorEventHistoryProvider, OffheapStats offheapStats,
-             StorageDataStats storageStats)
+             StorageDataStats storageStats, StageManager stageManager)
       throws NotCompliantMBeanException {
     super(DSOMBean.class);
     try {
@@ -130,6 +134,7 @@ public class DSO extends AbstractNotifyingMBean implements DSOMBean {
     this.storageStats = storageStats;
     this.connectionPolicy = managementContext.getConnectionPolicy();
     this.remoteManagement = managementContext.getRemoteManagement();
+    this.stageManager = stageManager;
 
     // add various listeners (do this before the setupXXX() methods below so we don't ever miss anything)
     txnMgr.addRootListener(new TransactionManagerListener());
@@ -842,6 +847,15 @@ public class DSO extends AbstractNotifyingMBean implements DSOMBean {
     return storageStats.getStorageStats();
   }
 
+  @Override
+  public Map<String, Map<String, Long>> getStageStats() {
+    Map<String, Map<String, Long>> stageStats = new LinkedHashMap<String, Map<String, Long>>();
+    for (StageSnapshot snapshot : stageManager.getSnapshots()) {
+      stageStats.put(snapshot.getName(), snapshot.toMap());
+    }
+    return stageStats;
+  }
+
   @Override
   public RemoteManagement getRemoteManagement() {
     return remoteManagement;
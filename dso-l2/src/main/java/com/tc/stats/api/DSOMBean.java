@@ -119,6 +119,12 @@ public interface DSOMBean extends DSOStats, OffheapStats, StorageDataStats, DGCM
 
   Map<String, Integer> getUnreadOperatorEventCount();
 
+  /**
+   * Recent queue wait, handler service time, queue depth and batch size metrics of every SEDA stage, keyed by stage
+   * name. See {@link com.tc.async.api.StageSnapshot#toMap()} for the metric names.
+   */
+  Map<String, Map<String, Long>> getStageStats();
+
   RemoteManagement getRemoteManagement();
 
 }
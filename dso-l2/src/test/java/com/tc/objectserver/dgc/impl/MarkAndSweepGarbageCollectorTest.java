@@ -31,7 +31,9 @@ import com.tc.objectserver.persistence.impl.TestMutableSequence;
 import com.tc.util.sequence.DGCSequenceProvider;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import junit.framework.TestCase;
@@ -63,8 +65,8 @@ public class MarkAndSweepGarbageCollectorTest extends TestCase {
   @Override
   protected void setUp() throws Exception {
     super.setUp();
-    this.lookedUp = new HashSet<ObjectID>();
-    this.released = new HashSet<ObjectID>();
+    this.lookedUp = Collections.synchronizedSet(new HashSet<ObjectID>());
+    this.released = Collections.synchronizedSet(new HashSet<ObjectID>());
     this.objectManager = new GCTestObjectManager(this.lookedUp, this.released, this.transactionProvider);
     this.stateManager = new TestClientStateManager();
     this.garbageCollectionManager = mock(GarbageCollectionManager.class);
@@ -140,6 +142,48 @@ public class MarkAndSweepGarbageCollectorTest extends TestCase {
     assertTrue(toDelete.size() == 1);
   }
 
+  public void testWideGraphWithGarbage() {
+    assertWideGraphGarbage(1);
+  }
+
+  public void testWideGraphWithGarbageParallelMark() {
+    assertWideGraphGarbage(4);
+  }
+
+  private void assertWideGraphGarbage(int markParallelism) {
+    this.collector = new MarkAndSweepGarbageCollector(new ObjectManagerConfig(300000, true, true, true),
+                                                      this.objectManager, this.stateManager,
+                                                      new GarbageCollectionInfoPublisherImpl(),
+                                                      new DGCSequenceProvider(new TestMutableSequence()),
+                                                      markParallelism);
+    this.objectManager.setGarbageCollector(this.collector);
+    // wide enough that the mark work gets split across workers
+    List<TestManagedObject> level = new ArrayList<TestManagedObject>();
+    level.add(this.root1);
+    for (int depth = 0; depth < 3; depth++) {
+      List<TestManagedObject> next = new ArrayList<TestManagedObject>();
+      for (TestManagedObject parent : level) {
+        for (int i = 0; i < 8; i++) {
+          TestManagedObject child = createObject(8);
+          parent.setReference(i, child.getID());
+          next.add(child);
+        }
+      }
+      level = next;
+    }
+    TestManagedObject garbage1 = createObject(3);
+    TestManagedObject garbage2 = createObject(3);
+    garbage1.setReference(0, garbage2.getID());
+    garbage2.setReference(0, level.get(0).getID());
+
+    Set toDelete = this.collector.collect(new FullGCHook(this.collector, this.objectManager, this.stateManager, false),
+                                          this.filter, this.objectManager.getRootIDs(),
+                                          this.objectManager.getAllObjectIDs());
+    assertEquals(2, toDelete.size());
+    assertTrue(toDelete.contains(garbage1.getID()));
+    assertTrue(toDelete.contains(garbage2.getID()));
+  }
+
   public void testFilter() {
     final TestManagedObject tmo1 = createObject(3);
     final TestManagedObject tmo2 = createObject(3);
@@ -16,22 +16,32 @@
  */
 package com.tc.objectserver.handler;
 
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
+import com.tc.async.api.EventContext;
+import com.tc.async.api.Sink;
+import com.tc.async.api.Stage;
 import com.tc.async.impl.MockStage;
+import com.tc.invalidation.Invalidations;
 import com.tc.net.ClientID;
+import com.tc.net.NodeID;
 import com.tc.net.ServerID;
 import com.tc.net.protocol.tcm.ChannelID;
 import com.tc.net.protocol.tcm.MessageChannel;
 import com.tc.net.protocol.tcm.TCMessageType;
 import com.tc.object.ObjectID;
+import com.tc.object.dna.api.DNA;
 import com.tc.object.dna.api.LogicalChangeID;
 import com.tc.object.dna.api.LogicalChangeResult;
 import com.tc.object.gtx.GlobalTransactionID;
@@ -40,6 +50,7 @@ import com.tc.object.net.DSOChannelManager;
 import com.tc.object.tx.ServerTransactionID;
 import com.tc.object.tx.TransactionID;
 import com.tc.objectserver.context.BroadcastChangeContext;
+import com.tc.objectserver.context.ObjectRequestServerContextImpl;
 import com.tc.objectserver.core.api.ServerConfigurationContext;
 import com.tc.objectserver.core.api.TestDNA;
 import com.tc.objectserver.event.ClientChannelMonitor;
@@ -61,8 +72,14 @@ import com.tc.stats.counter.sampled.derived.SampledRateCounterConfig;
 import com.tc.stats.counter.sampled.derived.SampledRateCounterImpl;
 import com.tc.test.TCTestCase;
 
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public class BroadcastChangeHandlerTest extends TCTestCase {
 
@@ -172,6 +189,97 @@ public class BroadcastChangeHandlerTest extends TCTestCase {
     verify(serverEventBuffer).removeEventsForTransaction(gid);
   }
 
+  public void testPartitionedBroadcast() throws Exception {
+    createChannels(5);
+    MockStage clientChangesStage = new MockStage(ServerConfigurationContext.BROADCAST_CLIENT_CHANGES_STAGE);
+    when(serverCfgCxt.getStage(ServerConfigurationContext.BROADCAST_CLIENT_CHANGES_STAGE)).thenReturn(clientChangesStage);
+    BroadcastClientChangesHandler clientChangesHandler = new BroadcastClientChangesHandler(sci,
+        new ObjectStatsRecorder(), srci, mock(InvalidateObjectManager.class));
+    clientChangesHandler.initialize(serverCfgCxt);
+    handler = new BroadcastChangeHandler(clientChangesHandler, 3);
+    handler.initialize(serverCfgCxt);
+    for (int i = 0; i < 5; i++) {
+      clientStateManager.addReference(new ClientID(i), new ObjectID(1));
+    }
+
+    handler.handleEvent(new BroadcastChangeContext(txn, new GlobalTransactionID(1), new NotifiedWaiters(),
+        applyTransactionInfo));
+    List<EventContext> partitions = Lists.newArrayList(clientChangesStage.sink.queue);
+    assertFalse(partitions.isEmpty());
+    assertTrue(partitions.size() <= 3);
+    for (EventContext partition : partitions.subList(0, partitions.size() - 1)) {
+      clientChangesHandler.handleEvent(partition);
+    }
+    verify(transactionManager, never()).broadcasted(new ClientID(1), new TransactionID(1));
+    clientChangesHandler.handleEvents(partitions.subList(partitions.size() - 1, partitions.size()));
+    verify(transactionManager).broadcasted(new ClientID(1), new TransactionID(1));
+
+    MessageChannel[] channels = channelManager.getActiveChannels();
+    for (int i = 0; i < channels.length; i++) {
+      BroadcastTransactionMessage message = (BroadcastTransactionMessage) channels[i]
+          .createMessage(TCMessageType.BROADCAST_TRANSACTION_MESSAGE);
+      if (i == 1) {
+        verify(message, never()).send();
+      } else {
+        verify(message).send();
+        verify(transactionManager).addWaitingForAcknowledgement(new ClientID(1), new TransactionID(1), new ClientID(i));
+      }
+    }
+  }
+
+  public void testInlineBroadcastSendsBeforeWaitingOnNextTransaction() throws Exception {
+    TCPropertiesImpl.getProperties().setProperty(TCPropertiesConsts.L2_TRANSACTIONMANAGER_BROADCAST_DURABILITY_LEVEL, "DISK");
+    createBroadcastHandler();
+    clientStateManager.addReference(new ClientID(0), new ObjectID(1));
+    BroadcastTransactionMessage message = (BroadcastTransactionMessage) channelManager.getActiveChannels()[0]
+        .createMessage(TCMessageType.BROADCAST_TRANSACTION_MESSAGE);
+
+    ServerTransaction txn2 = createTransaction(1, 2, 2);
+    ApplyTransactionInfo applyTransactionInfo2 = new ApplyTransactionInfo();
+    applyTransactionInfo.getApplyResultRecorder().recordResult(new LogicalChangeID(1), new LogicalChangeResult(true));
+    applyTransactionInfo2.getApplyResultRecorder().recordResult(new LogicalChangeID(2), new LogicalChangeResult(true));
+    handler.handleEvents(Arrays.asList(
+        new BroadcastChangeContext(txn, new GlobalTransactionID(1), new NotifiedWaiters(), applyTransactionInfo),
+        new BroadcastChangeContext(txn2, new GlobalTransactionID(2), new NotifiedWaiters(), applyTransactionInfo2)));
+
+    InOrder inOrder = inOrder(transactionManager, message);
+    inOrder.verify(transactionManager).waitForTransactionCommit(txn.getServerTransactionID());
+    inOrder.verify(message).send();
+    inOrder.verify(transactionManager).broadcasted(new ClientID(1), new TransactionID(1));
+    inOrder.verify(transactionManager).waitForTransactionCommit(txn2.getServerTransactionID());
+    inOrder.verify(message).send();
+    inOrder.verify(transactionManager).broadcasted(new ClientID(1), new TransactionID(2));
+  }
+
+  public void testLookupsRequestedBeforeChangesAreSent() throws Exception {
+    Stage objectRequestStage = mock(Stage.class);
+    Sink objectRequestSink = mock(Sink.class);
+    when(objectRequestStage.getSink()).thenReturn(objectRequestSink);
+    when(serverCfgCxt.getStage(ServerConfigurationContext.MANAGED_OBJECT_REQUEST_STAGE)).thenReturn(objectRequestStage);
+    createBroadcastHandler();
+    doAnswer(new Answer<List<DNA>>() {
+      @Override
+      public List<DNA> answer(InvocationOnMock invocation) throws Throwable {
+        Set<ObjectID> lookupObjectIDs = invocation.getArgument(3);
+        lookupObjectIDs.add(new ObjectID(2));
+        return (List<DNA>) invocation.callRealMethod();
+      }
+    }).when(clientStateManager).createPrunedChangesAndAddObjectIDTo(any(Collection.class),
+        any(ApplyTransactionInfo.class), any(NodeID.class), any(Set.class), any(Invalidations.class));
+    BroadcastTransactionMessage message = (BroadcastTransactionMessage) channelManager.getActiveChannels()[0]
+        .createMessage(TCMessageType.BROADCAST_TRANSACTION_MESSAGE);
+
+    handler.handleEvents(Arrays.asList(
+        new BroadcastChangeContext(txn, new GlobalTransactionID(1), new NotifiedWaiters(), applyTransactionInfo),
+        new BroadcastChangeContext(createTransaction(1, 2, 2), new GlobalTransactionID(2), new NotifiedWaiters(),
+            new ApplyTransactionInfo())));
+
+    InOrder inOrder = inOrder(objectRequestSink, message);
+    inOrder.verify(objectRequestSink).add(any(ObjectRequestServerContextImpl.class));
+    inOrder.verify(message).send();
+    verify(objectRequestSink, times(2)).add(any(ObjectRequestServerContextImpl.class));
+  }
+
   private static ServerTransaction createTransaction(long sourceID, long txID, long gid) {
     ServerTransaction transaction = mock(ServerTransaction.class);
     when(transaction.getSourceID()).thenReturn(new ClientID(sourceID));
@@ -280,4 +280,95 @@ public class ClientStateManagerTest extends TestCase {
     ClientID client2 = new ClientID(2);
     assertFalse(clientStateManager.addReference(client2, oid));
   }
+
+  public void testInvalidationsFollowReferences() throws Exception {
+    ClientStateManagerImpl stateManager = new ClientStateManagerImpl();
+    ClientID cid1 = new ClientID(1);
+    ClientID cid2 = new ClientID(2);
+    stateManager.startupNode(cid1);
+    stateManager.startupNode(cid2);
+
+    stateManager.addReference(cid1, new ObjectID(1));
+    stateManager.addReferences(cid1, Sets.newHashSet(new ObjectID(2), new ObjectID(3)));
+    stateManager.addReferences(cid2, Sets.newHashSet(new ObjectID(3), new ObjectID(4)));
+    stateManager.removeReferences(cid1, Sets.newHashSet(new ObjectID(1), new ObjectID(3)), new HashSet<ObjectID>());
+    stateManager.shutdownNode(cid2);
+
+    // the slot of the disconnected client is reused and starts empty
+    ClientID cid3 = new ClientID(3);
+    stateManager.startupNode(cid3);
+
+    ObjectID mapID = new ObjectID(100);
+    ApplyTransactionInfo applyInfo = invalidating(mapID, 1, 2, 3, 4);
+    assertEquals(Sets.newHashSet(new ObjectID(2)), invalidationsFor(stateManager, applyInfo, cid1, mapID));
+    assertEquals(Collections.emptySet(), invalidationsFor(stateManager, applyInfo, cid3, mapID));
+  }
+
+  public void testInvalidationsSeeReferencesAddedAfterFirstBroadcast() throws Exception {
+    ClientStateManagerImpl stateManager = new ClientStateManagerImpl();
+    ClientID cid1 = new ClientID(1);
+    ClientID cid2 = new ClientID(2);
+    stateManager.startupNode(cid1);
+    stateManager.startupNode(cid2);
+    stateManager.addReference(cid1, new ObjectID(1));
+    stateManager.addReference(cid2, new ObjectID(2));
+
+    ObjectID mapID = new ObjectID(100);
+    ApplyTransactionInfo applyInfo = invalidating(mapID, 1, 2, 3);
+    assertEquals(Sets.newHashSet(new ObjectID(1)), invalidationsFor(stateManager, applyInfo, cid1, mapID));
+
+    // client 2 faults in an invalidated object and drops another between the two broadcasts
+    stateManager.addReference(cid2, new ObjectID(3));
+    stateManager.removeReferences(cid2, Sets.newHashSet(new ObjectID(2)), new HashSet<ObjectID>());
+    assertEquals(Sets.newHashSet(new ObjectID(3)), invalidationsFor(stateManager, applyInfo, cid2, mapID));
+  }
+
+  public void testInvalidationsForManyClients() throws Exception {
+    ClientStateManagerImpl stateManager = new ClientStateManagerImpl();
+    int clients = 130;
+    ObjectID shared = new ObjectID(1);
+    for (int i = 0; i < clients; i++) {
+      ClientID cid = new ClientID(i + 1);
+      stateManager.startupNode(cid);
+      stateManager.addReference(cid, shared);
+      stateManager.addReference(cid, new ObjectID(1000 + i));
+    }
+    // dropping the shared object on every other client shrinks its bitmap back to the remaining slots
+    for (int i = 0; i < clients; i += 2) {
+      stateManager.removeReferences(new ClientID(i + 1), Sets.newHashSet(shared), new HashSet<ObjectID>());
+    }
+
+    ObjectID mapID = new ObjectID(100);
+    ApplyTransactionInfo applyInfo = invalidating(mapID, 1, 1000, 1001, 1129);
+    for (int i = 0; i < clients; i++) {
+      Set<ObjectID> expected = new HashSet<ObjectID>();
+      if (i % 2 == 1) {
+        expected.add(shared);
+      }
+      if (i == 0 || i == 1 || i == 129) {
+        expected.add(new ObjectID(1000 + i));
+      }
+      assertEquals("client " + i, expected, invalidationsFor(stateManager, applyInfo, new ClientID(i + 1), mapID));
+    }
+  }
+
+  private static ApplyTransactionInfo invalidating(ObjectID mapID, long... oids) {
+    ApplyTransactionInfo applyInfo = new ApplyTransactionInfo();
+    for (long oid : oids) {
+      applyInfo.invalidate(mapID, new ObjectID(oid));
+    }
+    return applyInfo;
+  }
+
+  private static Set<ObjectID> invalidationsFor(ClientStateManagerImpl stateManager, ApplyTransactionInfo applyInfo,
+                                                ClientID cid, ObjectID mapID) {
+    Invalidations forClient = new Invalidations();
+    stateManager.createPrunedChangesAndAddObjectIDTo(Collections.<DNA> emptyList(), applyInfo, cid,
+                                                     new BitSetObjectIDSet(), forClient);
+    Set<ObjectID> oids = new HashSet<ObjectID>();
+    if (!forClient.isEmpty()) {
+      oids.addAll(forClient.getObjectIDSetForMapId(mapID));
+    }
+    return oids;
+  }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.locks.timer;
+
+import com.tc.async.impl.MockSink;
+import com.tc.net.ClientID;
+import com.tc.object.locks.StringLockID;
+import com.tc.object.locks.ThreadID;
+import com.tc.objectserver.locks.timer.LockTimer.LockTimerContext;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class LockTimerTest extends TestCase {
+
+  private LockTimer timer;
+
+  @Override
+  protected void setUp() throws Exception {
+    timer = new LockTimer(5, 8);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    timer.shutdown();
+  }
+
+  public void testTimeoutsExpireInDeadlineOrder() throws Exception {
+    final List<LockTimerContext> timedOut = new CopyOnWriteArrayList<LockTimerContext>();
+    final CountDownLatch latch = new CountDownLatch(3);
+    TimerCallback callback = new TimerCallback() {
+      @Override
+      public void timerTimeout(LockTimerContext callbackObject) {
+        timedOut.add(callbackObject);
+        latch.countDown();
+      }
+    };
+    timer.start();
+    // longer than a full rotation of the wheel
+    LockTimerContext late = context(1);
+    LockTimerContext middle = context(2);
+    LockTimerContext early = context(3);
+    long start = System.nanoTime();
+    timer.scheduleTimer(callback, 150, late);
+    timer.scheduleTimer(callback, 60, middle);
+    timer.scheduleTimer(callback, 0, early);
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+    assertEquals(early, timedOut.get(0));
+    assertEquals(middle, timedOut.get(1));
+    assertEquals(late, timedOut.get(2));
+  }
+
+  public void testCanceledTimeoutDoesNotExpire() throws Exception {
+    final List<LockTimerContext> timedOut = new CopyOnWriteArrayList<LockTimerContext>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    TimerCallback callback = new TimerCallback() {
+      @Override
+      public void timerTimeout(LockTimerContext callbackObject) {
+        timedOut.add(callbackObject);
+        latch.countDown();
+      }
+    };
+    timer.start();
+    LockTimeout canceled = timer.scheduleTimer(callback, 20, context(1));
+    LockTimerContext kept = context(2);
+    LockTimeout expired = timer.scheduleTimer(callback, 40, kept);
+    assertTrue(canceled.cancel());
+    assertFalse(canceled.cancel());
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertFalse(expired.cancel());
+    assertEquals(1, timedOut.size());
+    assertEquals(kept, timedOut.get(0));
+  }
+
+  public void testTimeoutsScheduledBeforeStart() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(2);
+    TimerCallback callback = new TimerCallback() {
+      @Override
+      public void timerTimeout(LockTimerContext callbackObject) {
+        latch.countDown();
+      }
+    };
+    timer.scheduleTimer(callback, 1, context(1));
+    timer.scheduleTimer(callback, 30, context(2));
+    Thread.sleep(50);
+    assertEquals(2, latch.getCount());
+
+    timer.start();
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+  }
+
+  public void testExpiredTimeoutsAreHandedToSink() throws Exception {
+    final List<Thread> callbackThreads = new CopyOnWriteArrayList<Thread>();
+    TimerCallback callback = new TimerCallback() {
+      @Override
+      public void timerTimeout(LockTimerContext callbackObject) {
+        callbackThreads.add(Thread.currentThread());
+      }
+    };
+    MockSink sink = new MockSink();
+    timer.setExpirySink(sink);
+    timer.start();
+    LockTimerContext context = context(1);
+    timer.scheduleTimer(callback, 10, context);
+
+    LockTimeoutContext expired = (LockTimeoutContext) sink.queue.poll(10, TimeUnit.SECONDS);
+    assertNotNull(expired);
+    assertEquals(context, expired.getLockTimerContext());
+    assertEquals(context.getClientID(), expired.getKey());
+    assertTrue(callbackThreads.isEmpty());
+
+    expired.expire();
+    assertEquals(1, callbackThreads.size());
+    assertEquals(Thread.currentThread(), callbackThreads.get(0));
+  }
+
+  public void testIdleWheelParksUntilScheduled() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    TimerCallback callback = new TimerCallback() {
+      @Override
+      public void timerTimeout(LockTimerContext callbackObject) {
+        latch.countDown();
+      }
+    };
+    timer.start();
+    Thread worker = awaitWorkerState(Thread.State.WAITING);
+    // an idle wheel does not wake up for its ticks
+    Thread.sleep(100);
+    assertEquals(Thread.State.WAITING, worker.getState());
+
+    long start = System.nanoTime();
+    timer.scheduleTimer(callback, 30, context(1));
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 30);
+    awaitWorkerState(Thread.State.WAITING);
+  }
+
+  private static Thread awaitWorkerState(Thread.State state) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline) {
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if ("DSO Lock Object.wait() timer".equals(thread.getName()) && thread.getState() == state) { return thread; }
+      }
+      Thread.sleep(10);
+    }
+    fail("lock timer thread not " + state);
+    return null;
+  }
+
+  public void testInvalidDelay() {
+    TimerCallback callback = new TimerCallback() {
+      @Override
+      public void timerTimeout(LockTimerContext callbackObject) {
+        fail();
+      }
+    };
+    try {
+      timer.scheduleTimer(callback, -1, context(1));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      timer.scheduleTimer(callback, Long.MAX_VALUE, context(1));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static LockTimerContext context(int id) {
+    return new LockTimerContext(new StringLockID("lock" + id), new ThreadID(id), new ClientID(id), null);
+  }
+}
@@ -20,6 +20,7 @@ import static java.util.Arrays.asList;
 import static org.mockito.AdditionalMatchers.or;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -30,6 +31,8 @@ import static org.mockito.Mockito.when;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.junit.Assert;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.terracotta.corestorage.KeyValueStorage;
 
 import com.google.common.collect.ImmutableSet;
@@ -45,6 +48,7 @@ import com.tc.object.dna.api.DNA.DNAType;
 import com.tc.object.dna.api.DNAWriter;
 import com.tc.object.dna.api.PhysicalAction;
 import com.tc.object.tx.ServerTransactionID;
+import com.tc.objectserver.api.ServerMapEvictionPolicy;
 import com.tc.objectserver.event.ClientChannelMonitor;
 import com.tc.objectserver.event.MutationEventPublisher;
 import com.tc.objectserver.impl.SamplingType;
@@ -54,8 +58,13 @@ import com.tc.server.ServerEventType;
 import com.tc.test.TCTestCase;
 import com.tc.util.Events;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ConcurrentDistributedServerMapManagedObjectStateTest extends TCTestCase {
   private static final ClientID                            CLIENT_ID = new ClientID(1);
@@ -79,6 +88,7 @@ public class ConcurrentDistributedServerMapManagedObjectStateTest extends TCTest
     keyValueStorage = mock(KeyValueStorage.class);
     persistentObjectFactory = mock(PersistentObjectFactory.class);
     when(persistentObjectFactory.getKeyValueStorage(oid, true)).thenReturn(keyValueStorage);
+    when(persistentObjectFactory.getKeyValueStorage(oid, false)).thenReturn(keyValueStorage);
     state = new ConcurrentDistributedServerMapManagedObjectState(0, oid, persistentObjectFactory);
     setInvalidateOnChange(state, true);
 
@@ -91,6 +101,87 @@ public class ConcurrentDistributedServerMapManagedObjectStateTest extends TCTest
     applyTransactionInfo = searchableApplyInfo();
   }
 
+  public void testReadStateWrittenBeforeEvictionPolicy() throws Exception {
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.CACHE_NAME_FIELDNAME,
+        "cache", false), oid, applyTransactionInfo);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeLong(0); // class id
+    out.writeLong(oid.toLong());
+    out.writeInt(0); // lock type
+    out.writeInt(0); // max tti
+    out.writeInt(0); // max ttl
+    out.writeInt(0); // max count in cluster
+    out.writeBoolean(true); // invalidate on change
+    out.writeUTF("cache");
+    out.writeBoolean(false); // local cache
+    out.writeBoolean(false); // compression
+    out.writeBoolean(false); // copy on read
+    out.writeBoolean(false); // eviction
+    out.close();
+
+    ConcurrentDistributedServerMapManagedObjectState read = readState(bytes.toByteArray());
+    assertEquals(state, read);
+    assertEquals(ServerMapEvictionPolicies.resolveName(""), read.getEvictionPolicy().getName());
+  }
+
+  public void testEvictionPolicySurvivesWriteAndRead() throws Exception {
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.CACHE_NAME_FIELDNAME,
+        "cache", false), oid, applyTransactionInfo);
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.EVICTION_POLICY_FIELDNAME,
+        "tinylfu", false), oid, applyTransactionInfo);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    state.writeTo(out);
+    out.close();
+
+    ConcurrentDistributedServerMapManagedObjectState read = readState(bytes.toByteArray());
+    assertEquals(state, read);
+    assertEquals(TinyLfuServerMapEvictionPolicy.NAME, read.getEvictionPolicy().getName());
+  }
+
+  public void testUnknownEvictionPolicyIsCreatedOnce() throws Exception {
+    final AtomicReference<ServerMapEvictionPolicy> policies = new AtomicReference<ServerMapEvictionPolicy>();
+    when(persistentObjectFactory.getEvictionPolicy(oid)).thenAnswer(new Answer<ServerMapEvictionPolicy>() {
+      @Override
+      public ServerMapEvictionPolicy answer(InvocationOnMock invocation) {
+        return policies.get();
+      }
+    });
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        policies.set(invocation.<ServerMapEvictionPolicy>getArgument(1));
+        return null;
+      }
+    }).when(persistentObjectFactory).setEvictionPolicy(eq(oid), any(ServerMapEvictionPolicy.class));
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.EVICTION_POLICY_FIELDNAME,
+        "unknown", false), oid, applyTransactionInfo);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(RandomServerMapEvictionPolicy.NAME, state.getEvictionPolicy().getName());
+    }
+    verify(persistentObjectFactory, times(1)).setEvictionPolicy(eq(oid), any(ServerMapEvictionPolicy.class));
+
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.EVICTION_POLICY_FIELDNAME,
+        "TinyLFU", false), oid, applyTransactionInfo);
+    assertEquals(TinyLfuServerMapEvictionPolicy.NAME, state.getEvictionPolicy().getName());
+    assertEquals(TinyLfuServerMapEvictionPolicy.NAME, state.getEvictionPolicy().getName());
+    verify(persistentObjectFactory, times(2)).setEvictionPolicy(eq(oid), any(ServerMapEvictionPolicy.class));
+  }
+
+  private ConcurrentDistributedServerMapManagedObjectState readState(byte[] bytes) throws Exception {
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+    try {
+      return (ConcurrentDistributedServerMapManagedObjectState) ConcurrentDistributedServerMapManagedObjectState
+          .readFrom(in, persistentObjectFactory);
+    } finally {
+      in.close();
+    }
+  }
+
   public void testCapacityEvictionWhenOverLimit() throws Exception {
     when(keyValueStorage.size()).thenReturn(115L);
     state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.MAX_COUNT_IN_CLUSTER_FIELDNAME,
@@ -121,7 +212,7 @@ public class ConcurrentDistributedServerMapManagedObjectStateTest extends TCTest
     DNAWriter dnaWriter = mock(DNAWriter.class);
     state.dehydrate(oid, dnaWriter, DNAType.L2_SYNC);
 
-    verify(dnaWriter, times(10)).addPhysicalAction(anyString(), any());
+    verify(dnaWriter, times(11)).addPhysicalAction(anyString(), any());
     verify(dnaWriter).addLogicalAction(LogicalOperation.PUT, new Object[] { "key1", value1.getObjectID(), value1.getCreationTime(),
         value1.getLastAccessedTime(), value1.getTimeToIdle(), value1.getTimeToLive() });
     verify(dnaWriter).addLogicalAction(LogicalOperation.PUT, new Object[] { "key2", value2.getObjectID(), value2.getCreationTime(),
@@ -131,7 +222,7 @@ public class ConcurrentDistributedServerMapManagedObjectStateTest extends TCTest
   public void testL1FaultDehydrate() throws Exception {
     DNAWriter dnaWriter = mock(DNAWriter.class);
     state.dehydrate(oid, dnaWriter, DNAType.L1_FAULT);
-    verify(dnaWriter, times(10)).addPhysicalAction(anyString(), any());
+    verify(dnaWriter, times(11)).addPhysicalAction(anyString(), any());
     verify(dnaWriter, never()).addLogicalAction(any(LogicalOperation.class), any(Object[].class));
   }
 
@@ -420,6 +511,55 @@ public class ConcurrentDistributedServerMapManagedObjectStateTest extends TCTest
         invalidateOnChange, false), ObjectID.NULL_ID, searchableApplyInfo());
   }
 
+  public void testExpiredSamplesFollowMapTTIWithoutRebuild() throws Exception {
+    final ServerMapExpiryIndex[] expiryIndex = new ServerMapExpiryIndex[1];
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        expiryIndex[0] = invocation.getArgument(1);
+        return null;
+      }
+    }).when(persistentObjectFactory).setExpiryIndex(eq(oid), any(ServerMapExpiryIndex.class));
+    when(persistentObjectFactory.getExpiryIndex(oid)).thenAnswer(new Answer<ServerMapExpiryIndex>() {
+      @Override
+      public ServerMapExpiryIndex answer(InvocationOnMock invocation) {
+        return expiryIndex[0];
+      }
+    });
+    final long now = System.currentTimeMillis() / 1000;
+    when(keyValueStorage.keySet()).thenReturn(new HashSet<Object>(asList("idle", "fresh")));
+    when(keyValueStorage.get("idle")).thenReturn(new CDSMValue(new ObjectID(2), now - 1000, now - 1000, 0, 0));
+    when(keyValueStorage.get("fresh")).thenReturn(new CDSMValue(new ObjectID(3), now, now, 0, 0));
+    final ClientObjectReferenceSet clientObjectRefSet = mock(ClientObjectReferenceSet.class);
+
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.MAX_TTI_SECONDS_FIELDNAME,
+        100, false), oid, applyTransactionInfo);
+    Assert.assertEquals(Sets.newHashSet("idle"),
+                        state.getRandomSamples(10, clientObjectRefSet, SamplingType.FOR_EXPIRATION).keySet());
+
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.MAX_TTI_SECONDS_FIELDNAME,
+        2000, false), oid, applyTransactionInfo);
+    Assert.assertEquals(Sets.newHashSet(),
+                        state.getRandomSamples(10, clientObjectRefSet, SamplingType.FOR_EXPIRATION).keySet());
+    verify(keyValueStorage, times(1)).keySet();
+  }
+
+  public void testMapTooLargeForExpiryIndexIsSampled() throws Exception {
+    final long now = System.currentTimeMillis() / 1000;
+    when(keyValueStorage.size()).thenReturn(1000000L);
+    when(keyValueStorage.keySet()).thenReturn(new HashSet<Object>(asList("idle", "fresh")));
+    when(keyValueStorage.get("idle")).thenReturn(new CDSMValue(new ObjectID(2), now - 1000, now - 1000, 0, 0));
+    when(keyValueStorage.get("fresh")).thenReturn(new CDSMValue(new ObjectID(3), now, now, 0, 0));
+    state.applyPhysicalAction(new PhysicalAction(ConcurrentDistributedServerMapManagedObjectState.MAX_TTI_SECONDS_FIELDNAME,
+        100, false), oid, applyTransactionInfo);
+
+    // no index is built, the samples are drawn at random as for capacity eviction
+    Assert.assertEquals(Sets.newHashSet("idle", "fresh"),
+                        state.getRandomSamples(2, mock(ClientObjectReferenceSet.class), SamplingType.FOR_EXPIRATION)
+                            .keySet());
+    verify(persistentObjectFactory, never()).setExpiryIndex(eq(oid), any(ServerMapExpiryIndex.class));
+  }
+
   public void testRegisterServerEventListener() throws Exception {
     ClientID client11 = new ClientID(11);
     ClientID client22 = new ClientID(22);
@@ -24,6 +24,14 @@ import com.tc.object.dna.api.DNA.DNAType;
 import com.tc.objectserver.core.api.ManagedObjectState;
 import com.tc.util.Assert;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 public class ListManagedObjectStateTest extends AbstractTestManagedObjectState {
 
   // override due to difference on dehydrate
@@ -79,4 +87,101 @@ public class ListManagedObjectStateTest extends AbstractTestManagedObjectState {
     basicTestUnit(className, ManagedObjectState.LIST_TYPE, cursor, 2);
   }
 
+  public void testHeadAndMiddleOperationsKeepOrder() throws Exception {
+    final String className = ManagedObjectStateStaticConfig.TOOLKIT_LIST.getClientClassName();
+    final ManagedObjectState state = createManagedObjectState(className, new TestDNACursor(), new ObjectID(3));
+    final List<Object> expected = new ArrayList<Object>();
+    final Random random = new Random(11);
+    for (int i = 0; i < 2000; i++) {
+      final TestDNACursor cursor = new TestDNACursor();
+      final ObjectID value = new ObjectID(10000 + i);
+      final int size = expected.size();
+      switch (random.nextInt(7)) {
+        case 0:
+        case 1:
+          cursor.addLogicalAction(LogicalOperation.ADD, new Object[] { value });
+          expected.add(value);
+          break;
+        case 2:
+          if (size > 0) {
+            cursor.addLogicalAction(LogicalOperation.REMOVE_AT, new Object[] { Integer.valueOf(0) });
+            expected.remove(0);
+          }
+          break;
+        case 3: {
+          final int index = random.nextInt(size + 1);
+          cursor.addLogicalAction(LogicalOperation.ADD_AT, new Object[] { Integer.valueOf(index), value });
+          expected.add(index, value);
+          break;
+        }
+        case 4:
+          if (size > 0) {
+            final int index = random.nextInt(size);
+            cursor.addLogicalAction(LogicalOperation.REMOVE_AT, new Object[] { Integer.valueOf(index) });
+            expected.remove(index);
+          }
+          break;
+        case 5:
+          if (size > 0) {
+            final int from = random.nextInt(size);
+            final int to = from + random.nextInt(Math.min(5, size - from) + 1);
+            cursor.addLogicalAction(LogicalOperation.REMOVE_RANGE,
+                                    new Object[] { Integer.valueOf(from), Integer.valueOf(to) });
+            expected.subList(from, to).clear();
+          }
+          break;
+        default:
+          if (size > 0) {
+            final int index = random.nextInt(size);
+            cursor.addLogicalAction(LogicalOperation.SET, new Object[] { Integer.valueOf(index), value });
+            expected.set(index, value);
+            if (random.nextBoolean()) {
+              cursor.addLogicalAction(LogicalOperation.REMOVE, new Object[] { value });
+              expected.remove(value);
+            }
+          }
+      }
+      state.apply(this.objectID, cursor, new ApplyTransactionInfo());
+    }
+
+    Assert.assertEquals(expected, dehydratedElements(state));
+    Assert.assertEquals(expected.size(), state.getObjectReferences().size());
+  }
+
+  public void testReadStateWrittenInOldLayout() throws Exception {
+    final List<Object> elements = new ArrayList<Object>();
+    elements.add(new ObjectID(2002));
+    elements.add("literal");
+    elements.add(new ObjectID(2003));
+
+    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    final ObjectOutputStream out = new ObjectOutputStream(bout);
+    out.writeLong(ManagedObjectStateStaticConfig.TOOLKIT_LIST.ordinal());
+    out.writeInt(elements.size());
+    for (Object element : elements) {
+      out.writeObject(element);
+    }
+    out.close();
+
+    final ManagedObjectState state = ManagedObjectStateFactory.getInstance()
+        .readManagedObjectStateFrom(new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray())),
+                                    ManagedObjectState.LIST_TYPE, new ObjectID(4));
+    Assert.assertEquals(elements, dehydratedElements(state));
+    Assert.assertEquals(2, state.getObjectReferences().size());
+
+    // written back in the positional layout
+    basicReadWriteEqual(ManagedObjectState.LIST_TYPE, state);
+  }
+
+  private List<Object> dehydratedElements(final ManagedObjectState state) {
+    final TestDNAWriter dnaWriter = new TestDNAWriter();
+    state.dehydrate(this.objectID, dnaWriter, DNAType.L1_FAULT);
+    final TestDNACursor dehydrated = dnaWriter.getDNACursor();
+    final List<Object> actual = new ArrayList<Object>();
+    while (dehydrated.next()) {
+      actual.add(dehydrated.getLogicalAction().getParameters()[0]);
+    }
+    return actual;
+  }
+
 }
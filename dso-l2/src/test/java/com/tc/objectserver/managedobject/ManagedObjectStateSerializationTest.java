@@ -98,6 +98,8 @@ public class ManagedObjectStateSerializationTest extends ManagedObjectStateSeria
                              Boolean.valueOf(false), false);
     cursor.addPhysicalAction(ConcurrentDistributedServerMapManagedObjectState.EVICTION_ENABLED_FIELDNAME,
                              Boolean.valueOf(false), false);
+    cursor.addPhysicalAction(ConcurrentDistributedServerMapManagedObjectState.EVICTION_POLICY_FIELDNAME, "tinylfu",
+                             false);
 
     cursor.addLogicalAction(LogicalOperation.PUT, new Object[] { new ObjectID(2001), new ObjectID(2003), 0L, 0L, 0L, 0L });
     cursor.addLogicalAction(LogicalOperation.PUT, new Object[] { new ObjectID(2002), new ObjectID(2004), 0L, 0L, 0L, 0L });
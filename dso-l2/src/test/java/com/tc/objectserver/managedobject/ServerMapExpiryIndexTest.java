@@ -0,0 +1,153 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.managedobject;
+
+import com.tc.object.ObjectID;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+public class ServerMapExpiryIndexTest extends TestCase {
+
+  private final ServerMapExpiryIndex index = new ServerMapExpiryIndex(Collections.emptyIterator(), 4);
+
+  public void testOwnExpiryIncludesNow() {
+    index.add("a", new CDSMValue(new ObjectID(1), 0, 0, 32, 100));
+    index.add("never", new CDSMValue(new ObjectID(2), 0, 0, -1, -1));
+
+    assertEquals(set(), toSet(index.expiredKeys(31, 0, 0)));
+    assertEquals(set("a"), toSet(index.expiredKeys(32, 0, 0)));
+    assertEquals(set("a"), toSet(index.expiredKeys(Long.MAX_VALUE / 2, 0, 0)));
+  }
+
+  public void testSlotReturnedWhole() {
+    index.add("a", new CDSMValue(new ObjectID(1), 0, 0, 2 * ServerMapExpiryIndex.SLOT_SECONDS, 0));
+    index.add("b", new CDSMValue(new ObjectID(2), 0, 0, 3 * ServerMapExpiryIndex.SLOT_SECONDS - 1, 0));
+    index.add("c", new CDSMValue(new ObjectID(3), 0, 0, 3 * ServerMapExpiryIndex.SLOT_SECONDS, 0));
+
+    assertEquals(set("a", "b"), toSet(index.expiredKeys(2 * ServerMapExpiryIndex.SLOT_SECONDS, 0, 0)));
+  }
+
+  public void testMapTTIAndTTLPickSlots() {
+    index.add("a", new CDSMValue(new ObjectID(1), 96, 200, 0, 0));
+
+    assertEquals(set(), toSet(index.expiredKeys(1000, 0, 0)));
+    assertEquals(set("a"), toSet(index.expiredKeys(1000, 800, 0)));
+    assertEquals(set(), toSet(index.expiredKeys(1000, 900, 0)));
+    assertEquals(set("a"), toSet(index.expiredKeys(1000, 0, 904)));
+    assertEquals(set(), toSet(index.expiredKeys(1000, 0, 905)));
+  }
+
+  public void testOwnTTIWithMapTTL() {
+    index.add("a", new CDSMValue(new ObjectID(1), 160, 160, 1000, 0));
+
+    assertEquals(set(), toSet(index.expiredKeys(300, 0, 0)));
+    assertEquals(set(), toSet(index.expiredKeys(300, 0, 150)));
+    assertEquals(set("a"), toSet(index.expiredKeys(300, 0, 140)));
+    assertEquals(set("a"), toSet(index.expiredKeys(1160, 0, 0)));
+  }
+
+  public void testRemoveAndReAddMovesKey() {
+    final CDSMValue value = new CDSMValue(new ObjectID(1), 0, 200, 0, 0);
+    index.add("a", value);
+    index.remove("a", value);
+    value.setLastAccessedTime(500);
+    index.add("a", value);
+
+    assertEquals(set(), toSet(index.expiredKeys(1000, 750, 0)));
+    assertEquals(set("a"), toSet(index.expiredKeys(1000, 500, 0)));
+
+    index.remove("a", value);
+    index.remove("a", value);
+    assertEquals(set(), toSet(index.expiredKeys(Long.MAX_VALUE / 2, 1, 1)));
+  }
+
+  public void testUnindexedKeys() {
+    final ServerMapExpiryIndex building = new ServerMapExpiryIndex(Arrays.<Object> asList("a", "b").iterator(), 4);
+    assertFalse(building.isBuilt());
+    assertEquals("a", building.nextUnindexedKey());
+    assertEquals("b", building.nextUnindexedKey());
+    assertNull(building.nextUnindexedKey());
+    assertTrue(building.isBuilt());
+    assertNull(building.nextUnindexedKey());
+  }
+
+  public void testClear() {
+    index.add("a", new CDSMValue(new ObjectID(1), 0, 0, 10, 0));
+    index.add("b", new CDSMValue(new ObjectID(2), 0, 0, 0, 0));
+    index.clear();
+    assertEquals(set(), toSet(index.expiredKeys(Long.MAX_VALUE / 2, 1, 1)));
+  }
+
+  public void testOverflowDropsKeys() {
+    // a key left to the map TTI and TTL counts twice
+    index.add("a", new CDSMValue(new ObjectID(1), 0, 0, 0, 0));
+    index.add("b", new CDSMValue(new ObjectID(2), 0, 0, 10, 10));
+    index.add("c", new CDSMValue(new ObjectID(3), 0, 0, 10, 10));
+    assertFalse(index.isOverflowed());
+    assertEquals(set("a", "b", "c"), toSet(index.expiredKeys(Long.MAX_VALUE / 2, 1, 1)));
+
+    index.add("d", new CDSMValue(new ObjectID(4), 0, 0, 10, 10));
+    assertTrue(index.isOverflowed());
+    assertEquals(set(), toSet(index.expiredKeys(Long.MAX_VALUE / 2, 1, 1)));
+
+    index.add("e", new CDSMValue(new ObjectID(5), 0, 0, 10, 10));
+    assertEquals(set(), toSet(index.expiredKeys(Long.MAX_VALUE / 2, 1, 1)));
+  }
+
+  public void testRemovedKeysFreeEntries() {
+    final CDSMValue value = new CDSMValue(new ObjectID(1), 0, 0, 0, 0);
+    for (int i = 0; i < 10; i++) {
+      index.add("a", value);
+      index.add("a", value);
+      index.add("b", value);
+      index.remove("a", value);
+      index.remove("b", value);
+    }
+    assertFalse(index.isOverflowed());
+  }
+
+  public void testClearResetsOverflow() {
+    final ServerMapExpiryIndex building = new ServerMapExpiryIndex(Arrays.<Object> asList("a", "b").iterator(), 1);
+    building.add("a", new CDSMValue(new ObjectID(1), 0, 0, 10, 10));
+    building.add("b", new CDSMValue(new ObjectID(2), 0, 0, 10, 10));
+    assertTrue(building.isOverflowed());
+
+    building.clear();
+    assertFalse(building.isOverflowed());
+    assertTrue(building.isBuilt());
+    building.add("c", new CDSMValue(new ObjectID(3), 0, 0, 10, 10));
+    assertEquals(set("c"), toSet(building.expiredKeys(Long.MAX_VALUE / 2, 0, 0)));
+  }
+
+  private static Set<Object> set(Object... keys) {
+    return new HashSet<Object>(Arrays.asList(keys));
+  }
+
+  private static Set<Object> toSet(Iterator<Object> i) {
+    Set<Object> set = new HashSet<Object>();
+    while (i.hasNext()) {
+      set.add(i.next());
+    }
+    return set;
+  }
+}
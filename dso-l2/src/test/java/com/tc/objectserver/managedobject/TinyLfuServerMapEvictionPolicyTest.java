@@ -0,0 +1,121 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.managedobject;
+
+import static org.mockito.Mockito.mock;
+
+import com.tc.objectserver.api.EvictableEntry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class TinyLfuServerMapEvictionPolicyTest extends TestCase {
+
+  private final TinyLfuServerMapEvictionPolicy policy = new TinyLfuServerMapEvictionPolicy(1024, 4);
+
+  public void testHotKeysSurvive() {
+    Map<Object, EvictableEntry> candidates = new HashMap<Object, EvictableEntry>();
+    for (int i = 0; i < 100; i++) {
+      candidates.put("key-" + i, mock(EvictableEntry.class));
+      policy.recordWrite("key-" + i);
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 10; i++) {
+        policy.recordRead("key-" + i, true);
+      }
+    }
+
+    Map<Object, EvictableEntry> victims = policy.selectVictims(candidates, 20);
+    assertEquals(20, victims.size());
+    for (int i = 0; i < 10; i++) {
+      assertFalse(victims.containsKey("key-" + i));
+    }
+  }
+
+  public void testFewerCandidatesThanVictims() {
+    Map<Object, EvictableEntry> candidates = new HashMap<Object, EvictableEntry>();
+    candidates.put("a", mock(EvictableEntry.class));
+    assertSame(candidates, policy.selectVictims(candidates, 5));
+  }
+
+  public void testCandidateCount() {
+    assertEquals(40, policy.getCandidateCount(10));
+    assertEquals(Integer.MAX_VALUE, policy.getCandidateCount(Integer.MAX_VALUE));
+  }
+
+  public void testReadCountsDrained() {
+    policy.recordRead("a", true);
+    policy.recordRead("b", false);
+    policy.recordRead("a", true);
+    assertEquals(2, policy.drainHits());
+    assertEquals(1, policy.drainMisses());
+    assertEquals(0, policy.drainHits());
+    assertEquals(0, policy.drainMisses());
+    assertEquals(3, policy.frequency("a") + policy.frequency("b"));
+  }
+
+  public void testFrequenciesAge() {
+    FrequencySketch sketch = new FrequencySketch(16);
+    for (int i = 0; i < 20; i++) {
+      sketch.increment("hot");
+    }
+    assertEquals(15, sketch.frequency("hot"));
+    for (int i = 0; i < 1000; i++) {
+      sketch.increment("cold-" + i);
+    }
+    assertTrue(sketch.frequency("hot") < 15);
+  }
+
+  public void testSketchGrowsWithExpectedKeys() {
+    FrequencySketch sketch = new FrequencySketch(0);
+    assertEquals(16, sketch.capacity());
+    sketch.ensureCapacity(1000);
+    assertEquals(1024, sketch.capacity());
+    sketch.ensureCapacity(10);
+    assertEquals(1024, sketch.capacity());
+
+    // sized for 1000 keys, 1000 other increments no longer age the counters
+    for (int i = 0; i < 20; i++) {
+      sketch.increment("hot");
+    }
+    for (int i = 0; i < 1000; i++) {
+      sketch.increment("cold-" + i);
+    }
+    assertEquals(15, sketch.frequency("hot"));
+  }
+
+  public void testPolicyGrowsWithExpectedKeys() {
+    TinyLfuServerMapEvictionPolicy small = new TinyLfuServerMapEvictionPolicy(0, 4);
+    small.ensureCapacity(1000);
+    for (int i = 0; i < 20; i++) {
+      small.recordWrite("hot");
+    }
+    for (int i = 0; i < 1000; i++) {
+      small.recordWrite("cold-" + i);
+    }
+    assertEquals(15, small.frequency("hot"));
+  }
+
+  public void testUnknownPolicyNameResolvesToRandom() {
+    assertEquals(RandomServerMapEvictionPolicy.NAME, ServerMapEvictionPolicies.resolveName("unknown"));
+    assertEquals(TinyLfuServerMapEvictionPolicy.NAME, ServerMapEvictionPolicies.resolveName("TinyLFU"));
+    assertSame(RandomServerMapEvictionPolicy.INSTANCE,
+               ServerMapEvictionPolicies.create(ServerMapEvictionPolicies.resolveName("unknown"), 0));
+  }
+}
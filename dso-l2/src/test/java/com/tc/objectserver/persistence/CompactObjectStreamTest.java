@@ -0,0 +1,110 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.persistence;
+
+import com.tc.object.ObjectID;
+import com.tc.test.TCTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.util.Arrays;
+import java.util.Date;
+
+public class CompactObjectStreamTest extends TCTestCase {
+
+  public void testPrimitivesRoundTrip() throws Exception {
+    CompactObjectOutput out = new CompactObjectOutput();
+    out.writeBoolean(true);
+    out.writeByte(-3);
+    out.writeShort(-12345);
+    out.writeChar('x');
+    out.writeInt(Integer.MIN_VALUE);
+    out.writeLong(Long.MAX_VALUE);
+    out.writeFloat(1.5f);
+    out.writeDouble(-2.25d);
+    out.writeUTF("h\u00e9llo \u4e16\u754c\u0000");
+    out.write(new byte[] { 1, 2, 3 });
+
+    CompactObjectInput in = new CompactObjectInput(out.toByteArray(), 0);
+    assertTrue(in.readBoolean());
+    assertEquals(-3, in.readByte());
+    assertEquals(-12345, in.readShort());
+    assertEquals('x', in.readChar());
+    assertEquals(Integer.MIN_VALUE, in.readInt());
+    assertEquals(Long.MAX_VALUE, in.readLong());
+    assertEquals(1.5f, in.readFloat(), 0f);
+    assertEquals(-2.25d, in.readDouble(), 0d);
+    assertEquals("h\u00e9llo \u4e16\u754c\u0000", in.readUTF());
+    byte[] bytes = new byte[3];
+    in.readFully(bytes);
+    assertTrue(Arrays.equals(new byte[] { 1, 2, 3 }, bytes));
+    assertEquals(0, in.available());
+    try {
+      in.readInt();
+      fail();
+    } catch (EOFException e) {
+      // expected
+    }
+  }
+
+  public void testEncodingMatchesDataOutputStream() throws Exception {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream dos = new DataOutputStream(expected);
+    CompactObjectOutput out = new CompactObjectOutput();
+    dos.writeLong(0x0102030405060708L);
+    out.writeLong(0x0102030405060708L);
+    dos.writeUTF("\u00e9t\u00e9 \u4e16");
+    out.writeUTF("\u00e9t\u00e9 \u4e16");
+    dos.writeChars("ab");
+    out.writeChars("ab");
+    dos.close();
+    assertTrue(Arrays.equals(expected.toByteArray(), out.toByteArray()));
+  }
+
+  public void testObjectsRoundTrip() throws Exception {
+    Date date = new Date();
+    CompactObjectOutput out = new CompactObjectOutput();
+    out.writeObject(null);
+    out.writeObject(new ObjectID(42));
+    out.writeObject("foo");
+    out.writeObject(Long.valueOf(7));
+    out.writeObject(Boolean.TRUE);
+    out.writeObject(date);
+    out.writeInt(99);
+
+    CompactObjectInput in = new CompactObjectInput(out.toByteArray(), 0);
+    assertNull(in.readObject());
+    assertEquals(new ObjectID(42), in.readObject());
+    assertEquals("foo", in.readObject());
+    assertEquals(Long.valueOf(7), in.readObject());
+    assertEquals(Boolean.TRUE, in.readObject());
+    assertEquals(date, in.readObject());
+    assertEquals(99, in.readInt());
+  }
+
+  public void testResetReusesBuffer() throws Exception {
+    CompactObjectOutput out = new CompactObjectOutput();
+    for (int i = 0; i < 10000; i++) {
+      out.writeLong(i);
+    }
+    out.reset();
+    assertEquals(0, out.size());
+    out.writeInt(5);
+    assertEquals(4, out.toByteArray().length);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tc.objectserver.persistence;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.terracotta.corestorage.KeyValueStorage;
+import org.terracotta.corestorage.KeyValueStorageConfig;
+import org.terracotta.corestorage.StorageManager;
+
+import com.tc.object.ObjectID;
+
+import junit.framework.TestCase;
+
+public class PersistentObjectFactoryTest extends TestCase {
+
+  private StorageManager          storageManager;
+  private PersistentObjectFactory factory;
+
+  @Override
+  protected void setUp() throws Exception {
+    storageManager = mock(StorageManager.class);
+    factory = new PersistentObjectFactory(storageManager, HeapStorageManagerFactory.INSTANCE);
+  }
+
+  public void testStorageCreatedOnceAndCached() throws Exception {
+    KeyValueStorage<Object, Object> storage = mock(KeyValueStorage.class);
+    when(storageManager.createKeyValueStorage(eq("1"), any(KeyValueStorageConfig.class))).thenReturn(storage);
+
+    assertSame(storage, factory.getKeyValueStorage(new ObjectID(1), true));
+    assertSame(storage, factory.getKeyValueStorage(new ObjectID(1), false));
+    verify(storageManager, times(1)).getKeyValueStorage("1", Object.class, Object.class);
+    verify(storageManager, times(1)).createKeyValueStorage(eq("1"), any(KeyValueStorageConfig.class));
+  }
+
+  public void testDestroyForgetsStorage() throws Exception {
+    KeyValueStorage<Object, Object> storage = mock(KeyValueStorage.class);
+    when(storageManager.createKeyValueStorage(eq("1"), any(KeyValueStorageConfig.class))).thenReturn(storage);
+    factory.getKeyValueStorage(new ObjectID(1), true);
+
+    factory.destroyKeyValueStorage(new ObjectID(1));
+    verify(storageManager).destroyKeyValueStorage("1");
+    try {
+      factory.getKeyValueStorage(new ObjectID(1), false);
+      fail();
+    } catch (ObjectNotFoundException expected) {
+      // expected
+    }
+  }
+
+  public void testMapConcurrencyFromApplyThreads() {
+    assertEquals(1, PersistentObjectFactory.getMapConcurrency(0));
+    assertEquals(1, PersistentObjectFactory.getMapConcurrency(1));
+    assertEquals(4, PersistentObjectFactory.getMapConcurrency(3));
+    assertEquals(8, PersistentObjectFactory.getMapConcurrency(8));
+    assertEquals(16, PersistentObjectFactory.getMapConcurrency(64));
+  }
+}
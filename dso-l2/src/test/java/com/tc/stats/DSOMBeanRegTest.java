@@ -33,6 +33,7 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import com.tc.async.api.StageManager;
 import com.tc.net.ClientID;
 import com.tc.net.GroupID;
 import com.tc.net.TCSocketAddress;
@@ -127,7 +128,7 @@ public class DSOMBeanRegTest {
     dso = new DSO(smCtxt, mock(ServerConfigurationContext.class), mbeanSvr,
                       new GCStatsEventPublisher(),
                   mock(TerracottaOperatorEventHistoryProvider.class), mock(OffheapStats.class),
-                  mock(StorageDataStats.class));
+                  mock(StorageDataStats.class), mock(StageManager.class));
 
   }
 
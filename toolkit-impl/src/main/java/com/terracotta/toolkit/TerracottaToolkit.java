@@ -165,9 +165,9 @@ public class TerracottaToolkit implements ToolkitInternal {
     clusteredBlockingQueueFactory = new ToolkitBlockingQueueFactoryImpl(this, context);
     clusteredMapBlockingQueueFactory = new ToolkitMapBlockingQueueFactoryImpl(this, context);
 
-    ToolkitStore atomicLongs = clusteredStoreFactory.getOrCreate(ToolkitTypeConstants.TOOLKIT_ATOMIC_LONG_MAP_NAME,
-                                                                 new ToolkitStoreConfigBuilder()
-                                                                     .consistency(Consistency.STRONG).build());
+    ToolkitCacheImpl atomicLongs = clusteredStoreFactory.getOrCreate(ToolkitTypeConstants.TOOLKIT_ATOMIC_LONG_MAP_NAME,
+                                                                     new ToolkitStoreConfigBuilder()
+                                                                         .consistency(Consistency.STRONG).build());
     clusteredAtomicLongFactory = new ToolkitAtomicLongFactoryImpl(atomicLongs, weakValueMapManager, platformService);
 
     ToolkitStore barriers = clusteredStoreFactory.getOrCreate(ToolkitTypeConstants.TOOLKIT_BARRIER_MAP_NAME,
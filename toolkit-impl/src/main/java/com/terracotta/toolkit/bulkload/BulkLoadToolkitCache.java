@@ -30,6 +30,7 @@ import org.terracotta.toolkit.search.QueryBuilder;
 import org.terracotta.toolkit.search.attribute.ToolkitAttributeExtractor;
 import org.terracotta.toolkit.store.ToolkitConfigFields;
 
+import com.google.common.util.concurrent.Futures;
 import com.tc.abortable.AbortedOperationException;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
@@ -43,6 +44,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import static com.google.common.base.Preconditions.checkState;
 
@@ -214,6 +216,17 @@ public class BulkLoadToolkitCache<K, V> implements ToolkitCacheImplInterface<K,
     return doGet(obj, false);
   }
 
+  @Override
+  public Future<V> getAsync(Object key) {
+    // buffered values are local, only the fall back to the server map could be made asynchronous
+    return Futures.immediateFuture(doGet(key, false));
+  }
+
+  @Override
+  public Future<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+    return Futures.immediateFuture(getAll(keys));
+  }
+
   public V doGet(Object obj, boolean quiet) {
     if (localBufferedMap.isKeyBeingRemoved(obj)) { return null; }
 
@@ -335,6 +348,11 @@ public class BulkLoadToolkitCache<K, V> implements ToolkitCacheImplInterface<K,
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public boolean unlockedReplace(K key, V oldValue, V newValue) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public void clear() {
     localBufferedMap.clear();
@@ -25,8 +25,10 @@ import com.terracotta.toolkit.factory.ToolkitObjectFactory;
 import com.terracotta.toolkit.object.AbstractDestroyableToolkitObject;
 import com.terracotta.toolkit.rejoin.RejoinAwareToolkitObject;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -203,21 +205,28 @@ public class ToolkitBlockingQueueImpl<E> extends AbstractDestroyableToolkitObjec
     if (c == this) { throw new IllegalArgumentException(); }
     lock.writeLock().lock();
     int transferredCount = 0;
+    int drainedCount = 0;
     try {
-      // not optimized but will work
-      for (int count = 0; backingList.size() > 0;) {
-        E removed = backingList.remove(0);
-        if (c.add(removed)) {
-          transferredCount++;
+      int count = Math.min(backingList.size(), maxElements);
+      if (count <= 0) { return 0; }
+
+      // an element leaves the queue once c was offered it, even if c declined it (e.g. a Set that already holds
+      // it); only an element c throws on stays in the queue, together with everything behind it
+      List<E> head = new ArrayList<E>(backingList.subList(0, count));
+      try {
+        for (E e : head) {
+          if (c.add(e)) {
+            transferredCount++;
+          }
+          drainedCount++;
         }
-        if (++count >= maxElements) {
-          break;
+      } finally {
+        if (drainedCount > 0) {
+          // the drained head is removed with a single range removal, one change for the whole batch
+          backingList.subList(0, drainedCount).clear();
+          condition.signalAll();
         }
       }
-
-      if (transferredCount > 0) {
-        condition.signalAll();
-      }
       return transferredCount;
     } finally {
       lock.writeLock().unlock();
@@ -333,15 +342,16 @@ public class ToolkitBlockingQueueImpl<E> extends AbstractDestroyableToolkitObjec
 
   /**
    * Removes all of the elements from this queue. The queue will be empty after this call returns.
-   * <p>
-   * This implementation repeatedly invokes {@link #poll poll} until it returns <tt>null</tt>.
    */
   @Override
   public void clear() {
-    while (poll() != null) {
-      //
+    lock.writeLock().lock();
+    try {
+      backingList.clear();
+      condition.signalAll();
+    } finally {
+      lock.writeLock().unlock();
     }
-    signalAll();
   }
 
   /**
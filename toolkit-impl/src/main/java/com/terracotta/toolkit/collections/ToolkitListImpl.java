@@ -1071,6 +1071,10 @@ public class ToolkitListImpl<E> extends AbstractTCToolkitObject implements Toolk
     localList.remove(index);
   }
 
+  public void internalRemoveRange(int fromIndex, int toIndex) {
+    localList.subList(fromIndex, toIndex).clear();
+  }
+
   public void internalClear() {
     localList.clear();
   }
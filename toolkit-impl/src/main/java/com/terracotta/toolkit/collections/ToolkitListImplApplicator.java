@@ -125,10 +125,7 @@ public class ToolkitListImplApplicator extends BaseApplicator {
                                 + size);
           return;
         }
-        int removeIndex = fromIndex;
-        while (fromIndex++ < toIndex) {
-          internalList.internalRemove(removeIndex);
-        }
+        internalList.internalRemoveRange(fromIndex, toIndex);
         break;
       case CLEAR:
         internalList.internalClear();
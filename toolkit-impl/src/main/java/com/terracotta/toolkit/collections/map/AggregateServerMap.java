@@ -56,6 +56,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
 import com.tc.abortable.AbortedOperationException;
 import com.tc.exception.PlatformRejoinException;
 import com.tc.exception.TCNotRunningException;
@@ -135,7 +136,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class AggregateServerMap<K, V> implements DistributedToolkitType<InternalToolkitMap<K, V>>,
-    ToolkitCacheInternal<K,V>, ToolkitStore<K,V>, ConfigChangeListener, ValuesResolver<K, V>, SearchableEntity,
+    ToolkitCacheInternal<K,V>, ToolkitStore<K,V>, ConfigChangeListener, ValuesResolver<K, V>, ToolkitCacheDelegate<K, V>, SearchableEntity,
     BufferBackend<K, V>, ServerEventDestination {
   private static final TCLogger                                            LOGGER                             = TCLogging
                                                                                                                   .getLogger(AggregateServerMap.class);
@@ -144,6 +145,8 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
 
   private static final String                                              EHCACHE_GETALL_BATCH_SIZE_PROPERTY = "ehcache.getAll.batchSize";
   private static final int                                                 DEFAULT_GETALL_BATCH_SIZE          = 1000;
+  private static final String                                              EHCACHE_PUTALL_BATCH_SIZE_PROPERTY = "ehcache.putAll.batchSize";
+  private static final int                                                 DEFAULT_PUTALL_BATCH_SIZE          = 1000;
   private final static String                                              SNAPSHOT_TXN_LOCK_ID               = "snapshot_txn_lock";
   private final static List<ToolkitObjectType>                             VALID_TYPES                        = Arrays
                                                                                                                   .asList(ToolkitObjectType.STORE,
@@ -152,6 +155,7 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
   private static final SearchRequestIDGenerator                            searchReqIdGenerator = new SearchRequestIDGenerator();
 
   private final int                                                        getAllBatchSize;
+  private final int                                                        putAllBatchSize;
 
   protected volatile InternalToolkitMap<K, V>[]                            serverMaps;
   protected final String                                                   name;
@@ -201,6 +205,7 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
     this.configMutationLock = configMutationLock;
     this.clusterInfo = new TerracottaClusterInfo(platformService);
     this.getAllBatchSize = getTerracottaProperty(EHCACHE_GETALL_BATCH_SIZE_PROPERTY, DEFAULT_GETALL_BATCH_SIZE);
+    this.putAllBatchSize = getTerracottaProperty(EHCACHE_PUTALL_BATCH_SIZE_PROPERTY, DEFAULT_PUTALL_BATCH_SIZE);
     this.serverMapLocalStoreFactory = serverMapLocalStoreFactory;
     Preconditions.checkArgument(isValidType(type), "Type has to be one of %s but was %s", VALID_TYPES, type);
 
@@ -343,6 +348,11 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
     return getServerMapForKey(key).createLockForKey(key);
   }
 
+  @Override
+  public Object getLockIdForKey(Object key) {
+    return getServerMapForKey(key).getLockIdForKey(key);
+  }
+
   @Override
   public int size() {
     // wait and then tell me more accurate size
@@ -395,6 +405,21 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
     return getServerMapForKey(key).get(key);
   }
 
+  @Override
+  public Future<V> getAsync(Object key) {
+    return getServerMapForKey(key).getAsync(key, false);
+  }
+
+  @Override
+  public Future<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+    if (consistency != Consistency.EVENTUAL) { return Futures.immediateFuture(getAll(keys)); }
+    Map<K, Future<V>> futures = new HashMap<K, Future<V>>();
+    for (K key : keys) {
+      futures.put(key, getAsync(key));
+    }
+    return new AllValuesFuture<K, V>(futures);
+  }
+
   @Override
   public V get(K key, ObjectID valueOid) {
     return getServerMapForKey(key).get(key, valueOid);
@@ -476,6 +501,11 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
     return getServerMapForKey(key).unlockedGet((K) key, quiet);
   }
 
+  @Override
+  public boolean unlockedReplace(K key, V oldValue, V newValue) {
+    return getServerMapForKey(key).unlockedReplace(key, oldValue, newValue);
+  }
+
   @Override
   public void putNoReturn(K key, V value) {
     putNoReturn(key, value, timeSource.nowInSeconds(), ToolkitConfigFields.NO_MAX_TTI_SECONDS,
@@ -684,18 +714,78 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
         }
 
       }
-    } else {
+    } else if (isExplicitLocked()) {
       for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
         putNoReturn(entry.getKey(), entry.getValue());
       }
+    } else {
+      putAllNoReturn(map, timeSource.nowInSeconds(), ToolkitConfigFields.NO_MAX_TTI_SECONDS,
+                     ToolkitConfigFields.NO_MAX_TTL_SECONDS);
     }
   }
 
   @Override
   public void removeAll(Set<K> keys) {
     if (keys == null || keys.isEmpty()) { return; }
-    for (K key : keys) {
-      removeNoReturn(key);
+    if (isExplicitLocked()) {
+      for (K key : keys) {
+        removeNoReturn(key);
+      }
+    } else {
+      removeAllNoReturn(keys);
+    }
+  }
+
+  /**
+   * Splits the entries per server map and puts each batch of at most {@code ehcache.putAll.batchSize} entries under a
+   * single lock set, so that every batch is committed as one transaction.
+   */
+  private void putAllNoReturn(Map<? extends K, ? extends V> entries, int createTimeInSecs, int customMaxTTISeconds,
+                              int customMaxTTLSeconds) {
+    Map<K, V>[] batches = new Map[serverMaps.length];
+    for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+      int index = getServerMapIndexForKey(entry.getKey());
+      Map<K, V> batch = batches[index];
+      if (batch == null) {
+        batch = new HashMap<K, V>();
+        batches[index] = batch;
+      }
+      batch.put(entry.getKey(), entry.getValue());
+      if (batch.size() == putAllBatchSize) {
+        serverMaps[index].putAllNoReturn(batch, createTimeInSecs, customMaxTTISeconds, customMaxTTLSeconds);
+        batches[index] = null;
+      }
+    }
+    for (int i = 0; i < batches.length; i++) {
+      if (batches[i] != null) {
+        serverMaps[i].putAllNoReturn(batches[i], createTimeInSecs, customMaxTTISeconds, customMaxTTLSeconds);
+      }
+    }
+  }
+
+  /**
+   * Splits the keys per server map and removes each batch of at most {@code ehcache.putAll.batchSize} keys under a
+   * single lock set, so that every batch is committed as one transaction.
+   */
+  private void removeAllNoReturn(Collection<?> keys) {
+    List<Object>[] batches = new List[serverMaps.length];
+    for (Object key : keys) {
+      int index = getServerMapIndexForKey(key);
+      List<Object> batch = batches[index];
+      if (batch == null) {
+        batch = new ArrayList<Object>();
+        batches[index] = batch;
+      }
+      batch.add(key);
+      if (batch.size() == putAllBatchSize) {
+        serverMaps[index].removeAllNoReturn(batch);
+        batches[index] = null;
+      }
+    }
+    for (int i = 0; i < batches.length; i++) {
+      if (batches[i] != null) {
+        serverMaps[i].removeAllNoReturn(batches[i]);
+      }
     }
   }
 
@@ -726,15 +816,17 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
       case STRONG:
       case SYNCHRONOUS_STRONG:
         Map<K, V> rv = new HashMap<K, V>();
-        if (quiet) {
-          for (K key : keys) {
-            rv.put(key, getQuiet(key));
-          }
-        } else {
-          for (K key : keys) {
-            rv.put(key, get(key));
+        List<K> batch = new ArrayList<K>(Math.min(keys.size(), getAllBatchSize));
+        for (K key : keys) {
+          batch.add(key);
+          if (batch.size() == getAllBatchSize) {
+            lockedGetAll(batch, quiet, rv);
+            batch.clear();
           }
         }
+        if (!batch.isEmpty()) {
+          lockedGetAll(batch, quiet, rv);
+        }
         return rv;
       case EVENTUAL:
         return unlockedGetAll((Collection<K>) keys, quiet);
@@ -742,6 +834,45 @@ public class AggregateServerMap<K, V> implements DistributedToolkitType<Internal
     throw new UnsupportedOperationException("Unknown consistency - " + consistency);
   }
 
+  /**
+   * Read locks the keys of the batch together, in canonical order, and fetches all their values with a single request
+   * per server map before checking them for expiration outside the locks, as {@link #get(Object)} does.
+   */
+  private void lockedGetAll(final List<K> keys, final boolean quiet, final Map<K, V> rv) {
+    final SetMultimap<ObjectID, Object> mapIdToKeysMap = HashMultimap.create();
+    final Map<Object, Object> lockIDs = new HashMap<Object, Object>();
+    for (K key : keys) {
+      if (!LiteralValues.isLiteralInstance(key)) {
+        rv.put(key, null);
+        continue;
+      }
+      InternalToolkitMap<K, V> serverMap = getServerMapForKey(key);
+      TCObject tcObject = serverMap.__tc_managed();
+      if (tcObject == null) { throw new UnsupportedOperationException("getAll is not supported in a non-shared ServerMap"); }
+      mapIdToKeysMap.put(tcObject.getObjectID(), key);
+      lockIDs.put(key, serverMap.getLockIdForKey(key));
+    }
+    if (lockIDs.isEmpty()) { return; }
+
+    final Map<Object, Object> values;
+    final List<Object> locked = ToolkitLockingApi.lockAll(lockIDs.values(), ToolkitLockTypeInternal.READ,
+                                                          platformService);
+    try {
+      values = getAnyTCObjectServerMap().getAllValuesLocked(mapIdToKeysMap, lockIDs);
+    } catch (AbortedOperationException e) {
+      throw new ToolkitAbortableOperationException(e);
+    } catch (PlatformRejoinException e) {
+      throw new RejoinException(e);
+    } finally {
+      ToolkitLockingApi.unlockAll(locked, ToolkitLockTypeInternal.READ, platformService);
+    }
+
+    for (Object key : lockIDs.keySet()) {
+      rv.put((K) key, getServerMapForKey(key).checkAndGetNonExpiredValue((K) key, values.get(key), GetType.LOCKED,
+                                                                         quiet));
+    }
+  }
+
   Map<K, V> getAllInternal(Set<K> keys, boolean quiet) {
     final SetMultimap<ObjectID, K> mapIdToKeysMap = divideKeysIntoServerMaps(keys);
     TCObjectServerMap tcObjectServerMap = getAnyTCObjectServerMap();
@@ -0,0 +1,80 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections.map;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Gathers the futures of several key lookups into one future of the resulting map.
+ */
+class AllValuesFuture<K, V> implements Future<Map<K, V>> {
+  private final Map<K, Future<V>> futures;
+
+  AllValuesFuture(Map<K, Future<V>> futures) {
+    this.futures = futures;
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean cancelled = false;
+    for (Future<V> future : futures.values()) {
+      cancelled |= future.cancel(mayInterruptIfRunning);
+    }
+    return cancelled;
+  }
+
+  @Override
+  public boolean isCancelled() {
+    for (Future<V> future : futures.values()) {
+      if (future.isCancelled()) { return true; }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isDone() {
+    for (Future<V> future : futures.values()) {
+      if (!future.isDone()) { return false; }
+    }
+    return true;
+  }
+
+  @Override
+  public Map<K, V> get() throws InterruptedException, ExecutionException {
+    Map<K, V> rv = new HashMap<K, V>();
+    for (Entry<K, Future<V>> entry : futures.entrySet()) {
+      rv.put(entry.getKey(), entry.getValue().get());
+    }
+    return rv;
+  }
+
+  @Override
+  public Map<K, V> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    Map<K, V> rv = new HashMap<K, V>();
+    for (Entry<K, Future<V>> entry : futures.entrySet()) {
+      rv.put(entry.getKey(), entry.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+    }
+    return rv;
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections.map;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+public interface AsyncGetSupport<K, V> {
+
+  /**
+   * Looks the key up without blocking on the server round trip of a local cache miss. Only eventual maps can do so, a
+   * strong map reads under the key's lock and hands back an already completed future.
+   */
+  Future<V> getAsync(Object key);
+
+  /**
+   * Non-blocking {@link #getAsync(Object)} for a set of keys, completed when every lookup is.
+   */
+  Future<Map<K, V>> getAllAsync(Collection<? extends K> keys);
+}
@@ -38,9 +38,10 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
 
 public interface InternalToolkitMap<K, V> extends ConcurrentMap<K, V>, TCServerMap, TCToolkitObject,
-    ValuesResolver<K, V>, BufferBackend<K, V> {
+    ValuesResolver<K, V>, UnlockedReplaceSupport<K, V>, BufferBackend<K, V> {
 
   String getName();
 
@@ -71,6 +72,11 @@ public interface InternalToolkitMap<K, V> extends ConcurrentMap<K, V>, TCServerM
 
   V get(Object key, boolean quiet);
 
+  /**
+   * Non-blocking {@link #get(Object, boolean)}, asynchronous for eventual maps only.
+   */
+  Future<V> getAsync(Object key, boolean quiet);
+
   /**
    * This will be a quiet GET for the {@code VersionedValue}.
    */
@@ -135,10 +141,33 @@ public interface InternalToolkitMap<K, V> extends ConcurrentMap<K, V>, TCServerM
 
   ToolkitReadWriteLock createLockForKey(K key);
 
+  /**
+   * Lock id guarding the given key in strong consistency.
+   */
+  Object getLockIdForKey(Object key);
+
+  /**
+   * Puts all the entries under their key locks, acquired together, so that a strongly consistent map commits them in a
+   * single transaction.
+   */
+  void putAllNoReturn(Map<? extends K, ? extends V> entries, int createTimeInSecs, int customMaxTTISeconds,
+                      int customMaxTTLSeconds);
+
+  /**
+   * Removes all the keys under their key locks, acquired together, so that a strongly consistent map commits the
+   * removals in a single transaction.
+   */
+  void removeAllNoReturn(Collection<?> keys);
+
   void registerAttributeExtractor(ToolkitAttributeExtractor extractor);
 
   boolean isEvictionEnabled();
 
+  /**
+   * Name of the server side capacity eviction policy, empty for the server default.
+   */
+  String getEvictionPolicy();
+
   void setConfigFieldInternal(String fieldChanged, Object changedValue);
 
   void setLockStrategy(LOCK_STRATEGY strategy);
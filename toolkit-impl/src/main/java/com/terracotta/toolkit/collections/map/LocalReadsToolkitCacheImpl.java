@@ -26,6 +26,7 @@ import org.terracotta.toolkit.internal.cache.VersionedValue;
 import org.terracotta.toolkit.search.QueryBuilder;
 import org.terracotta.toolkit.search.attribute.ToolkitAttributeExtractor;
 
+import com.google.common.util.concurrent.Futures;
 import com.tc.object.ObjectID;
 import com.terracotta.toolkit.nonstop.ToolkitObjectLookup;
 import com.terracotta.toolkit.object.DestroyableToolkitObject;
@@ -35,6 +36,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 public class LocalReadsToolkitCacheImpl<K, V> implements ValuesResolver<K, V>, ToolkitCacheImplInterface<K, V>,
     DestroyableToolkitObject {
@@ -158,6 +160,11 @@ public class LocalReadsToolkitCacheImpl<K, V> implements ValuesResolver<K, V>, T
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public boolean unlockedReplace(K key, V oldValue, V newValue) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public V replace(K key, V value) {
     throw new UnsupportedOperationException();
@@ -183,6 +190,16 @@ public class LocalReadsToolkitCacheImpl<K, V> implements ValuesResolver<K, V>, T
     return getQuiet(key);
   }
 
+  @Override
+  public Future<V> getAsync(Object key) {
+    return Futures.immediateFuture(get(key));
+  }
+
+  @Override
+  public Future<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+    return Futures.immediateFuture(getAll(keys));
+  }
+
   @Override
   public V put(K key, V value) {
     throw new UnsupportedOperationException();
@@ -38,6 +38,7 @@ import org.terracotta.toolkit.store.ToolkitConfigFields.Consistency;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.Futures;
 import com.tc.abortable.AbortedOperationException;
 import com.tc.exception.PlatformRejoinException;
 import com.tc.logging.TCLogger;
@@ -69,6 +70,8 @@ import com.terracotta.toolkit.meta.MetaData;
 import com.terracotta.toolkit.meta.MetaDataImpl;
 import com.terracotta.toolkit.meta.ToolkitCacheMetaDataCallback;
 import com.terracotta.toolkit.object.AbstractTCToolkitObject;
+import com.terracotta.toolkit.object.serialization.CompressionCodec;
+import com.terracotta.toolkit.object.serialization.CompressionCodecs;
 import com.terracotta.toolkit.object.serialization.CustomLifespanSerializedMapValue;
 import com.terracotta.toolkit.object.serialization.SerializedMapValue;
 import com.terracotta.toolkit.object.serialization.SerializedMapValueParameters;
@@ -82,11 +85,22 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class ServerMap<K, V> extends AbstractTCToolkitObject implements InternalToolkitMap<K, V> {
+  /**
+   * Configuration field naming the server side capacity eviction policy of the cache, empty for the server default.
+   * It is not one of the toolkit API {@code ToolkitConfigFields}, which ship outside this tree.
+   */
+  public static final String                                EVICTION_POLICY_FIELD_NAME = "evictionPolicy";
+
   private static final TCLogger                             LOGGER              = TCLogging.getLogger(ServerMap.class);
   private static final Object[]                             NO_ARGS             = new Object[0];
   private static final String                               LOCK_PREFIX         = "__servermap@lock-";
@@ -101,11 +115,13 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
   private final ToolkitLockTypeInternal                     lockType;
   private volatile boolean                                  localCacheEnabled;
   private volatile boolean                                  compressionEnabled;
+  private final CompressionCodec                            compressionCodec;
   private volatile boolean                                  copyOnReadEnabled;
   private volatile int                                      maxTTISeconds;
   private volatile int                                      maxTTLSeconds;
   private volatile int                                      maxCountInCluster;
   private volatile boolean                                  evictionEnabled;
+  private final String                                      evictionPolicy;
 
   // unclustered local fields
   protected volatile TCObjectServerMap<Object>              tcObjectServerMap;
@@ -147,6 +163,7 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     // eviction configuration doesn't exist for store
     final Serializable value = InternalCacheConfigurationType.EVICTION_ENABLED.getValueIfExists(config);
     this.evictionEnabled = (value == null) ? false : (Boolean) value;
+    this.evictionPolicy = config.hasField(EVICTION_POLICY_FIELD_NAME) ? config.getString(EVICTION_POLICY_FIELD_NAME) : "";
 
     this.maxCountInCluster = (Integer) InternalCacheConfigurationType.MAX_TOTAL_COUNT.getValueIfExistsOrDefault(config);
     this.maxTTISeconds = (Integer) InternalCacheConfigurationType.MAX_TTI_SECONDS.getValueIfExistsOrDefault(config);
@@ -155,6 +172,7 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     this.timeSource = new SystemTimeSource();
     this.compressionEnabled = (Boolean) InternalCacheConfigurationType.COMPRESSION_ENABLED
         .getExistingValueOrException(config);
+    this.compressionCodec = compressionEnabled ? CompressionCodecs.fromConfig(config) : null;
     this.copyOnReadEnabled = (Boolean) InternalCacheConfigurationType.COPY_ON_READ_ENABLED
         .getExistingValueOrException(config);
     this.metaDataCallback = new ToolkitCacheMetaDataCallback() {
@@ -245,6 +263,11 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     return lockStrategy.generateLockIdForKey(key);
   }
 
+  @Override
+  public Object getLockIdForKey(Object key) {
+    return generateLockIdForKey(key);
+  }
+
   private String getInstanceDsoLockName() {
     if (this.instanceDsoLockName != null) { return this.instanceDsoLockName; }
 
@@ -633,7 +656,7 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     params.createTime(createTimeInSecs).deserialized(value).lastAccessedTime(createTimeInSecs);
     params.setCustomTTI(customMaxTTISeconds).setCustomTTL(customMaxTTLSeconds);
 
-    params.serialized(serStrategy.serialize(value, compressionEnabled));
+    params.serialized(serStrategy.serialize(value, compressionCodec));
     return params;
   }
 
@@ -715,6 +738,13 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
 
   @Override
   public Set<K> keySet(Set<K> filterSet) {
+    return new ServerMapKeySet<K, V>(this, fetchKeys(filterSet));
+  }
+
+  /**
+   * Fetches the keys of this segment from the server, minus the ones in {@code filterSet}.
+   */
+  Set<K> fetchKeys(Set<K> filterSet) {
     Set keySet = null;
     try {
       keySet = tcObjectServerMap.keySet(this);
@@ -724,7 +754,7 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
       throw new RejoinException(e);
     }
     keySet.removeAll(filterSet);
-    return new ServerMapKeySet<K, V>(this, keySet);
+    return keySet;
   }
 
   @Override
@@ -734,17 +764,14 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
 
   @Override
   public Set<Entry<K, V>> entrySet(Set<K> filterSet) {
+    return new ServerMapEntrySet<K, V>(this, filterSet, getIteratorPrefetchSize());
+  }
 
-    Set keySet = null;
-    try {
-      keySet = tcObjectServerMap.keySet(this);
-    } catch (AbortedOperationException e) {
-      throw new ToolkitAbortableOperationException(e);
-    } catch (PlatformRejoinException e) {
-      throw new RejoinException(e);
-    }
-    keySet.removeAll(filterSet);
-    return new ServerMapEntrySet<K, V>(this, keySet);
+  private int getIteratorPrefetchSize() {
+    // a strong map reads every value under its key lock, reading ahead would only return staler values
+    if (!isEventual()) { return 1; }
+    return Math.max(1, new TerracottaProperties(platformService)
+        .getInteger(TCPropertiesConsts.TOOLKIT_SERVERMAP_ITERATOR_PREFETCH_SIZE, 100));
   }
 
   private void assertNotNull(final Object value) {
@@ -847,6 +874,40 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
 
   }
 
+  @Override
+  public void putAllNoReturn(Map<? extends K, ? extends V> entries, int createTimeInSecs, int customMaxTTISeconds,
+                             int customMaxTTLSeconds) {
+    if (isEventual()) {
+      for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+        internalPutNoReturn(entry.getKey(), entry.getValue(), DEFAULT_VERSION, createTimeInSecs, customMaxTTISeconds,
+                            customMaxTTLSeconds);
+      }
+      return;
+    }
+
+    final Map<K, Object> lockIDs = new HashMap<K, Object>();
+    for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+      assertNotNull(entry.getValue());
+      lockIDs.put(assertKeyLiteral(entry.getKey()), generateLockIdForKey(entry.getKey()));
+    }
+    throttleIfNecessary();
+
+    // all the changes made while the lock set is held are folded into the transaction of the innermost lock
+    final ToolkitLockTypeInternal type = getEffectiveLockType();
+    final List<Object> locked = ToolkitLockingApi.lockAll(lockIDs.values(), type, platformService);
+    try {
+      for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+        K key = entry.getKey();
+        V value = entry.getValue();
+        MetaData metaData = createMetaDataAndSetCommand(key, value, SearchCommand.PUT);
+        doLogicalPut(key, value, DEFAULT_VERSION, createTimeInSecs, customMaxTTISeconds, customMaxTTLSeconds,
+                     MutateType.LOCKED, lockIDs.get(key), metaData);
+      }
+    } finally {
+      ToolkitLockingApi.unlockAll(locked, type, platformService);
+    }
+  }
+
   @Override
   public void putIfAbsentVersioned(K key, V value, long version, int createTimeInSecs, int customMaxTTISeconds,
                                    int customMaxTTLSeconds) {
@@ -1097,6 +1158,34 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     }
   }
 
+  @Override
+  public void removeAllNoReturn(Collection<?> keys) {
+    if (isEventual()) {
+      for (Object key : keys) {
+        internalRemoveNoReturn(key, DEFAULT_VERSION);
+      }
+      return;
+    }
+
+    final Map<Object, Object> lockIDs = new HashMap<Object, Object>();
+    for (Object key : keys) {
+      if (LiteralValues.isLiteralInstance(key)) {
+        lockIDs.put(key, generateLockIdForKey(key));
+      }
+    }
+    if (lockIDs.isEmpty()) { return; }
+
+    final ToolkitLockTypeInternal type = getEffectiveLockType();
+    final List<Object> locked = ToolkitLockingApi.lockAll(lockIDs.values(), type, platformService);
+    try {
+      for (Map.Entry<Object, Object> entry : lockIDs.entrySet()) {
+        internalLogicalRemove(entry.getKey(), DEFAULT_VERSION, MutateType.LOCKED, entry.getValue());
+      }
+    } finally {
+      ToolkitLockingApi.unlockAll(locked, type, platformService);
+    }
+  }
+
   @Override
   public V replace(final K key, final V value) {
     assertNotNull(value);
@@ -1161,6 +1250,42 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     }
   }
 
+  @Override
+  public boolean unlockedReplace(final K key, final V oldValue, final V newValue) {
+    assertNotNull(oldValue);
+    assertNotNull(newValue);
+    throttleIfNecessary();
+
+    SerializedMapValue<V> oldSerializedMapValue = asSerializedMapValue(doLogicalGetValueUnlocked(key));
+    final V old = deserialize(key, oldSerializedMapValue);
+    if (old == null || !oldValue.equals(old)) { return false; }
+
+    MetaData metaData = createMetaDataAndSetCommand(key, newValue, SearchCommand.REPLACE);
+    eventualConcurrentLock.lock();
+    try {
+      SerializedMapValue newSerializedMapValue = createSerializedMapValue(newValue, timeSource.nowInSeconds(),
+                                                                          ToolkitConfigFields.NO_MAX_TTI_SECONDS,
+                                                                          ToolkitConfigFields.NO_MAX_TTL_SECONDS);
+      MetaDataDescriptor mdd = null;
+      if (metaData != null) {
+        metaData.add(SearchMetaData.PREV_VALUE, oldSerializedMapValue.getObjectID());
+        metaData.add(SearchMetaData.VALUE, newSerializedMapValue.getObjectID());
+        mdd = getMetaDataDescriptor(metaData);
+      }
+      boolean replaced = this.tcObjectServerMap.doLogicalReplaceUnlocked(this, key, oldSerializedMapValue,
+                                                                         newSerializedMapValue, mdd);
+      if (!replaced) {
+        // the value read locally was stale, fetch it again from the server next time
+        this.tcObjectServerMap.removeValueFromLocalCache(key);
+      }
+      return replaced;
+    } catch (AbortedOperationException e) {
+      throw new ToolkitAbortableOperationException();
+    } finally {
+      eventualConcurrentLock.unlock();
+    }
+  }
+
   @Override
   public boolean replace(final K key, final V oldValue, final V newValue) {
     return replace(key, oldValue, newValue, DefaultToolkitValueComparator.INSTANCE);
@@ -1279,6 +1404,91 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     return doGet(key, isEventual() ? GetType.UNLOCKED : GetType.LOCKED, quiet);
   }
 
+  @Override
+  public Future<V> getAsync(final Object key, final boolean quiet) {
+    // a strong get has to hold the key's read lock for the lookup, which cannot be handed over to another thread
+    if (!isEventual() || !LiteralValues.isLiteralInstance(key)) { return Futures.immediateFuture(get(key, quiet)); }
+
+    final Future<Object> value;
+    try {
+      value = this.tcObjectServerMap.getValueUnlockedAsync(this, key);
+    } catch (AbortedOperationException e) {
+      throw new ToolkitAbortableOperationException(e);
+    } catch (PlatformRejoinException e) {
+      throw new RejoinException(e);
+    }
+    return new UnlockedGetFuture(key, value, quiet);
+  }
+
+  /**
+   * Checks the looked up value for expiration and deserializes it on the first thread getting it, as an unlocked
+   * {@link #get(Object)} does.
+   */
+  private class UnlockedGetFuture implements Future<V> {
+    private final Object         key;
+    private final Future<Object> value;
+    private final boolean        quiet;
+    private boolean              resolved;
+    private V                    result;
+
+    UnlockedGetFuture(Object key, Future<Object> value, boolean quiet) {
+      this.key = key;
+      this.value = value;
+      this.quiet = quiet;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      return value.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return value.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+      return value.isDone();
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+      try {
+        return resolve(value.get());
+      } catch (ExecutionException e) {
+        throw translate(e);
+      }
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      try {
+        return resolve(value.get(timeout, unit));
+      } catch (ExecutionException e) {
+        throw translate(e);
+      }
+    }
+
+    private synchronized V resolve(Object serverValue) {
+      if (!resolved) {
+        result = getNonExpiredValue(key, asSerializedMapValue(serverValue), GetType.UNLOCKED, quiet);
+        resolved = true;
+      }
+      return result;
+    }
+
+    private ExecutionException translate(ExecutionException e) {
+      if (e.getCause() instanceof AbortedOperationException) {
+        throw new ToolkitAbortableOperationException((AbortedOperationException) e.getCause());
+      }
+      if (e.getCause() instanceof PlatformRejoinException) {
+        throw new RejoinException((PlatformRejoinException) e.getCause());
+      }
+      return e;
+    }
+  }
+
   @Override
   public VersionedValue<V> getVersionedValue(Object key) {
     GetType getType = isEventual() ? GetType.UNLOCKED : GetType.LOCKED;
@@ -1599,6 +1809,11 @@ public class ServerMap<K, V> extends AbstractTCToolkitObject implements Internal
     return evictionEnabled;
   }
 
+  @Override
+  public String getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
   private void setEvictionEnabled(boolean value) {
     if (this.evictionEnabled != value) {
       this.evictionEnabled = value;
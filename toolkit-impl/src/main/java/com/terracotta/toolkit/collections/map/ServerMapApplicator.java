@@ -54,6 +54,7 @@ public class ServerMapApplicator extends BaseApplicator {
   public static final String EVICTION_ENABLED_FIELDNAME     = "evictionEnabled";
   public static final String COMPRESSION_ENABLED_FIELDNAME  = "compressionEnabled";
   public static final String COPY_ON_READ_ENABLED_FIELDNAME = "copyOnReadEnabled";
+  public static final String EVICTION_POLICY_FIELDNAME      = "evictionPolicy";
 
   public ServerMapApplicator(DNAEncoding encoding, TCLogger logger) {
     super(encoding, logger);
@@ -73,6 +74,7 @@ public class ServerMapApplicator extends BaseApplicator {
     writer.addPhysicalAction(EVICTION_ENABLED_FIELDNAME, serverMap.isEvictionEnabled());
     writer.addPhysicalAction(COMPRESSION_ENABLED_FIELDNAME, serverMap.isCompressionEnabled());
     writer.addPhysicalAction(COPY_ON_READ_ENABLED_FIELDNAME, serverMap.isCopyOnReadEnabled());
+    writer.addPhysicalAction(EVICTION_POLICY_FIELDNAME, serverMap.getEvictionPolicy());
   }
 
   @Override
@@ -109,6 +111,8 @@ public class ServerMapApplicator extends BaseApplicator {
         } else if (COPY_ON_READ_ENABLED_FIELDNAME.equals(physicalAction.getFieldName())) {
           config.setBoolean(ToolkitConfigFields.COPY_ON_READ_ENABLED_FIELD_NAME,
               (Boolean) physicalAction.getObject());
+        } else if (EVICTION_POLICY_FIELDNAME.equals(physicalAction.getFieldName())) {
+          config.setString(ServerMap.EVICTION_POLICY_FIELD_NAME, (String) physicalAction.getObject());
         } else {
           throw new AssertionError("Got unexpected physical action: " + physicalAction);
         }
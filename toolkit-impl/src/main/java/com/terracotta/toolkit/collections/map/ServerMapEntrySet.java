@@ -16,26 +16,38 @@
  */
 package com.terracotta.toolkit.collections.map;
 
+import org.terracotta.toolkit.ToolkitRuntimeException;
+
 import java.util.AbstractSet;
+import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class ServerMapEntrySet<K, V> extends AbstractSet<Entry<K, V>> {
 
   private final ServerMap<K, V> map;
-  private final Set<K>          keys;
+  private final Set<K>          filterSet;
+  private final int             prefetchSize;
 
-  public ServerMapEntrySet(ServerMap<K, V> clusteredMap, final Set<K> keys) {
+  public ServerMapEntrySet(ServerMap<K, V> clusteredMap, final Set<K> filterSet, final int prefetchSize) {
     this.map = clusteredMap;
-    this.keys = keys;
+    this.filterSet = filterSet;
+    this.prefetchSize = prefetchSize;
   }
 
+  /**
+   * The keys of the segment are fetched when an iteration starts, so an aggregate iterating segment after segment only
+   * holds the keys of the one being iterated. The keys of a segment still come in one response.
+   */
   @Override
   public Iterator<Entry<K, V>> iterator() {
-    return new EntryIterator<K, V>(map, this.keys.iterator());
+    return new EntryIterator<K, V>(map, map.fetchKeys(filterSet).iterator(), prefetchSize);
   }
 
   @Override
@@ -63,27 +75,38 @@ public class ServerMapEntrySet<K, V> extends AbstractSet<Entry<K, V>> {
     map.clear();
   }
 
+  /**
+   * Keeps up to prefetchSize value lookups in flight ahead of the entry being returned, so that iterating an eventual
+   * map pays one round trip per window rather than one per key. Strong maps look values up one at a time under the key
+   * locks, as before.
+   */
   private static class EntryIterator<T, D> implements Iterator<Entry<T, D>> {
     /**
      *
      */
-    private final ServerMap<T, D> map;
-    private final Iterator<T>     delegateKeySet;
-    private Entry<T, D>           nextEntry;
-    private Entry<T, D>           currentEntry;
-
-    public EntryIterator(ServerMap<T, D> clusteredMap, final Iterator<T> delegateKeySet) {
+    private final ServerMap<T, D>  map;
+    private final Iterator<T>      delegateKeySet;
+    private final int              prefetchSize;
+    private final Queue<T>         prefetchedKeys   = new ArrayDeque<T>();
+    private final Queue<Future<D>> prefetchedValues = new ArrayDeque<Future<D>>();
+    private Entry<T, D>            nextEntry;
+    private Entry<T, D>            currentEntry;
+
+    public EntryIterator(ServerMap<T, D> clusteredMap, final Iterator<T> delegateKeySet, final int prefetchSize) {
       this.map = clusteredMap;
       this.delegateKeySet = delegateKeySet;
+      this.prefetchSize = prefetchSize;
       advance();
     }
 
     private void advance() {
       nextEntry = null;
 
-      while (delegateKeySet.hasNext()) {
-        T key = delegateKeySet.next();
-        D value = map.get(key);
+      prefetch();
+      while (!prefetchedKeys.isEmpty()) {
+        T key = prefetchedKeys.poll();
+        D value = getValue(prefetchedValues.poll());
+        prefetch();
         if (value == null) {
           continue;
         }
@@ -92,6 +115,26 @@ public class ServerMapEntrySet<K, V> extends AbstractSet<Entry<K, V>> {
       }
     }
 
+    private void prefetch() {
+      while (prefetchedKeys.size() < prefetchSize && delegateKeySet.hasNext()) {
+        T key = delegateKeySet.next();
+        prefetchedKeys.add(key);
+        prefetchedValues.add(map.getAsync(key, false));
+      }
+    }
+
+    private D getValue(Future<D> value) {
+      try {
+        return value.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ToolkitRuntimeException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+        throw new ToolkitRuntimeException(e.getCause());
+      }
+    }
+
     @Override
     public synchronized boolean hasNext() {
       return nextEntry != null;
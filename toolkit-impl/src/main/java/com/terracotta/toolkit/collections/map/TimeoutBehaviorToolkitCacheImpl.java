@@ -32,6 +32,7 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 public class TimeoutBehaviorToolkitCacheImpl<K, V> implements ToolkitCacheImplInterface<K, V>,
     DestroyableToolkitObject {
@@ -146,6 +147,11 @@ public class TimeoutBehaviorToolkitCacheImpl<K, V> implements ToolkitCacheImplIn
     return mutationBehaviourResolver.replace(key, oldValue, newValue);
   }
 
+  @Override
+  public boolean unlockedReplace(K key, V oldValue, V newValue) {
+    return mutationBehaviourResolver.unlockedReplace(key, oldValue, newValue);
+  }
+
   @Override
   public V replace(K key, V value) {
     return mutationBehaviourResolver.replace(key, value);
@@ -171,6 +177,16 @@ public class TimeoutBehaviorToolkitCacheImpl<K, V> implements ToolkitCacheImplIn
     return immutationBehaviourResolver.get(key);
   }
 
+  @Override
+  public Future<V> getAsync(Object key) {
+    return immutationBehaviourResolver.getAsync(key);
+  }
+
+  @Override
+  public Future<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+    return immutationBehaviourResolver.getAllAsync(keys);
+  }
+
   @Override
   public V put(K key, V value) {
     return mutationBehaviourResolver.put(key, value);
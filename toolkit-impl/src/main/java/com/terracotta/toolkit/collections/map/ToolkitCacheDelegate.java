@@ -0,0 +1,28 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections.map;
+
+import org.terracotta.toolkit.internal.cache.ToolkitCacheInternal;
+
+/**
+ * What a {@link ToolkitCacheImpl} forwards to: the aggregate server map, the bulk load cache or a rejoin in progress or
+ * destroyed proxy.
+ */
+public interface ToolkitCacheDelegate<K, V> extends ToolkitCacheInternal<K, V>, UnlockedReplaceSupport<K, V>,
+    AsyncGetSupport<K, V> {
+  // No additional methods
+}
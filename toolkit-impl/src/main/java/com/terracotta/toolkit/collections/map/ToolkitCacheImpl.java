@@ -45,6 +45,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -55,9 +56,9 @@ public class ToolkitCacheImpl<K, V> extends AbstractDestroyableToolkitObject imp
 
   // private static final TCLogger LOGGER = TCLogging.getLogger(ToolkitCacheImpl.class);
   private volatile AggregateServerMap<K, V>   aggregateServerMap;
-  private volatile ToolkitCacheInternal<K, V> activeDelegate;
+  private volatile ToolkitCacheDelegate<K, V> activeDelegate;
   private volatile ToolkitCacheInternal<K, V> localDelegate;
-  private volatile ToolkitCacheInternal<K, V> currentDelegate;
+  private volatile ToolkitCacheDelegate<K, V> currentDelegate;
   private final BulkLoadToolkitCache<K, V>    bulkloadCache;
   private final String                        name;
   private final OnGCCallable                  onGCCallable;
@@ -264,6 +265,36 @@ public class ToolkitCacheImpl<K, V> extends AbstractDestroyableToolkitObject imp
     }
   }
 
+  @Override
+  public boolean unlockedReplace(K key, V oldValue, V newValue) {
+    readLock();
+    try {
+      return activeDelegate.unlockedReplace(key, oldValue, newValue);
+    } finally {
+      readUnlock();
+    }
+  }
+
+  @Override
+  public Future<V> getAsync(Object key) {
+    readLock();
+    try {
+      return activeDelegate.getAsync(key);
+    } finally {
+      readUnlock();
+    }
+  }
+
+  @Override
+  public Future<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+    readLock();
+    try {
+      return activeDelegate.getAllAsync(keys);
+    } finally {
+      readUnlock();
+    }
+  }
+
   @Override
   public V put(K key, V value) {
     readLock();
@@ -17,12 +17,11 @@
 package com.terracotta.toolkit.collections.map;
 
 import org.terracotta.toolkit.internal.cache.BufferingToolkitCache;
-import org.terracotta.toolkit.internal.cache.ToolkitCacheInternal;
 import org.terracotta.toolkit.store.ToolkitStore;
 
 /**
  * This interface is needed so that we can create a Proxy Object for ToolkitCacheImpl.
  */
-public interface ToolkitCacheImplInterface<K, V> extends ToolkitStore<K, V>, ToolkitCacheInternal<K, V>, BufferingToolkitCache<K, V> {
+public interface ToolkitCacheImplInterface<K, V> extends ToolkitStore<K, V>, ToolkitCacheDelegate<K, V>, BufferingToolkitCache<K, V> {
   // No additional methods
 }
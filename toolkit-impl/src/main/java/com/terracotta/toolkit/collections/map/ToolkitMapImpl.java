@@ -53,6 +53,7 @@ public class ToolkitMapImpl<K, V> extends AbstractTCToolkitObject implements Too
   protected volatile ToolkitReadWriteLock lock;
   private final transient ToolkitLock     concurrentLock;
   private final List<MutateOperation>     pendingChanges = new ArrayList();
+  private volatile boolean                hasPendingChanges;
 
   public ToolkitMapImpl(PlatformService platformService) {
     this(new KeyValueHolder(new ConcurrentHashMap<K, V>()), platformService);
@@ -108,6 +109,15 @@ public class ToolkitMapImpl<K, V> extends AbstractTCToolkitObject implements Too
 
       iterator.remove();
     }
+    hasPendingChanges = false;
+  }
+
+  /**
+   * Whether changes applied from the cluster are still waiting to be resolved into the local holder. Read without the
+   * resolve lock, so callers that only need to read can skip the lock when this returns false.
+   */
+  protected boolean hasPendingChanges() {
+    return hasPendingChanges;
   }
 
   private K getValueFromTCCompatibleObject(Object o) {
@@ -1220,15 +1230,18 @@ public class ToolkitMapImpl<K, V> extends AbstractTCToolkitObject implements Too
 
   public void internalPut(Object key, Object value) {
     pendingChanges.add(new MutateOperation(MutateOperation.METHOD.PUT, key, value));
+    hasPendingChanges = true;
   }
 
   public void internalRemove(Object key) {
     MutateOperation mutateOperation = new MutateOperation(MutateOperation.METHOD.REMOVE, key, null);
     pendingChanges.add(mutateOperation);
+    hasPendingChanges = true;
   }
 
   public void internalClear() {
     pendingChanges.clear();
+    hasPendingChanges = false;
     keyValueHolder.clear();
   }
 }
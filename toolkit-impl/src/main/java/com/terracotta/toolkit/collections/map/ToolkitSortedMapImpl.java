@@ -28,6 +28,10 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
+/**
+ * Sorted toolkit map. Every client holds the whole map in a local skip list that changes from the cluster are resolved
+ * into, so navigation and range views are answered locally.
+ */
 public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends ToolkitMapImpl<K, V> implements
     ToolkitSortedMap<K, V> {
   private final SortedKeyValueHolder<K, V> sortedKeyValueHolder;
@@ -46,10 +50,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
   public K firstKey() {
     lock.readLock().lock();
     try {
-      synchronized (localResolveLock) {
-        applyPendingChanges();
-        return sortedKeyValueHolder.firstKey();
-      }
+      resolvePendingChanges();
+      return sortedKeyValueHolder.firstKey();
     } finally {
       lock.readLock().unlock();
     }
@@ -59,10 +61,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
   public SortedMap<K, V> headMap(K toKey) {
     lock.readLock().lock();
     try {
-      synchronized (localResolveLock) {
-        applyPendingChanges();
-        return new RangeSortedMap(sortedKeyValueHolder.headMap(toKey), null, toKey);
-      }
+      resolvePendingChanges();
+      return new RangeSortedMap(sortedKeyValueHolder.headMap(toKey), null, toKey);
     } finally {
       lock.readLock().unlock();
     }
@@ -72,10 +72,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
   public K lastKey() {
     lock.readLock().lock();
     try {
-      synchronized (localResolveLock) {
-        applyPendingChanges();
-        return sortedKeyValueHolder.lastKey();
-      }
+      resolvePendingChanges();
+      return sortedKeyValueHolder.lastKey();
     } finally {
       lock.readLock().unlock();
     }
@@ -85,10 +83,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
   public SortedMap<K, V> subMap(K fromKey, K toKey) {
     lock.readLock().lock();
     try {
-      synchronized (localResolveLock) {
-        applyPendingChanges();
-        return new RangeSortedMap(sortedKeyValueHolder.subMap(fromKey, toKey), fromKey, toKey);
-      }
+      resolvePendingChanges();
+      return new RangeSortedMap(sortedKeyValueHolder.subMap(fromKey, toKey), fromKey, toKey);
     } finally {
       lock.readLock().unlock();
     }
@@ -98,15 +94,24 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
   public SortedMap<K, V> tailMap(K fromKey) {
     lock.readLock().lock();
     try {
-      synchronized (localResolveLock) {
-        applyPendingChanges();
-        return new RangeSortedMap(sortedKeyValueHolder.tailMap(fromKey), fromKey, null);
-      }
+      resolvePendingChanges();
+      return new RangeSortedMap(sortedKeyValueHolder.tailMap(fromKey), fromKey, null);
     } finally {
       lock.readLock().unlock();
     }
   }
 
+  /**
+   * Key navigation only reads the concurrent skip list, so the resolve lock is needed only while remote changes are
+   * still pending. Must be called with the cluster read (or write) lock held.
+   */
+  private void resolvePendingChanges() {
+    if (!hasPendingChanges()) { return; }
+    synchronized (localResolveLock) {
+      applyPendingChanges();
+    }
+  }
+
   private class RangeSortedMap implements SortedMap<K, V> {
     private final SortedMap<K, V> localMap;
     private final K               from;
@@ -198,10 +203,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
     public boolean isEmpty() {
       lock.readLock().lock();
       try {
-        synchronized (localResolveLock) {
-          applyPendingChanges();
-          return this.localMap.isEmpty();
-        }
+        resolvePendingChanges();
+        return this.localMap.isEmpty();
       } finally {
         lock.readLock().unlock();
       }
@@ -259,10 +262,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
     public int size() {
       lock.readLock().lock();
       try {
-        synchronized (localResolveLock) {
-          applyPendingChanges();
-          return localMap.size();
-        }
+        resolvePendingChanges();
+        return localMap.size();
       } finally {
         lock.readLock().unlock();
       }
@@ -290,10 +291,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
     public K firstKey() {
       lock.readLock().lock();
       try {
-        synchronized (localResolveLock) {
-          applyPendingChanges();
-          return this.localMap.firstKey();
-        }
+        resolvePendingChanges();
+        return this.localMap.firstKey();
       } finally {
         lock.readLock().unlock();
       }
@@ -303,10 +302,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
     public SortedMap<K, V> headMap(K toKey) {
       lock.readLock().lock();
       try {
-        synchronized (localResolveLock) {
-          applyPendingChanges();
-          return new RangeSortedMap(localMap.headMap(toKey), from, toKey);
-        }
+        resolvePendingChanges();
+        return new RangeSortedMap(localMap.headMap(toKey), from, toKey);
       } finally {
         lock.readLock().unlock();
       }
@@ -329,10 +326,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
     public K lastKey() {
       lock.readLock().lock();
       try {
-        synchronized (localResolveLock) {
-          applyPendingChanges();
-          return localMap.lastKey();
-        }
+        resolvePendingChanges();
+        return localMap.lastKey();
       } finally {
         lock.readLock().unlock();
       }
@@ -342,10 +337,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
     public SortedMap<K, V> subMap(K fromKey, K toKey) {
       lock.readLock().lock();
       try {
-        synchronized (localResolveLock) {
-          applyPendingChanges();
-          return new RangeSortedMap(localMap.subMap(fromKey, toKey), fromKey, toKey);
-        }
+        resolvePendingChanges();
+        return new RangeSortedMap(localMap.subMap(fromKey, toKey), fromKey, toKey);
       } finally {
         lock.readLock().unlock();
       }
@@ -355,10 +348,8 @@ public class ToolkitSortedMapImpl<K extends Comparable<? super K>, V> extends To
     public SortedMap<K, V> tailMap(K fromKey) {
       lock.readLock().lock();
       try {
-        synchronized (localResolveLock) {
-          applyPendingChanges();
-          return new RangeSortedMap(localMap.tailMap(fromKey), fromKey, to);
-        }
+        resolvePendingChanges();
+        return new RangeSortedMap(localMap.tailMap(fromKey), fromKey, to);
       } finally {
         lock.readLock().unlock();
       }
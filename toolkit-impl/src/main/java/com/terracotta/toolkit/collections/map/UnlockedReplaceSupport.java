@@ -0,0 +1,27 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections.map;
+
+public interface UnlockedReplaceSupport<K, V> {
+
+  /**
+   * Replaces the value of the key if it still is oldValue, without taking the clustered lock of the key whatever the
+   * consistency. The check is done by the server map on apply against the value read by this node, a stale local
+   * copy makes the replace fail and is dropped so that the next read goes to the server.
+   */
+  boolean unlockedReplace(K key, V oldValue, V newValue);
+}
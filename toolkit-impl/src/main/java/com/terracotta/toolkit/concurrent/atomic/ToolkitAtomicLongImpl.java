@@ -18,9 +18,9 @@ package com.terracotta.toolkit.concurrent.atomic;
 
 import org.terracotta.toolkit.concurrent.atomic.ToolkitAtomicLong;
 import org.terracotta.toolkit.concurrent.locks.ToolkitLock;
-import org.terracotta.toolkit.store.ToolkitStore;
 
 import com.tc.platform.PlatformService;
+import com.terracotta.toolkit.collections.map.ToolkitCacheImpl;
 import com.terracotta.toolkit.rejoin.RejoinCallback;
 import com.terracotta.toolkit.util.ToolkitIDGenerator;
 import com.terracotta.toolkit.util.ToolkitObjectStatusImpl;
@@ -29,15 +29,15 @@ import java.io.Serializable;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class ToolkitAtomicLongImpl implements ToolkitAtomicLong, RejoinCallback {
-  private final ToolkitStore<String, ToolkitAtomicLongState> atomicLongs;
-  private final String                                       name;
-  private final ToolkitLock                                  lock;
-  private final long                                         uid;
-  private final ToolkitIDGenerator                           longIdGenerator;
-  private final ToolkitObjectStatusImpl                      status;
-  private final AtomicInteger                                currentRejoinCount = new AtomicInteger();
-
-  public ToolkitAtomicLongImpl(String name, ToolkitStore<String, ToolkitAtomicLongState> clusteredMap,
+  private final ToolkitCacheImpl<String, ToolkitAtomicLongState> atomicLongs;
+  private final String                                           name;
+  private final ToolkitLock                                      lock;
+  private final long                                             uid;
+  private final ToolkitIDGenerator                               longIdGenerator;
+  private final ToolkitObjectStatusImpl                          status;
+  private final AtomicInteger                                    currentRejoinCount = new AtomicInteger();
+
+  public ToolkitAtomicLongImpl(String name, ToolkitCacheImpl<String, ToolkitAtomicLongState> clusteredMap,
                                ToolkitIDGenerator longIdGenerator, PlatformService platformService) {
     this.atomicLongs = clusteredMap;
     this.name = name;
@@ -73,7 +73,10 @@ public class ToolkitAtomicLongImpl implements ToolkitAtomicLong, RejoinCallback
   }
 
   private ToolkitAtomicLongState getInternalStateOrNullIfDestroyed() {
-    ToolkitAtomicLongState state = atomicLongs.get(name);
+    return checkUid(atomicLongs.get(name));
+  }
+
+  private ToolkitAtomicLongState checkUid(ToolkitAtomicLongState state) {
     if (state != null && state.getUid() != uid) {
       // state found, but created with different uid -> destroyed
       return null;
@@ -83,51 +86,89 @@ public class ToolkitAtomicLongImpl implements ToolkitAtomicLong, RejoinCallback
   }
 
   private ToolkitAtomicLongState getInternalState() {
-    ToolkitAtomicLongState state = getInternalStateOrNullIfDestroyed();
+    return checkNotDestroyed(getInternalStateOrNullIfDestroyed());
+  }
+
+  /**
+   * Unlocked read of the state for a compare and swap, possibly a stale local copy: the replace fails on a stale copy
+   * and drops it, so the retry reads the current state from the server.
+   */
+  private ToolkitAtomicLongState getInternalStateForUpdate() {
+    return checkNotDestroyed(checkUid(atomicLongs.unlockedGet(name, true)));
+  }
+
+  private ToolkitAtomicLongState checkNotDestroyed(ToolkitAtomicLongState state) {
     if (state == null) throw new IllegalStateException("ToolkitAtomicLong with name '" + name
                                                        + "' is already destroyed and no longer exists!");
     return state;
   }
 
-  @Override
-  public long addAndGet(long delta) {
-    lock.lock();
-    try {
-      ToolkitAtomicLongState state = getInternalState();
+  /**
+   * Swaps the state for one holding the new value on the server, retried until no other node changed the value in
+   * between. No clustered lock is taken so nodes updating the same counter do not recall it from each other.
+   *
+   * @return the value before the update
+   */
+  private long getAndUpdate(LongUpdate update) {
+    while (true) {
+      ToolkitAtomicLongState state = getInternalStateForUpdate();
       long val = state.getLongValue();
-      Long result = val + delta;
-      atomicLongs.putNoReturn(name, state.setLongValue(result));
-      return result;
-    } finally {
-      lock.unlock();
+      long result = update.apply(val);
+      if (atomicLongs.unlockedReplace(name, state, new ToolkitAtomicLongState(uid, result))) { return val; }
+    }
+  }
+
+  private interface LongUpdate {
+    long apply(long value);
+  }
+
+  private static class Add implements LongUpdate {
+    private final long delta;
+
+    Add(long delta) {
+      this.delta = delta;
+    }
+
+    @Override
+    public long apply(long value) {
+      return value + delta;
+    }
+  }
+
+  private static class SetTo implements LongUpdate {
+    private final long newValue;
+
+    SetTo(long newValue) {
+      this.newValue = newValue;
     }
+
+    @Override
+    public long apply(long value) {
+      return newValue;
+    }
+  }
+
+  @Override
+  public long addAndGet(long delta) {
+    return getAndUpdate(new Add(delta)) + delta;
   }
 
   @Override
   public boolean compareAndSet(long expect, long update) {
-    lock.lock();
-    try {
-      ToolkitAtomicLongState state = getInternalState();
-      long val = state.getLongValue();
-      if (val == expect) {
-        atomicLongs.putNoReturn(name, state.setLongValue(update));
-        return true;
-      } else {
-        return false;
+    while (true) {
+      ToolkitAtomicLongState state = getInternalStateForUpdate();
+      if (state.getLongValue() != expect) {
+        // only fail on the current value, not on a stale local copy
+        state = getInternalState();
+        if (state.getLongValue() != expect) { return false; }
       }
-    } finally {
-      lock.unlock();
+      if (atomicLongs.unlockedReplace(name, state, new ToolkitAtomicLongState(uid, update))) { return true; }
     }
   }
 
   @Override
   public long decrementAndGet() {
-    lock.lock();
-    try {
-      return addAndGet(-1);
-    } finally {
-      lock.unlock();
-    }
+    return addAndGet(-1);
   }
 
   @Override
@@ -142,78 +183,32 @@ public class ToolkitAtomicLongImpl implements ToolkitAtomicLong, RejoinCallback
 
   @Override
   public long getAndAdd(long delta) {
-    lock.lock();
-    try {
-      ToolkitAtomicLongState state = getInternalState();
-      long val = state.getLongValue();
-      Long result = val + delta;
-      atomicLongs.putNoReturn(name, state.setLongValue(result));
-      return val;
-    } finally {
-      lock.unlock();
-    }
+    return getAndUpdate(new Add(delta));
   }
 
   @Override
   public long getAndDecrement() {
-    lock.lock();
-    try {
-      ToolkitAtomicLongState state = getInternalState();
-      long val = state.getLongValue();
-      Long result = val - 1;
-      atomicLongs.putNoReturn(name, state.setLongValue(result));
-      return val;
-    } finally {
-      lock.unlock();
-    }
+    return getAndUpdate(new Add(-1));
   }
 
   @Override
   public long getAndIncrement() {
-    lock.lock();
-    try {
-      ToolkitAtomicLongState state = getInternalState();
-      long val = state.getLongValue();
-      Long result = val + 1;
-      atomicLongs.putNoReturn(name, state.setLongValue(result));
-      return val;
-    } finally {
-      lock.unlock();
-    }
+    return getAndUpdate(new Add(1));
   }
 
   @Override
   public long getAndSet(long newValue) {
-    lock.lock();
-    try {
-      ToolkitAtomicLongState state = getInternalState();
-      long val = state.getLongValue();
-      atomicLongs.putNoReturn(name, state.setLongValue(newValue));
-      return val;
-    } finally {
-      lock.unlock();
-    }
+    return getAndUpdate(new SetTo(newValue));
   }
 
   @Override
   public long incrementAndGet() {
-    lock.lock();
-    try {
-      return addAndGet(1);
-    } finally {
-      lock.unlock();
-    }
+    return addAndGet(1);
   }
 
   @Override
   public void set(long newValue) {
-    lock.lock();
-    try {
-      ToolkitAtomicLongState state = getInternalState();
-      atomicLongs.putNoReturn(name, state.setLongValue(newValue));
-    } finally {
-      lock.unlock();
-    }
+    getAndUpdate(new SetTo(newValue));
   }
 
   @Override
@@ -287,5 +282,17 @@ public class ToolkitAtomicLongImpl implements ToolkitAtomicLong, RejoinCallback
       return this;
     }
 
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof ToolkitAtomicLongState)) { return false; }
+      ToolkitAtomicLongState other = (ToolkitAtomicLongState) obj;
+      return uid == other.uid && longValue.equals(other.longValue);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (int) (uid ^ (uid >>> 32)) + longValue.hashCode();
+    }
+
   }
 }
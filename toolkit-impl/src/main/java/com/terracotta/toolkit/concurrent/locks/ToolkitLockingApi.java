@@ -25,6 +25,11 @@ import com.tc.platform.PlatformService;
 import com.tc.util.Assert;
 import com.terracotta.toolkit.abortable.ToolkitAbortableOperationException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 public class ToolkitLockingApi {
@@ -32,6 +37,20 @@ public class ToolkitLockingApi {
   private static final String TOOLKIT_OBJECT_LOCK_PREFIX = "toolkit-object-lock-prefix";
   private static final String DELIMITER                  = "|";
 
+  /**
+   * Canonical order of the lock ids of a lock set: Long ids first, then String ids, each in their natural order.
+   */
+  static final Comparator<Object> LOCK_ID_ORDER = new Comparator<Object>() {
+                                                  @Override
+                                                  public int compare(Object o1, Object o2) {
+                                                    if (o1 instanceof Long) {
+                                                      return o2 instanceof Long ? ((Long) o1).compareTo((Long) o2) : -1;
+                                                    }
+                                                    return o2 instanceof Long ? 1 : ((String) o1)
+                                                        .compareTo((String) o2);
+                                                  }
+                                                };
+
   private ToolkitLockingApi() {
     // private
   }
@@ -181,6 +200,45 @@ public class ToolkitLockingApi {
     }
   }
   
+  /**
+   * Locks a set of lock ids in their canonical order, so that threads locking overlapping sets cannot deadlock. The
+   * requests for the whole set are issued together rather than one round trip per lock, and nothing is left held if
+   * the set cannot be acquired.
+   *
+   * @return the distinct lock ids in acquisition order, to be released with {@link #unlockAll}
+   */
+  public static List<Object> lockAll(Collection<?> lockIds, ToolkitLockTypeInternal lockType, PlatformService service) {
+    final TreeSet<Object> distinct = new TreeSet<Object>(LOCK_ID_ORDER);
+    for (Object lockId : lockIds) {
+      assertLockIdType(lockId);
+      distinct.add(lockId);
+    }
+    final List<Object> ordered = new ArrayList<Object>(distinct);
+    try {
+      service.beginLocks(ordered, LockingUtils.translate(lockType));
+    } catch (AbortedOperationException e) {
+      throw new ToolkitAbortableOperationException(e);
+    }
+    return ordered;
+  }
+
+  /**
+   * Releases, in reverse order, the lock ids returned by {@link #lockAll}.
+   */
+  public static void unlockAll(List<?> lockIds, ToolkitLockTypeInternal lockType, PlatformService service) {
+    RuntimeException failure = null;
+    for (int i = lockIds.size() - 1; i >= 0; i--) {
+      try {
+        doCommitLock(lockIds.get(i), lockType, service);
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) { throw failure; }
+  }
+
   private static void lock(Long lockId, ToolkitLockTypeInternal lockType, PlatformService service) {
     doBeginLock(lockId, lockType, service);
   }
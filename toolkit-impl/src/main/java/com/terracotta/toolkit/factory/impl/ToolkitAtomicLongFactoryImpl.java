@@ -19,10 +19,10 @@ package com.terracotta.toolkit.factory.impl;
 import org.terracotta.toolkit.ToolkitObjectType;
 import org.terracotta.toolkit.concurrent.atomic.ToolkitAtomicLong;
 import org.terracotta.toolkit.config.Configuration;
-import org.terracotta.toolkit.store.ToolkitStore;
 
 import com.tc.platform.PlatformService;
 import com.tc.platform.rejoin.RejoinLifecycleListener;
+import com.terracotta.toolkit.collections.map.ToolkitCacheImpl;
 import com.terracotta.toolkit.concurrent.atomic.ToolkitAtomicLongImpl;
 import com.terracotta.toolkit.factory.ToolkitObjectFactory;
 import com.terracotta.toolkit.roots.impl.ToolkitTypeConstants;
@@ -36,14 +36,14 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class ToolkitAtomicLongFactoryImpl implements ToolkitObjectFactory<ToolkitAtomicLong> {
-  private final ToolkitStore                        atomicLongs;
+  private final ToolkitCacheImpl                    atomicLongs;
   private final ToolkitIDGeneratorImpl              longIdGenerator;
   private final WeakValueMap<ToolkitAtomicLongImpl> localCache;
   private final Lock                                lock;
   private volatile Set<String>                      beforeRejoinSet = Collections.EMPTY_SET;
   private final PlatformService                     platformService;
 
-  public ToolkitAtomicLongFactoryImpl(ToolkitStore atomicLongs, WeakValueMapManager manager,
+  public ToolkitAtomicLongFactoryImpl(ToolkitCacheImpl atomicLongs, WeakValueMapManager manager,
                                       PlatformService platformService) {
     this.atomicLongs = atomicLongs;
     this.platformService = platformService;
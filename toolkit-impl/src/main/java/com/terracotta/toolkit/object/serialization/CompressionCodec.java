@@ -0,0 +1,53 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.object.serialization;
+
+import java.io.IOException;
+
+/**
+ * Block compression used for serialized toolkit values when compression is enabled on a cache or store.
+ * <p>
+ * Codecs are looked up by name through {@link CompressionCodecs}. Additional codecs can be registered through the
+ * {@link java.util.ServiceLoader} mechanism.
+ */
+public interface CompressionCodec {
+
+  /**
+   * Identifier recorded in front of every value compressed by this codec, so that values can be decompressed without
+   * knowing the codec configured by the writer. Must be unique among registered codecs.
+   */
+  byte getId();
+
+  /**
+   * Name used to select this codec in the cache configuration.
+   */
+  String getName();
+
+  /**
+   * Compress {@code srcLen} bytes of {@code src} into {@code dest}.
+   *
+   * @return number of bytes written to {@code dest}, or -1 if the compressed form does not fit in {@code maxLen} bytes
+   */
+  int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxLen);
+
+  /**
+   * Decompress data previously produced by {@link #compress(byte[], int, int, byte[], int, int)}.
+   *
+   * @throws IOException if the data is corrupt
+   */
+  byte[] decompress(byte[] src, int srcOff, int srcLen) throws IOException;
+}
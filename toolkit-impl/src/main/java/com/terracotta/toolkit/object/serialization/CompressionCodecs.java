@@ -0,0 +1,132 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.object.serialization;
+
+import org.terracotta.toolkit.config.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Registry of the available {@link CompressionCodec}s and the framing of compressed values.
+ * <p>
+ * A compressed value is the codec id followed by the codec output. Values that do not shrink are stored uncompressed
+ * behind the {@link #RAW_ID} byte. GZIP values, the default, are bare GZIP streams as they were before codecs were
+ * introduced, so that nodes without codec support can still read them. They are recognized by the GZIP magic, which no
+ * codec id may collide with. Other codecs, such as LZ4, must be selected explicitly through
+ * {@link #COMPRESSION_CODEC_FIELD_NAME}.
+ */
+public final class CompressionCodecs {
+
+  public static final String                         COMPRESSION_CODEC_FIELD_NAME = "compressionCodec";
+  public static final String                         DEFAULT_COMPRESSION_CODEC    = GzipCompressionCodec.NAME;
+
+  static final byte                                  RAW_ID                       = 0;
+  private static final byte                          GZIP_MAGIC_0                 = (byte) GZIPInputStream.GZIP_MAGIC;
+  private static final byte                          GZIP_MAGIC_1                 = (byte) (GZIPInputStream.GZIP_MAGIC >> 8);
+
+  private static final CompressionCodec[]            BY_ID                        = new CompressionCodec[256];
+  private static final Map<String, CompressionCodec> BY_NAME                      = new ConcurrentHashMap<String, CompressionCodec>();
+
+  static {
+    register(new Lz4BlockCompressionCodec());
+    register(new GzipCompressionCodec());
+    for (CompressionCodec codec : ServiceLoader.load(CompressionCodec.class, CompressionCodecs.class.getClassLoader())) {
+      register(codec);
+    }
+  }
+
+  private CompressionCodecs() {
+    //
+  }
+
+  private static synchronized void register(CompressionCodec codec) {
+    byte id = codec.getId();
+    if (id == RAW_ID || id == GZIP_MAGIC_0) { throw new IllegalArgumentException("Reserved codec id " + id + " used by "
+                                                                                 + codec.getName()); }
+    if (BY_ID[id & 0xFF] != null) { throw new IllegalArgumentException("Codec id " + id + " of " + codec.getName()
+                                                                       + " already used by "
+                                                                       + BY_ID[id & 0xFF].getName()); }
+    if (BY_NAME.containsKey(codec.getName())) { throw new IllegalArgumentException("Duplicate codec name "
+                                                                                   + codec.getName()); }
+    BY_ID[id & 0xFF] = codec;
+    BY_NAME.put(codec.getName(), codec);
+  }
+
+  /**
+   * @throws IllegalArgumentException if no codec is registered under the given name
+   */
+  public static CompressionCodec forName(String name) {
+    CompressionCodec codec = BY_NAME.get(name);
+    if (codec == null) { throw new IllegalArgumentException("Unknown compression codec '" + name + "', available: "
+                                                            + BY_NAME.keySet()); }
+    return codec;
+  }
+
+  /**
+   * Codec configured in the given configuration through {@link #COMPRESSION_CODEC_FIELD_NAME}, or the default codec.
+   */
+  public static CompressionCodec fromConfig(Configuration config) {
+    if (config.hasField(COMPRESSION_CODEC_FIELD_NAME)) {
+      return forName(config.getString(COMPRESSION_CODEC_FIELD_NAME));
+    }
+    return getDefault();
+  }
+
+  public static CompressionCodec getDefault() {
+    return forName(DEFAULT_COMPRESSION_CODEC);
+  }
+
+  /**
+   * Compress {@code data} with {@code codec}, falling back to storing it uncompressed if it does not get smaller. GZIP
+   * output is always written as a bare GZIP stream.
+   */
+  public static byte[] compress(CompressionCodec codec, byte[] data) {
+    if (codec.getId() == GzipCompressionCodec.ID) { return GzipCompressionCodec.gzip(data, 0, data.length); }
+    byte[] out = new byte[data.length + 1];
+    int written = data.length == 0 ? -1 : codec.compress(data, 0, data.length, out, 1, data.length - 1);
+    if (written < 0) {
+      out[0] = RAW_ID;
+      System.arraycopy(data, 0, out, 1, data.length);
+      return out;
+    }
+    out[0] = codec.getId();
+    return Arrays.copyOf(out, written + 1);
+  }
+
+  /**
+   * Stream over the uncompressed form of a value written by {@link #compress(CompressionCodec, byte[])} or by the
+   * GZIP compression used before codecs were introduced.
+   */
+  public static InputStream decompress(byte[] data) throws IOException {
+    if (data.length == 0) { throw new IOException("Empty compressed value"); }
+    byte id = data[0];
+    if (id == RAW_ID) { return new ByteArrayInputStream(data, 1, data.length - 1); }
+    if (id == GZIP_MAGIC_0 && data.length > 1 && data[1] == GZIP_MAGIC_1) {
+      return new GZIPInputStream(new ByteArrayInputStream(data));
+    }
+    CompressionCodec codec = BY_ID[id & 0xFF];
+    if (codec == null) { throw new IOException("Unknown compression codec id " + id); }
+    return new ByteArrayInputStream(codec.decompress(data, 1, data.length - 1));
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.object.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP codec, slow but with a better ratio than {@link Lz4BlockCompressionCodec} on large text-like values.
+ * <p>
+ * This is the default codec. {@link CompressionCodecs#compress(CompressionCodec, byte[])} writes its output as a bare
+ * GZIP stream, the format of the values compressed before codecs were introduced.
+ */
+public class GzipCompressionCodec implements CompressionCodec {
+
+  public static final String NAME = "gzip";
+  static final byte         ID   = 2;
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxLen) {
+    byte[] compressed = gzip(src, srcOff, srcLen);
+    if (compressed.length > maxLen) { return -1; }
+    System.arraycopy(compressed, 0, dest, destOff, compressed.length);
+    return compressed.length;
+  }
+
+  static byte[] gzip(byte[] src, int srcOff, int srcLen) {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(32, srcLen / 2));
+    try {
+      GZIPOutputStream out = new GZIPOutputStream(baos);
+      out.write(src, srcOff, srcLen);
+      out.close();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return baos.toByteArray();
+  }
+
+  @Override
+  public byte[] decompress(byte[] src, int srcOff, int srcLen) throws IOException {
+    InputStream in = new GZIPInputStream(new ByteArrayInputStream(src, srcOff, srcLen));
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(srcLen * 2);
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.object.serialization;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Pure java implementation of the LZ4 block format: a single pass, greedy matcher over a 4K entry hash table with a
+ * 64K window. The block is preceded by the uncompressed length as an unsigned varint.
+ */
+public class Lz4BlockCompressionCodec implements CompressionCodec {
+
+  public static final String            NAME          = "lz4";
+  private static final byte             ID            = 1;
+
+  private static final int              MIN_MATCH     = 4;
+  private static final int              LAST_LITERALS = 5;
+  private static final int              MF_LIMIT      = 12;
+  private static final int              MAX_DISTANCE  = 0xFFFF;
+  private static final int              HASH_LOG      = 12;
+  private static final int              RUN_MASK      = 0x0F;
+  private static final int              SKIP_TRIGGER  = 6;
+
+  private static final ThreadLocal<int[]> HASH_TABLE  = new ThreadLocal<int[]>() {
+                                                        @Override
+                                                        protected int[] initialValue() {
+                                                          return new int[1 << HASH_LOG];
+                                                        }
+                                                      };
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxLen) {
+    final int srcEnd = srcOff + srcLen;
+    final int destEnd = destOff + maxLen;
+    int op = writeVarInt(srcLen, dest, destOff, destEnd);
+    if (op < 0) { return -1; }
+
+    int anchor = srcOff;
+    if (srcLen > MF_LIMIT) {
+      final int[] table = HASH_TABLE.get();
+      Arrays.fill(table, -1);
+      final int mfLimit = srcEnd - MF_LIMIT;
+      final int matchLimit = srcEnd - LAST_LITERALS;
+
+      int ip = srcOff;
+      int searchMatchNb = 1 << SKIP_TRIGGER;
+      while (ip < mfLimit) {
+        int sequence = readInt(src, ip);
+        int h = hash(sequence);
+        int ref = table[h];
+        table[h] = ip;
+        if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+          // accelerate through incompressible data
+          ip += searchMatchNb++ >>> SKIP_TRIGGER;
+          continue;
+        }
+        searchMatchNb = 1 << SKIP_TRIGGER;
+
+        while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) {
+          ip--;
+          ref--;
+        }
+        int matchLen = MIN_MATCH;
+        while (ip + matchLen < matchLimit && src[ip + matchLen] == src[ref + matchLen]) {
+          matchLen++;
+        }
+
+        op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLen, dest, op, destEnd);
+        if (op < 0) { return -1; }
+        ip += matchLen;
+        anchor = ip;
+        if (ip - 2 >= srcOff && ip < mfLimit) {
+          table[hash(readInt(src, ip - 2))] = ip - 2;
+        }
+      }
+    }
+
+    op = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dest, op, destEnd);
+    return op < 0 ? -1 : op - destOff;
+  }
+
+  @Override
+  public byte[] decompress(byte[] src, int srcOff, int srcLen) throws IOException {
+    final int srcEnd = srcOff + srcLen;
+    int ip = srcOff;
+    int rawLen = 0;
+    for (int shift = 0;; shift += 7) {
+      if (ip >= srcEnd || shift > 28) { throw corrupt(); }
+      int b = src[ip++] & 0xFF;
+      rawLen |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        break;
+      }
+    }
+    if (rawLen < 0) { throw corrupt(); }
+
+    final byte[] dest = new byte[rawLen];
+    int op = 0;
+    while (true) {
+      if (ip >= srcEnd) { throw corrupt(); }
+      final int token = src[ip++] & 0xFF;
+
+      int literalLen = token >>> 4;
+      if (literalLen == RUN_MASK) {
+        int b;
+        do {
+          if (ip >= srcEnd) { throw corrupt(); }
+          b = src[ip++] & 0xFF;
+          literalLen += b;
+        } while (b == 0xFF);
+      }
+      if (literalLen > srcEnd - ip || literalLen > rawLen - op) { throw corrupt(); }
+      System.arraycopy(src, ip, dest, op, literalLen);
+      ip += literalLen;
+      op += literalLen;
+
+      if (ip == srcEnd) {
+        break;
+      }
+
+      if (srcEnd - ip < 2) { throw corrupt(); }
+      final int offset = (src[ip] & 0xFF) | ((src[ip + 1] & 0xFF) << 8);
+      ip += 2;
+      if (offset == 0 || offset > op) { throw corrupt(); }
+
+      int matchLen = token & RUN_MASK;
+      if (matchLen == RUN_MASK) {
+        int b;
+        do {
+          if (ip >= srcEnd) { throw corrupt(); }
+          b = src[ip++] & 0xFF;
+          matchLen += b;
+        } while (b == 0xFF);
+      }
+      matchLen += MIN_MATCH;
+      if (matchLen > rawLen - op) { throw corrupt(); }
+
+      int ref = op - offset;
+      if (offset >= matchLen) {
+        System.arraycopy(dest, ref, dest, op, matchLen);
+        op += matchLen;
+      } else {
+        // overlapping copy, replicates the last offset bytes
+        for (int i = 0; i < matchLen; i++) {
+          dest[op++] = dest[ref++];
+        }
+      }
+    }
+    if (op != rawLen) { throw corrupt(); }
+    return dest;
+  }
+
+  /**
+   * Writes a token, the literals and, when {@code matchLen > 0}, the match offset and length.
+   *
+   * @return the new output position or -1 if the output would overflow
+   */
+  private static int writeSequence(byte[] src, int literalStart, int literalLen, int offset, int matchLen,
+                                   byte[] dest, int op, int destEnd) {
+    int tokenPos = op++;
+    if (op + literalLen + (literalLen / 255) + 3 > destEnd) { return -1; }
+
+    int token;
+    if (literalLen >= RUN_MASK) {
+      token = RUN_MASK << 4;
+      op = writeLength(literalLen - RUN_MASK, dest, op);
+    } else {
+      token = literalLen << 4;
+    }
+    System.arraycopy(src, literalStart, dest, op, literalLen);
+    op += literalLen;
+
+    if (matchLen > 0) {
+      int len = matchLen - MIN_MATCH;
+      if (op + 2 + (len / 255) + 1 > destEnd) { return -1; }
+      dest[op++] = (byte) offset;
+      dest[op++] = (byte) (offset >>> 8);
+      if (len >= RUN_MASK) {
+        token |= RUN_MASK;
+        op = writeLength(len - RUN_MASK, dest, op);
+      } else {
+        token |= len;
+      }
+    }
+    dest[tokenPos] = (byte) token;
+    return op;
+  }
+
+  private static int writeLength(int len, byte[] dest, int op) {
+    while (len >= 0xFF) {
+      dest[op++] = (byte) 0xFF;
+      len -= 0xFF;
+    }
+    dest[op++] = (byte) len;
+    return op;
+  }
+
+  private static int writeVarInt(int value, byte[] dest, int op, int destEnd) {
+    while ((value & ~0x7F) != 0) {
+      if (op >= destEnd) { return -1; }
+      dest[op++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    if (op >= destEnd) { return -1; }
+    dest[op++] = (byte) value;
+    return op;
+  }
+
+  private static int readInt(byte[] buf, int i) {
+    return (buf[i] & 0xFF) | ((buf[i + 1] & 0xFF) << 8) | ((buf[i + 2] & 0xFF) << 16) | ((buf[i + 3] & 0xFF) << 24);
+  }
+
+  private static int hash(int sequence) {
+    return (sequence * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+  private static IOException corrupt() {
+    return new IOException("Malformed LZ4 block");
+  }
+}
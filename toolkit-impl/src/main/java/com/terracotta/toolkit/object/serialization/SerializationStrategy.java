@@ -26,17 +26,27 @@ public interface SerializationStrategy {
    * Serialize the given value into byte array.
    * 
    * @param serializable value to serialize
-   * @param compress
+   * @param compress if the value should be compressed with the default {@link CompressionCodec}
    * @return serialized form
    * @throws NotSerializableRuntimeException if serialization fails
    */
   public byte[] serialize(Object serializable, boolean compress) throws NotSerializableRuntimeException;
 
+  /**
+   * Serialize the given value into byte array.
+   * 
+   * @param serializable value to serialize
+   * @param codec codec to compress the value with, or null for no compression
+   * @return serialized form
+   * @throws NotSerializableRuntimeException if serialization fails
+   */
+  public byte[] serialize(Object serializable, CompressionCodec codec) throws NotSerializableRuntimeException;
+
   /**
    * Deserialize the serialized value returning a new representation.
    * 
    * @param fromBytes serialized form
-   * @param compress
+   * @param compress if the value was compressed, the codec is identified from the serialized form
    * @param local
    * @return a new deserialized value
    * @throws IOException if deserialization fails
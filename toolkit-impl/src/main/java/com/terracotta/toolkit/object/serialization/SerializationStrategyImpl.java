@@ -19,19 +19,37 @@ package com.terracotta.toolkit.object.serialization;
 import org.terracotta.toolkit.object.serialization.NotSerializableRuntimeException;
 
 import com.tc.platform.PlatformService;
+import com.tc.properties.TCProperties;
+import com.tc.properties.TCPropertiesConsts;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInput;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
+import java.io.ObjectStreamConstants;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class SerializationStrategyImpl implements SerializationStrategy {
 
@@ -42,27 +60,169 @@ public class SerializationStrategyImpl implements SerializationStrategy {
   private static final char              MARKER   = 0xFFFE;
 
   private static final byte              HIGH_BIT = (byte) 0x80;
+
+  /**
+   * First byte of every java serialization stream. Fast path tags must never take this value, it is what tells the two
+   * encodings apart on read.
+   */
+  private static final int               STREAM_MAGIC_HIGH_BYTE = (ObjectStreamConstants.STREAM_MAGIC >>> 8) & 0xFF;
+
+  private static final byte              TAG_NULL               = 1;
+  private static final byte              TAG_STRING             = 2;
+  private static final byte              TAG_LONG_STRING        = 3;
+  private static final byte              TAG_LONG               = 4;
+  private static final byte              TAG_INTEGER            = 5;
+  private static final byte              TAG_SHORT              = 6;
+  private static final byte              TAG_BYTE               = 7;
+  private static final byte              TAG_CHARACTER          = 8;
+  private static final byte              TAG_BOOLEAN            = 9;
+  private static final byte              TAG_FLOAT              = 10;
+  private static final byte              TAG_DOUBLE             = 11;
+  private static final byte              TAG_BYTE_ARRAY         = 12;
+  private static final byte              TAG_SHORT_ARRAY        = 13;
+  private static final byte              TAG_INT_ARRAY          = 14;
+  private static final byte              TAG_LONG_ARRAY         = 15;
+  private static final byte              TAG_CHAR_ARRAY         = 16;
+  private static final byte              TAG_BOOLEAN_ARRAY      = 17;
+  private static final byte              TAG_FLOAT_ARRAY        = 18;
+  private static final byte              TAG_DOUBLE_ARRAY       = 19;
+  private static final byte              TAG_UUID               = 20;
+  private static final byte              TAG_DATE               = 21;
+  private static final byte              TAG_EXTERNALIZABLE     = 22;
+  private static final byte              TAG_SERIALIZED         = 23;
+
+  // max chars that are guaranteed to fit in the 64K limit of writeUTF
+  private static final int               MAX_UTF_CHARS          = 0xFFFF / 3;
+
+  /**
+   * Exact classes handled by the fast path, subclasses (e.g. java.sql.Timestamp) still go through java serialization.
+   */
+  private static final Map<Class<?>, Byte> FAST_PATH_TAGS       = new HashMap<Class<?>, Byte>();
+
+  static {
+    FAST_PATH_TAGS.put(String.class, TAG_STRING);
+    FAST_PATH_TAGS.put(Long.class, TAG_LONG);
+    FAST_PATH_TAGS.put(Integer.class, TAG_INTEGER);
+    FAST_PATH_TAGS.put(Short.class, TAG_SHORT);
+    FAST_PATH_TAGS.put(Byte.class, TAG_BYTE);
+    FAST_PATH_TAGS.put(Character.class, TAG_CHARACTER);
+    FAST_PATH_TAGS.put(Boolean.class, TAG_BOOLEAN);
+    FAST_PATH_TAGS.put(Float.class, TAG_FLOAT);
+    FAST_PATH_TAGS.put(Double.class, TAG_DOUBLE);
+    FAST_PATH_TAGS.put(byte[].class, TAG_BYTE_ARRAY);
+    FAST_PATH_TAGS.put(short[].class, TAG_SHORT_ARRAY);
+    FAST_PATH_TAGS.put(int[].class, TAG_INT_ARRAY);
+    FAST_PATH_TAGS.put(long[].class, TAG_LONG_ARRAY);
+    FAST_PATH_TAGS.put(char[].class, TAG_CHAR_ARRAY);
+    FAST_PATH_TAGS.put(boolean[].class, TAG_BOOLEAN_ARRAY);
+    FAST_PATH_TAGS.put(float[].class, TAG_FLOAT_ARRAY);
+    FAST_PATH_TAGS.put(double[].class, TAG_DOUBLE_ARRAY);
+    FAST_PATH_TAGS.put(UUID.class, TAG_UUID);
+    FAST_PATH_TAGS.put(Date.class, TAG_DATE);
+  }
+
   private final ObjectStreamClassMapping serializer;
   private final ClassLoader              tccl;
+  private final boolean                  fastPathValues;
+  private final boolean                  fastPathKeys;
+  private final Set<String>              externalizableClassNames;
+  private final ConcurrentMap<Class<?>, Integer> externalizableMappings = new ConcurrentHashMap<Class<?>, Integer>();
+  private final Set<Class<?>>            replaceableExternalizables = Collections
+      .newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
 
   public SerializationStrategyImpl(PlatformService platformService, SerializerMap serializerMap, ClassLoader loader) {
     this.serializer = new ObjectStreamClassMapping(platformService, serializerMap);
     this.tccl = loader;
+    TCProperties properties = platformService.getTCProperties();
+    this.fastPathValues = properties.getBoolean(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_VALUES_ENABLED, false);
+    this.fastPathKeys = properties.getBoolean(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_KEYS_ENABLED, false);
+    this.externalizableClassNames = parseClassNames(properties
+        .getProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_EXTERNALIZABLE, true));
+  }
+
+  private static Set<String> parseClassNames(String classNames) {
+    if (classNames == null || classNames.trim().length() == 0) { return Collections.emptySet(); }
+    Set<String> names = new HashSet<String>();
+    for (String name : classNames.split(",")) {
+      if (name.trim().length() > 0) {
+        names.add(name.trim());
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Lets instances of the given {@link Externalizable} type be written through the fast path: a tag, the class mapping
+   * and the {@link Externalizable#writeExternal(java.io.ObjectOutput)} output, without any object stream around it.
+   * Readers do not need the registration, only writers. Classes named in toolkit.serialization.fastpath.externalizable
+   * are registered the first time one of their instances is written.
+   * <p>
+   * Types declaring or inheriting a writeReplace or readResolve method are not registered and keep going through the
+   * object stream, since the fast path would skip the substitution.
+   */
+  public void registerExternalizable(Class<? extends Externalizable> type) throws IOException {
+    if (externalizableMappings.containsKey(type) || replaceableExternalizables.contains(type)) { return; }
+    if (declaresReplacement(type)) {
+      replaceableExternalizables.add(type);
+    } else {
+      externalizableMappings.put(type, serializer.getMappingFor(ObjectStreamClass.lookup(type)));
+    }
+  }
+
+  private static boolean declaresReplacement(Class<?> type) {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        if (method.getParameterTypes().length == 0 && !Modifier.isStatic(method.getModifiers())
+            && ("writeReplace".equals(method.getName()) || "readResolve".equals(method.getName()))) { return true; }
+      }
+    }
+    return false;
+  }
+
+  private boolean isFastPathType(Object value) {
+    if (value == null) { return false; }
+    Class<?> type = value.getClass();
+    return FAST_PATH_TAGS.containsKey(type) || isRegisteredExternalizable(type);
+  }
+
+  private boolean isRegisteredExternalizable(Class<?> type) {
+    if (externalizableMappings.containsKey(type)) { return true; }
+    if (!externalizableClassNames.contains(type.getName()) || !Externalizable.class.isAssignableFrom(type)) { return false; }
+    try {
+      registerExternalizable(type.asSubclass(Externalizable.class));
+      return externalizableMappings.containsKey(type);
+    } catch (IOException e) {
+      // falls back to the object stream, which reports the failure if it is not transient
+      return false;
+    }
   }
 
   @Override
   public Object deserialize(final byte[] data, boolean compression, boolean local) throws IOException,
       ClassNotFoundException {
-    InputStream in = new ByteArrayInputStream(data);
-    if (compression) {
-      in = new GZIPInputStream(in);
-    }
+    InputStream in = compression ? CompressionCodecs.decompress(data) : new ByteArrayInputStream(data);
     return getObjectFromStream(in, local);
   }
 
   private Object getObjectFromStream(InputStream in, boolean local) throws IOException,
       ClassNotFoundException {
-    SerializerObjectInputStream sois = new SerializerObjectInputStream(in, serializer, tccl, local);
+    PushbackInputStream pin = new PushbackInputStream(in, 1);
+    int first = pin.read();
+    if (first != -1 && first != STREAM_MAGIC_HIGH_BYTE) {
+      FastObjectInput fin = new FastObjectInput(pin, local);
+      try {
+        return fin.readTagged((byte) first);
+      } catch (ObjectStreamClassNotFoundException e) {
+        return null;
+      } finally {
+        fin.close();
+      }
+    }
+    if (first != -1) {
+      pin.unread(first);
+    }
+
+    SerializerObjectInputStream sois = new SerializerObjectInputStream(pin, serializer, tccl, local);
     try {
       return sois.readObject();
     } catch (ObjectStreamClassNotFoundException e) {
@@ -74,14 +234,32 @@ public class SerializationStrategyImpl implements SerializationStrategy {
 
   @Override
   public byte[] serialize(final Object value, boolean compression) throws NotSerializableRuntimeException {
+    return serialize(value, compression ? CompressionCodecs.getDefault() : null);
+  }
+
+  @Override
+  public byte[] serialize(final Object value, CompressionCodec codec) throws NotSerializableRuntimeException {
+    byte[] serialized = fastPathValues && isFastPathType(value) ? fastSerialize(value) : streamSerialize(value);
+    return codec == null ? serialized : CompressionCodecs.compress(codec, serialized);
+  }
+
+  private byte[] fastSerialize(final Object value) throws NotSerializableRuntimeException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream(64);
+    try {
+      FastObjectOutput out = new FastObjectOutput(baos);
+      out.writeTagged(value);
+      out.close();
+    } catch (IOException ioe) {
+      throw new NotSerializableRuntimeException(ioe);
+    }
+    return baos.toByteArray();
+  }
+
+  private byte[] streamSerialize(final Object value) throws NotSerializableRuntimeException {
     final ByteArrayOutputStream baos = new ByteArrayOutputStream();
     SerializerObjectOutputStream oos = null;
     try {
-      OutputStream out = baos;
-      if (compression) {
-        out = new GZIPOutputStream(out);
-      }
-      oos = new SerializerObjectOutputStream(out, serializer);
+      oos = new SerializerObjectOutputStream(baos, serializer);
       oos.writeObject(value);
     } catch (IOException ioe) {
       throw new NotSerializableRuntimeException(ioe);
@@ -115,9 +293,15 @@ public class SerializationStrategyImpl implements SerializationStrategy {
     StringSerializedObjectOutputStream out;
     try {
       out = new StringSerializedObjectOutputStream();
-      ObjectOutputStream oos = new SerializerObjectOutputStream(out, serializer);
-      oos.writeObject(key);
-      oos.close();
+      if (fastPathKeys && isFastPathType(key)) {
+        FastObjectOutput fout = new FastObjectOutput(out);
+        fout.writeTagged(key);
+        fout.close();
+      } else {
+        ObjectOutputStream oos = new SerializerObjectOutputStream(out, serializer);
+        oos.writeObject(key);
+        oos.close();
+      }
     } catch (IOException e) {
       throw new NotSerializableRuntimeException(e);
     }
@@ -133,6 +317,297 @@ public class SerializationStrategyImpl implements SerializationStrategy {
     return key;
   }
 
+  /**
+   * Writes the one byte tag and payload of the fast path encoding. Objects that have no fast path encoding can only
+   * show up nested inside a registered {@link Externalizable}, they are embedded as a length prefixed object stream.
+   */
+  private class FastObjectOutput extends DataOutputStream implements ObjectOutput {
+
+    FastObjectOutput(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void writeObject(Object obj) throws IOException {
+      if (isFastPathType(obj)) {
+        writeTagged(obj);
+      } else if (obj == null) {
+        writeByte(TAG_NULL);
+      } else {
+        byte[] serialized = streamSerialize(obj);
+        writeByte(TAG_SERIALIZED);
+        writeInt(serialized.length);
+        write(serialized);
+      }
+    }
+
+    void writeTagged(Object value) throws IOException {
+      Byte tag = FAST_PATH_TAGS.get(value.getClass());
+      if (tag == null) {
+        writeByte(TAG_EXTERNALIZABLE);
+        encodeInt(this, externalizableMappings.get(value.getClass()));
+        ((Externalizable) value).writeExternal(this);
+        return;
+      }
+
+      switch (tag) {
+        case TAG_STRING:
+          String s = (String) value;
+          if (s.length() <= MAX_UTF_CHARS) {
+            writeByte(TAG_STRING);
+            writeUTF(s);
+          } else {
+            writeByte(TAG_LONG_STRING);
+            writeInt(s.length());
+            writeChars(s);
+          }
+          break;
+        case TAG_LONG:
+          writeByte(tag);
+          writeLong((Long) value);
+          break;
+        case TAG_INTEGER:
+          writeByte(tag);
+          writeInt((Integer) value);
+          break;
+        case TAG_SHORT:
+          writeByte(tag);
+          writeShort((Short) value);
+          break;
+        case TAG_BYTE:
+          writeByte(tag);
+          writeByte((Byte) value);
+          break;
+        case TAG_CHARACTER:
+          writeByte(tag);
+          writeChar((Character) value);
+          break;
+        case TAG_BOOLEAN:
+          writeByte(tag);
+          writeBoolean((Boolean) value);
+          break;
+        case TAG_FLOAT:
+          writeByte(tag);
+          writeFloat((Float) value);
+          break;
+        case TAG_DOUBLE:
+          writeByte(tag);
+          writeDouble((Double) value);
+          break;
+        case TAG_BYTE_ARRAY:
+          byte[] bytes = (byte[]) value;
+          writeByte(tag);
+          writeInt(bytes.length);
+          write(bytes);
+          break;
+        case TAG_SHORT_ARRAY:
+          short[] shorts = (short[]) value;
+          writeByte(tag);
+          writeInt(shorts.length);
+          for (short v : shorts) {
+            writeShort(v);
+          }
+          break;
+        case TAG_INT_ARRAY:
+          int[] ints = (int[]) value;
+          writeByte(tag);
+          writeInt(ints.length);
+          for (int v : ints) {
+            writeInt(v);
+          }
+          break;
+        case TAG_LONG_ARRAY:
+          long[] longs = (long[]) value;
+          writeByte(tag);
+          writeInt(longs.length);
+          for (long v : longs) {
+            writeLong(v);
+          }
+          break;
+        case TAG_CHAR_ARRAY:
+          char[] chars = (char[]) value;
+          writeByte(tag);
+          writeInt(chars.length);
+          for (char v : chars) {
+            writeChar(v);
+          }
+          break;
+        case TAG_BOOLEAN_ARRAY:
+          boolean[] booleans = (boolean[]) value;
+          writeByte(tag);
+          writeInt(booleans.length);
+          for (boolean v : booleans) {
+            writeBoolean(v);
+          }
+          break;
+        case TAG_FLOAT_ARRAY:
+          float[] floats = (float[]) value;
+          writeByte(tag);
+          writeInt(floats.length);
+          for (float v : floats) {
+            writeFloat(v);
+          }
+          break;
+        case TAG_DOUBLE_ARRAY:
+          double[] doubles = (double[]) value;
+          writeByte(tag);
+          writeInt(doubles.length);
+          for (double v : doubles) {
+            writeDouble(v);
+          }
+          break;
+        case TAG_UUID:
+          UUID uuid = (UUID) value;
+          writeByte(tag);
+          writeLong(uuid.getMostSignificantBits());
+          writeLong(uuid.getLeastSignificantBits());
+          break;
+        case TAG_DATE:
+          writeByte(tag);
+          writeLong(((Date) value).getTime());
+          break;
+        default:
+          throw new AssertionError("Unknown fast path tag " + tag);
+      }
+    }
+  }
+
+  private class FastObjectInput extends DataInputStream implements ObjectInput {
+    private final boolean local;
+
+    FastObjectInput(InputStream in, boolean local) {
+      super(in);
+      this.local = local;
+    }
+
+    @Override
+    public Object readObject() throws ClassNotFoundException, IOException {
+      return readTagged(readByte());
+    }
+
+    Object readTagged(byte tag) throws ClassNotFoundException, IOException {
+      switch (tag) {
+        case TAG_NULL:
+          return null;
+        case TAG_STRING:
+          return readUTF();
+        case TAG_LONG_STRING: {
+          char[] chars = new char[readInt()];
+          for (int i = 0; i < chars.length; i++) {
+            chars[i] = readChar();
+          }
+          return new String(chars);
+        }
+        case TAG_LONG:
+          return readLong();
+        case TAG_INTEGER:
+          return readInt();
+        case TAG_SHORT:
+          return readShort();
+        case TAG_BYTE:
+          return readByte();
+        case TAG_CHARACTER:
+          return readChar();
+        case TAG_BOOLEAN:
+          return readBoolean();
+        case TAG_FLOAT:
+          return readFloat();
+        case TAG_DOUBLE:
+          return readDouble();
+        case TAG_BYTE_ARRAY: {
+          byte[] bytes = new byte[readInt()];
+          readFully(bytes);
+          return bytes;
+        }
+        case TAG_SHORT_ARRAY: {
+          short[] shorts = new short[readInt()];
+          for (int i = 0; i < shorts.length; i++) {
+            shorts[i] = readShort();
+          }
+          return shorts;
+        }
+        case TAG_INT_ARRAY: {
+          int[] ints = new int[readInt()];
+          for (int i = 0; i < ints.length; i++) {
+            ints[i] = readInt();
+          }
+          return ints;
+        }
+        case TAG_LONG_ARRAY: {
+          long[] longs = new long[readInt()];
+          for (int i = 0; i < longs.length; i++) {
+            longs[i] = readLong();
+          }
+          return longs;
+        }
+        case TAG_CHAR_ARRAY: {
+          char[] chars = new char[readInt()];
+          for (int i = 0; i < chars.length; i++) {
+            chars[i] = readChar();
+          }
+          return chars;
+        }
+        case TAG_BOOLEAN_ARRAY: {
+          boolean[] booleans = new boolean[readInt()];
+          for (int i = 0; i < booleans.length; i++) {
+            booleans[i] = readBoolean();
+          }
+          return booleans;
+        }
+        case TAG_FLOAT_ARRAY: {
+          float[] floats = new float[readInt()];
+          for (int i = 0; i < floats.length; i++) {
+            floats[i] = readFloat();
+          }
+          return floats;
+        }
+        case TAG_DOUBLE_ARRAY: {
+          double[] doubles = new double[readInt()];
+          for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = readDouble();
+          }
+          return doubles;
+        }
+        case TAG_UUID:
+          return new UUID(readLong(), readLong());
+        case TAG_DATE:
+          return new Date(readLong());
+        case TAG_EXTERNALIZABLE:
+          return readExternalizable();
+        case TAG_SERIALIZED: {
+          byte[] serialized = new byte[readInt()];
+          readFully(serialized);
+          return getObjectFromStream(new ByteArrayInputStream(serialized), local);
+        }
+        default:
+          throw new StreamCorruptedException("Unknown fast path tag " + tag);
+      }
+    }
+
+    private Object readExternalizable() throws ClassNotFoundException, IOException {
+      int code = decodeInt(this);
+      ObjectStreamClass osc;
+      if (local) {
+        osc = serializer.localGetObjectStreamClassFor(code);
+        if (osc == null) { throw new ObjectStreamClassNotFoundException(); }
+      } else {
+        osc = serializer.getObjectStreamClassFor(code);
+      }
+      ClassLoader loader = tccl != null ? tccl : Thread.currentThread().getContextClassLoader();
+      Class<?> type = LoadClassUtil.loadClass(osc.getName(), loader);
+      Externalizable value;
+      try {
+        value = (Externalizable) type.getConstructor().newInstance();
+      } catch (Exception e) {
+        InvalidClassException ice = new InvalidClassException(osc.getName(), "no usable public no-arg constructor");
+        ice.initCause(e);
+        throw ice;
+      }
+      value.readExternal(this);
+      return value;
+    }
+  }
+
   private static class StringSerializedObjectInputStream extends InputStream {
     private final String source;
     private final int    length;
@@ -36,6 +36,7 @@ import com.tc.platform.PlatformService;
 import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 public class ExplicitLockingTCObjectServerMapImpl<L> implements TCObjectServerMap<L> {
 
@@ -349,12 +350,25 @@ public class ExplicitLockingTCObjectServerMapImpl<L> implements TCObjectServerMa
     return delegate.getValueUnlocked(map, key);
   }
 
+  @Override
+  public Future<Object> getValueUnlockedAsync(TCServerMap map, Object key) throws AbortedOperationException {
+    assertLockAndRejoinState();
+    return delegate.getValueUnlockedAsync(map, key);
+  }
+
   @Override
   public Map<Object, Object> getAllValuesUnlocked(final SetMultimap<ObjectID, Object> mapIdToKeysMap) throws AbortedOperationException {
     assertLockAndRejoinState();
     return delegate.getAllValuesUnlocked(mapIdToKeysMap);
   }
 
+  @Override
+  public Map<Object, Object> getAllValuesLocked(final SetMultimap<ObjectID, Object> mapIdToKeysMap,
+                                                final Map<Object, L> lockIDs) throws AbortedOperationException {
+    assertLockAndRejoinState();
+    return delegate.getAllValuesLocked(mapIdToKeysMap, lockIDs);
+  }
+
   @Override
   public Set keySet(TCServerMap map) throws AbortedOperationException {
     assertLockAndRejoinState();
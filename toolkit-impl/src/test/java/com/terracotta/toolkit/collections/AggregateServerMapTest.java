@@ -66,8 +66,10 @@ import com.terracotta.toolkit.util.ImmediateTimer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -77,10 +79,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -175,6 +180,43 @@ public class AggregateServerMapTest {
     verify(serverMapList.get(Math.abs("a".hashCode() % 256))).createBufferedOperation(BufferedOperation.Type.REMOVE, "a", "b", 1, 2, 3, 4);
   }
 
+  @Test
+  public void testStrongPutAllAndRemoveAllBatchedPerServerMap() throws Exception {
+    Configuration strongConfig = new ToolkitCacheConfigBuilder().consistency(ToolkitConfigFields.Consistency.STRONG)
+        .build();
+    final List<ServerMap> serverMapList = mockServerMaps(256);
+    ToolkitObjectStripe[] stripeObjects = createObjectStripes(strongConfig, serverMapList, 64);
+
+    AggregateServerMap<String, String> asm = new AggregateServerMap<String, String>(ToolkitObjectType.CACHE, mock(SearchFactory.class),
+        mock(DistributedClusteredObjectLookup.class), "foo", stripeObjects, strongConfig,
+        mock(Callable.class), serverMapLocalStoreFactory, platformService, mock(ToolkitLock.class));
+
+    Map<String, String> entries = new HashMap<String, String>();
+    Map<Integer, Map<String, String>> batchedEntries = new HashMap<Integer, Map<String, String>>();
+    for (int i = 0; i < 1000; i++) {
+      String key = UUID.randomUUID().toString();
+      entries.put(key, "value-" + i);
+      Map<String, String> batch = batchedEntries.get(Math.abs(key.hashCode() % 256));
+      if (batch == null) {
+        batch = new HashMap<String, String>();
+        batchedEntries.put(Math.abs(key.hashCode() % 256), batch);
+      }
+      batch.put(key, "value-" + i);
+    }
+
+    asm.putAll(entries);
+    asm.removeAll(entries.keySet());
+    for (Map.Entry<Integer, Map<String, String>> entry : batchedEntries.entrySet()) {
+      ServerMap serverMap = serverMapList.get(entry.getKey());
+      verify(serverMap).putAllNoReturn(eq(entry.getValue()), anyInt(), eq(ToolkitConfigFields.NO_MAX_TTI_SECONDS),
+                                       eq(ToolkitConfigFields.NO_MAX_TTL_SECONDS));
+      ArgumentCaptor<Collection> removed = ArgumentCaptor.forClass(Collection.class);
+      verify(serverMap).removeAllNoReturn(removed.capture());
+      assertThat(new HashSet<Object>(removed.getValue()), is(new HashSet<Object>(entry.getValue().keySet())));
+      verify(serverMap, never()).putNoReturn(anyString(), anyString(), anyInt(), anyInt(), anyInt());
+    }
+  }
+
   @Test
   public void testGetAllVersioned() throws Exception {
     final List<ServerMap> serverMapList = mockServerMaps(2);
@@ -0,0 +1,170 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.AdditionalAnswers;
+
+import com.tc.platform.PlatformService;
+import com.terracotta.toolkit.factory.impl.AbstractPrimaryToolkitObjectFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class ToolkitBlockingQueueImplTest {
+  private static final int                  CAPACITY = 5;
+
+  private final List<Integer>               elements = new ArrayList<Integer>();
+  private ToolkitBlockingQueueImpl<Integer> queue;
+
+  @Before
+  public void setUp() {
+    DestroyableToolkitList<Integer> backingList = mock(DestroyableToolkitList.class,
+                                                       AdditionalAnswers.delegatesTo(elements));
+    doReturn(new MockToolkitReadWriteLock()).when(backingList).getReadWriteLock();
+    queue = new ToolkitBlockingQueueImpl<Integer>(mock(AbstractPrimaryToolkitObjectFactory.class), backingList,
+                                                  CAPACITY, mock(PlatformService.class));
+    for (int i = 0; i < CAPACITY; i++) {
+      assertTrue(queue.offer(i));
+    }
+  }
+
+  @Test
+  public void testDrainToTransfersAllInOrder() {
+    List<Integer> target = new ArrayList<Integer>();
+    assertEquals(CAPACITY, queue.drainTo(target));
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), target);
+    assertTrue(queue.isEmpty());
+    assertEquals(CAPACITY, queue.remainingCapacity());
+    assertEquals(0, queue.drainTo(target));
+  }
+
+  @Test
+  public void testDrainToMaxTransfersHead() {
+    List<Integer> target = new ArrayList<Integer>();
+    assertEquals(2, queue.drainTo(target, 2));
+    assertEquals(Arrays.asList(0, 1), target);
+    assertEquals(Arrays.asList(2, 3, 4), elements);
+
+    assertEquals(0, queue.drainTo(target, 0));
+    assertEquals(3, queue.drainTo(target, 10));
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), target);
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testDrainToKeepsElementsTheCollectionFailsOn() {
+    final IllegalStateException full = new IllegalStateException("full");
+    List<Integer> target = new ArrayList<Integer>() {
+      @Override
+      public boolean add(Integer e) {
+        if (size() == 2) { throw full; }
+        return super.add(e);
+      }
+    };
+    try {
+      queue.drainTo(target);
+      fail("expected the collection to fail");
+    } catch (IllegalStateException e) {
+      assertSame(full, e);
+    }
+    assertEquals(Arrays.asList(0, 1), target);
+    assertEquals(Arrays.asList(2, 3, 4), elements);
+  }
+
+  @Test
+  public void testDrainToRemovesElementsTheCollectionRefuses() {
+    Set<Integer> target = new HashSet<Integer>(Arrays.asList(2));
+    assertEquals(3, queue.drainTo(target, 4));
+    assertEquals(new HashSet<Integer>(Arrays.asList(0, 1, 2, 3)), target);
+    assertEquals(Arrays.asList(4), elements);
+  }
+
+  @Test
+  public void testDrainToSetHoldingHeadMakesProgress() {
+    Set<Integer> target = new HashSet<Integer>(Arrays.asList(0));
+    assertEquals(0, queue.drainTo(target, 1));
+    assertEquals(Arrays.asList(1, 2, 3, 4), elements);
+    assertEquals(4, queue.drainTo(target));
+    assertTrue(queue.isEmpty());
+    assertEquals(new HashSet<Integer>(Arrays.asList(0, 1, 2, 3, 4)), target);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDrainToSelfRejected() {
+    queue.drainTo(queue);
+  }
+
+  @Test(timeout = 30000)
+  public void testDrainToUnblocksWaitingPut() throws Exception {
+    Thread putter = startPut(CAPACITY);
+    assertEquals(1, queue.drainTo(new ArrayList<Integer>(), 1));
+    putter.join();
+    assertEquals(Arrays.asList(1, 2, 3, 4, CAPACITY), elements);
+  }
+
+  @Test
+  public void testClearEmptiesQueue() {
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    assertEquals(CAPACITY, queue.remainingCapacity());
+    assertEquals(null, queue.poll());
+    assertTrue(queue.offer(7));
+    assertEquals(Arrays.asList(7), elements);
+  }
+
+  @Test(timeout = 30000)
+  public void testClearUnblocksWaitingPut() throws Exception {
+    Thread putter = startPut(CAPACITY);
+    queue.clear();
+    putter.join();
+    assertEquals(Arrays.asList(CAPACITY), elements);
+  }
+
+  private Thread startPut(final int value) throws InterruptedException {
+    Thread putter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          queue.put(value);
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+      }
+    };
+    putter.start();
+    // wait for the put to block on the full queue
+    while (putter.getState() != Thread.State.TIMED_WAITING && putter.getState() != Thread.State.WAITING) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertFalse(elements.contains(value));
+    return putter;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections.map;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AllValuesFutureTest {
+
+  @Test
+  public void testDoneOnlyWhenEveryLookupIs() throws Exception {
+    SettableFuture<String> pending = SettableFuture.create();
+    Map<Integer, Future<String>> futures = new HashMap<Integer, Future<String>>();
+    futures.put(1, Futures.immediateFuture("one"));
+    futures.put(2, pending);
+    futures.put(3, Futures.<String> immediateFuture(null));
+    AllValuesFuture<Integer, String> all = new AllValuesFuture<Integer, String>(futures);
+
+    assertFalse(all.isDone());
+    try {
+      all.get(10, TimeUnit.MILLISECONDS);
+      fail();
+    } catch (TimeoutException e) {
+      // expected
+    }
+
+    pending.set("two");
+    assertTrue(all.isDone());
+    Map<Integer, String> values = all.get();
+    assertEquals(3, values.size());
+    assertEquals("one", values.get(1));
+    assertEquals("two", values.get(2));
+    assertNull(values.get(3));
+    assertTrue(values.containsKey(3));
+  }
+
+  @Test
+  public void testCancelCancelsPendingLookups() {
+    SettableFuture<String> pending = SettableFuture.create();
+    Map<Integer, Future<String>> futures = new HashMap<Integer, Future<String>>();
+    futures.put(1, Futures.immediateFuture("one"));
+    futures.put(2, pending);
+    AllValuesFuture<Integer, String> all = new AllValuesFuture<Integer, String>(futures);
+
+    assertTrue(all.cancel(false));
+    assertTrue(pending.isCancelled());
+    assertTrue(all.isCancelled());
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+public class ServerMapEntrySetTest {
+  private final Set<String>                 keys    = new LinkedHashSet<String>();
+  private final Map<String, Future<String>> lookups = new HashMap<String, Future<String>>();
+  private final List<String>                looked  = new ArrayList<String>();
+  private ServerMap<String, String>         map;
+
+  @Before
+  public void setUp() {
+    map = mock(ServerMap.class);
+    for (int i = 0; i < 20; i++) {
+      keys.add("k" + i);
+      lookups.put("k" + i, Futures.immediateFuture("v" + i));
+    }
+    when(map.fetchKeys(any(Set.class))).thenAnswer(new Answer<Set<String>>() {
+      @Override
+      public Set<String> answer(InvocationOnMock invocation) {
+        Set<String> fetched = new LinkedHashSet<String>(keys);
+        fetched.removeAll((Set<String>) invocation.getArgument(0));
+        return fetched;
+      }
+    });
+    when(map.getAsync(anyString(), eq(false))).thenAnswer(new Answer<Future<String>>() {
+      @Override
+      public Future<String> answer(InvocationOnMock invocation) {
+        String key = invocation.getArgument(0);
+        looked.add(key);
+        return lookups.get(key);
+      }
+    });
+  }
+
+  @Test
+  public void testKeysFetchedWhenIterationStarts() {
+    Set<Entry<String, String>> entries = new ServerMapEntrySet<String, String>(map, Collections.singleton("k3"), 4);
+    verify(map, never()).fetchKeys(any(Set.class));
+
+    Iterator<Entry<String, String>> i = entries.iterator();
+    verify(map, times(1)).fetchKeys(Collections.singleton("k3"));
+    List<String> iterated = new ArrayList<String>();
+    while (i.hasNext()) {
+      iterated.add(i.next().getKey());
+    }
+    assertFalse(iterated.contains("k3"));
+    assertEquals(19, iterated.size());
+  }
+
+  @Test
+  public void testEntriesInKeyOrder() {
+    for (int prefetchSize : new int[] { 1, 3, 100 }) {
+      Iterator<Entry<String, String>> i = entrySet(prefetchSize).iterator();
+      for (int n = 0; n < 20; n++) {
+        Entry<String, String> e = i.next();
+        assertEquals("k" + n, e.getKey());
+        assertEquals("v" + n, e.getValue());
+      }
+      assertFalse(i.hasNext());
+    }
+  }
+
+  @Test
+  public void testMissingAndExpiredValuesSkipped() {
+    // the lookups of the map return null for both a removed and an expired value
+    lookups.put("k0", Futures.<String> immediateFuture(null));
+    lookups.put("k7", Futures.<String> immediateFuture(null));
+    lookups.put("k8", Futures.<String> immediateFuture(null));
+    lookups.put("k19", Futures.<String> immediateFuture(null));
+
+    List<String> iterated = new ArrayList<String>();
+    for (Entry<String, String> e : entrySet(3)) {
+      iterated.add(e.getKey());
+    }
+    List<String> expected = new ArrayList<String>();
+    for (int n = 1; n < 19; n++) {
+      if (n != 7 && n != 8) {
+        expected.add("k" + n);
+      }
+    }
+    assertEquals(expected, iterated);
+  }
+
+  @Test
+  public void testLookupFailurePropagates() {
+    RuntimeException failure = new RuntimeException("lookup failed");
+    SettableFuture<String> failed = SettableFuture.create();
+    failed.setException(failure);
+    lookups.put("k5", failed);
+
+    List<String> iterated = new ArrayList<String>();
+    try {
+      for (Entry<String, String> e : entrySet(3)) {
+        iterated.add(e.getKey());
+      }
+      fail("expected the lookup failure");
+    } catch (RuntimeException e) {
+      assertSame(failure, e);
+    }
+    assertFalse(iterated.contains("k5"));
+    assertEquals(iterated, new ArrayList<String>(keys).subList(0, iterated.size()));
+  }
+
+  @Test
+  public void testAbandonedIterationLooksUpNoFurtherThanTheWindow() {
+    Iterator<Entry<String, String>> i = entrySet(5).iterator();
+    i.next();
+    i.next();
+
+    // the two entries returned, the one ready for the next call and the window ahead of it
+    assertEquals(new ArrayList<String>(keys).subList(0, 8), looked);
+  }
+
+  private ServerMapEntrySet<String, String> entrySet(int prefetchSize) {
+    return new ServerMapEntrySet<String, String>(map, Collections.<String> emptySet(), prefetchSize);
+  }
+}
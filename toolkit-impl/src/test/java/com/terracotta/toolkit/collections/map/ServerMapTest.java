@@ -21,21 +21,30 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsMapContaining.hasEntry;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
 import static org.mockito.AdditionalMatchers.and;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnit;
@@ -47,12 +56,15 @@ import org.terracotta.toolkit.config.Configuration;
 import org.terracotta.toolkit.internal.cache.VersionedValue;
 import org.terracotta.toolkit.internal.store.ConfigFieldsInternal;
 import org.terracotta.toolkit.search.attribute.ToolkitAttributeExtractor;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
 import org.terracotta.toolkit.store.ToolkitConfigFields.Consistency;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
 import com.tc.exception.ImplementMe;
 import com.tc.io.TCByteBufferOutput;
 import com.tc.logging.TCLogger;
@@ -69,6 +81,7 @@ import com.tc.object.dna.api.LiteralAction;
 import com.tc.object.dna.api.LogicalAction;
 import com.tc.object.dna.api.LogicalChangeID;
 import com.tc.object.dna.api.PhysicalAction;
+import com.tc.object.locks.LockLevel;
 import com.tc.object.metadata.MetaDataDescriptor;
 import com.tc.object.metadata.MetaDataDescriptorImpl;
 import com.tc.platform.PlatformService;
@@ -80,6 +93,7 @@ import com.terracotta.toolkit.TerracottaToolkit;
 import com.terracotta.toolkit.bulkload.BufferedOperation;
 import com.terracotta.toolkit.collections.servermap.api.ServerMapLocalStoreFactory;
 import com.terracotta.toolkit.factory.impl.ToolkitCacheDistributedTypeFactory;
+import com.terracotta.toolkit.object.serialization.CompressionCodec;
 import com.terracotta.toolkit.object.serialization.CustomLifespanSerializedMapValue;
 import com.terracotta.toolkit.object.serialization.SerializationStrategy;
 import com.terracotta.toolkit.object.serialization.SerializedMapValue;
@@ -92,9 +106,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -119,6 +137,7 @@ public class ServerMapTest {
     when(platformService.getTCProperties()).thenReturn(tcProperties);
     serializationStrategy = mock(SerializationStrategy.class);
     when(serializationStrategy.serialize(any(), anyBoolean())).thenReturn(new byte[1]);
+    when(serializationStrategy.serialize(any(), (CompressionCodec) any())).thenReturn(new byte[1]);
     when(platformService.lookupRegisteredObjectByName(TerracottaToolkit.TOOLKIT_SERIALIZER_REGISTRATION_NAME, SerializationStrategy.class))
         .thenReturn(serializationStrategy);
     when(platformService.createMetaDataDescriptor(anyString())).then(new Answer<Object>() {
@@ -276,6 +295,165 @@ public class ServerMapTest {
     assertThat(result, hasEntry("f", null));
   }
 
+  @Test
+  public void testPutAllNoReturnLogsBatchUnderOneLockSet() throws Exception {
+    ServerMap<String, String> serverMap = getStrongServerMap();
+    Object lockA = serverMap.getLockIdForKey("a");
+    Object lockB = serverMap.getLockIdForKey("b");
+    Map<String, String> entries = new HashMap<String, String>();
+    entries.put("a", "1");
+    entries.put("b", "2");
+
+    serverMap.putAllNoReturn(entries, 100, ToolkitConfigFields.NO_MAX_TTI_SECONDS,
+                             ToolkitConfigFields.NO_MAX_TTL_SECONDS);
+
+    ArgumentCaptor<List> lockIDs = ArgumentCaptor.forClass(List.class);
+    InOrder inOrder = inOrder(platformService, tcObjectServerMap);
+    inOrder.verify(platformService).beginLocks(lockIDs.capture(), any(LockLevel.class));
+    inOrder.verify(tcObjectServerMap, times(2)).doLogicalPut(any(), anyString(), any());
+    inOrder.verify(platformService, times(2)).commitLock(any(), any(LockLevel.class));
+    assertEquals(Sets.newHashSet(lockA, lockB), new HashSet<Object>(lockIDs.getValue()));
+
+    // each change is logged under its own key lock, which is what the local cache entry is pinned to
+    verify(tcObjectServerMap).doLogicalPut(eq(lockA), eq("a"), any());
+    verify(tcObjectServerMap).doLogicalPut(eq(lockB), eq("b"), any());
+    verify(platformService).commitLock(eq(lockA), any(LockLevel.class));
+    verify(platformService).commitLock(eq(lockB), any(LockLevel.class));
+    verify(platformService, never()).beginLock(any(), any(LockLevel.class));
+  }
+
+  @Test
+  public void testPutAllNoReturnPropagatesCreateTimeAndCustomLifespan() throws Exception {
+    ServerMap<String, String> serverMap = getStrongServerMap();
+    Map<String, String> entries = new HashMap<String, String>();
+    entries.put("a", "1");
+    entries.put("b", "2");
+
+    serverMap.putAllNoReturn(entries, 100, 10, 20);
+
+    ArgumentCaptor<Object> values = ArgumentCaptor.forClass(Object.class);
+    verify(tcObjectServerMap, times(2)).doLogicalPut(any(), anyString(), values.capture());
+    for (Object value : values.getAllValues()) {
+      CustomLifespanSerializedMapValue smv = (CustomLifespanSerializedMapValue) value;
+      assertEquals(100, smv.getCreateTime());
+      assertEquals(10L, smv.getTimeToIdle());
+      assertEquals(20L, smv.getTimeToLive());
+    }
+  }
+
+  @Test
+  public void testPutAllNoReturnOnEventualMapStaysUnlocked() throws Exception {
+    ServerMap<String, String> serverMap = getServerMap();
+    Map<String, String> entries = new HashMap<String, String>();
+    entries.put("a", "1");
+    entries.put("b", "2");
+
+    serverMap.putAllNoReturn(entries, 100, 10, 20);
+
+    verify(tcObjectServerMap).doLogicalPutUnlocked(eq(serverMap), eq("a"), any());
+    verify(tcObjectServerMap).doLogicalPutUnlocked(eq(serverMap), eq("b"), any());
+    verify(platformService, never()).beginLocks(any(List.class), any(LockLevel.class));
+    verify(tcObjectServerMap, never()).doLogicalPut(any(), any(), any());
+  }
+
+  @Test
+  public void testRemoveAllNoReturnRemovesBatchUnderOneLockSet() throws Exception {
+    ServerMap<String, String> serverMap = getStrongServerMap();
+    Object lockA = serverMap.getLockIdForKey("a");
+    Object lockB = serverMap.getLockIdForKey("b");
+
+    serverMap.removeAllNoReturn(Arrays.asList("a", "b", new Object()));
+
+    ArgumentCaptor<List> lockIDs = ArgumentCaptor.forClass(List.class);
+    InOrder inOrder = inOrder(platformService, tcObjectServerMap);
+    inOrder.verify(platformService).beginLocks(lockIDs.capture(), any(LockLevel.class));
+    inOrder.verify(tcObjectServerMap, times(2)).doLogicalRemove(eq(serverMap), any(), any());
+    inOrder.verify(platformService, times(2)).commitLock(any(), any(LockLevel.class));
+    assertEquals(Sets.newHashSet(lockA, lockB), new HashSet<Object>(lockIDs.getValue()));
+
+    // the local cache entry of each key is invalidated under that key's lock
+    verify(tcObjectServerMap).doLogicalRemove(serverMap, lockA, "a");
+    verify(tcObjectServerMap).doLogicalRemove(serverMap, lockB, "b");
+    verify(platformService, never()).beginLock(any(), any(LockLevel.class));
+  }
+
+  @Test
+  public void testRemoveAllNoReturnWithoutLiteralKeysTakesNoLocks() throws Exception {
+    ServerMap<String, String> serverMap = getStrongServerMap();
+
+    serverMap.removeAllNoReturn(Arrays.asList(new Object(), new Object()));
+
+    verify(platformService, never()).beginLocks(any(List.class), any(LockLevel.class));
+    verify(tcObjectServerMap, never()).doLogicalRemove(any(TCServerMap.class), any(), any());
+  }
+
+  @Test
+  public void testGetAsyncHitIsResolvedOnce() throws Exception {
+    ServerMap<String, String> serverMap = getServerMap();
+    SerializedMapValue<String> smv = mockSerializedMapValue("1");
+    when(tcObjectServerMap.getValueUnlockedAsync(serverMap, "a")).thenReturn(Futures.<Object> immediateFuture(smv));
+
+    Future<String> future = serverMap.getAsync("a", false);
+    assertTrue(future.isDone());
+    assertEquals("1", future.get());
+    assertEquals("1", future.get(1, TimeUnit.SECONDS));
+    verify(smv, times(1)).getDeserializedValue(any(SerializationStrategy.class), anyBoolean(), isNull(), any(),
+                                               anyBoolean());
+  }
+
+  @Test
+  public void testGetAsyncMiss() throws Exception {
+    ServerMap<String, String> serverMap = getServerMap();
+    when(tcObjectServerMap.getValueUnlockedAsync(serverMap, "a")).thenReturn(Futures.immediateFuture(null));
+
+    assertNull(serverMap.getAsync("a", false).get());
+  }
+
+  @Test
+  public void testGetAsyncExpiredEntryIsExpiredOnce() throws Exception {
+    ServerMap<String, String> serverMap = getServerMap();
+    SerializedMapValue<String> smv = mockSerializedMapValue("1", true);
+    when(tcObjectServerMap.getValueUnlockedAsync(serverMap, "a")).thenReturn(Futures.<Object> immediateFuture(smv));
+
+    Future<String> future = serverMap.getAsync("a", false);
+    assertNull(future.get());
+    assertNull(future.get());
+    verify(tcObjectServerMap, times(1)).doLogicalExpireUnlocked(serverMap, "a", smv);
+    verify(smv, never()).getDeserializedValue(any(SerializationStrategy.class), anyBoolean(), any(), any(),
+                                              anyBoolean());
+  }
+
+  @Test
+  public void testGetAsyncCancellation() throws Exception {
+    ServerMap<String, String> serverMap = getServerMap();
+    SettableFuture<Object> response = SettableFuture.create();
+    when(tcObjectServerMap.getValueUnlockedAsync(serverMap, "a")).thenReturn(response);
+
+    Future<String> future = serverMap.getAsync("a", false);
+    assertFalse(future.isDone());
+    assertTrue(future.cancel(true));
+    assertTrue(future.isCancelled());
+    assertTrue(response.isCancelled());
+    try {
+      future.get();
+      fail();
+    } catch (CancellationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testGetAsyncOnStrongMapReadsLocked() throws Exception {
+    ServerMap<String, String> serverMap = getStrongServerMap();
+    SerializedMapValue<String> smv = mockSerializedMapValue("1");
+    when(tcObjectServerMap.getValue(eq(serverMap), any(), eq("a"))).thenReturn(smv);
+
+    Future<String> future = serverMap.getAsync("a", false);
+    assertTrue(future.isDone());
+    assertEquals("1", future.get());
+    verify(tcObjectServerMap, never()).getValueUnlockedAsync(any(TCServerMap.class), any());
+  }
+
   private ServerMap getServerMap() {
     ServerMap serverMap = new ServerMap(configuration, "foo", platformService);
     serverMap.__tc_managed(tcObjectServerMap);
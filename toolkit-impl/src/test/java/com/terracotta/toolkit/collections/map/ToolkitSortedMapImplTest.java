@@ -0,0 +1,152 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.collections.map;
+
+import com.tc.object.ObjectID;
+import com.tc.object.TCObject;
+import com.tc.platform.PlatformService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ToolkitSortedMapImplTest {
+  private final Object                          resolveLock = new Object();
+  private final ExecutorService                 executor    = Executors.newCachedThreadPool();
+  private ToolkitSortedMapImpl<String, String> map;
+
+  @Before
+  public void setUp() {
+    map = new ToolkitSortedMapImpl<String, String>(mock(PlatformService.class));
+    TCObject tcObject = mock(TCObject.class);
+    when(tcObject.getResolveLock()).thenReturn(resolveLock);
+    when(tcObject.getObjectID()).thenReturn(new ObjectID(1));
+    map.__tc_managed(tcObject);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testNavigationResolvesPendingChanges() {
+    map.internalPut("c", "3");
+    map.internalPut("a", "1");
+    map.internalPut("b", "2");
+
+    assertEquals("a", map.firstKey());
+    assertEquals("c", map.lastKey());
+    assertEquals(2, map.headMap("c").size());
+    assertEquals("b", map.subMap("b", "d").firstKey());
+    assertEquals("c", map.tailMap("b").lastKey());
+
+    map.internalRemove("a");
+    assertEquals("b", map.firstKey());
+    assertEquals("b", map.headMap("c").lastKey());
+  }
+
+  @Test(timeout = 30000)
+  public void testNavigationSkipsResolveLockWithNothingPending() throws Exception {
+    map.internalPut("a", "1");
+    map.internalPut("b", "2");
+    assertEquals("a", map.firstKey());
+
+    final CountDownLatch held = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Future<?> holder = holdResolveLock(held, release);
+    held.await();
+    try {
+      assertEquals("a", map.firstKey());
+      assertEquals("b", map.lastKey());
+      assertEquals(1, map.subMap("a", "b").size());
+      assertFalse(map.tailMap("a").isEmpty());
+    } finally {
+      release.countDown();
+      holder.get();
+    }
+  }
+
+  @Test(timeout = 30000)
+  public void testNavigationWaitsForPendingChanges() throws Exception {
+    map.internalPut("b", "2");
+    assertEquals("b", map.firstKey());
+
+    final CountDownLatch held = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Future<?> holder = holdResolveLock(held, release);
+    held.await();
+    map.internalPut("a", "1");
+    Future<String> firstKey = executor.submit(new Callable<String>() {
+      @Override
+      public String call() {
+        return map.firstKey();
+      }
+    });
+    try {
+      assertFalse(waitFor(firstKey, 500));
+    } finally {
+      release.countDown();
+      holder.get();
+    }
+    assertEquals("a", firstKey.get());
+  }
+
+  @Test
+  public void testInternalClearDropsPendingChanges() {
+    map.internalPut("a", "1");
+    assertEquals("a", map.firstKey());
+    map.internalPut("b", "2");
+    map.internalClear();
+
+    assertTrue(map.isEmpty());
+    assertTrue(map.tailMap("a").isEmpty());
+  }
+
+  private Future<?> holdResolveLock(final CountDownLatch held, final CountDownLatch release) {
+    return executor.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws InterruptedException {
+        synchronized (resolveLock) {
+          held.countDown();
+          release.await();
+        }
+        return null;
+      }
+    });
+  }
+
+  private static boolean waitFor(Future<?> future, long millis) throws InterruptedException {
+    long end = System.currentTimeMillis() + millis;
+    while (!future.isDone() && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    return future.isDone();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.concurrent.atomic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.terracotta.toolkit.concurrent.locks.ToolkitLock;
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+
+import com.terracotta.toolkit.collections.map.ToolkitCacheImpl;
+import com.terracotta.toolkit.concurrent.atomic.ToolkitAtomicLongImpl.ToolkitAtomicLongState;
+import com.terracotta.toolkit.mockl2.test.MockPlatformService;
+import com.terracotta.toolkit.util.ToolkitIDGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ToolkitAtomicLongImplTest {
+
+  private static final String                           NAME = "counter";
+  private static final long                             UID  = 42;
+
+  // what the server holds and what this node has cached locally, which can lag behind
+  private volatile ToolkitAtomicLongState               server;
+  private volatile ToolkitAtomicLongState               local;
+  private final AtomicInteger                           replaces = new AtomicInteger();
+
+  private ToolkitCacheImpl<String, ToolkitAtomicLongState> map;
+  private ToolkitLock                                   writeLock;
+  private ToolkitAtomicLongImpl                         atomicLong;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    server = new ToolkitAtomicLongState(UID, 0L);
+    local = server;
+    map = mock(ToolkitCacheImpl.class);
+    writeLock = mock(ToolkitLock.class);
+    ToolkitReadWriteLock rwLock = mock(ToolkitReadWriteLock.class);
+    when(rwLock.writeLock()).thenReturn(writeLock);
+    when(map.createLockForKey(NAME)).thenReturn(rwLock);
+    when(map.get(NAME)).thenAnswer(new Answer<ToolkitAtomicLongState>() {
+      @Override
+      public ToolkitAtomicLongState answer(InvocationOnMock invocation) {
+        local = server;
+        return server;
+      }
+    });
+    when(map.unlockedGet(eq(NAME), anyBoolean())).thenAnswer(new Answer<ToolkitAtomicLongState>() {
+      @Override
+      public ToolkitAtomicLongState answer(InvocationOnMock invocation) {
+        return local;
+      }
+    });
+    when(map.unlockedReplace(eq(NAME), any(ToolkitAtomicLongState.class), any(ToolkitAtomicLongState.class)))
+        .thenAnswer(new Answer<Boolean>() {
+          @Override
+          public Boolean answer(InvocationOnMock invocation) {
+            return replace((ToolkitAtomicLongState) invocation.getArguments()[1],
+                           (ToolkitAtomicLongState) invocation.getArguments()[2]);
+          }
+        });
+    ToolkitIDGenerator idGenerator = mock(ToolkitIDGenerator.class);
+    when(idGenerator.getId()).thenReturn(UID);
+    atomicLong = new ToolkitAtomicLongImpl(NAME, map, idGenerator, new MockPlatformService());
+  }
+
+  private synchronized boolean replace(ToolkitAtomicLongState expected, ToolkitAtomicLongState update) {
+    replaces.incrementAndGet();
+    if (server.equals(expected)) {
+      server = update;
+      local = update;
+      return true;
+    }
+    // a failed replace drops the stale local copy
+    local = server;
+    return false;
+  }
+
+  /**
+   * Another node swapped the value, this node still has the old one cached.
+   */
+  private synchronized void updateFromOtherNode(long value) {
+    server = new ToolkitAtomicLongState(UID, value);
+  }
+
+  @Test
+  public void testUpdatesDoNotTakeTheClusteredLock() {
+    assertEquals(1, atomicLong.incrementAndGet());
+    assertEquals(1, atomicLong.getAndAdd(10));
+    assertEquals(11, atomicLong.getAndSet(3));
+    atomicLong.set(5);
+    assertEquals(4, atomicLong.decrementAndGet());
+    assertEquals(4, atomicLong.get());
+    verify(writeLock, never()).lock();
+  }
+
+  @Test
+  public void testReadAfterConcurrentCas() {
+    updateFromOtherNode(7);
+    assertEquals(7, atomicLong.get());
+    assertEquals(7, atomicLong.longValue());
+    assertFalse(atomicLong.isDestroyed());
+  }
+
+  @Test
+  public void testUpdateRetriesOnStaleLocalCopy() {
+    updateFromOtherNode(7);
+    assertEquals(9, atomicLong.addAndGet(2));
+    assertEquals(2, replaces.get());
+    assertEquals(9, server.getLongValue());
+  }
+
+  @Test
+  public void testCompareAndSetWithStaleLocalCopy() {
+    updateFromOtherNode(7);
+    assertTrue(atomicLong.compareAndSet(7, 8));
+    assertEquals(8, server.getLongValue());
+  }
+
+  @Test
+  public void testCompareAndSetFailsOnCurrentValueOnly() {
+    updateFromOtherNode(7);
+    assertFalse(atomicLong.compareAndSet(0, 1));
+    assertEquals(7, server.getLongValue());
+    assertFalse(atomicLong.compareAndSet(6, 1));
+    assertEquals(7, server.getLongValue());
+  }
+
+  @Test
+  public void testConcurrentIncrements() throws Exception {
+    final int threads = 4;
+    final int increments = 1000;
+    List<Thread> workers = new ArrayList<Thread>();
+    for (int i = 0; i < threads; i++) {
+      Thread t = new Thread() {
+        @Override
+        public void run() {
+          for (int j = 0; j < increments; j++) {
+            atomicLong.incrementAndGet();
+          }
+        }
+      };
+      workers.add(t);
+      t.start();
+    }
+    for (Thread t : workers) {
+      t.join();
+    }
+    assertEquals(threads * increments, atomicLong.get());
+  }
+}
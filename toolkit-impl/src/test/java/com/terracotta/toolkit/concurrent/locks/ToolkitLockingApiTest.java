@@ -0,0 +1,75 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.concurrent.locks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.terracotta.toolkit.internal.concurrent.locks.ToolkitLockTypeInternal;
+
+import com.tc.object.locks.LockLevel;
+import com.terracotta.toolkit.mockl2.test.MockPlatformService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ToolkitLockingApiTest {
+
+  private final List<String> calls = new ArrayList<String>();
+
+  private final MockPlatformService service = new MockPlatformService() {
+    @Override
+    public void beginLocks(List<?> lockIDs, LockLevel level) {
+      // the lock manager takes the set in the given order and releases it itself on failure
+      for (Object lockID : lockIDs) {
+        if ("fail".equals(lockID)) { throw new IllegalStateException(); }
+      }
+      for (Object lockID : lockIDs) {
+        calls.add("lock " + lockID);
+      }
+    }
+
+    @Override
+    public void commitLock(Object lockID, LockLevel level) {
+      calls.add("unlock " + lockID);
+    }
+  };
+
+  @Test
+  public void testLocksInCanonicalOrderAndUnlocksInReverse() {
+    List<Object> locked = ToolkitLockingApi.lockAll(Arrays.<Object> asList("b", 7L, "a", -1L, "b", 7L),
+                                                    ToolkitLockTypeInternal.READ, service);
+    assertEquals(Arrays.<Object> asList(-1L, 7L, "a", "b"), locked);
+    ToolkitLockingApi.unlockAll(locked, ToolkitLockTypeInternal.READ, service);
+    assertEquals(Arrays.asList("lock -1", "lock 7", "lock a", "lock b", "unlock b", "unlock a", "unlock 7",
+                               "unlock -1"), calls);
+  }
+
+  @Test
+  public void testFailedLockSetIsNotReleasedAgain() {
+    try {
+      ToolkitLockingApi.lockAll(Arrays.<Object> asList("fail", "a", 1L), ToolkitLockTypeInternal.WRITE, service);
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(Collections.emptyList(), calls);
+  }
+}
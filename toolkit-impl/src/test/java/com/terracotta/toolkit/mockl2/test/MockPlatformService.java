@@ -339,6 +339,11 @@ public class MockPlatformService implements PlatformService {
     MockUtil.logInfo("begin lock lock id " + lockID + " - " + level);
   }
 
+  @Override
+  public void beginLocks(List<?> lockIDs, LockLevel level) {
+    MockUtil.logInfo("begin locks lock ids " + lockIDs + " - " + level);
+  }
+
   @Override
   public void beginAtomicTransaction(LockID lockID, LockLevel level) {
     throw new ImplementMe();
@@ -36,6 +36,7 @@ import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 public class MockTCObjectServerMap implements TCObjectServerMap<Object> {
 
@@ -367,11 +368,21 @@ public class MockTCObjectServerMap implements TCObjectServerMap<Object> {
     throw new ImplementMe();
   }
 
+  @Override
+  public Future<Object> getValueUnlockedAsync(TCServerMap serverMap, Object key) {
+    throw new ImplementMe();
+  }
+
   @Override
   public Map getAllValuesUnlocked(SetMultimap mapIdToKeysMap) {
     throw new ImplementMe();
   }
 
+  @Override
+  public Map getAllValuesLocked(SetMultimap mapIdToKeysMap, Map lockIDs) {
+    throw new ImplementMe();
+  }
+
   @Override
   public Set keySet(TCServerMap serverMap) {
     throw new ImplementMe();
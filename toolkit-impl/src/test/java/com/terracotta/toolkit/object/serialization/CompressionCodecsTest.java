@@ -0,0 +1,136 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.object.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.terracotta.toolkit.config.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class CompressionCodecsTest {
+
+  @Test
+  public void testLz4RoundTrip() throws Exception {
+    assertRoundTrips(CompressionCodecs.forName(Lz4BlockCompressionCodec.NAME), true);
+  }
+
+  @Test
+  public void testGzipRoundTrip() throws Exception {
+    assertRoundTrips(CompressionCodecs.forName(GzipCompressionCodec.NAME), false);
+  }
+
+  @Test
+  public void testDefaultIsGzip() {
+    assertEquals(GzipCompressionCodec.NAME, CompressionCodecs.getDefault().getName());
+    assertEquals(GzipCompressionCodec.NAME, CompressionCodecs.fromConfig(mock(Configuration.class)).getName());
+  }
+
+  @Test
+  public void testLz4IsOptIn() {
+    Configuration config = mock(Configuration.class);
+    when(config.hasField(CompressionCodecs.COMPRESSION_CODEC_FIELD_NAME)).thenReturn(true);
+    when(config.getString(CompressionCodecs.COMPRESSION_CODEC_FIELD_NAME)).thenReturn(Lz4BlockCompressionCodec.NAME);
+    assertEquals(Lz4BlockCompressionCodec.NAME, CompressionCodecs.fromConfig(config).getName());
+  }
+
+  @Test
+  public void testDefaultValuesReadableByLegacyReader() throws Exception {
+    byte[] incompressible = new byte[1024];
+    new Random(42).nextBytes(incompressible);
+    byte[][] values = { "value read by a node without codecs".getBytes("UTF-8"), incompressible, new byte[0] };
+    for (byte[] data : values) {
+      byte[] compressed = CompressionCodecs.compress(CompressionCodecs.getDefault(), data);
+      assertArrayEquals(data, readFully(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+      assertArrayEquals(data, readFully(CompressionCodecs.decompress(compressed)));
+    }
+  }
+
+  @Test
+  public void testCompressibleDataShrinks() throws Exception {
+    byte[] data = new byte[8192];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) "compressible value ".charAt(i % 19);
+    }
+    CompressionCodec codec = CompressionCodecs.forName(Lz4BlockCompressionCodec.NAME);
+    byte[] compressed = CompressionCodecs.compress(codec, data);
+    assertTrue(compressed.length < data.length / 10);
+    assertEquals(codec.getId(), compressed[0]);
+  }
+
+  @Test
+  public void testIncompressibleDataStoredRaw() throws Exception {
+    byte[] data = new byte[1024];
+    new Random(42).nextBytes(data);
+    byte[] compressed = CompressionCodecs.compress(CompressionCodecs.forName(Lz4BlockCompressionCodec.NAME), data);
+    assertEquals(data.length + 1, compressed.length);
+    assertEquals(CompressionCodecs.RAW_ID, compressed[0]);
+    assertArrayEquals(data, readFully(CompressionCodecs.decompress(compressed)));
+  }
+
+  @Test
+  public void testLegacyGzipValuesReadable() throws Exception {
+    byte[] data = "value written before codecs".getBytes("UTF-8");
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(baos);
+    gzip.write(data);
+    gzip.close();
+    assertArrayEquals(data, readFully(CompressionCodecs.decompress(baos.toByteArray())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownCodec() {
+    CompressionCodecs.forName("snappy-but-not-really");
+  }
+
+  private static void assertRoundTrips(CompressionCodec codec, boolean bounded) throws IOException {
+    Random random = new Random(7);
+    for (int i = 0; i < 500; i++) {
+      byte[] data = new byte[random.nextInt(i % 50 == 0 ? 100000 : 2000)];
+      int alphabet = 1 + random.nextInt(255);
+      for (int j = 0; j < data.length; j++) {
+        data[j] = (byte) random.nextInt(alphabet);
+      }
+      byte[] compressed = CompressionCodecs.compress(codec, data);
+      if (bounded) {
+        assertTrue(compressed.length <= data.length + 1);
+      }
+      assertArrayEquals(data, readFully(CompressionCodecs.decompress(compressed)));
+    }
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[512];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+}
@@ -165,6 +165,11 @@ public class ObjectStreamClassMappingTest {
       checkThreadAccess(level);
     }
 
+    @Override
+    public void beginLocks(List<?> lockIDs, LockLevel level) {
+      checkThreadAccess(level);
+    }
+
     @Override
     public void beginLockInterruptibly(Object obj, LockLevel level) {
       checkThreadAccess(level);
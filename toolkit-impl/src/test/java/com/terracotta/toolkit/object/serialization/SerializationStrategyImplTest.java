@@ -0,0 +1,245 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright Super iPaaS Integration LLC, an IBM Company 2024
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.terracotta.toolkit.object.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.tc.properties.TCProperties;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import com.terracotta.toolkit.mockl2.test.MockPlatformService;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamConstants;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+public class SerializationStrategyImplTest {
+
+  // shared so that strategies with and without the fast path see the same class mappings, like nodes of a cluster
+  private final SerializerMap serializerMap = new LocalSerializerMap();
+
+  @After
+  public void tearDown() {
+    TCProperties properties = TCPropertiesImpl.getProperties();
+    properties.setProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_VALUES_ENABLED, "false");
+    properties.setProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_KEYS_ENABLED, "false");
+    properties.setProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_EXTERNALIZABLE, "");
+  }
+
+  private SerializationStrategyImpl newStrategy(final boolean fastPath) {
+    TCProperties properties = TCPropertiesImpl.getProperties();
+    properties.setProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_VALUES_ENABLED, Boolean.toString(fastPath));
+    properties.setProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_KEYS_ENABLED, Boolean.toString(fastPath));
+    MockPlatformService platformService = new MockPlatformService() {
+      @Override
+      public TCProperties getTCProperties() {
+        return TCPropertiesImpl.getProperties();
+      }
+    };
+    return new SerializationStrategyImpl(platformService, serializerMap,
+                                         SerializationStrategyImplTest.class.getClassLoader());
+  }
+
+  @Test
+  public void testFastPathValuesRoundTrip() throws Exception {
+    SerializationStrategyImpl strategy = newStrategy(true);
+    for (Object value : sampleValues()) {
+      assertValueRoundTrips(strategy, value);
+    }
+  }
+
+  @Test
+  public void testFastPathIsSmallerThanObjectStream() throws Exception {
+    assertEquals(9, newStrategy(true).serialize(42L, false).length);
+    assertTrue(newStrategy(false).serialize(42L, false).length > 9);
+  }
+
+  @Test
+  public void testObjectStreamValuesReadableWithFastPathEnabled() throws Exception {
+    SerializationStrategyImpl legacy = newStrategy(false);
+    SerializationStrategyImpl fast = newStrategy(true);
+    for (Object value : sampleValues()) {
+      byte[] serialized = legacy.serialize(value, false);
+      assertEquivalent(value, fast.deserialize(serialized, false, false));
+      String key = legacy.serializeToString(value);
+      assertEquivalent(value, fast.deserializeFromString(key, false));
+    }
+  }
+
+  @Test
+  public void testFastPathKeysRoundTrip() throws Exception {
+    SerializationStrategyImpl strategy = newStrategy(true);
+    for (Object value : sampleValues()) {
+      if (value instanceof String) {
+        continue;
+      }
+      assertEquivalent(value, strategy.deserializeFromString(strategy.serializeToString(value), false));
+    }
+  }
+
+  @Test
+  public void testRegisteredExternalizable() throws Exception {
+    SerializationStrategyImpl strategy = newStrategy(true);
+    strategy.registerExternalizable(Point.class);
+    Point point = new Point(3, new ArrayList<Object>(Arrays.asList("nested", 1)));
+    Point copy = (Point) strategy.deserialize(strategy.serialize(point, true), true, false);
+    assertEquals(point.x, copy.x);
+    assertEquals(point.extra, copy.extra);
+  }
+
+  @Test
+  public void testConfiguredExternalizable() throws Exception {
+    Point point = new Point(3, new ArrayList<Object>(Arrays.asList("nested", 1)));
+    assertEquals(ObjectStreamConstants.STREAM_MAGIC >>> 8, newStrategy(true).serialize(point, false)[0] & 0xFF);
+
+    TCPropertiesImpl.getProperties().setProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_EXTERNALIZABLE,
+                                                 " java.lang.Object, " + Point.class.getName());
+    SerializationStrategyImpl strategy = newStrategy(true);
+    byte[] serialized = strategy.serialize(point, false);
+    assertTrue((ObjectStreamConstants.STREAM_MAGIC >>> 8) != (serialized[0] & 0xFF));
+    Point copy = (Point) newStrategy(false).deserialize(serialized, false, false);
+    assertEquals(point.x, copy.x);
+    assertEquals(point.extra, copy.extra);
+  }
+
+  @Test
+  public void testFastPathDisabledByDefault() throws Exception {
+    MockPlatformService platformService = new MockPlatformService() {
+      @Override
+      public TCProperties getTCProperties() {
+        return TCPropertiesImpl.getProperties();
+      }
+    };
+    SerializationStrategyImpl strategy = new SerializationStrategyImpl(platformService, serializerMap,
+                                                                       SerializationStrategyImplTest.class
+                                                                           .getClassLoader());
+    assertEquals(ObjectStreamConstants.STREAM_MAGIC >>> 8, strategy.serialize(42L, false)[0] & 0xFF);
+  }
+
+  @Test
+  public void testExternalizableWithWriteReplaceUsesObjectStream() throws Exception {
+    SerializationStrategyImpl strategy = newStrategy(true);
+    strategy.registerExternalizable(ReplacedPoint.class);
+    ReplacedPoint point = new ReplacedPoint(3, new ArrayList<Object>(Arrays.asList("nested", 1)));
+    byte[] serialized = strategy.serialize(point, false);
+    assertEquals(ObjectStreamConstants.STREAM_MAGIC >>> 8, serialized[0] & 0xFF);
+    Point copy = (Point) strategy.deserialize(serialized, false, false);
+    assertEquals(Point.class, copy.getClass());
+    assertEquals(point.x, copy.x);
+  }
+
+  @Test
+  public void testConfiguredExternalizableWithReadResolveUsesObjectStream() throws Exception {
+    TCPropertiesImpl.getProperties().setProperty(TCPropertiesConsts.TOOLKIT_SERIALIZATION_FASTPATH_EXTERNALIZABLE,
+                                                 ResolvedPoint.class.getName());
+    SerializationStrategyImpl strategy = newStrategy(true);
+    byte[] serialized = strategy.serialize(new ResolvedPoint(), false);
+    assertEquals(ObjectStreamConstants.STREAM_MAGIC >>> 8, serialized[0] & 0xFF);
+    assertSame(ResolvedPoint.INSTANCE, strategy.deserialize(serialized, false, false));
+  }
+
+  private static void assertValueRoundTrips(SerializationStrategyImpl strategy, Object value) throws Exception {
+    assertEquivalent(value, strategy.deserialize(strategy.serialize(value, false), false, false));
+    assertEquivalent(value, strategy.deserialize(strategy.serialize(value, true), true, false));
+  }
+
+  private static void assertEquivalent(Object expected, Object actual) {
+    if (expected != null && expected.getClass().isArray()) {
+      assertArrayEquals(new Object[] { expected }, new Object[] { actual });
+    } else {
+      assertEquals(expected, actual);
+    }
+  }
+
+  private static List<Object> sampleValues() {
+    char[] longString = new char[40000];
+    Arrays.fill(longString, '\u4e16');
+    return Arrays.<Object> asList(Long.MIN_VALUE, 42, (short) 7, (byte) -1, 'c', Boolean.TRUE, 1.5f, -2.5d, "value",
+                                  "unpaired \ud800 surrogate", new String(longString), new byte[] { 1, 2, 3 },
+                                  new short[] { 4 }, new int[] { 5, 6 }, new long[] { 7 }, new char[] { 'x' },
+                                  new boolean[] { true, false }, new float[] { 1f }, new double[] { 2d },
+                                  UUID.randomUUID(), new Date(), new Timestamp(1234L),
+                                  new ArrayList<Object>(Arrays.asList(1, "two")));
+  }
+
+  public static class Point implements Externalizable {
+    int          x;
+    List<Object> extra;
+
+    public Point() {
+      //
+    }
+
+    Point(int x, List<Object> extra) {
+      this.x = x;
+      this.extra = extra;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+      out.writeInt(x);
+      out.writeObject(extra);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+      x = in.readInt();
+      extra = (List<Object>) in.readObject();
+    }
+  }
+
+  public static class ReplacedPoint extends Point {
+    public ReplacedPoint() {
+      //
+    }
+
+    ReplacedPoint(int x, List<Object> extra) {
+      super(x, extra);
+    }
+
+    private Object writeReplace() {
+      return new Point(x, extra);
+    }
+  }
+
+  public static class ResolvedPoint extends Point {
+    static final ResolvedPoint INSTANCE = new ResolvedPoint();
+
+    public ResolvedPoint() {
+      //
+    }
+
+    private Object readResolve() {
+      return INSTANCE;
+    }
+  }
+}